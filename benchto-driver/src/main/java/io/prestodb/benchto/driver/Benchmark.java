@@ -38,14 +38,27 @@ public class Benchmark
     private int runs;
     private int prewarmRuns;
     private int concurrency;
-    private List<String> beforeBenchmarkMacros;
-    private List<String> afterBenchmarkMacros;
-    private List<String> beforeExecutionMacros;
-    private List<String> afterExecutionMacros;
+    private List<String> beforeBenchmarkMacros = ImmutableList.of();
+    private List<String> afterBenchmarkMacros = ImmutableList.of();
+    private List<String> beforeExecutionMacros = ImmutableList.of();
+    private List<String> afterExecutionMacros = ImmutableList.of();
     private Map<String, String> variables;
     private String uniqueName;
+    private boolean sharedPrewarmed;
     private Optional<Duration> frequency;
     private boolean throughputTest;
+    private boolean preparedStatements;
+    private Map<String, String> sessionProperties = ImmutableMap.of();
+    private Optional<String> isolationGroup = Optional.empty();
+    private Optional<Duration> queryTimeout = Optional.empty();
+    private boolean steadyStatePrewarm;
+    private List<String> cacheDropMacros = ImmutableList.of();
+    private int warmRuns = 1;
+    private List<QueryClass> queryClasses = ImmutableList.of();
+    private List<Integer> loadSteps = ImmutableList.of();
+    private Optional<Duration> stepDuration = Optional.empty();
+    private Optional<Duration> soakDuration = Optional.empty();
+    private Duration soakWindow = Duration.ofMinutes(1);
 
     private Benchmark()
     {
@@ -66,6 +79,19 @@ public class Benchmark
         this.uniqueName = uniqueName;
     }
 
+    /**
+     * All queries of the benchmark were already prewarmed by shared prewarm, so its own prewarm runs are redundant.
+     */
+    public boolean isSharedPrewarmed()
+    {
+        return sharedPrewarmed;
+    }
+
+    public void setSharedPrewarmed(boolean sharedPrewarmed)
+    {
+        this.sharedPrewarmed = sharedPrewarmed;
+    }
+
     public String getSequenceId()
     {
         return sequenceId;
@@ -154,6 +180,120 @@ public class Benchmark
         return throughputTest;
     }
 
+    /**
+     * Queries are executed as prepared statements with their bind values, each statement prepared once per connection.
+     */
+    public boolean isPreparedStatements()
+    {
+        return preparedStatements;
+    }
+
+    /**
+     * Session properties of connections executing queries of the benchmark, unless overridden by properties of a query.
+     */
+    public Map<String, String> getSessionProperties()
+    {
+        return sessionProperties;
+    }
+
+    /**
+     * Benchmarks of different isolation groups do not interfere with each other and may be executed in parallel.
+     * Unless set explicitly, benchmarks are isolated by data source.
+     */
+    public String getIsolationGroup()
+    {
+        return isolationGroup.orElse(dataSource);
+    }
+
+    public List<String> getCacheDropMacros()
+    {
+        return cacheDropMacros;
+    }
+
+    /**
+     * Each run drops caches with {@link #getCacheDropMacros()} and executes a query once with cold caches
+     * and then {@link #getWarmRuns()} times with warm caches.
+     */
+    public boolean isColdWarmPaired()
+    {
+        return !cacheDropMacros.isEmpty();
+    }
+
+    public int getWarmRuns()
+    {
+        return warmRuns;
+    }
+
+    /**
+     * Number of query executions in a single run.
+     */
+    public int getExecutionsPerRun()
+    {
+        return isColdWarmPaired() ? 1 + warmRuns : 1;
+    }
+
+    public List<QueryClass> getQueryClasses()
+    {
+        return queryClasses;
+    }
+
+    /**
+     * Streams of all {@link #getQueryClasses()} run at once, each executing queries of its class.
+     */
+    public boolean isMixedWorkload()
+    {
+        return !queryClasses.isEmpty();
+    }
+
+    /**
+     * Concurrency of consecutive steps of a step-load benchmark, each held for {@link #getStepDuration()}.
+     */
+    public List<Integer> getLoadSteps()
+    {
+        return loadSteps;
+    }
+
+    public boolean isStepLoad()
+    {
+        return !loadSteps.isEmpty();
+    }
+
+    public Optional<Duration> getStepDuration()
+    {
+        return stepDuration;
+    }
+
+    /**
+     * Soak benchmarks run their queries for {@link #getSoakDuration()}, reporting aggregates of each {@link #getSoakWindow()} as they happen.
+     */
+    public boolean isSoak()
+    {
+        return soakDuration.isPresent();
+    }
+
+    public Optional<Duration> getSoakDuration()
+    {
+        return soakDuration;
+    }
+
+    public Duration getSoakWindow()
+    {
+        return soakWindow;
+    }
+
+    public Optional<Duration> getQueryTimeout()
+    {
+        return queryTimeout;
+    }
+
+    /**
+     * Prewarm runs stop once their durations are stable, in which case {@link #getPrewarmRuns()} is the maximum number of them.
+     */
+    public boolean isSteadyStatePrewarm()
+    {
+        return steadyStatePrewarm;
+    }
+
     @Override
     public String toString()
     {
@@ -168,9 +308,21 @@ public class Benchmark
                         .collect(Collectors.joining(", ")))
                 .add("runs", runs)
                 .add("prewarmRuns", prewarmRuns)
+                .add("steadyStatePrewarm", steadyStatePrewarm)
+                .add("cacheDropMacros", cacheDropMacros)
+                .add("warmRuns", warmRuns)
                 .add("concurrency", concurrency)
+                .add("queryClasses", queryClasses)
+                .add("loadSteps", loadSteps)
+                .add("stepDuration", stepDuration)
+                .add("soakDuration", soakDuration)
+                .add("soakWindow", soakWindow)
                 .add("throughputTest", throughputTest)
+                .add("preparedStatements", preparedStatements)
+                .add("sessionProperties", sessionProperties)
+                .add("isolationGroup", isolationGroup)
                 .add("frequency", frequency)
+                .add("queryTimeout", queryTimeout)
                 .add("beforeBenchmarkMacros", beforeBenchmarkMacros)
                 .add("afterBenchmarkMacros", afterBenchmarkMacros)
                 .add("beforeExecutionMacros", beforeExecutionMacros)
@@ -203,7 +355,19 @@ public class Benchmark
                 Objects.equal(afterExecutionMacros, benchmark.afterExecutionMacros) &&
                 Objects.equal(variables, benchmark.variables) &&
                 Objects.equal(frequency, benchmark.frequency) &&
-                Objects.equal(throughputTest, benchmark.throughputTest);
+                Objects.equal(throughputTest, benchmark.throughputTest) &&
+                Objects.equal(preparedStatements, benchmark.preparedStatements) &&
+                Objects.equal(sessionProperties, benchmark.sessionProperties) &&
+                Objects.equal(isolationGroup, benchmark.isolationGroup) &&
+                Objects.equal(queryTimeout, benchmark.queryTimeout) &&
+                Objects.equal(steadyStatePrewarm, benchmark.steadyStatePrewarm) &&
+                Objects.equal(cacheDropMacros, benchmark.cacheDropMacros) &&
+                Objects.equal(warmRuns, benchmark.warmRuns) &&
+                Objects.equal(queryClasses, benchmark.queryClasses) &&
+                Objects.equal(loadSteps, benchmark.loadSteps) &&
+                Objects.equal(stepDuration, benchmark.stepDuration) &&
+                Objects.equal(soakDuration, benchmark.soakDuration) &&
+                Objects.equal(soakWindow, benchmark.soakWindow);
     }
 
     @Override
@@ -223,7 +387,19 @@ public class Benchmark
                 afterExecutionMacros,
                 variables,
                 frequency,
-                throughputTest);
+                throughputTest,
+                preparedStatements,
+                sessionProperties,
+                isolationGroup,
+                queryTimeout,
+                steadyStatePrewarm,
+                cacheDropMacros,
+                warmRuns,
+                queryClasses,
+                loadSteps,
+                stepDuration,
+                soakDuration,
+                soakWindow);
     }
 
     public static class BenchmarkBuilder
@@ -311,6 +487,75 @@ public class Benchmark
             return this;
         }
 
+        public BenchmarkBuilder withPreparedStatements(boolean preparedStatements)
+        {
+            this.benchmark.preparedStatements = preparedStatements;
+            return this;
+        }
+
+        public BenchmarkBuilder withSessionProperties(Map<String, String> sessionProperties)
+        {
+            this.benchmark.sessionProperties = ImmutableMap.copyOf(sessionProperties);
+            return this;
+        }
+
+        public BenchmarkBuilder withIsolationGroup(Optional<String> isolationGroup)
+        {
+            this.benchmark.isolationGroup = isolationGroup;
+            return this;
+        }
+
+        public BenchmarkBuilder withCacheDropMacros(List<String> cacheDropMacros)
+        {
+            this.benchmark.cacheDropMacros = ImmutableList.copyOf(cacheDropMacros);
+            return this;
+        }
+
+        public BenchmarkBuilder withWarmRuns(int warmRuns)
+        {
+            checkArgument(warmRuns >= 1, "Warm runs must be greater or equal 1");
+            this.benchmark.warmRuns = warmRuns;
+            return this;
+        }
+
+        public BenchmarkBuilder withSteadyStatePrewarm(boolean steadyStatePrewarm)
+        {
+            this.benchmark.steadyStatePrewarm = steadyStatePrewarm;
+            return this;
+        }
+
+        public BenchmarkBuilder withQueryClasses(List<QueryClass> queryClasses)
+        {
+            this.benchmark.queryClasses = ImmutableList.copyOf(queryClasses);
+            return this;
+        }
+
+        public BenchmarkBuilder withLoadSteps(List<Integer> loadSteps, Optional<Duration> stepDuration)
+        {
+            checkArgument(loadSteps.isEmpty() || stepDuration.isPresent(), "Step duration must be set for step-load benchmarks");
+            for (int step = 0; step < loadSteps.size(); step++) {
+                checkArgument(loadSteps.get(step) >= 1, "Concurrency of load steps must be greater or equal 1");
+                checkArgument(step == 0 || loadSteps.get(step) > loadSteps.get(step - 1), "Concurrency of load steps must be increasing");
+            }
+            this.benchmark.loadSteps = ImmutableList.copyOf(loadSteps);
+            this.benchmark.stepDuration = stepDuration;
+            return this;
+        }
+
+        public BenchmarkBuilder withSoak(Optional<Duration> soakDuration, Duration soakWindow)
+        {
+            checkArgument(!soakWindow.isNegative() && !soakWindow.isZero(), "Soak window must be positive");
+            this.benchmark.soakDuration = soakDuration;
+            this.benchmark.soakWindow = soakWindow;
+            return this;
+        }
+
+        public BenchmarkBuilder withQueryTimeout(Optional<Duration> queryTimeout)
+        {
+            this.benchmark.queryTimeout = queryTimeout;
+            return this;
+        }
+
         public Benchmark build()
         {
             return benchmark;
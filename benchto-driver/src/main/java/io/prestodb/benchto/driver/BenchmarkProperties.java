@@ -88,6 +88,76 @@ public class BenchmarkProperties
     @Value("${frequencyCheckEnabled:true}")
     private String frequencyCheckEnabled;
 
+    /**
+     * When time limit is set, benchmarks are ordered by their priority and estimated cost rather than by name.
+     * Requires a benchmark service which serves execution duration summaries.
+     */
+    @Value("${timeLimitSchedulingEnabled:false}")
+    private boolean timeLimitSchedulingEnabled;
+
+    /**
+     * Ratio of mean execution duration of the latest run to the one of runs before it, above which a benchmark is considered regressed.
+     */
+    @Value("${regressionThreshold:1.1}")
+    private double regressionThreshold;
+
+    /**
+     * Maximum number of isolation groups whose benchmarks are executed at the same time.
+     */
+    @Value("${parallelGroups:1}")
+    private int parallelGroups;
+
+    /**
+     * Maximum number of prewarm runs of benchmarks which prewarm until durations of their runs are stable ({@code prewarm-runs: auto}).
+     */
+    @Value("${maxPrewarmRuns:10}")
+    private int maxPrewarmRuns;
+
+    /**
+     * Number of the latest prewarm runs whose durations have to be stable.
+     */
+    @Value("${prewarmStableRuns:3}")
+    private int prewarmStableRuns;
+
+    /**
+     * Maximum difference between durations of the stable prewarm runs, relative to the shortest one.
+     */
+    @Value("${prewarmStabilityThreshold:0.05}")
+    private double prewarmStabilityThreshold;
+
+    /**
+     * Step of a step-load benchmark is past the knee point when its 90th percentile of query durations exceeds
+     * the one of the first step by this factor.
+     */
+    @Value("${stepLoadKneeLatencyFactor:2.0}")
+    private double stepLoadKneeLatencyFactor;
+
+    /**
+     * Soak benchmark is flagged as degraded when its throughput trend falls or its latency trend rises by more than
+     * this fraction over the windows so far.
+     */
+    @Value("${soakDegradationThreshold:0.1}")
+    private double soakDegradationThreshold;
+
+    /**
+     * Minimum number of windows of a soak benchmark before it can be flagged as degraded.
+     */
+    @Value("${soakTrendMinWindows:5}")
+    private int soakTrendMinWindows;
+
+    /**
+     * Distinct queries of all benchmarks are prewarmed once, before any benchmark is executed, and benchmarks
+     * which got all their queries prewarmed this way skip their own prewarm runs.
+     */
+    @Value("${sharedPrewarmEnabled:false}")
+    private boolean sharedPrewarmEnabled;
+
+    /**
+     * Maximum number of queries prewarmed at the same time against a single data source during shared prewarm.
+     */
+    @Value("${sharedPrewarmConcurrency:4}")
+    private int sharedPrewarmConcurrency;
+
     @Autowired
     private GraphiteProperties graphiteProperties;
 
@@ -166,7 +236,18 @@ public class BenchmarkProperties
                 .add("executionSequenceId", executionSequenceId)
                 .add("environmentName", environmentName)
                 .add("graphiteProperties", graphiteProperties)
-                .add("frequencyCheck", frequencyCheckEnabled);
+                .add("frequencyCheck", frequencyCheckEnabled)
+                .add("parallelGroups", parallelGroups)
+                .add("timeLimitScheduling", timeLimitSchedulingEnabled)
+                .add("regressionThreshold", regressionThreshold)
+                .add("maxPrewarmRuns", maxPrewarmRuns)
+                .add("prewarmStableRuns", prewarmStableRuns)
+                .add("prewarmStabilityThreshold", prewarmStabilityThreshold)
+                .add("stepLoadKneeLatencyFactor", stepLoadKneeLatencyFactor)
+                .add("soakDegradationThreshold", soakDegradationThreshold)
+                .add("soakTrendMinWindows", soakTrendMinWindows)
+                .add("sharedPrewarmEnabled", sharedPrewarmEnabled)
+                .add("sharedPrewarmConcurrency", sharedPrewarmConcurrency);
         addForToStringOptionalField(toStringHelper, "activeBenchmarks", getActiveBenchmarks());
         addForToStringOptionalField(toStringHelper, "activeVariables", getActiveVariables());
         addForToStringOptionalField(toStringHelper, "beforeAllMacros", getBeforeAllMacros());
@@ -201,6 +282,61 @@ public class BenchmarkProperties
         return parseBoolean(frequencyCheckEnabled);
     }
 
+    public boolean isTimeLimitSchedulingEnabled()
+    {
+        return timeLimitSchedulingEnabled;
+    }
+
+    public double getRegressionThreshold()
+    {
+        return regressionThreshold;
+    }
+
+    public int getParallelGroups()
+    {
+        return parallelGroups;
+    }
+
+    public int getMaxPrewarmRuns()
+    {
+        return maxPrewarmRuns;
+    }
+
+    public int getPrewarmStableRuns()
+    {
+        return prewarmStableRuns;
+    }
+
+    public double getPrewarmStabilityThreshold()
+    {
+        return prewarmStabilityThreshold;
+    }
+
+    public double getStepLoadKneeLatencyFactor()
+    {
+        return stepLoadKneeLatencyFactor;
+    }
+
+    public double getSoakDegradationThreshold()
+    {
+        return soakDegradationThreshold;
+    }
+
+    public int getSoakTrendMinWindows()
+    {
+        return soakTrendMinWindows;
+    }
+
+    public boolean isSharedPrewarmEnabled()
+    {
+        return sharedPrewarmEnabled;
+    }
+
+    public int getSharedPrewarmConcurrency()
+    {
+        return sharedPrewarmConcurrency;
+    }
+
     private boolean parseBoolean(String booleanString)
     {
         if (booleanString.equalsIgnoreCase(Boolean.TRUE.toString())) {
@@ -122,7 +122,13 @@ public class DriverApp
         addOption(options, "profile", "PROFILE", "configuration profile", "none");
         addOption(options, "profiles.directory", "PROFILES_DIRECTORY", "configuration profiles directory", "none");
         addOption(options, "frequencyCheckEnabled", "boolean", "if set no fresh benchmark will be executed", "true");
+        addOption(options, "parallelGroups", "NUMBER", "number of benchmark isolation groups executed in parallel", "1");
+        addOption(options, "timeLimitSchedulingEnabled", "boolean", "if set benchmarks are ordered by priority and estimated cost when time limit is set", "false");
         addOption(options, "benchmark-service.url", "String", "URL of Benchto Service", "http://localhost:8080");
+        addOption(options, "distributed.role", "NONE|COORDINATOR|WORKER", "role of this driver in a distributed throughput test", "NONE");
+        addOption(options, "distributed.workers", "NUMBER", "number of workers the coordinator waits for", "0");
+        addOption(options, "distributed.coordinator.port", "PORT", "port the coordinator listens on", "8099");
+        addOption(options, "distributed.coordinator.url", "URL", "URL of the coordinator a worker registers with", "none");
         options.addOption("h", "help", false, "Display help message.");
         return options;
     }
@@ -75,6 +75,18 @@ public abstract class Measurable
             return (B) this;
         }
 
+        /**
+         * Sets the times of a measurement taken elsewhere, by another driver process.
+         */
+        public B withTimes(ZonedDateTime utcStart, ZonedDateTime utcEnd, Duration duration)
+        {
+            object.start = 0;
+            object.end = duration.toNanos();
+            object.utcStart = utcStart;
+            object.utcEnd = utcEnd;
+            return (B) this;
+        }
+
         public T build()
         {
             return object;
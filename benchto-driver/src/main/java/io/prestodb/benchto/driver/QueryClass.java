@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Queries of a mixed workload benchmark executed by their own concurrency streams against their own data source,
+ * at the same time as queries of other classes of the benchmark.
+ */
+public class QueryClass
+{
+    private final String name;
+    private final String dataSource;
+    private final List<Query> queries;
+    private final int concurrency;
+    private final int weight;
+    private final Optional<Double> arrivalRate;
+
+    public QueryClass(String name, String dataSource, List<Query> queries, int concurrency, int weight, Optional<Double> arrivalRate)
+    {
+        checkArgument(!queries.isEmpty(), "Query class %s has no queries", name);
+        checkArgument(concurrency >= 1, "Concurrency must be greater or equal 1");
+        checkArgument(weight >= 1, "Weight must be greater or equal 1");
+        checkArgument(arrivalRate.map(rate -> rate > 0).orElse(true), "Arrival rate must be positive");
+        this.name = requireNonNull(name);
+        this.dataSource = requireNonNull(dataSource);
+        this.queries = ImmutableList.copyOf(queries);
+        this.concurrency = concurrency;
+        this.weight = weight;
+        this.arrivalRate = requireNonNull(arrivalRate);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getDataSource()
+    {
+        return dataSource;
+    }
+
+    public List<Query> getQueries()
+    {
+        return queries;
+    }
+
+    public int getConcurrency()
+    {
+        return concurrency;
+    }
+
+    /**
+     * Each stream of the class executes its queries weight times per benchmark run.
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Number of queries per second started by all streams of the class. Unless set, each stream starts
+     * the next query as soon as the previous one finishes.
+     */
+    public Optional<Double> getArrivalRate()
+    {
+        return arrivalRate;
+    }
+
+    /**
+     * Time between starts of consecutive queries of a single stream which sustains the arrival rate.
+     */
+    public Optional<Duration> getStreamArrivalInterval()
+    {
+        return arrivalRate.map(rate -> Duration.ofNanos((long) (SECONDS.toNanos(1) * concurrency / rate)));
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("name", name)
+                .add("dataSource", dataSource)
+                .add("queries", queries.stream()
+                        .map(Query::getName)
+                        .collect(Collectors.joining(", ")))
+                .add("concurrency", concurrency)
+                .add("weight", weight)
+                .add("arrivalRate", arrivalRate)
+                .toString();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryClass queryClass = (QueryClass) o;
+        return Objects.equal(concurrency, queryClass.concurrency) &&
+                Objects.equal(weight, queryClass.weight) &&
+                Objects.equal(name, queryClass.name) &&
+                Objects.equal(dataSource, queryClass.dataSource) &&
+                Objects.equal(queries, queryClass.queries) &&
+                Objects.equal(arrivalRate, queryClass.arrivalRate);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(name, dataSource, queries, concurrency, weight, arrivalRate);
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.distributed;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Client of the {@link DistributedCoordinator} used by workers, together with the messages exchanged between them.
+ */
+@Component
+public class CoordinatorClient
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoordinatorClient.class);
+
+    private final RestTemplate restTemplate;
+    private final DistributedProperties properties;
+
+    @Autowired
+    public CoordinatorClient(RestTemplate restTemplate, DistributedProperties properties)
+    {
+        this.restTemplate = requireNonNull(restTemplate, "restTemplate is null");
+        this.properties = requireNonNull(properties, "properties is null");
+    }
+
+    /**
+     * Workers are usually started together with the coordinator, so registration is retried until the coordinator is up.
+     */
+    @Retryable(value = RestClientException.class, maxAttempts = 60, backoff = @Backoff(2000))
+    public Registration register()
+    {
+        return restTemplate.postForObject("{coordinatorUrl}/v1/worker/register", null, Registration.class, requestParams());
+    }
+
+    /**
+     * Waits for a task following the given one, returns empty if there was none for a while.
+     */
+    public Optional<WorkerTask> pollTask(int workerId, long lastTaskId)
+    {
+        Map<String, Object> requestParams = requestParams(workerId);
+        requestParams.put("lastTaskId", lastTaskId);
+        return Optional.ofNullable(restTemplate.getForObject("{coordinatorUrl}/v1/worker/{workerId}/task?after={lastTaskId}", WorkerTask.class, requestParams));
+    }
+
+    /**
+     * Enters the start barrier of a task, returns once all workers have entered it.
+     */
+    public StartSignal awaitStart(int workerId, long taskId)
+    {
+        Map<String, Object> requestParams = requestParams(workerId);
+        requestParams.put("taskId", taskId);
+        return restTemplate.postForObject("{coordinatorUrl}/v1/worker/{workerId}/task/{taskId}/ready", null, StartSignal.class, requestParams);
+    }
+
+    /**
+     * Lets the coordinator know that the worker is still executing the task. Heartbeats are sent periodically,
+     * so a failed one is not retried.
+     */
+    public void heartbeat(int workerId, long taskId)
+    {
+        Map<String, Object> requestParams = requestParams(workerId);
+        requestParams.put("taskId", taskId);
+        try {
+            restTemplate.postForObject("{coordinatorUrl}/v1/worker/{workerId}/task/{taskId}/heartbeat", null, String.class, requestParams);
+        }
+        catch (RestClientException e) {
+            LOGGER.warn("Could not send heartbeat of task {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
+    public void reportResults(int workerId, long taskId, WorkerResults results)
+    {
+        LOGGER.debug("Reporting {} executions of task {}", results.getExecutions().size(), taskId);
+        Map<String, Object> requestParams = requestParams(workerId);
+        requestParams.put("taskId", taskId);
+        restTemplate.postForObject("{coordinatorUrl}/v1/worker/{workerId}/task/{taskId}/results", results, String.class, requestParams);
+    }
+
+    private Map<String, Object> requestParams(int workerId)
+    {
+        Map<String, Object> requestParams = requestParams();
+        requestParams.put("workerId", workerId);
+        return requestParams;
+    }
+
+    private Map<String, Object> requestParams()
+    {
+        String coordinatorUrl = properties.getCoordinatorUrl()
+                .orElseThrow(() -> new IllegalStateException("distributed.coordinator.url is not set"));
+        return new HashMap<>(ImmutableMap.of("coordinatorUrl", coordinatorUrl));
+    }
+
+    @SuppressWarnings("unused")
+    @JsonAutoDetect(fieldVisibility = ANY, getterVisibility = NONE, isGetterVisibility = NONE)
+    public static class Registration
+    {
+        private int workerId;
+        private String executionSequenceId;
+
+        private Registration()
+        {
+        }
+
+        public Registration(int workerId, String executionSequenceId)
+        {
+            this.workerId = workerId;
+            this.executionSequenceId = executionSequenceId;
+        }
+
+        public int getWorkerId()
+        {
+            return workerId;
+        }
+
+        public String getExecutionSequenceId()
+        {
+            return executionSequenceId;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    @JsonAutoDetect(fieldVisibility = ANY, getterVisibility = NONE, isGetterVisibility = NONE)
+    public static class WorkerTask
+    {
+        private long id;
+        private boolean finished;
+        private String uniqueName;
+        private int runs;
+        private List<Integer> streams = ImmutableList.of();
+        private Long timeLimitMillis;
+
+        private WorkerTask()
+        {
+        }
+
+        public static WorkerTask finishedTask(long id)
+        {
+            WorkerTask task = new WorkerTask();
+            task.id = id;
+            task.finished = true;
+            return task;
+        }
+
+        public static WorkerTask streamsTask(long id, String uniqueName, int runs, List<Integer> streams, Optional<Long> timeLimitMillis)
+        {
+            WorkerTask task = new WorkerTask();
+            task.id = id;
+            task.uniqueName = uniqueName;
+            task.runs = runs;
+            task.streams = ImmutableList.copyOf(streams);
+            task.timeLimitMillis = timeLimitMillis.orElse(null);
+            return task;
+        }
+
+        public long getId()
+        {
+            return id;
+        }
+
+        public boolean isFinished()
+        {
+            return finished;
+        }
+
+        public String getUniqueName()
+        {
+            return uniqueName;
+        }
+
+        public int getRuns()
+        {
+            return runs;
+        }
+
+        public List<Integer> getStreams()
+        {
+            return streams;
+        }
+
+        public Optional<Long> getTimeLimitMillis()
+        {
+            return Optional.ofNullable(timeLimitMillis);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("id", id)
+                    .add("finished", finished)
+                    .add("uniqueName", uniqueName)
+                    .add("runs", runs)
+                    .add("streams", streams)
+                    .add("timeLimitMillis", timeLimitMillis)
+                    .toString();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    @JsonAutoDetect(fieldVisibility = ANY, getterVisibility = NONE, isGetterVisibility = NONE)
+    public static class StartSignal
+    {
+        private long startAtMillis;
+        private boolean aborted;
+
+        private StartSignal()
+        {
+        }
+
+        public StartSignal(long startAtMillis, boolean aborted)
+        {
+            this.startAtMillis = startAtMillis;
+            this.aborted = aborted;
+        }
+
+        public long getStartAtMillis()
+        {
+            return startAtMillis;
+        }
+
+        public boolean isAborted()
+        {
+            return aborted;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    @JsonAutoDetect(fieldVisibility = ANY, getterVisibility = NONE, isGetterVisibility = NONE)
+    public static class WorkerResults
+    {
+        private List<ExecutionSummary> executions = ImmutableList.of();
+        private String failureMessage;
+
+        private WorkerResults()
+        {
+        }
+
+        public static WorkerResults succeeded(List<QueryExecutionResult> executions)
+        {
+            WorkerResults results = new WorkerResults();
+            results.executions = executions.stream()
+                    .map(ExecutionSummary::new)
+                    .collect(toImmutableList());
+            return results;
+        }
+
+        public static WorkerResults failed(String failureMessage)
+        {
+            WorkerResults results = new WorkerResults();
+            results.failureMessage = failureMessage;
+            return results;
+        }
+
+        public List<ExecutionSummary> getExecutions()
+        {
+            return executions;
+        }
+
+        public Optional<String> getFailureMessage()
+        {
+            return Optional.ofNullable(failureMessage);
+        }
+    }
+
+    /**
+     * What the coordinator needs to know about a query execution of a worker, the worker reports the execution to the benchmark service itself.
+     */
+    @SuppressWarnings("unused")
+    @JsonAutoDetect(fieldVisibility = ANY, getterVisibility = NONE, isGetterVisibility = NONE)
+    public static class ExecutionSummary
+    {
+        private String queryName;
+        private int run;
+        private long startMillis;
+        private long endMillis;
+        private long durationNanos;
+        private int rowsCount;
+        private String failureMessage;
+        private boolean cancelled;
+        private String prestoQueryId;
+
+        private ExecutionSummary()
+        {
+        }
+
+        public ExecutionSummary(QueryExecutionResult result)
+        {
+            this.queryName = result.getQueryName();
+            this.run = result.getQueryExecution().getRun();
+            this.startMillis = result.getUtcStart().toInstant().toEpochMilli();
+            this.endMillis = result.getUtcEnd().toInstant().toEpochMilli();
+            this.durationNanos = result.getQueryDuration().toNanos();
+            this.rowsCount = result.getRowsCount();
+            this.failureMessage = result.isSuccessful() ? null : String.valueOf(result.getFailureCause());
+            this.cancelled = result.isCancelled();
+            this.prestoQueryId = result.getPrestoQueryId().orElse(null);
+        }
+
+        public String getQueryName()
+        {
+            return queryName;
+        }
+
+        public int getRun()
+        {
+            return run;
+        }
+
+        public long getStartMillis()
+        {
+            return startMillis;
+        }
+
+        public long getEndMillis()
+        {
+            return endMillis;
+        }
+
+        public long getDurationNanos()
+        {
+            return durationNanos;
+        }
+
+        public int getRowsCount()
+        {
+            return rowsCount;
+        }
+
+        public Optional<String> getFailureMessage()
+        {
+            return Optional.ofNullable(failureMessage);
+        }
+
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        public Optional<String> getPrestoQueryId()
+        {
+            return Optional.ofNullable(prestoQueryId);
+        }
+    }
+}
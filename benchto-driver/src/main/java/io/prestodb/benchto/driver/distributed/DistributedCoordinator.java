@@ -0,0 +1,465 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.distributed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.ExecutionSummary;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.Registration;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.StartSignal;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.WorkerResults;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.WorkerTask;
+import io.prestodb.benchto.driver.execution.QueryExecution;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
+import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestodb.benchto.driver.utils.TimeUtils.sleep;
+import static java.lang.System.currentTimeMillis;
+import static java.time.Duration.ofNanos;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Splits concurrency streams of throughput tests among worker drivers. Workers register over HTTP,
+ * long-poll for tasks and wait on a start barrier, so that all streams of a benchmark start at the same moment.
+ * Each worker reports its executions to the benchmark service by itself and sends their summary back to the coordinator,
+ * which reports the whole benchmark run once all workers are done.
+ */
+@Component
+public class DistributedCoordinator
+{
+    private static final Logger LOG = LoggerFactory.getLogger(DistributedCoordinator.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = SECONDS.toMillis(30);
+
+    private final DistributedProperties properties;
+    private final BenchmarkStatusReporter statusReporter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    // guarded by this
+    private String executionSequenceId;
+    private int registeredWorkers;
+    private long lastTaskId;
+    private final Map<Integer, WorkerTask> tasks = new HashMap<>();
+    private final Set<Integer> readyWorkers = new HashSet<>();
+    private final Map<Integer, WorkerResults> results = new HashMap<>();
+    private final Map<Integer, Long> lastHeartbeatMillis = new HashMap<>();
+    private Long startAtMillis;
+    private boolean aborted;
+
+    @Autowired
+    public DistributedCoordinator(DistributedProperties properties, BenchmarkStatusReporter statusReporter)
+    {
+        this.properties = properties;
+        this.statusReporter = statusReporter;
+    }
+
+    public boolean isDistributed(Benchmark benchmark)
+    {
+        return properties.isCoordinator() && benchmark.isThroughputTest();
+    }
+
+    public synchronized void start(String executionSequenceId)
+    {
+        checkState(server == null, "Coordinator is already started");
+        this.executionSequenceId = executionSequenceId;
+        serverExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("coordinator-%d")
+                .setDaemon(true)
+                .build());
+        try {
+            server = HttpServer.create(new InetSocketAddress(properties.getCoordinatorPort()), 0);
+        }
+        catch (IOException e) {
+            throw new BenchmarkExecutionException("Could not start coordinator on port " + properties.getCoordinatorPort(), e);
+        }
+        server.createContext("/v1/worker/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+        LOG.info("Coordinator listening on port {}, waiting for {} workers", getPort(), properties.getWorkers());
+    }
+
+    public synchronized int getPort()
+    {
+        checkState(server != null, "Coordinator is not started");
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Lets workers know that there is nothing more to run and stops the coordinator.
+     */
+    public void stop()
+    {
+        synchronized (this) {
+            if (server == null) {
+                return;
+            }
+            long taskId = lastTaskId + 1;
+            publishTasks(workerId -> WorkerTask.finishedTask(taskId));
+            try {
+                // give polling workers the chance to receive the finished task
+                awaitCondition(() -> readyWorkers.size() == registeredWorkers, currentTimeMillis() + POLL_TIMEOUT_MILLIS, "workers to finish");
+            }
+            catch (BenchmarkExecutionException e) {
+                LOG.warn("Not all workers received the finished task");
+            }
+        }
+        server.stop(1);
+        serverExecutor.shutdownNow();
+        synchronized (this) {
+            server = null;
+        }
+    }
+
+    /**
+     * Assigns concurrency streams of the benchmark to workers and returns once all of them start executing.
+     */
+    public void startStreams(Benchmark benchmark, int runs, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        int workers = properties.getWorkers();
+        long deadline = currentTimeMillis() + properties.getTimeout().toMillis();
+        synchronized (this) {
+            awaitCondition(() -> registeredWorkers == workers, deadline, workers + " workers to register");
+        }
+
+        // workers report executions of the benchmark run, it has to exist in the service first
+        statusReporter.awaitAllFutures(10, MINUTES);
+
+        long startAt;
+        synchronized (this) {
+            Optional<Long> timeLimitMillis = executionTimeLimit.map(limit -> limit.toInstant().toEpochMilli());
+            long taskId = lastTaskId + 1;
+            publishTasks(workerId -> WorkerTask.streamsTask(taskId, benchmark.getUniqueName(), runs, streamsOf(benchmark, workerId, workers), timeLimitMillis));
+            LOG.info("Distributed {} streams of benchmark {} among {} workers", benchmark.getConcurrency(), benchmark.getUniqueName(), workers);
+            try {
+                awaitCondition(() -> readyWorkers.size() == workers, deadline, "workers to reach the start barrier");
+            }
+            catch (BenchmarkExecutionException e) {
+                aborted = true;
+                notifyAll();
+                throw e;
+            }
+            startAt = currentTimeMillis() + properties.getStartDelayMillis();
+            startAtMillis = startAt;
+            for (int workerId = 0; workerId < workers; workerId++) {
+                lastHeartbeatMillis.put(workerId, startAt);
+            }
+            notifyAll();
+        }
+        sleep(Math.max(startAt - currentTimeMillis(), 0), MILLISECONDS);
+    }
+
+    /**
+     * Waits for all workers to finish their streams and merges executions they report. Streams may run for
+     * as long as the benchmark needs, so the wait is bounded only by heartbeats of workers that are still running.
+     */
+    public List<QueryExecutionResult> awaitStreamResults(Benchmark benchmark)
+    {
+        Map<Integer, WorkerResults> workerResults;
+        synchronized (this) {
+            awaitWorkerResults();
+            workerResults = new HashMap<>(results);
+        }
+
+        for (Map.Entry<Integer, WorkerResults> entry : workerResults.entrySet()) {
+            if (entry.getValue().getFailureMessage().isPresent()) {
+                throw new BenchmarkExecutionException("Worker " + entry.getKey() + " failed: " + entry.getValue().getFailureMessage().get());
+            }
+        }
+
+        Map<String, Query> queries = benchmark.getQueries().stream()
+                .collect(toMap(Query::getName, identity(), (first, second) -> first));
+        return workerResults.values().stream()
+                .flatMap(results -> results.getExecutions().stream())
+                .map(execution -> toQueryExecutionResult(benchmark, queries, execution))
+                .collect(toImmutableList());
+    }
+
+    private static List<Integer> streamsOf(Benchmark benchmark, int workerId, int workers)
+    {
+        ImmutableList.Builder<Integer> streams = ImmutableList.builder();
+        for (int stream = workerId; stream < benchmark.getConcurrency(); stream += workers) {
+            streams.add(stream);
+        }
+        return streams.build();
+    }
+
+    private static QueryExecutionResult toQueryExecutionResult(Benchmark benchmark, Map<String, Query> queries, ExecutionSummary execution)
+    {
+        Query query = queries.get(execution.getQueryName());
+        if (query == null) {
+            throw new BenchmarkExecutionException("Worker executed unknown query " + execution.getQueryName() + " of benchmark " + benchmark.getUniqueName());
+        }
+        QueryExecutionResultBuilder builder = new QueryExecutionResultBuilder(new QueryExecution(benchmark, query, execution.getRun()))
+                .withTimes(toUtc(execution.getStartMillis()), toUtc(execution.getEndMillis()), ofNanos(execution.getDurationNanos()))
+                .setRowsCount(execution.getRowsCount());
+        execution.getPrestoQueryId().ifPresent(builder::setPrestoQueryId);
+        if (execution.isCancelled()) {
+            builder.cancelled(new BenchmarkExecutionException(execution.getFailureMessage().orElse("Query execution cancelled")));
+        }
+        else {
+            execution.getFailureMessage().ifPresent(message -> builder.failed(new BenchmarkExecutionException(message)));
+        }
+        return builder.build();
+    }
+
+    private static ZonedDateTime toUtc(long epochMillis)
+    {
+        return Instant.ofEpochMilli(epochMillis).atZone(UTC);
+    }
+
+    private void publishTasks(IntFunction<WorkerTask> taskFactory)
+    {
+        lastTaskId++;
+        tasks.clear();
+        readyWorkers.clear();
+        results.clear();
+        lastHeartbeatMillis.clear();
+        startAtMillis = null;
+        aborted = false;
+        for (int workerId = 0; workerId < registeredWorkers; workerId++) {
+            tasks.put(workerId, taskFactory.apply(workerId));
+        }
+        notifyAll();
+    }
+
+    private void awaitWorkerResults()
+    {
+        long heartbeatTimeoutMillis = properties.getHeartbeatTimeout().toMillis();
+        try {
+            while (results.size() < properties.getWorkers()) {
+                // heartbeats only move the deadline further, so it is recomputed whenever results arrive or it passes
+                long deadline = Long.MAX_VALUE;
+                for (int workerId = 0; workerId < properties.getWorkers(); workerId++) {
+                    if (results.containsKey(workerId)) {
+                        continue;
+                    }
+                    long workerDeadline = lastHeartbeatMillis.get(workerId) + heartbeatTimeoutMillis;
+                    if (workerDeadline <= currentTimeMillis()) {
+                        throw new BenchmarkExecutionException("Worker " + workerId + " sent no heartbeat for " + properties.getHeartbeatTimeout());
+                    }
+                    deadline = Math.min(deadline, workerDeadline);
+                }
+                wait(Math.max(deadline - currentTimeMillis(), 1));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BenchmarkExecutionException(e);
+        }
+    }
+
+    private void awaitCondition(BooleanSupplier condition, long deadlineMillis, String description)
+    {
+        try {
+            while (!condition.getAsBoolean()) {
+                long remaining = deadlineMillis - currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new BenchmarkExecutionException("Timed out waiting for " + description);
+                }
+                wait(remaining);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BenchmarkExecutionException(e);
+        }
+    }
+
+    private void handle(HttpExchange exchange)
+            throws IOException
+    {
+        try {
+            String[] path = exchange.getRequestURI().getPath().substring("/v1/worker/".length()).split("/");
+            if (path.length == 1 && path[0].equals("register")) {
+                register(exchange);
+            }
+            else if (path.length == 2 && path[1].equals("task")) {
+                pollTask(exchange, Integer.parseInt(path[0]), Long.parseLong(queryParameter(exchange, "after")));
+            }
+            else if (path.length == 4 && path[3].equals("ready")) {
+                awaitStart(exchange, Integer.parseInt(path[0]), Long.parseLong(path[2]));
+            }
+            else if (path.length == 4 && path[3].equals("heartbeat")) {
+                heartbeat(Integer.parseInt(path[0]), Long.parseLong(path[2]));
+                exchange.sendResponseHeaders(204, -1);
+            }
+            else if (path.length == 4 && path[3].equals("results")) {
+                WorkerResults workerResults = objectMapper.readValue(exchange.getRequestBody(), WorkerResults.class);
+                storeResults(Integer.parseInt(path[0]), Long.parseLong(path[2]), workerResults);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+        catch (RuntimeException e) {
+            LOG.error("Could not handle worker request {}", exchange.getRequestURI(), e);
+            exchange.sendResponseHeaders(500, -1);
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private void register(HttpExchange exchange)
+            throws IOException
+    {
+        Registration registration;
+        synchronized (this) {
+            if (registeredWorkers == properties.getWorkers()) {
+                exchange.sendResponseHeaders(409, -1);
+                return;
+            }
+            registration = new Registration(registeredWorkers++, executionSequenceId);
+            notifyAll();
+        }
+        LOG.info("Registered worker {} from {}", registration.getWorkerId(), exchange.getRemoteAddress());
+        sendJson(exchange, registration);
+    }
+
+    private void pollTask(HttpExchange exchange, int workerId, long lastTaskId)
+            throws IOException
+    {
+        Optional<WorkerTask> task;
+        synchronized (this) {
+            long deadline = currentTimeMillis() + POLL_TIMEOUT_MILLIS;
+            try {
+                awaitCondition(() -> tasks.containsKey(workerId) && tasks.get(workerId).getId() > lastTaskId, deadline, "task");
+                task = Optional.of(tasks.get(workerId));
+            }
+            catch (BenchmarkExecutionException e) {
+                task = Optional.empty();
+            }
+        }
+        if (task.isPresent()) {
+            sendJson(exchange, task.get());
+            if (task.get().isFinished()) {
+                // finished tasks are not acknowledged at the barrier, sending one out is enough
+                markReady(workerId);
+            }
+        }
+        else {
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private void awaitStart(HttpExchange exchange, int workerId, long taskId)
+            throws IOException
+    {
+        StartSignal signal;
+        synchronized (this) {
+            if (taskId != lastTaskId) {
+                signal = new StartSignal(0, true);
+            }
+            else {
+                readyWorkers.add(workerId);
+                notifyAll();
+                try {
+                    awaitCondition(() -> startAtMillis != null || aborted || taskId != lastTaskId, currentTimeMillis() + properties.getTimeout().toMillis(), "start barrier");
+                    signal = startAtMillis != null && taskId == lastTaskId ? new StartSignal(startAtMillis, false) : new StartSignal(0, true);
+                }
+                catch (BenchmarkExecutionException e) {
+                    signal = new StartSignal(0, true);
+                }
+            }
+        }
+        sendJson(exchange, signal);
+    }
+
+    private synchronized void markReady(int workerId)
+    {
+        readyWorkers.add(workerId);
+        notifyAll();
+    }
+
+    private synchronized void heartbeat(int workerId, long taskId)
+    {
+        if (taskId == lastTaskId) {
+            lastHeartbeatMillis.put(workerId, currentTimeMillis());
+        }
+    }
+
+    private synchronized void storeResults(int workerId, long taskId, WorkerResults workerResults)
+    {
+        if (taskId != lastTaskId) {
+            LOG.warn("Ignoring results of stale task {} from worker {}", taskId, workerId);
+            return;
+        }
+        LOG.info("Worker {} finished task {} with {} executions", workerId, taskId, workerResults.getExecutions().size());
+        results.put(workerId, workerResults);
+        notifyAll();
+    }
+
+    private void sendJson(HttpExchange exchange, Object value)
+            throws IOException
+    {
+        byte[] body = objectMapper.writeValueAsBytes(value);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name)
+    {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                String[] keyValue = parameter.split("=", 2);
+                if (keyValue.length == 2 && keyValue[0].equals(name)) {
+                    return keyValue[1];
+                }
+            }
+        }
+        throw new IllegalArgumentException("Missing query parameter " + name);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.distributed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+@Component
+public class DistributedProperties
+{
+    public enum Role
+    {
+        NONE, COORDINATOR, WORKER
+    }
+
+    /**
+     * Role of this driver, a coordinator splits concurrency streams of throughput tests among workers.
+     */
+    @Value("${distributed.role:NONE}")
+    private Role role;
+
+    /**
+     * Number of workers the coordinator waits for.
+     */
+    @Value("${distributed.workers:0}")
+    private int workers;
+
+    @Value("${distributed.coordinator.port:8099}")
+    private int coordinatorPort;
+
+    @Value("${distributed.coordinator.url:#{null}}")
+    private String coordinatorUrl;
+
+    /**
+     * Time between releasing the start barrier and the start of streams, so that all workers learn about it before.
+     */
+    @Value("${distributed.start-delay-millis:500}")
+    private long startDelayMillis;
+
+    /**
+     * Maximum time the coordinator waits for workers to register or to reach the start barrier.
+     */
+    @Value("${distributed.timeout:PT2H}")
+    private String timeout;
+
+    /**
+     * How often workers let the coordinator know that they are still executing their streams.
+     */
+    @Value("${distributed.heartbeat-interval:PT10S}")
+    private String heartbeatInterval;
+
+    /**
+     * Time after which the coordinator gives up on a worker executing streams that has not sent a heartbeat.
+     */
+    @Value("${distributed.heartbeat-timeout:PT1M}")
+    private String heartbeatTimeout;
+
+    public boolean isCoordinator()
+    {
+        return role == Role.COORDINATOR;
+    }
+
+    public boolean isWorker()
+    {
+        return role == Role.WORKER;
+    }
+
+    public int getWorkers()
+    {
+        return workers;
+    }
+
+    public int getCoordinatorPort()
+    {
+        return coordinatorPort;
+    }
+
+    public Optional<String> getCoordinatorUrl()
+    {
+        return Optional.ofNullable(coordinatorUrl);
+    }
+
+    public long getStartDelayMillis()
+    {
+        return startDelayMillis;
+    }
+
+    public Duration getTimeout()
+    {
+        return Duration.parse(timeout);
+    }
+
+    public Duration getHeartbeatInterval()
+    {
+        return Duration.parse(heartbeatInterval);
+    }
+
+    public Duration getHeartbeatTimeout()
+    {
+        return Duration.parse(heartbeatTimeout);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("role", role)
+                .add("workers", workers)
+                .add("coordinatorPort", coordinatorPort)
+                .add("coordinatorUrl", coordinatorUrl)
+                .add("startDelayMillis", startDelayMillis)
+                .add("timeout", timeout)
+                .add("heartbeatInterval", heartbeatInterval)
+                .add("heartbeatTimeout", heartbeatTimeout)
+                .toString();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.distributed;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.Registration;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.StartSignal;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.WorkerResults;
+import io.prestodb.benchto.driver.distributed.CoordinatorClient.WorkerTask;
+import io.prestodb.benchto.driver.execution.BenchmarkExecutionDriver;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
+import io.prestodb.benchto.driver.loader.BenchmarkLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static io.prestodb.benchto.driver.utils.TimeUtils.sleep;
+import static java.lang.System.currentTimeMillis;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Executes concurrency streams assigned by the {@link DistributedCoordinator} until it has nothing more to run.
+ */
+@Component
+public class DistributedWorker
+{
+    private static final Logger LOG = LoggerFactory.getLogger(DistributedWorker.class);
+
+    @Autowired
+    private CoordinatorClient coordinatorClient;
+
+    @Autowired
+    private BenchmarkLoader benchmarkLoader;
+
+    @Autowired
+    private BenchmarkExecutionDriver benchmarkExecutionDriver;
+
+    @Autowired
+    private BenchmarkStatusReporter statusReporter;
+
+    @Autowired
+    private DistributedProperties properties;
+
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("worker-heartbeat-%d")
+            .setDaemon(true)
+            .build());
+
+    @PreDestroy
+    public void shutdown()
+    {
+        heartbeatExecutor.shutdownNow();
+    }
+
+    public void run()
+    {
+        Registration registration = coordinatorClient.register();
+        int workerId = registration.getWorkerId();
+        LOG.info("Registered as worker {} of benchmarks(executionSequenceId={})", workerId, registration.getExecutionSequenceId());
+
+        // benchmarks are loaded with the sequence id of the coordinator, so that executions land in its benchmark runs
+        Map<String, Benchmark> benchmarks = benchmarkLoader.loadBenchmarks(registration.getExecutionSequenceId()).stream()
+                .collect(toMap(Benchmark::getUniqueName, identity(), (first, second) -> first));
+
+        long lastTaskId = 0;
+        while (true) {
+            Optional<WorkerTask> polledTask = coordinatorClient.pollTask(workerId, lastTaskId);
+            if (!polledTask.isPresent()) {
+                continue;
+            }
+            WorkerTask task = polledTask.get();
+            lastTaskId = task.getId();
+            if (task.isFinished()) {
+                LOG.info("Coordinator has no more benchmarks to run, exiting...");
+                return;
+            }
+            executeTask(workerId, task, benchmarks);
+        }
+    }
+
+    private void executeTask(int workerId, WorkerTask task, Map<String, Benchmark> benchmarks)
+    {
+        StartSignal startSignal = coordinatorClient.awaitStart(workerId, task.getId());
+        if (startSignal.isAborted()) {
+            LOG.warn("Start of benchmark {} was aborted by the coordinator", task.getUniqueName());
+            return;
+        }
+
+        // the barrier is entered anyway, the coordinator learns about the failure from results
+        Benchmark benchmark = benchmarks.get(task.getUniqueName());
+        if (benchmark == null) {
+            LOG.error("Benchmark {} is unknown to this worker", task.getUniqueName());
+            coordinatorClient.reportResults(workerId, task.getId(), WorkerResults.failed("Benchmark " + task.getUniqueName() + " is unknown to worker " + workerId));
+            return;
+        }
+        sleep(Math.max(startSignal.getStartAtMillis() - currentTimeMillis(), 0), MILLISECONDS);
+
+        // the coordinator waits for results as long as heartbeats keep coming
+        long heartbeatIntervalMillis = properties.getHeartbeatInterval().toMillis();
+        ScheduledFuture<?> heartbeats = heartbeatExecutor.scheduleWithFixedDelay(() -> coordinatorClient.heartbeat(workerId, task.getId()),
+                heartbeatIntervalMillis, heartbeatIntervalMillis, MILLISECONDS);
+        try {
+            LOG.info("Executing streams {} of benchmark {}", task.getStreams(), benchmark.getUniqueName());
+            WorkerResults results;
+            try {
+                Optional<ZonedDateTime> executionTimeLimit = task.getTimeLimitMillis().map(millis -> Instant.ofEpochMilli(millis).atZone(UTC));
+                List<QueryExecutionResult> executions = benchmarkExecutionDriver.executeStreams(benchmark, task.getRuns(), task.getStreams(), executionTimeLimit);
+                statusReporter.awaitAllFutures(10, MINUTES);
+                results = WorkerResults.succeeded(executions);
+            }
+            catch (RuntimeException e) {
+                LOG.error("Execution of benchmark {} failed", benchmark.getUniqueName(), e);
+                results = WorkerResults.failed(e.getMessage());
+            }
+            coordinatorClient.reportResults(workerId, task.getId(), results);
+        }
+        finally {
+            heartbeats.cancel(false);
+        }
+    }
+}
@@ -13,39 +13,61 @@
  */
 package io.prestodb.benchto.driver.execution;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import io.prestodb.benchto.driver.BenchmarkProperties;
 import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.QueryClass;
 import io.prestodb.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.prestodb.benchto.driver.distributed.DistributedCoordinator;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult.BenchmarkExecutionResultBuilder;
+import io.prestodb.benchto.driver.execution.QueryExecution.CacheState;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
+import io.prestodb.benchto.driver.jdbc.ConnectionCache;
 import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
 import io.prestodb.benchto.driver.macro.MacroService;
 import io.prestodb.benchto.driver.utils.PermutationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
-import javax.sql.DataSource;
-
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
-
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Lists.newArrayList;
+import static io.prestodb.benchto.driver.execution.DegradationDetector.relativeTrend;
+import static io.prestodb.benchto.driver.execution.QueryExecution.CacheState.COLD;
+import static io.prestodb.benchto.driver.execution.QueryExecution.CacheState.WARM;
+import static io.prestodb.benchto.driver.jdbc.ConnectionCache.changesSession;
+import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.SESSION_PROPERTIES_KEY;
+import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.parseSessionProperties;
+import static io.prestodb.benchto.driver.utils.PercentileUtils.percentile;
 import static io.prestodb.benchto.driver.utils.TimeUtils.nowUtc;
-import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @Component
 public class BenchmarkExecutionDriver
@@ -68,7 +90,13 @@ public class BenchmarkExecutionDriver
     private ExecutionSynchronizer executionSynchronizer;
 
     @Autowired
-    private ApplicationContext applicationContext;
+    private DistributedCoordinator distributedCoordinator;
+
+    @Autowired
+    private BenchmarkProperties properties;
+
+    @Autowired
+    private ConnectionCache connectionCache;
 
     public BenchmarkExecutionResult execute(Benchmark benchmark, int benchmarkOrdinalNumber, int benchmarkTotalCount, Optional<ZonedDateTime> executionTimeLimit)
     {
@@ -101,17 +129,42 @@ public class BenchmarkExecutionDriver
     {
         BenchmarkExecutionResultBuilder resultBuilder = new BenchmarkExecutionResultBuilder(benchmark);
         List<QueryExecutionResult> executions;
+        List<Duration> prewarmDurations;
+        List<LoadStepResult> loadSteps = ImmutableList.of();
+        List<SoakWindowResult> soakWindows = ImmutableList.of();
         try {
-            executeQueries(benchmark, benchmark.getPrewarmRuns(), false, executionTimeLimit);
+            prewarmDurations = prewarm(benchmark, executionTimeLimit);
 
             executionSynchronizer.awaitAfterBenchmarkExecutionAndBeforeResultReport(benchmark);
 
             statusReporter.reportBenchmarkStarted(benchmark);
 
+            boolean distributed = distributedCoordinator.isDistributed(benchmark);
+            if (distributed) {
+                distributedCoordinator.startStreams(benchmark, benchmark.getRuns(), executionTimeLimit);
+            }
+
             resultBuilder = resultBuilder.startTimer();
 
             try {
-                executions = executeQueries(benchmark, benchmark.getRuns(), true, executionTimeLimit);
+                if (distributed) {
+                    executions = distributedCoordinator.awaitStreamResults(benchmark);
+                }
+                else if (benchmark.isStepLoad()) {
+                    loadSteps = executeLoadSteps(benchmark, executionTimeLimit);
+                    executions = loadSteps.stream()
+                            .flatMap(loadStep -> loadStep.getExecutions().stream())
+                            .collect(toImmutableList());
+                }
+                else if (benchmark.isSoak()) {
+                    soakWindows = executeSoak(benchmark, executionTimeLimit);
+                    executions = soakWindows.stream()
+                            .flatMap(soakWindow -> soakWindow.getExecutions().stream())
+                            .collect(toImmutableList());
+                }
+                else {
+                    executions = executeQueries(benchmark, benchmark.getRuns(), true, executionTimeLimit);
+                }
             }
             finally {
                 resultBuilder = resultBuilder.endTimer();
@@ -125,6 +178,9 @@ public class BenchmarkExecutionDriver
 
         BenchmarkExecutionResult executionResult = resultBuilder
                 .withExecutions(executions)
+                .withPrewarmDurations(prewarmDurations)
+                .withLoadSteps(loadSteps)
+                .withSoakWindows(soakWindows)
                 .build();
 
         statusReporter.reportBenchmarkFinished(executionResult);
@@ -132,6 +188,40 @@ public class BenchmarkExecutionDriver
         return executionResult;
     }
 
+    /**
+     * Executes prewarm runs one after another, stopping early once their durations are stable for steady state prewarm.
+     * Benchmarks already prewarmed by {@link SharedPrewarm} are not prewarmed again.
+     *
+     * @return durations of prewarm runs, each the sum of durations of its successful query executions
+     */
+    private List<Duration> prewarm(Benchmark benchmark, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        if (benchmark.isSharedPrewarmed()) {
+            LOG.info("Skipping prewarm of benchmark {}, all its queries were prewarmed by shared prewarm", benchmark.getName());
+            return ImmutableList.of();
+        }
+        List<Duration> prewarmDurations = newArrayList();
+        for (int run = 1; run <= benchmark.getPrewarmRuns() && !isTimeLimitExceeded(executionTimeLimit); run++) {
+            prewarmDurations.add(executeQueries(benchmark, 1, false, executionTimeLimit).stream()
+                    .filter(QueryExecutionResult::isSuccessful)
+                    .map(QueryExecutionResult::getQueryDuration)
+                    .reduce(Duration.ZERO, Duration::plus));
+            if (benchmark.isSteadyStatePrewarm() && steadyStateDetector().isSteady(prewarmDurations)) {
+                LOG.info("Benchmark {} reached steady state after {} prewarm runs", benchmark.getName(), run);
+                return prewarmDurations;
+            }
+        }
+        if (benchmark.isSteadyStatePrewarm() && !prewarmDurations.isEmpty()) {
+            LOG.warn("Benchmark {} did not reach steady state in {} prewarm runs, durations: {}", benchmark.getName(), prewarmDurations.size(), prewarmDurations);
+        }
+        return prewarmDurations;
+    }
+
+    private SteadyStateDetector steadyStateDetector()
+    {
+        return new SteadyStateDetector(properties.getPrewarmStableRuns(), properties.getPrewarmStabilityThreshold());
+    }
+
     private BenchmarkExecutionResult failedBenchmarkResult(Benchmark benchmark, Exception e)
     {
         return new BenchmarkExecutionResultBuilder(benchmark)
@@ -144,18 +234,47 @@ public class BenchmarkExecutionDriver
     {
         ListeningExecutorService executorService = executorServiceFactory.create(benchmark.getConcurrency());
         try {
-            if (benchmark.isThroughputTest()) {
-                List<Callable<List<QueryExecutionResult>>> queryExecutionCallables = buildConcurrencyQueryExecutionCallables(benchmark, runs, reportStatus, executionTimeLimit);
-                List<ListenableFuture<List<QueryExecutionResult>>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
-                return Futures.allAsList(executionFutures).get().stream()
-                        .flatMap(List::stream)
-                        .collect(toImmutableList());
+            List<Callable<List<QueryExecutionResult>>> queryExecutionCallables;
+            if (benchmark.isMixedWorkload()) {
+                queryExecutionCallables = buildQueryClassExecutionCallables(benchmark, runs, reportStatus, executionTimeLimit);
+            }
+            else if (benchmark.isThroughputTest()) {
+                List<Integer> streams = IntStream.range(0, benchmark.getConcurrency()).boxed().collect(toImmutableList());
+                queryExecutionCallables = buildConcurrencyQueryExecutionCallables(benchmark, runs, reportStatus, executionTimeLimit, streams);
             }
             else {
-                List<Callable<QueryExecutionResult>> queryExecutionCallables = buildQueryExecutionCallables(benchmark, runs, reportStatus);
-                List<ListenableFuture<QueryExecutionResult>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
-                return Futures.allAsList(executionFutures).get();
+                queryExecutionCallables = buildQueryExecutionCallables(benchmark, runs, reportStatus, executionTimeLimit);
             }
+            List<ListenableFuture<List<QueryExecutionResult>>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
+            return Futures.allAsList(executionFutures).get().stream()
+                    .flatMap(List::stream)
+                    .collect(toImmutableList());
+        }
+        catch (InterruptedException | ExecutionException e) {
+            throw new BenchmarkExecutionException("Could not execute benchmark", e);
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Executes given concurrency streams of a throughput test, the share of a distributed benchmark assigned to this driver.
+     */
+    @SuppressWarnings("unchecked")
+    public List<QueryExecutionResult> executeStreams(Benchmark benchmark, int runs, List<Integer> streams, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        checkArgument(benchmark.isThroughputTest(), "Only throughput tests are executed in streams");
+        if (streams.isEmpty()) {
+            return ImmutableList.of();
+        }
+        ListeningExecutorService executorService = executorServiceFactory.create(streams.size());
+        try {
+            List<Callable<List<QueryExecutionResult>>> queryExecutionCallables = buildConcurrencyQueryExecutionCallables(benchmark, runs, true, executionTimeLimit, streams);
+            List<ListenableFuture<List<QueryExecutionResult>>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
+            return Futures.allAsList(executionFutures).get().stream()
+                    .flatMap(List::stream)
+                    .collect(toImmutableList());
         }
         catch (InterruptedException | ExecutionException e) {
             throw new BenchmarkExecutionException("Could not execute benchmark", e);
@@ -165,53 +284,50 @@ public class BenchmarkExecutionDriver
         }
     }
 
-    private List<Callable<QueryExecutionResult>> buildQueryExecutionCallables(Benchmark benchmark, int runs, boolean reportStatus)
+    /**
+     * Each callable executes a single run of a query, which for measured runs of benchmarks with cold and warm runs
+     * is a cold execution after dropping caches followed by warm executions. Executions which would start after
+     * the time limit are skipped.
+     */
+    private List<Callable<List<QueryExecutionResult>>> buildQueryExecutionCallables(Benchmark benchmark, int runs, boolean reportStatus, Optional<ZonedDateTime> executionTimeLimit)
     {
-        List<Callable<QueryExecutionResult>> executionCallables = newArrayList();
+        boolean coldWarmPaired = reportStatus && benchmark.isColdWarmPaired();
+        int executionsPerRun = coldWarmPaired ? benchmark.getExecutionsPerRun() : 1;
+        List<Callable<List<QueryExecutionResult>>> executionCallables = newArrayList();
         for (Query query : benchmark.getQueries()) {
             for (int run = 1; run <= runs; run++) {
-                QueryExecution queryExecution = new QueryExecution(benchmark, query, run);
+                List<QueryExecution> queryExecutions = newArrayList();
+                for (int execution = 0; execution < executionsPerRun; execution++) {
+                    Optional<CacheState> cacheState = coldWarmPaired ? Optional.of(execution == 0 ? COLD : WARM) : Optional.empty();
+                    queryExecutions.add(new QueryExecution(benchmark, query, (run - 1) * executionsPerRun + execution + 1, cacheState));
+                }
 
                 executionCallables.add(() -> {
-                    QueryExecutionResult result;
-
-                    try (Connection connection = getConnectionFor(queryExecution)) {
-                        macroService.runBenchmarkMacros(benchmark.getBeforeExecutionMacros(), benchmark, connection);
-
-                        if (reportStatus) {
-                            statusReporter.reportExecutionStarted(queryExecution);
-                        }
-                        QueryExecutionResultBuilder failureResult = new QueryExecutionResultBuilder(queryExecution)
-                                .startTimer();
-                        try {
-                            result = queryExecutionDriver.execute(queryExecution, connection);
-                        }
-                        catch (Exception e) {
-                            LOG.error("Query Execution failed for benchmark {}", benchmark.getName());
-                            result = failureResult
-                                    .endTimer()
-                                    .failed(e)
-                                    .build();
-                        }
-
-                        if (reportStatus) {
-                            statusReporter.reportExecutionFinished(result);
+                    List<QueryExecutionResult> results = newArrayList();
+                    try (Connection connection = getConnectionFor(benchmark.getDataSource(), benchmark)) {
+                        for (QueryExecution queryExecution : queryExecutions) {
+                            if (isTimeLimitExceeded(executionTimeLimit)) {
+                                LOG.warn("Skipping benchmark {} query {} run {} due to time limit exceeded", benchmark.getName(), query.getName(), queryExecution.getRun());
+                                break;
+                            }
+                            if (queryExecution.getCacheState().equals(Optional.of(COLD))) {
+                                macroService.runBenchmarkMacros(benchmark.getCacheDropMacros(), benchmark, connection);
+                            }
+                            results.add(executeSingleQuery(queryExecution, benchmark, benchmark.getDataSource(), connection, reportStatus, executionTimeLimit));
                         }
-
-                        macroService.runBenchmarkMacros(benchmark.getAfterExecutionMacros(), benchmark, connection);
                     }
-
-                    return result;
+                    return results;
                 });
             }
         }
         return executionCallables;
     }
 
-    private List<Callable<List<QueryExecutionResult>>> buildConcurrencyQueryExecutionCallables(Benchmark benchmark, int runs, boolean reportStatus, Optional<ZonedDateTime> executionTimeLimit)
+    private List<Callable<List<QueryExecutionResult>>> buildConcurrencyQueryExecutionCallables(Benchmark benchmark, int runs, boolean reportStatus, Optional<ZonedDateTime> executionTimeLimit,
+            List<Integer> streams)
     {
         List<Callable<List<QueryExecutionResult>>> executionCallables = newArrayList();
-        for (int thread = 0; thread < benchmark.getConcurrency(); thread++) {
+        for (int thread : streams) {
             int finalThread = thread;
             executionCallables.add(() -> {
                 LOG.info("Running throughput test: {} queries, {} runs", benchmark.getQueries().size(), runs);
@@ -231,7 +347,7 @@ public class BenchmarkExecutionDriver
     {
         boolean firstQuery = true;
         List<QueryExecutionResult> queryExecutionResults = newArrayList();
-        try (Connection connection = getConnectionFor(new QueryExecution(benchmark, benchmark.getQueries().get(0), 0))) {
+        try (Connection connection = getConnectionFor(benchmark.getDataSource(), benchmark)) {
             for (int run = 1; run <= runs; run++) {
                 for (int queryIndex = 0; queryIndex < benchmark.getQueries().size(); queryIndex++) {
                     int permutedQueryIndex = queryIndex;
@@ -257,10 +373,8 @@ public class BenchmarkExecutionDriver
                         statusReporter.reportExecutionStarted(queryExecution);
                         firstQuery = false;
                     }
-                    try {
-                        queryExecutionResults.add(executeSingleQuery(queryExecution, benchmark, connection, false, executionTimeLimit));
-                    }
-                    catch (TimeLimitException e) {
+                    queryExecutionResults.add(executeSingleQuery(queryExecution, benchmark, benchmark.getDataSource(), connection, false, executionTimeLimit));
+                    if (isTimeLimitExceeded(executionTimeLimit)) {
                         LOG.warn("Interrupting benchmark {} due to time limit exceeded", benchmark.getName());
                         return queryExecutionResults;
                     }
@@ -270,23 +384,274 @@ public class BenchmarkExecutionDriver
         return queryExecutionResults;
     }
 
+    /**
+     * Executes steps of a step-load benchmark one after another. Each step runs as many concurrency streams as its
+     * concurrency, each of them executing queries in a permuted order until the step duration passes. Queries still
+     * running at the end of a step finish before the next step starts.
+     */
+    @SuppressWarnings("unchecked")
+    private List<LoadStepResult> executeLoadSteps(Benchmark benchmark, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        AtomicInteger executionCounter = new AtomicInteger();
+        ImmutableList.Builder<LoadStepResult> loadSteps = ImmutableList.builder();
+        for (int concurrency : benchmark.getLoadSteps()) {
+            if (isTimeLimitExceeded(executionTimeLimit)) {
+                LOG.warn("Skipping remaining steps of benchmark {} due to time limit exceeded", benchmark.getName());
+                break;
+            }
+            LOG.info("Running step of benchmark {} with concurrency {} for {}", benchmark.getName(), concurrency, benchmark.getStepDuration().get());
+            ZonedDateTime stepEnd = nowUtc().plus(benchmark.getStepDuration().get());
+            ListeningExecutorService executorService = executorServiceFactory.create(concurrency);
+            long stepStart = System.nanoTime();
+            try {
+                List<Callable<List<QueryExecutionResult>>> queryExecutionCallables = newArrayList();
+                for (int stream = 0; stream < concurrency; stream++) {
+                    int finalStream = stream;
+                    queryExecutionCallables.add(() -> {
+                        List<QueryExecutionResult> queryExecutionResults = executeStreamUntil(benchmark, finalStream, stepEnd, executionTimeLimit, executionCounter, true, result -> {});
+                        statusReporter.reportConcurrencyTestExecutionFinished(queryExecutionResults);
+                        return queryExecutionResults;
+                    });
+                }
+                List<ListenableFuture<List<QueryExecutionResult>>> executionFutures = (List) executorService.invokeAll(queryExecutionCallables);
+                List<QueryExecutionResult> executions = Futures.allAsList(executionFutures).get().stream()
+                        .flatMap(List::stream)
+                        .collect(toImmutableList());
+                loadSteps.add(new LoadStepResult(concurrency, Duration.ofNanos(System.nanoTime() - stepStart), executions));
+            }
+            catch (InterruptedException | ExecutionException e) {
+                throw new BenchmarkExecutionException("Could not execute benchmark", e);
+            }
+            finally {
+                executorService.shutdown();
+            }
+        }
+        return loadSteps.build();
+    }
+
+    /**
+     * Executes soak benchmark queries in concurrency streams until the soak duration passes. Executions finished within
+     * each window are aggregated and reported as soon as the window ends, together with trends over all windows so far.
+     */
+    private List<SoakWindowResult> executeSoak(Benchmark benchmark, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        LOG.info("Running soak benchmark {} for {} in windows of {}", benchmark.getName(), benchmark.getSoakDuration().get(), benchmark.getSoakWindow());
+        ZonedDateTime soakEnd = nowUtc().plus(benchmark.getSoakDuration().get());
+        Queue<QueryExecutionResult> finishedExecutions = new ConcurrentLinkedQueue<>();
+        AtomicInteger executionCounter = new AtomicInteger();
+        ListeningExecutorService executorService = executorServiceFactory.create(benchmark.getConcurrency());
+        try {
+            List<ListenableFuture<List<QueryExecutionResult>>> streamFutures = newArrayList();
+            for (int stream = 0; stream < benchmark.getConcurrency(); stream++) {
+                int finalStream = stream;
+                streamFutures.add(executorService.submit(() -> executeStreamUntil(benchmark, finalStream, soakEnd, executionTimeLimit, executionCounter, false, finishedExecutions::add)));
+            }
+            ListenableFuture<List<List<QueryExecutionResult>>> streamsFuture = Futures.allAsList(streamFutures);
+
+            DegradationDetector degradationDetector = new DegradationDetector(properties.getSoakDegradationThreshold(), properties.getSoakTrendMinWindows());
+            List<SoakWindowResult> windows = newArrayList();
+            while (!streamsFuture.isDone()) {
+                SoakWindow window = new SoakWindow(benchmark, windows.size(), nowUtc());
+                statusReporter.reportSoakWindowStarted(window);
+                long windowStart = System.nanoTime();
+                awaitSoakWindowEnd(streamsFuture, benchmark.getSoakWindow());
+                List<QueryExecutionResult> windowExecutions = newArrayList();
+                while (!finishedExecutions.isEmpty()) {
+                    windowExecutions.add(finishedExecutions.remove());
+                }
+                SoakWindowResult windowResult = soakWindowResult(window, Duration.ofNanos(System.nanoTime() - windowStart), windowExecutions, windows, degradationDetector);
+                windows.add(windowResult);
+                statusReporter.reportSoakWindowFinished(windowResult);
+            }
+            streamsFuture.get();
+            return windows;
+        }
+        catch (InterruptedException | ExecutionException e) {
+            throw new BenchmarkExecutionException("Could not execute benchmark", e);
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static void awaitSoakWindowEnd(Future<?> streamsFuture, Duration window)
+            throws InterruptedException, ExecutionException
+    {
+        try {
+            streamsFuture.get(window.toNanos(), NANOSECONDS);
+        }
+        catch (TimeoutException e) {
+            // window ended while streams are still running
+        }
+    }
+
+    private static SoakWindowResult soakWindowResult(SoakWindow window, Duration duration, List<QueryExecutionResult> executions, List<SoakWindowResult> previousWindows,
+            DegradationDetector degradationDetector)
+    {
+        // trends of the window itself are not known yet, they include the window
+        SoakWindowResult untrendedResult = new SoakWindowResult(window, nowUtc(), duration, executions, 0, 0, false);
+        List<SoakWindowResult> windows = ImmutableList.<SoakWindowResult>builder()
+                .addAll(previousWindows)
+                .add(untrendedResult)
+                .build();
+        double throughputTrend = relativeTrend(windows.stream()
+                .map(SoakWindowResult::getThroughput)
+                .collect(toImmutableList()));
+        double durationTrend = relativeTrend(windows.stream()
+                .map(SoakWindowResult::getSuccessfulQueryDurations)
+                .filter(durations -> !durations.isEmpty())
+                .map(durations -> (double) percentile(durations, 90).toNanos())
+                .collect(toImmutableList()));
+        boolean degraded = degradationDetector.isDegraded(windows.size(), throughputTrend, durationTrend);
+        return new SoakWindowResult(window, untrendedResult.getUtcEnd(), duration, executions, throughputTrend, durationTrend, degraded);
+    }
+
+    /**
+     * Executes queries in a permuted order until the end, passing results to the consumer as soon as queries finish.
+     */
+    private List<QueryExecutionResult> executeStreamUntil(Benchmark benchmark, int stream, ZonedDateTime end, Optional<ZonedDateTime> executionTimeLimit,
+            AtomicInteger executionCounter, boolean reportStatus, Consumer<QueryExecutionResult> resultConsumer)
+            throws SQLException
+    {
+        List<Query> queries = benchmark.getQueries();
+        int[] queryOrder = PermutationUtils.preparePermutation(queries.size(), stream);
+        List<QueryExecutionResult> queryExecutionResults = newArrayList();
+        try (Connection connection = getConnectionFor(benchmark.getDataSource(), benchmark)) {
+            for (int queryIndex = 0; nowUtc().isBefore(end) && !isTimeLimitExceeded(executionTimeLimit); queryIndex = (queryIndex + 1) % queries.size()) {
+                QueryExecution queryExecution = new QueryExecution(benchmark, queries.get(queryOrder[queryIndex]), executionCounter.getAndIncrement());
+                if (queryExecutionResults.isEmpty() && reportStatus) {
+                    statusReporter.reportExecutionStarted(queryExecution);
+                }
+                QueryExecutionResult result = executeSingleQuery(queryExecution, benchmark, benchmark.getDataSource(), connection, false, executionTimeLimit);
+                queryExecutionResults.add(result);
+                resultConsumer.accept(result);
+            }
+        }
+        return queryExecutionResults;
+    }
+
+    /**
+     * Each callable executes a single stream of a query class of a mixed workload benchmark, so streams of all
+     * query classes run at once. Executions of each stream are numbered after executions of preceding streams.
+     */
+    private List<Callable<List<QueryExecutionResult>>> buildQueryClassExecutionCallables(Benchmark benchmark, int runs, boolean reportStatus, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        List<Callable<List<QueryExecutionResult>>> executionCallables = newArrayList();
+        int firstRun = 0;
+        for (QueryClass queryClass : benchmark.getQueryClasses()) {
+            int rounds = reportStatus ? runs * queryClass.getWeight() : runs;
+            for (int stream = 0; stream < queryClass.getConcurrency(); stream++) {
+                int finalStream = stream;
+                int streamFirstRun = firstRun;
+                executionCallables.add(() -> {
+                    LOG.info("Running query class {}: {} queries, {} rounds", queryClass.getName(), queryClass.getQueries().size(), rounds);
+                    List<QueryExecutionResult> queryExecutionResults = executeQueryClassStream(benchmark, queryClass, rounds, reportStatus, executionTimeLimit, finalStream, streamFirstRun);
+                    if (reportStatus) {
+                        statusReporter.reportConcurrencyTestExecutionFinished(queryExecutionResults);
+                    }
+                    return queryExecutionResults;
+                });
+                firstRun += rounds * queryClass.getQueries().size();
+            }
+        }
+        return executionCallables;
+    }
+
+    /**
+     * Executes queries of the class in a permuted order, starting them no more often than the arrival rate
+     * of the class allows.
+     */
+    private List<QueryExecutionResult> executeQueryClassStream(Benchmark benchmark, QueryClass queryClass, int rounds, boolean reportStatus, Optional<ZonedDateTime> executionTimeLimit,
+            int stream, int firstRun)
+            throws SQLException, InterruptedException
+    {
+        List<Query> queries = queryClass.getQueries();
+        int[] queryOrder = PermutationUtils.preparePermutation(queries.size(), stream);
+        Optional<Duration> arrivalInterval = reportStatus ? queryClass.getStreamArrivalInterval() : Optional.empty();
+        long nextArrival = System.nanoTime();
+        List<QueryExecutionResult> queryExecutionResults = newArrayList();
+        try (Connection connection = getConnectionFor(queryClass.getDataSource(), benchmark)) {
+            for (int round = 0; round < rounds; round++) {
+                for (int queryIndex = 0; queryIndex < queries.size(); queryIndex++) {
+                    int permutedQueryIndex = queryIndex;
+                    if (!reportStatus) {
+                        if (queryIndex % queryClass.getConcurrency() != stream) {
+                            // for pre-warming we split queries of the class among its streams
+                            continue;
+                        }
+                    }
+                    else {
+                        permutedQueryIndex = queryOrder[queryIndex];
+                    }
+                    if (arrivalInterval.isPresent()) {
+                        NANOSECONDS.sleep(nextArrival - System.nanoTime());
+                        nextArrival = Math.max(nextArrival, System.nanoTime()) + arrivalInterval.get().toNanos();
+                    }
+                    QueryExecution queryExecution = new QueryExecution(
+                            benchmark,
+                            queries.get(permutedQueryIndex),
+                            firstRun + round * queries.size() + queryIndex,
+                            Optional.empty(),
+                            Optional.of(queryClass.getName()));
+                    if (queryExecutionResults.isEmpty() && reportStatus) {
+                        statusReporter.reportExecutionStarted(queryExecution);
+                    }
+                    queryExecutionResults.add(executeSingleQuery(queryExecution, benchmark, queryClass.getDataSource(), connection, false, executionTimeLimit));
+                    if (isTimeLimitExceeded(executionTimeLimit)) {
+                        LOG.warn("Interrupting benchmark {} query class {} due to time limit exceeded", benchmark.getName(), queryClass.getName());
+                        return queryExecutionResults;
+                    }
+                }
+            }
+        }
+        return queryExecutionResults;
+    }
+
+    /**
+     * Queries with their own session properties are executed on a connection with those properties set instead of the given one.
+     */
+    private QueryExecutionResult executeSingleQuery(
+            QueryExecution queryExecution,
+            Benchmark benchmark,
+            String dataSource,
+            Connection connection,
+            boolean reportStatus,
+            Optional<ZonedDateTime> executionTimeLimit)
+            throws SQLException
+    {
+        if (queryExecution.getQuery().getProperty(SESSION_PROPERTIES_KEY).isPresent()) {
+            try (Connection queryConnection = connectionCache.getConnection(dataSource, sessionProperties(benchmark, queryExecution.getQuery()), isConnectionReusable(benchmark))) {
+                return executeSingleQuery(queryExecution, benchmark, queryConnection, reportStatus, executionTimeLimit);
+            }
+        }
+        return executeSingleQuery(queryExecution, benchmark, connection, reportStatus, executionTimeLimit);
+    }
+
     private QueryExecutionResult executeSingleQuery(
             QueryExecution queryExecution,
             Benchmark benchmark,
             Connection connection,
             boolean reportStatus,
             Optional<ZonedDateTime> executionTimeLimit)
-            throws TimeLimitException
     {
         QueryExecutionResult result;
+        ZonedDateTime beforeMacrosStart = nowUtc();
         macroService.runBenchmarkMacros(benchmark.getBeforeExecutionMacros(), benchmark, connection);
+        Duration beforeMacrosDuration = Duration.between(beforeMacrosStart, nowUtc());
         if (reportStatus) {
             statusReporter.reportExecutionStarted(queryExecution);
         }
         QueryExecutionResultBuilder failureResult = new QueryExecutionResultBuilder(queryExecution)
                 .startTimer();
         try {
-            result = queryExecutionDriver.execute(queryExecution, connection);
+            result = queryExecutionDriver.execute(queryExecution, connection, queryDeadline(benchmark, executionTimeLimit));
+        }
+        catch (QueryCancelledException e) {
+            LOG.warn("Query Execution cancelled for benchmark {} query {}", benchmark.getName(), queryExecution.getQueryName());
+            result = failureResult
+                    .endTimer()
+                    .cancelled(e)
+                    .build();
         }
         catch (Exception e) {
             LOG.error("Query Execution failed for benchmark {} query {}", benchmark.getName(), queryExecution.getQueryName());
@@ -295,37 +660,72 @@ public class BenchmarkExecutionDriver
                     .failed(e)
                     .build();
         }
-        if (isTimeLimitExceeded(executionTimeLimit)) {
-            throw new TimeLimitException(benchmark, queryExecution);
-        }
 
-        if (reportStatus) {
-            statusReporter.reportExecutionFinished(result);
+        ZonedDateTime afterMacrosStart = nowUtc();
+        try {
+            macroService.runBenchmarkMacros(benchmark.getAfterExecutionMacros(), benchmark, connection);
+        }
+        finally {
+            if (!benchmark.getBeforeExecutionMacros().isEmpty() || !benchmark.getAfterExecutionMacros().isEmpty()) {
+                result.setMacrosDuration(beforeMacrosDuration.plus(Duration.between(afterMacrosStart, nowUtc())));
+            }
+            if (reportStatus) {
+                statusReporter.reportExecutionFinished(result);
+            }
         }
-        macroService.runBenchmarkMacros(benchmark.getAfterExecutionMacros(), benchmark, connection);
         return result;
     }
 
-    private boolean isTimeLimitExceeded(Optional<ZonedDateTime> executionTimeLimit)
+    static boolean isTimeLimitExceeded(Optional<ZonedDateTime> executionTimeLimit)
     {
         return executionTimeLimit.map(limit -> limit.compareTo(nowUtc()) < 0).orElse(false);
     }
 
-    static class TimeLimitException
-            extends RuntimeException
+    /**
+     * Query is cancelled at its timeout, but not later than at the time limit.
+     */
+    static Optional<ZonedDateTime> queryDeadline(Benchmark benchmark, Optional<ZonedDateTime> executionTimeLimit)
     {
-        public TimeLimitException(Benchmark benchmark, QueryExecution queryExecution)
-        {
-            super(format(
-                    "Query execution exceeded time limit for benchmark %s query %s",
-                    benchmark.getName(),
-                    queryExecution.getQueryName()));
+        Optional<ZonedDateTime> timeoutDeadline = benchmark.getQueryTimeout().map(timeout -> nowUtc().plus(timeout));
+        if (timeoutDeadline.isPresent() && executionTimeLimit.isPresent()) {
+            return Optional.of(timeoutDeadline.get().isBefore(executionTimeLimit.get()) ? timeoutDeadline.get() : executionTimeLimit.get());
         }
+        return timeoutDeadline.isPresent() ? timeoutDeadline : executionTimeLimit;
     }
 
-    private Connection getConnectionFor(QueryExecution queryExecution)
+    private Connection getConnectionFor(String dataSource, Benchmark benchmark)
             throws SQLException
     {
-        return applicationContext.getBean(queryExecution.getBenchmark().getDataSource(), DataSource.class).getConnection();
+        return connectionCache.getConnection(dataSource, benchmark.getSessionProperties(), isConnectionReusable(benchmark));
+    }
+
+    /**
+     * Macros and statements of queries may change the session of the connection, e.g. with SET SESSION, so connections
+     * of benchmarks with macros or session changing statements are not returned to the cache, as the changes would leak
+     * to other benchmarks.
+     */
+    private static boolean isConnectionReusable(Benchmark benchmark)
+    {
+        Stream<Query> queries = Stream.concat(
+                benchmark.getQueries().stream(),
+                benchmark.getQueryClasses().stream().flatMap(queryClass -> queryClass.getQueries().stream()));
+        return benchmark.getBeforeBenchmarkMacros().isEmpty()
+                && benchmark.getAfterBenchmarkMacros().isEmpty()
+                && benchmark.getBeforeExecutionMacros().isEmpty()
+                && benchmark.getAfterExecutionMacros().isEmpty()
+                && benchmark.getCacheDropMacros().isEmpty()
+                && queries.noneMatch(query -> changesSession(query.getSqlTemplate()));
+    }
+
+    /**
+     * Session properties of the benchmark, overridden by the ones from the header of the query file.
+     */
+    static Map<String, String> sessionProperties(Benchmark benchmark, Query query)
+    {
+        Map<String, String> sessionProperties = new HashMap<>(benchmark.getSessionProperties());
+        query.getProperty(SESSION_PROPERTIES_KEY)
+                .map(properties -> parseSessionProperties(properties))
+                .ifPresent(sessionProperties::putAll);
+        return sessionProperties;
     }
 }
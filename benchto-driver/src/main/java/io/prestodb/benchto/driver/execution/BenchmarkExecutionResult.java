@@ -16,6 +16,7 @@ package io.prestodb.benchto.driver.execution;
 import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.Measurable;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +31,9 @@ public class BenchmarkExecutionResult
     private final Benchmark benchmark;
     private Optional<Exception> failure = Optional.empty();
     private List<QueryExecutionResult> executions;
+    private List<Duration> prewarmDurations = emptyList();
+    private List<LoadStepResult> loadSteps = emptyList();
+    private List<SoakWindowResult> soakWindows = emptyList();
 
     private BenchmarkExecutionResult(Benchmark benchmark)
     {
@@ -53,16 +57,37 @@ public class BenchmarkExecutionResult
         return executions;
     }
 
+    public List<Duration> getPrewarmDurations()
+    {
+        return prewarmDurations;
+    }
+
+    /**
+     * Steps of a step-load benchmark, their executions are also among {@link #getExecutions()}.
+     */
+    public List<LoadStepResult> getLoadSteps()
+    {
+        return loadSteps;
+    }
+
+    /**
+     * Windows of a soak benchmark, their executions are also among {@link #getExecutions()}.
+     */
+    public List<SoakWindowResult> getSoakWindows()
+    {
+        return soakWindows;
+    }
+
     @Override
     public boolean isSuccessful()
     {
-        return !failure.isPresent() && executions.stream().allMatch(QueryExecutionResult::isSuccessful);
+        return !failure.isPresent() && executions.stream().allMatch(execution -> execution.isSuccessful() || execution.isCancelled());
     }
 
     public List<Exception> getFailureCauses()
     {
         List<Exception> failureCauses = executions.stream()
-                .filter(queryExecutionResult -> !queryExecutionResult.isSuccessful())
+                .filter(queryExecutionResult -> !queryExecutionResult.isSuccessful() && !queryExecutionResult.isCancelled())
                 .map(QueryExecutionResult::getFailureCause)
                 .collect(toList());
         failure.ifPresent(failureCauses::add);
@@ -100,6 +125,24 @@ public class BenchmarkExecutionResult
             return this;
         }
 
+        public BenchmarkExecutionResultBuilder withPrewarmDurations(List<Duration> prewarmDurations)
+        {
+            object.prewarmDurations = prewarmDurations;
+            return this;
+        }
+
+        public BenchmarkExecutionResultBuilder withLoadSteps(List<LoadStepResult> loadSteps)
+        {
+            object.loadSteps = loadSteps;
+            return this;
+        }
+
+        public BenchmarkExecutionResultBuilder withSoakWindows(List<SoakWindowResult> soakWindows)
+        {
+            object.soakWindows = soakWindows;
+            return this;
+        }
+
         @Override
         public BenchmarkExecutionResult build()
         {
@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.BenchmarkProperties;
+import io.prestodb.benchto.driver.service.BenchmarkServiceClient;
+import io.prestodb.benchto.driver.service.BenchmarkServiceClient.ExecutionDurationSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Orders benchmarks so that the most valuable ones fit into the time limit. Priority of a benchmark is the age of its latest
+ * successful run relative to its frequency, doubled when the benchmark has recently regressed. Cost is estimated from
+ * mean execution duration of its recent runs, or from the configured durations of step-load and soak benchmarks.
+ * Benchmarks are picked by priority per unit of cost while the estimated costs fit into the time limit and executed
+ * by priority, the rest follows in case estimates were too pessimistic.
+ */
+@Component
+public class BenchmarkScheduler
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BenchmarkScheduler.class);
+
+    private static final Duration DEFAULT_FREQUENCY = Duration.ofDays(1);
+    // benchmarks which have never run successfully are equally stale
+    private static final double MAX_STALENESS = 1000;
+    private static final double REGRESSION_PRIORITY_FACTOR = 2;
+
+    @Autowired
+    private BenchmarkProperties properties;
+
+    @Autowired
+    private BenchmarkServiceClient benchmarkServiceClient;
+
+    public List<Benchmark> schedule(List<Benchmark> benchmarks, Duration timeLimit)
+    {
+        if (benchmarks.size() < 2) {
+            return benchmarks;
+        }
+
+        List<String> uniqueNames = benchmarks.stream()
+                .map(Benchmark::getUniqueName)
+                .collect(toList());
+        List<Duration> successfulExecutionAges;
+        List<ExecutionDurationSummary> durationSummaries;
+        try {
+            successfulExecutionAges = benchmarkServiceClient.getBenchmarkSuccessfulExecutionAges(uniqueNames);
+            durationSummaries = benchmarkServiceClient.getExecutionDurationSummaries(properties.getEnvironmentName(), uniqueNames);
+        }
+        catch (RestClientException e) {
+            // e.g. the benchmark service does not serve duration summaries yet
+            LOG.warn("Could not get history of benchmarks, they are executed in the original order: {}", e.getMessage());
+            return benchmarks;
+        }
+
+        List<ScheduledBenchmark> scheduledBenchmarks = IntStream.range(0, benchmarks.size())
+                .mapToObj(i -> new ScheduledBenchmark(i, benchmarks.get(i), successfulExecutionAges.get(i), durationSummaries.get(i)))
+                .collect(toList());
+        estimateUnknownCosts(scheduledBenchmarks);
+
+        long budgetMillis = timeLimit.toMillis();
+        List<ScheduledBenchmark> byValue = scheduledBenchmarks.stream()
+                .sorted(Comparator.comparingDouble(ScheduledBenchmark::getValue).reversed().thenComparingInt(ScheduledBenchmark::getIndex))
+                .collect(toList());
+        for (ScheduledBenchmark benchmark : byValue) {
+            if (benchmark.getCostMillis() <= budgetMillis) {
+                benchmark.selected = true;
+                budgetMillis -= benchmark.getCostMillis();
+            }
+        }
+
+        List<ScheduledBenchmark> schedule = scheduledBenchmarks.stream()
+                .sorted(Comparator.comparing((ScheduledBenchmark benchmark) -> !benchmark.selected)
+                        .thenComparing(Comparator.comparingDouble(ScheduledBenchmark::getPriority).reversed())
+                        .thenComparingInt(ScheduledBenchmark::getIndex))
+                .collect(toList());
+
+        LOG.info("Benchmarks scheduled for time limit of {}:", timeLimit);
+        schedule.forEach(benchmark -> LOG.info("{}", benchmark));
+
+        return schedule.stream()
+                .map(ScheduledBenchmark::getBenchmark)
+                .collect(toImmutableList());
+    }
+
+    private static void estimateUnknownCosts(List<ScheduledBenchmark> benchmarks)
+    {
+        List<Long> knownCosts = benchmarks.stream()
+                .filter(benchmark -> benchmark.costMillis >= 0)
+                .map(benchmark -> benchmark.costMillis)
+                .sorted()
+                .collect(toList());
+        long medianCost = knownCosts.isEmpty() ? 0 : knownCosts.get(knownCosts.size() / 2);
+        benchmarks.stream()
+                .filter(benchmark -> benchmark.costMillis < 0)
+                .forEach(benchmark -> benchmark.costMillis = medianCost);
+    }
+
+    private class ScheduledBenchmark
+    {
+        private final int index;
+        private final Benchmark benchmark;
+        private final double staleness;
+        private final boolean regressed;
+        private long costMillis;
+        private boolean selected;
+
+        private ScheduledBenchmark(int index, Benchmark benchmark, Duration successfulExecutionAge, ExecutionDurationSummary durationSummary)
+        {
+            this.index = index;
+            this.benchmark = benchmark;
+            Duration frequency = benchmark.getFrequency().orElse(DEFAULT_FREQUENCY);
+            this.staleness = Math.min((double) successfulExecutionAge.getSeconds() / frequency.getSeconds(), MAX_STALENESS);
+            this.regressed = durationSummary.getRuns() > 1 &&
+                    durationSummary.getLatestMeanDuration() > durationSummary.getPreviousMeanDuration() * properties.getRegressionThreshold();
+            if (benchmark.isStepLoad()) {
+                this.costMillis = benchmark.getStepDuration().get().toMillis() * benchmark.getLoadSteps().size();
+            }
+            else if (benchmark.isSoak()) {
+                this.costMillis = benchmark.getSoakDuration().get().toMillis();
+            }
+            else if (durationSummary.getRuns() > 0) {
+                int executions = (benchmark.getRuns() * benchmark.getExecutionsPerRun() + benchmark.getPrewarmRuns()) * benchmark.getQueries().size();
+                // each concurrency stream of a throughput test executes all runs, other benchmarks split them among threads
+                int parallelism = benchmark.isThroughputTest() ? 1 : benchmark.getConcurrency();
+                this.costMillis = (long) (durationSummary.getMeanDuration() * executions / parallelism);
+            }
+            else {
+                this.costMillis = -1;
+            }
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        public Benchmark getBenchmark()
+        {
+            return benchmark;
+        }
+
+        public double getPriority()
+        {
+            return regressed ? staleness * REGRESSION_PRIORITY_FACTOR : staleness;
+        }
+
+        public long getCostMillis()
+        {
+            return costMillis;
+        }
+
+        public double getValue()
+        {
+            return getPriority() / Math.max(costMillis, 1);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("uniqueName", benchmark.getUniqueName())
+                    .add("priority", getPriority())
+                    .add("regressed", regressed)
+                    .add("estimatedCost", Duration.ofMillis(costMillis))
+                    .add("fitsTimeLimit", selected)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import io.prestodb.benchto.driver.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Splitter.on;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static java.util.Collections.nCopies;
+
+/**
+ * How results of a single SQL statement of a query are consumed by the driver.
+ */
+public enum ConsumptionMode
+{
+    /**
+     * All rows of the result are fetched, the default for queries.
+     */
+    ALL("all"),
+    /**
+     * Only the first row of the result is fetched, after which the result is closed.
+     */
+    FIRST_ROW("first-row"),
+    /**
+     * Statement is executed as an update, only its update count is read, the default for other statements.
+     */
+    UPDATE("update");
+
+    /**
+     * Query property with consumption modes of statements of the query, either one for all of them or one for each of them in order.
+     */
+    public static final String CONSUME_PROPERTY = "consume";
+
+    private final String propertyValue;
+
+    ConsumptionMode(String propertyValue)
+    {
+        this.propertyValue = propertyValue;
+    }
+
+    public String getPropertyValue()
+    {
+        return propertyValue;
+    }
+
+    /**
+     * @param defaultModes consumption modes of statements of the query used unless the query sets them explicitly
+     */
+    public static List<ConsumptionMode> consumptionModes(Query query, List<ConsumptionMode> defaultModes)
+    {
+        Optional<String> property = query.getProperty(CONSUME_PROPERTY);
+        if (!property.isPresent()) {
+            return defaultModes;
+        }
+
+        List<ConsumptionMode> modes = on(',').trimResults().omitEmptyStrings().splitToList(property.get()).stream()
+                .map(ConsumptionMode::fromPropertyValue)
+                .collect(toImmutableList());
+        if (modes.size() == 1) {
+            return ImmutableList.copyOf(nCopies(defaultModes.size(), modes.get(0)));
+        }
+        if (modes.size() != defaultModes.size()) {
+            throw new BenchmarkExecutionException(format("Query %s has %s statements, but %s consumption modes: %s",
+                    query.getName(), defaultModes.size(), modes.size(), property.get()));
+        }
+        return modes;
+    }
+
+    private static ConsumptionMode fromPropertyValue(String propertyValue)
+    {
+        for (ConsumptionMode mode : values()) {
+            if (mode.propertyValue.equals(propertyValue)) {
+                return mode;
+            }
+        }
+        throw new BenchmarkExecutionException("Unknown consumption mode: " + propertyValue);
+    }
+}
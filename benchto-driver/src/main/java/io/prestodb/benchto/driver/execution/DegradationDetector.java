@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Flags gradual degradation of soak benchmarks. Trend of per-window values is the change fitted by least squares
+ * from the first to the latest window, relative to the mean value.
+ */
+public class DegradationDetector
+{
+    private final double threshold;
+    private final int minWindows;
+
+    public DegradationDetector(double threshold, int minWindows)
+    {
+        checkArgument(threshold > 0, "Degradation threshold must be positive, got %s", threshold);
+        checkArgument(minWindows >= 2, "At least 2 windows are needed to detect a trend, got %s", minWindows);
+        this.threshold = threshold;
+        this.minWindows = minWindows;
+    }
+
+    public static double relativeTrend(List<Double> values)
+    {
+        int count = values.size();
+        if (count < 2) {
+            return 0;
+        }
+        double meanX = (count - 1) / 2.0;
+        double meanY = values.stream().mapToDouble(Double::doubleValue).average().getAsDouble();
+        if (meanY == 0) {
+            return 0;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < count; i++) {
+            covariance += (i - meanX) * (values.get(i) - meanY);
+            variance += (i - meanX) * (i - meanX);
+        }
+        return covariance / variance * (count - 1) / meanY;
+    }
+
+    /**
+     * Benchmark is degraded when throughput falls or latency rises by more than the threshold.
+     */
+    public boolean isDegraded(int windows, double throughputTrend, double durationTrend)
+    {
+        return windows >= minWindows && (throughputTrend < -threshold || durationTrend > threshold);
+    }
+}
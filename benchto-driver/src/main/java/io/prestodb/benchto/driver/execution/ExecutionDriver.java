@@ -13,9 +13,17 @@
  */
 package io.prestodb.benchto.driver.execution;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
 import io.prestodb.benchto.driver.BenchmarkProperties;
 import io.prestodb.benchto.driver.FailedBenchmarkExecutionException;
+import io.prestodb.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.prestodb.benchto.driver.distributed.DistributedCoordinator;
+import io.prestodb.benchto.driver.distributed.DistributedProperties;
+import io.prestodb.benchto.driver.distributed.DistributedWorker;
 import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
 import io.prestodb.benchto.driver.loader.BenchmarkLoader;
 import io.prestodb.benchto.driver.macro.MacroService;
@@ -27,12 +35,20 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newLinkedHashSet;
 import static io.prestodb.benchto.driver.utils.TimeUtils.nowUtc;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 
 @Component
@@ -56,21 +72,60 @@ public class ExecutionDriver
     @Autowired
     private MacroService macroService;
 
+    @Autowired
+    private BenchmarkScheduler benchmarkScheduler;
+
+    @Autowired
+    private ExecutorServiceFactory executorServiceFactory;
+
+    @Autowired
+    private SharedPrewarm sharedPrewarm;
+
+    @Autowired
+    private DistributedProperties distributedProperties;
+
+    @Autowired
+    private DistributedCoordinator distributedCoordinator;
+
+    @Autowired
+    private DistributedWorker distributedWorker;
+
     private final ZonedDateTime startTime = nowUtc();
 
     public void execute()
     {
-        List<Benchmark> benchmarks = loadBenchmarks();
+        if (distributedProperties.isWorker()) {
+            LOG.info("Running as a distributed worker with properties: {}", distributedProperties);
+            distributedWorker.run();
+            return;
+        }
+
+        String executionSequenceId = benchmarkExecutionSequenceId();
+        List<Benchmark> benchmarks = loadBenchmarks(executionSequenceId);
         if (benchmarks.isEmpty()) {
             LOG.warn("No benchmarks selected, exiting...");
             return;
         }
 
+        Optional<Duration> timeLimit = properties.getTimeLimit();
+        if (timeLimit.isPresent() && properties.isTimeLimitSchedulingEnabled()) {
+            benchmarks = benchmarkScheduler.schedule(benchmarks, timeLimit.get().minus(Duration.between(startTime, nowUtc())));
+        }
+
+        loadMacros(benchmarks);
         executeBeforeAllMacros();
+        if (distributedProperties.isCoordinator()) {
+            LOG.info("Running as a distributed coordinator with properties: {}", distributedProperties);
+            distributedCoordinator.start(executionSequenceId);
+        }
         try {
+            if (properties.isSharedPrewarmEnabled()) {
+                sharedPrewarm.prewarm(benchmarks, getExecutionTimeLimit());
+            }
             executeBenchmarks(benchmarks);
         }
         finally {
+            distributedCoordinator.stop();
             try {
                 executeAfterAllMacros();
             }
@@ -80,6 +135,25 @@ public class ExecutionDriver
         }
     }
 
+    /**
+     * Fails before any macro or benchmark is executed if some of the macros cannot be executed.
+     */
+    private void loadMacros(List<Benchmark> benchmarks)
+    {
+        Set<String> macroNames = newLinkedHashSet();
+        properties.getBeforeAllMacros().ifPresent(macroNames::addAll);
+        properties.getAfterAllMacros().ifPresent(macroNames::addAll);
+        properties.getHealthCheckMacros().ifPresent(macroNames::addAll);
+        for (Benchmark benchmark : benchmarks) {
+            macroNames.addAll(benchmark.getBeforeBenchmarkMacros());
+            macroNames.addAll(benchmark.getAfterBenchmarkMacros());
+            macroNames.addAll(benchmark.getBeforeExecutionMacros());
+            macroNames.addAll(benchmark.getAfterExecutionMacros());
+            macroNames.addAll(benchmark.getCacheDropMacros());
+        }
+        macroService.loadBenchmarkMacros(macroNames);
+    }
+
     private void executeBeforeAllMacros()
     {
         runOptionalMacros(properties.getBeforeAllMacros(), "before all");
@@ -98,9 +172,8 @@ public class ExecutionDriver
         }
     }
 
-    private List<Benchmark> loadBenchmarks()
+    private List<Benchmark> loadBenchmarks(String executionSequenceId)
     {
-        String executionSequenceId = benchmarkExecutionSequenceId();
         LOG.info("Running benchmarks(executionSequenceId={}) with properties: {}", executionSequenceId, properties);
 
         List<Benchmark> benchmarks = benchmarkLoader.loadBenchmarks(executionSequenceId);
@@ -115,17 +188,14 @@ public class ExecutionDriver
 
     private void executeBenchmarks(List<Benchmark> benchmarks)
     {
-        List<BenchmarkExecutionResult> benchmarkExecutionResults = newArrayList();
-        int benchmarkOrdinalNumber = 1;
-        for (Benchmark benchmark : benchmarks) {
-            if (isTimeLimitEnded()) {
-                LOG.warn("Time limit for running benchmarks has run out");
-                break;
-            }
-
-            executeHealthCheck(benchmark);
-            benchmarkExecutionResults.add(benchmarkExecutionDriver.execute(benchmark, benchmarkOrdinalNumber++, benchmarks.size(), getExecutionTimeLimit()));
-            benchmarkStatusReporter.processCompletedFutures();
+        List<BenchmarkExecutionResult> benchmarkExecutionResults;
+        if (properties.getParallelGroups() > 1 && !distributedProperties.isCoordinator()) {
+            Map<String, List<Integer>> isolationGroups = IntStream.range(0, benchmarks.size()).boxed()
+                    .collect(groupingBy(index -> benchmarks.get(index).getIsolationGroup(), LinkedHashMap::new, toList()));
+            benchmarkExecutionResults = executeIsolationGroups(benchmarks, isolationGroups);
+        }
+        else {
+            benchmarkExecutionResults = executeBenchmarks(benchmarks, IntStream.range(0, benchmarks.size()).boxed().collect(toList()), Optional.empty());
         }
 
         List<BenchmarkExecutionResult> failedBenchmarkResults = benchmarkExecutionResults.stream()
@@ -139,6 +209,54 @@ public class ExecutionDriver
         }
     }
 
+    /**
+     * Executes isolation groups in parallel, benchmarks of a single group are still executed one after another.
+     */
+    private List<BenchmarkExecutionResult> executeIsolationGroups(List<Benchmark> benchmarks, Map<String, List<Integer>> isolationGroups)
+    {
+        int parallelGroups = Math.min(properties.getParallelGroups(), isolationGroups.size());
+        LOG.info("Executing {} isolation groups, {} at a time: {}", isolationGroups.size(), parallelGroups, isolationGroups.keySet());
+
+        ListeningExecutorService executorService = executorServiceFactory.create(parallelGroups);
+        try {
+            List<ListenableFuture<List<BenchmarkExecutionResult>>> groupFutures = isolationGroups.entrySet().stream()
+                    .map(group -> executorService.submit(() -> executeBenchmarks(benchmarks, group.getValue(), Optional.of(group.getKey()))))
+                    .collect(toList());
+            return Futures.allAsList(groupFutures).get().stream()
+                    .flatMap(List::stream)
+                    .collect(toList());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BenchmarkExecutionException("Interrupted while executing isolation groups", e);
+        }
+        catch (ExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new BenchmarkExecutionException("Could not execute isolation groups", e.getCause());
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private List<BenchmarkExecutionResult> executeBenchmarks(List<Benchmark> benchmarks, List<Integer> benchmarkIndexes, Optional<String> isolationGroup)
+    {
+        List<BenchmarkExecutionResult> benchmarkExecutionResults = newArrayList();
+        for (int benchmarkIndex : benchmarkIndexes) {
+            if (isTimeLimitEnded()) {
+                LOG.warn("Time limit for running benchmarks has run out");
+                break;
+            }
+
+            Benchmark benchmark = benchmarks.get(benchmarkIndex);
+            executeHealthCheck(benchmark);
+            benchmarkExecutionResults.add(benchmarkExecutionDriver.execute(benchmark, benchmarkIndex + 1, benchmarks.size(), getExecutionTimeLimit()));
+            benchmarkStatusReporter.processCompletedFutures();
+            isolationGroup.ifPresent(group -> LOG.info("Isolation group {}: executed {} of {} benchmarks", group, benchmarkExecutionResults.size(), benchmarkIndexes.size()));
+        }
+        return benchmarkExecutionResults;
+    }
+
     private boolean isTimeLimitEnded()
     {
         Optional<Duration> timeLimit = properties.getTimeLimit();
@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Finds the knee point of a step-load benchmark, the last step before latency diverges. Latency of a step diverges when
+ * it exceeds latency of the first step by more than the factor, or when the step has no successful executions at all.
+ */
+public class KneePointDetector
+{
+    private final double latencyFactor;
+
+    public KneePointDetector(double latencyFactor)
+    {
+        checkArgument(latencyFactor > 1, "Latency factor must be greater than 1, got %s", latencyFactor);
+        this.latencyFactor = latencyFactor;
+    }
+
+    /**
+     * @param stepLatencies latency of each step, empty for steps without successful executions
+     * @return index of the knee point step, empty when latency does not diverge or diverges already at the first step
+     */
+    public Optional<Integer> kneePoint(List<Optional<Duration>> stepLatencies)
+    {
+        if (stepLatencies.isEmpty() || !stepLatencies.get(0).isPresent()) {
+            return Optional.empty();
+        }
+        long baseline = stepLatencies.get(0).get().toNanos();
+        for (int step = 1; step < stepLatencies.size(); step++) {
+            Optional<Duration> latency = stepLatencies.get(step);
+            if (!latency.isPresent() || latency.get().toNanos() > baseline * latencyFactor) {
+                return Optional.of(step - 1);
+            }
+        }
+        return Optional.empty();
+    }
+}
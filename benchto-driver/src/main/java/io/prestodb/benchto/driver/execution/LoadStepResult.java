@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Query executions of a single step of a step-load benchmark.
+ */
+public class LoadStepResult
+{
+    private final int concurrency;
+    private final Duration duration;
+    private final List<QueryExecutionResult> executions;
+
+    public LoadStepResult(int concurrency, Duration duration, List<QueryExecutionResult> executions)
+    {
+        this.concurrency = concurrency;
+        this.duration = requireNonNull(duration);
+        this.executions = ImmutableList.copyOf(executions);
+    }
+
+    public int getConcurrency()
+    {
+        return concurrency;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    public List<QueryExecutionResult> getExecutions()
+    {
+        return executions;
+    }
+
+    public List<Duration> getSuccessfulQueryDurations()
+    {
+        return executions.stream()
+                .filter(QueryExecutionResult::isSuccessful)
+                .map(QueryExecutionResult::getQueryDuration)
+                .collect(toList());
+    }
+
+    /**
+     * Successful query executions per second.
+     */
+    public double getThroughput()
+    {
+        return (double) getSuccessfulQueryDurations().size() / Math.max(duration.toMillis(), 1) * 1000;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("concurrency", concurrency)
+                .add("duration", duration)
+                .add("executions", executions.size())
+                .toString();
+    }
+}
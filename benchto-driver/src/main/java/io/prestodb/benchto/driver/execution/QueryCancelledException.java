@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+
+import static java.lang.String.format;
+
+/**
+ * Query execution was cancelled by {@link QueryExecutionWatchdog}, after exceeding the query timeout or the time limit.
+ */
+public class QueryCancelledException
+        extends BenchmarkExecutionException
+{
+    public QueryCancelledException(QueryExecution queryExecution, Throwable cause)
+    {
+        super(format(
+                "Query execution cancelled after exceeding query timeout or time limit for benchmark %s query %s",
+                queryExecution.getBenchmark().getName(),
+                queryExecution.getQueryName()), cause);
+    }
+}
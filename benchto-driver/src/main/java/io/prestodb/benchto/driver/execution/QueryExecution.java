@@ -16,20 +16,50 @@ package io.prestodb.benchto.driver.execution;
 import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.Query;
 
+import java.util.Optional;
+
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
 
 public class QueryExecution
 {
+    /**
+     * State of caches for executions of benchmarks with cold and warm runs.
+     */
+    public enum CacheState
+    {
+        COLD,
+        WARM;
+
+        public String getAttributeValue()
+        {
+            return name().toLowerCase();
+        }
+    }
+
     private final Benchmark benchmark;
     private final Query query;
     private final int run;
+    private final Optional<CacheState> cacheState;
+    private final Optional<String> queryClass;
 
     public QueryExecution(Benchmark benchmark, Query query, int run)
+    {
+        this(benchmark, query, run, Optional.empty());
+    }
+
+    public QueryExecution(Benchmark benchmark, Query query, int run, Optional<CacheState> cacheState)
+    {
+        this(benchmark, query, run, cacheState, Optional.empty());
+    }
+
+    public QueryExecution(Benchmark benchmark, Query query, int run, Optional<CacheState> cacheState, Optional<String> queryClass)
     {
         this.benchmark = requireNonNull(benchmark);
         this.query = requireNonNull(query);
         this.run = run;
+        this.cacheState = requireNonNull(cacheState);
+        this.queryClass = requireNonNull(queryClass);
     }
 
     public Benchmark getBenchmark()
@@ -52,12 +82,27 @@ public class QueryExecution
         return run;
     }
 
+    public Optional<CacheState> getCacheState()
+    {
+        return cacheState;
+    }
+
+    /**
+     * Name of the query class executing the query in mixed workload benchmarks.
+     */
+    public Optional<String> getQueryClass()
+    {
+        return queryClass;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("query", query)
                 .add("run", run)
+                .add("cacheState", cacheState)
+                .add("queryClass", queryClass)
                 .toString();
     }
 }
@@ -14,23 +14,39 @@
 package io.prestodb.benchto.driver.execution;
 
 import com.facebook.presto.jdbc.PrestoResultSet;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
+import io.prestodb.benchto.driver.execution.QueryExecutionWatchdog.Watch;
+import io.prestodb.benchto.driver.loader.ParameterizedSqlStatement;
 import io.prestodb.benchto.driver.loader.SqlStatementGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getLast;
+import static com.google.common.collect.Lists.newArrayList;
+import static io.prestodb.benchto.driver.execution.ConsumptionMode.ALL;
+import static io.prestodb.benchto.driver.execution.ConsumptionMode.UPDATE;
+import static io.prestodb.benchto.driver.execution.ConsumptionMode.consumptionModes;
 
 public class QueryExecutionDriver
 {
@@ -40,85 +56,187 @@ public class QueryExecutionDriver
     @Autowired
     private SqlStatementGenerator sqlStatementGenerator;
 
-    public QueryExecutionResult execute(QueryExecution queryExecution, Connection connection)
+    @Autowired
+    private QueryExecutionWatchdog watchdog;
+
+    /**
+     * Prepared statements of each connection by their SQL, dropped once the connection is garbage collected.
+     */
+    private final Cache<Connection, Map<String, PreparedStatement>> preparedStatements = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    /**
+     * Executes the query, cancelling it when it is still running at the deadline. Statements of a query with several
+     * of them are executed one after another on the connection, as a single execution.
+     *
+     * @throws QueryCancelledException if the query was cancelled
+     */
+    public QueryExecutionResult execute(QueryExecution queryExecution, Connection connection, Optional<ZonedDateTime> deadline)
             throws SQLException
     {
         QueryExecutionResultBuilder queryExecutionResultBuilder = new QueryExecutionResultBuilder(queryExecution)
                 .startTimer();
 
-        String sqlStatement = generateQuerySqlStatement(queryExecution);
+        boolean prepared = queryExecution.getBenchmark().isPreparedStatements();
+        List<ParameterizedSqlStatement> sqlStatements = generateSqlStatements(queryExecution);
+        checkState(!sqlStatements.isEmpty(), "Query %s has no SQL statements", queryExecution.getQueryName());
+        List<ConsumptionMode> consumptionModes = consumptionModes(queryExecution.getQuery(), sqlStatements.stream()
+                .map(sqlStatement -> isSelectQuery(sqlStatement.getSql()) ? ALL : UPDATE)
+                .collect(toImmutableList()));
+
+        List<Statement> statements = newArrayList();
+        try {
+            for (ParameterizedSqlStatement sqlStatement : sqlStatements) {
+                statements.add(prepared ? prepareStatement(connection, sqlStatement) : connection.createStatement());
+            }
+            if (prepared) {
+                // only execution of prepared statements is measured
+                queryExecutionResultBuilder.startTimer();
+            }
+
+            List<StatementResult> statementResults = newArrayList();
+            for (int statement = 0; statement < statements.size(); statement++) {
+                statementResults.add(executeStatement(queryExecution, connection, statements.get(statement), prepared, sqlStatements.get(statement),
+                        consumptionModes.get(statement), deadline, queryExecutionResultBuilder));
+            }
+
+            return queryExecutionResultBuilder
+                    .setRowsCount(getLast(statementResults).getRowsCount())
+                    .setStatementResults(statementResults.size() > 1 ? statementResults : ImmutableList.of())
+                    .endTimer()
+                    .build();
+        }
+        finally {
+            if (!prepared) {
+                for (Statement statement : statements) {
+                    statement.close();
+                }
+            }
+        }
+    }
 
-        if (isSelectQuery(sqlStatement)) {
-            return executeSelectQuery(connection, queryExecutionResultBuilder, sqlStatement);
+    private StatementResult executeStatement(
+            QueryExecution queryExecution,
+            Connection connection,
+            Statement statement,
+            boolean prepared,
+            ParameterizedSqlStatement sqlStatement,
+            ConsumptionMode consumptionMode,
+            Optional<ZonedDateTime> deadline,
+            QueryExecutionResultBuilder queryExecutionResultBuilder)
+            throws SQLException
+    {
+        if (prepared) {
+            // statements of a query with the same SQL share the prepared statement, so parameters are bound just before each execution
+            List<Object> parameters = sqlStatement.getParameters();
+            for (int parameter = 0; parameter < parameters.size(); parameter++) {
+                ((PreparedStatement) statement).setObject(parameter + 1, parameters.get(parameter));
+            }
         }
-        else {
-            return executeUpdateQuery(connection, queryExecutionResultBuilder, sqlStatement);
+        long start = System.nanoTime();
+        try (Watch watch = watchdog.watch(statement, deadline)) {
+            try {
+                int rowsCount;
+                if (consumptionMode == UPDATE) {
+                    rowsCount = prepared ? ((PreparedStatement) statement).executeUpdate() : statement.executeUpdate(sqlStatement.getSql());
+                }
+                else {
+                    try (ResultSet resultSet = prepared ? ((PreparedStatement) statement).executeQuery() : statement.executeQuery(sqlStatement.getSql())) {
+                        rowsCount = readResultSet(connection, resultSet, consumptionMode, queryExecutionResultBuilder, prepared ? sqlStatement.toString() : sqlStatement.getSql());
+                    }
+                }
+                return new StatementResult(consumptionMode, Duration.ofNanos(System.nanoTime() - start), rowsCount);
+            }
+            catch (SQLException e) {
+                if (watch.isCancelled()) {
+                    throw new QueryCancelledException(queryExecution, e);
+                }
+                throw e;
+            }
         }
     }
 
+    /**
+     * Statement is prepared on first execution of its SQL on the connection and reused by later ones. Parameters are
+     * bound by {@link #executeStatement}.
+     */
+    private PreparedStatement prepareStatement(Connection connection, ParameterizedSqlStatement sqlStatement)
+            throws SQLException
+    {
+        Map<String, PreparedStatement> connectionStatements = preparedStatements.asMap().computeIfAbsent(connection, key -> new ConcurrentHashMap<>());
+        PreparedStatement statement = connectionStatements.get(sqlStatement.getSql());
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sqlStatement.getSql());
+            connectionStatements.put(sqlStatement.getSql(), statement);
+        }
+        return statement;
+    }
+
     private boolean isSelectQuery(String sql)
     {
         sql = sql.trim().toLowerCase();
         return sql.startsWith("select") || sql.startsWith("show") || sql.startsWith("with");
     }
 
-    private QueryExecutionResult executeSelectQuery(Connection connection, QueryExecutionResultBuilder queryExecutionResultBuilder, String sqlStatement)
+    /**
+     * @return number of fetched rows
+     */
+    private int readResultSet(Connection connection, ResultSet resultSet, ConsumptionMode consumptionMode, QueryExecutionResultBuilder queryExecutionResultBuilder, String sqlStatement)
             throws SQLException
     {
-        try (Statement statement = connection.createStatement();
-                ResultSet resultSet = statement.executeQuery(sqlStatement)) {
-            LOG.info("First {} rows for query: {}", LOGGED_ROWS, sqlStatement);
-
-            int rowsCount = 0;
-            while (resultSet.next()) {
-                if (rowsCount < LOGGED_ROWS) {
-                    logRow(rowsCount + 1, resultSet);
-                }
-                else if (rowsCount == LOGGED_ROWS) {
-                    LOG.info("There are more unlogged rows");
-                }
-                rowsCount++;
-            }
+        LOG.info("First {} rows for query: {}", LOGGED_ROWS, sqlStatement);
 
-            try {
-                if (resultSet.isWrapperFor(PrestoResultSet.class)) {
-                    PrestoResultSet prestoResultSet = resultSet.unwrap(PrestoResultSet.class);
-                    queryExecutionResultBuilder.setPrestoQueryId(prestoResultSet.getQueryId());
-                }
+        int rowsCount = 0;
+        while ((consumptionMode == ALL || rowsCount == 0) && resultSet.next()) {
+            if (rowsCount < LOGGED_ROWS) {
+                logRow(rowsCount + 1, resultSet);
             }
-            catch (AbstractMethodError | Exception e) {
-                // this error is caught by the compiler, but some drivers (hsqldb, hive, ...?) sucks
-                LOG.warn("Driver ({}) does not support isWrapperFor/unwrap method", connection.toString());
+            else if (rowsCount == LOGGED_ROWS) {
+                LOG.info("There are more unlogged rows");
             }
+            rowsCount++;
+        }
 
-            return queryExecutionResultBuilder
-                    .setRowsCount(rowsCount)
-                    .endTimer()
-                    .build();
+        try {
+            if (resultSet.isWrapperFor(PrestoResultSet.class)) {
+                PrestoResultSet prestoResultSet = resultSet.unwrap(PrestoResultSet.class);
+                queryExecutionResultBuilder.setPrestoQueryId(prestoResultSet.getQueryId());
+            }
+        }
+        catch (AbstractMethodError | Exception e) {
+            // this error is caught by the compiler, but some drivers (hsqldb, hive, ...?) sucks
+            LOG.warn("Driver ({}) does not support isWrapperFor/unwrap method", connection.toString());
         }
+
+        return rowsCount;
     }
 
-    private QueryExecutionResult executeUpdateQuery(Connection connection, QueryExecutionResultBuilder queryExecutionResultBuilder, String sqlStatement)
-            throws SQLException
+    List<String> generateQuerySqlStatements(QueryExecution queryExecution)
     {
-        try (Statement statement = connection.createStatement()) {
-            int rowCount = statement.executeUpdate(sqlStatement);
-            return queryExecutionResultBuilder
-                    .setRowsCount(rowCount)
-                    .endTimer()
-                    .build();
+        return sqlStatementGenerator.generateQuerySqlStatement(queryExecution.getQuery(), queryVariables(queryExecution));
+    }
+
+    /**
+     * Statements as they are executed, with {@code bind} values as parameters for benchmarks with prepared statements
+     * and as literals otherwise.
+     */
+    List<ParameterizedSqlStatement> generateSqlStatements(QueryExecution queryExecution)
+    {
+        if (queryExecution.getBenchmark().isPreparedStatements()) {
+            return sqlStatementGenerator.generateParameterizedSqlStatements(queryExecution.getQuery(), queryVariables(queryExecution));
         }
+        return generateQuerySqlStatements(queryExecution).stream()
+                .map(sqlStatement -> new ParameterizedSqlStatement(sqlStatement, ImmutableList.of()))
+                .collect(toImmutableList());
     }
 
-    private String generateQuerySqlStatement(QueryExecution queryExecution)
+    private static Map<String, String> queryVariables(QueryExecution queryExecution)
     {
-        Map<String, String> variables = ImmutableMap.<String, String>builder()
+        return ImmutableMap.<String, String>builder()
                 .put("execution_sequence_id", "" + queryExecution.getRun())
                 .putAll(queryExecution.getBenchmark().getNonReservedKeywordVariables())
                 .build();
-        List<String> sqlQueries = sqlStatementGenerator.generateQuerySqlStatement(queryExecution.getQuery(), variables);
-        checkState(sqlQueries.size() == 1, "Multiple statements in one query file are not supported");
-        return sqlQueries.get(0);
     }
 
     private void logRow(int rowNumber, ResultSet resultSet)
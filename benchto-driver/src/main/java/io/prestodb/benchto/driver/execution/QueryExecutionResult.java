@@ -13,9 +13,12 @@
  */
 package io.prestodb.benchto.driver.execution;
 
+import com.google.common.collect.ImmutableList;
 import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.Measurable;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -27,6 +30,9 @@ public class QueryExecutionResult
     private final QueryExecution queryExecution;
     private int rowsCount;
     private Exception failureCause;
+    private boolean cancelled;
+    private List<StatementResult> statementResults = ImmutableList.of();
+    private Optional<Duration> macrosDuration = empty();
 
     // presto specific
     private Optional<String> prestoQueryId = empty();
@@ -59,11 +65,40 @@ public class QueryExecutionResult
         return failureCause == null;
     }
 
+    /**
+     * Cancelled executions are not successful, but are not considered failures either.
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
     public int getRowsCount()
     {
         return rowsCount;
     }
 
+    /**
+     * Results of the statements of a query with several of them, empty for single statement queries.
+     */
+    public List<StatementResult> getStatementResults()
+    {
+        return statementResults;
+    }
+
+    /**
+     * Total duration of the before and after execution macros, which is not part of the query duration.
+     */
+    public Optional<Duration> getMacrosDuration()
+    {
+        return macrosDuration;
+    }
+
+    void setMacrosDuration(Duration macrosDuration)
+    {
+        this.macrosDuration = Optional.of(macrosDuration);
+    }
+
     public Exception getFailureCause()
     {
         return failureCause;
@@ -85,9 +120,12 @@ public class QueryExecutionResult
         return toStringHelper(this)
                 .add("queryExecution", queryExecution)
                 .add("successful", isSuccessful())
+                .add("cancelled", cancelled)
                 .add("rowsCount", rowsCount)
+                .add("statementResults", statementResults)
                 .add("failureCause", failureCause)
                 .add("queryDuration", getQueryDuration().toMillis() + " ms")
+                .add("macrosDuration", macrosDuration.map(duration -> duration.toMillis() + " ms"))
                 .add("prestoQueryId", prestoQueryId)
                 .toString();
     }
@@ -106,12 +144,25 @@ public class QueryExecutionResult
             return this;
         }
 
+        public QueryExecutionResultBuilder cancelled(Exception cause)
+        {
+            object.failureCause = cause;
+            object.cancelled = true;
+            return this;
+        }
+
         public QueryExecutionResultBuilder setRowsCount(int rowsCount)
         {
             object.rowsCount = rowsCount;
             return this;
         }
 
+        public QueryExecutionResultBuilder setStatementResults(List<StatementResult> statementResults)
+        {
+            object.statementResults = ImmutableList.copyOf(statementResults);
+            return this;
+        }
+
         public QueryExecutionResultBuilder setPrestoQueryId(String prestoQueryId)
         {
             object.prestoQueryId = Optional.of(prestoQueryId);
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static io.prestodb.benchto.driver.utils.TimeUtils.nowUtc;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Cancels statements which are still running at their deadline, so a runaway query is stopped
+ * at the query timeout or the time limit instead of when it eventually returns.
+ */
+@Component
+public class QueryExecutionWatchdog
+{
+    private static final Logger LOG = LoggerFactory.getLogger(QueryExecutionWatchdog.class);
+
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("query-watchdog-%d")
+            .setDaemon(true)
+            .build());
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Watches the statement until the returned watch is closed, cancelling it once the deadline passes.
+     */
+    public Watch watch(Statement statement, Optional<ZonedDateTime> deadline)
+    {
+        Watch watch = new Watch(statement);
+        if (deadline.isPresent()) {
+            long delayMillis = Math.max(Duration.between(nowUtc(), deadline.get()).toMillis(), 0);
+            watch.cancellation = executorService.schedule(watch::cancel, delayMillis, MILLISECONDS);
+        }
+        return watch;
+    }
+
+    public static class Watch
+            implements AutoCloseable
+    {
+        private final Statement statement;
+        private ScheduledFuture<?> cancellation;
+        private boolean closed;
+        private boolean cancelled;
+
+        private Watch(Statement statement)
+        {
+            this.statement = statement;
+        }
+
+        public synchronized boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        private synchronized void cancel()
+        {
+            if (closed) {
+                return;
+            }
+            cancelled = true;
+            try {
+                statement.cancel();
+            }
+            catch (SQLException e) {
+                LOG.warn("Could not cancel statement", e);
+            }
+        }
+
+        @Override
+        public synchronized void close()
+        {
+            closed = true;
+            if (cancellation != null) {
+                cancellation.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import io.prestodb.benchto.driver.BenchmarkProperties;
+import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.prestodb.benchto.driver.jdbc.ConnectionCache;
+import io.prestodb.benchto.driver.loader.ParameterizedSqlStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.time.ZonedDateTime;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static io.prestodb.benchto.driver.execution.BenchmarkExecutionDriver.isTimeLimitExceeded;
+import static io.prestodb.benchto.driver.execution.BenchmarkExecutionDriver.queryDeadline;
+import static io.prestodb.benchto.driver.execution.BenchmarkExecutionDriver.sessionProperties;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Prewarms distinct queries of all benchmarks before any of them is executed. Queries with the same data source, session
+ * properties and SQL statements, including parameters bound to prepared statements, are prewarmed once, as many times as the benchmark with the most prewarm runs asks for. Queries of different data sources
+ * are prewarmed in parallel, queries of a single data source at most {@link BenchmarkProperties#getSharedPrewarmConcurrency()} at a time.
+ */
+@Component
+public class SharedPrewarm
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SharedPrewarm.class);
+
+    @Autowired
+    private QueryExecutionDriver queryExecutionDriver;
+
+    @Autowired
+    private ExecutorServiceFactory executorServiceFactory;
+
+    @Autowired
+    private BenchmarkProperties properties;
+
+    @Autowired
+    private ConnectionCache connectionCache;
+
+    /**
+     * Marks benchmarks which got all their queries prewarmed successfully as {@link Benchmark#isSharedPrewarmed()}.
+     */
+    public void prewarm(List<Benchmark> benchmarks, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        Map<PrewarmQuery, Integer> prewarmRuns = new LinkedHashMap<>();
+        Map<Benchmark, Set<PrewarmQuery>> benchmarkQueries = new IdentityHashMap<>();
+        for (Benchmark benchmark : benchmarks) {
+            if (!isSharable(benchmark)) {
+                continue;
+            }
+            Set<PrewarmQuery> queries = benchmark.getQueries().stream()
+                    .map(query -> prewarmQuery(benchmark, query))
+                    .collect(toImmutableSet());
+            queries.forEach(query -> prewarmRuns.merge(query, benchmark.getPrewarmRuns(), Math::max));
+            benchmarkQueries.put(benchmark, queries);
+        }
+        if (prewarmRuns.isEmpty()) {
+            return;
+        }
+
+        int queryExecutions = prewarmRuns.values().stream().mapToInt(Integer::intValue).sum();
+        int benchmarkQueryExecutions = benchmarkQueries.entrySet().stream()
+                .mapToInt(entry -> entry.getKey().getPrewarmRuns() * entry.getValue().size())
+                .sum();
+        LOG.info("Shared prewarm of {} distinct queries of {} benchmarks, {} query executions instead of {}",
+                prewarmRuns.size(), benchmarkQueries.size(), queryExecutions, benchmarkQueryExecutions);
+
+        Set<PrewarmQuery> prewarmedQueries = prewarmQueries(prewarmRuns, executionTimeLimit);
+
+        benchmarkQueries.forEach((benchmark, queries) -> benchmark.setSharedPrewarmed(prewarmedQueries.containsAll(queries)));
+        LOG.info("Shared prewarm finished, {} of {} benchmarks skip their own prewarm runs",
+                benchmarkQueries.keySet().stream().filter(Benchmark::isSharedPrewarmed).count(), benchmarkQueries.size());
+    }
+
+    /**
+     * Prewarm of a benchmark can be shared only when it is a fixed number of runs of its queries, executed without
+     * any macros, as shared prewarm runs before macros of any benchmark.
+     */
+    private static boolean isSharable(Benchmark benchmark)
+    {
+        return benchmark.getPrewarmRuns() > 0
+                && !benchmark.isSteadyStatePrewarm()
+                && !benchmark.isColdWarmPaired()
+                && !benchmark.isMixedWorkload()
+                && benchmark.getBeforeBenchmarkMacros().isEmpty()
+                && benchmark.getAfterBenchmarkMacros().isEmpty()
+                && benchmark.getBeforeExecutionMacros().isEmpty()
+                && benchmark.getAfterExecutionMacros().isEmpty();
+    }
+
+    private PrewarmQuery prewarmQuery(Benchmark benchmark, Query query)
+    {
+        QueryExecution queryExecution = new QueryExecution(benchmark, query, 1);
+        return new PrewarmQuery(benchmark.getDataSource(), sessionProperties(benchmark, query), queryExecutionDriver.generateSqlStatements(queryExecution), queryExecution);
+    }
+
+    private Set<PrewarmQuery> prewarmQueries(Map<PrewarmQuery, Integer> prewarmRuns, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        Map<String, List<PrewarmQuery>> dataSourceQueries = prewarmRuns.keySet().stream()
+                .collect(groupingBy(PrewarmQuery::getDataSource, LinkedHashMap::new, toList()));
+
+        List<ListeningExecutorService> executorServices = newArrayList();
+        Map<PrewarmQuery, ListenableFuture<Boolean>> prewarmFutures = new LinkedHashMap<>();
+        try {
+            for (List<PrewarmQuery> queries : dataSourceQueries.values()) {
+                ListeningExecutorService executorService = executorServiceFactory.create(Math.min(properties.getSharedPrewarmConcurrency(), queries.size()));
+                executorServices.add(executorService);
+                for (PrewarmQuery query : queries) {
+                    prewarmFutures.put(query, executorService.submit(() -> prewarmQuery(query, prewarmRuns.get(query), executionTimeLimit)));
+                }
+            }
+
+            Set<PrewarmQuery> prewarmedQueries = newHashSet();
+            for (Map.Entry<PrewarmQuery, ListenableFuture<Boolean>> prewarmFuture : prewarmFutures.entrySet()) {
+                if (prewarmFuture.getValue().get()) {
+                    prewarmedQueries.add(prewarmFuture.getKey());
+                }
+            }
+            return prewarmedQueries;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BenchmarkExecutionException("Interrupted during shared prewarm", e);
+        }
+        catch (ExecutionException e) {
+            throw new BenchmarkExecutionException("Could not execute shared prewarm", e.getCause());
+        }
+        finally {
+            executorServices.forEach(ListeningExecutorService::shutdownNow);
+        }
+    }
+
+    /**
+     * @return whether all prewarm runs of the query were successful
+     */
+    private boolean prewarmQuery(PrewarmQuery query, int runs, Optional<ZonedDateTime> executionTimeLimit)
+    {
+        QueryExecution queryExecution = query.getQueryExecution();
+        try (Connection connection = connectionCache.getConnection(query.getDataSource(), query.getSessionProperties())) {
+            for (int run = 1; run <= runs; run++) {
+                if (isTimeLimitExceeded(executionTimeLimit)) {
+                    return false;
+                }
+                QueryExecutionResult result = queryExecutionDriver.execute(queryExecution, connection, queryDeadline(queryExecution.getBenchmark(), executionTimeLimit));
+                if (!result.isSuccessful()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (Exception e) {
+            LOG.warn("Shared prewarm of query {} of benchmark {} failed, benchmarks using it will execute their own prewarm runs",
+                    queryExecution.getQueryName(), queryExecution.getBenchmark().getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Statements prewarmed against a data source with session properties, together with the first of the query executions which generate them.
+     */
+    private static final class PrewarmQuery
+    {
+        private final String dataSource;
+        private final Map<String, String> sessionProperties;
+        private final List<ParameterizedSqlStatement> sqlStatements;
+        private final QueryExecution queryExecution;
+
+        private PrewarmQuery(String dataSource, Map<String, String> sessionProperties, List<ParameterizedSqlStatement> sqlStatements, QueryExecution queryExecution)
+        {
+            this.dataSource = requireNonNull(dataSource);
+            this.sessionProperties = ImmutableMap.copyOf(sessionProperties);
+            this.sqlStatements = requireNonNull(sqlStatements);
+            this.queryExecution = requireNonNull(queryExecution);
+        }
+
+        public String getDataSource()
+        {
+            return dataSource;
+        }
+
+        public Map<String, String> getSessionProperties()
+        {
+            return sessionProperties;
+        }
+
+        public QueryExecution getQueryExecution()
+        {
+            return queryExecution;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PrewarmQuery that = (PrewarmQuery) o;
+            return Objects.equals(dataSource, that.dataSource) &&
+                    Objects.equals(sessionProperties, that.sessionProperties) &&
+                    Objects.equals(sqlStatements, that.sqlStatements);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(dataSource, sessionProperties, sqlStatements);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("dataSource", dataSource)
+                    .add("sessionProperties", sessionProperties)
+                    .add("sqlStatements", sqlStatements)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import io.prestodb.benchto.driver.Benchmark;
+
+import java.time.ZonedDateTime;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Window of a soak benchmark, whose query executions are aggregated and reported as soon as the window ends.
+ */
+public class SoakWindow
+{
+    private final Benchmark benchmark;
+    private final int index;
+    private final ZonedDateTime utcStart;
+
+    public SoakWindow(Benchmark benchmark, int index, ZonedDateTime utcStart)
+    {
+        this.benchmark = requireNonNull(benchmark);
+        this.index = index;
+        this.utcStart = requireNonNull(utcStart);
+    }
+
+    public Benchmark getBenchmark()
+    {
+        return benchmark;
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    public ZonedDateTime getUtcStart()
+    {
+        return utcStart;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("benchmark", benchmark.getName())
+                .add("index", index)
+                .add("utcStart", utcStart)
+                .toString();
+    }
+}
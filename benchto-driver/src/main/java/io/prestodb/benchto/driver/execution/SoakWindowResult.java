@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Query executions finished within a soak window, with trends of throughput and latency over all windows so far.
+ */
+public class SoakWindowResult
+{
+    private final SoakWindow window;
+    private final ZonedDateTime utcEnd;
+    private final Duration duration;
+    private final List<QueryExecutionResult> executions;
+    private final double throughputTrend;
+    private final double durationTrend;
+    private final boolean degraded;
+
+    public SoakWindowResult(SoakWindow window, ZonedDateTime utcEnd, Duration duration, List<QueryExecutionResult> executions,
+            double throughputTrend, double durationTrend, boolean degraded)
+    {
+        this.window = requireNonNull(window);
+        this.utcEnd = requireNonNull(utcEnd);
+        this.duration = requireNonNull(duration);
+        this.executions = ImmutableList.copyOf(executions);
+        this.throughputTrend = throughputTrend;
+        this.durationTrend = durationTrend;
+        this.degraded = degraded;
+    }
+
+    public SoakWindow getWindow()
+    {
+        return window;
+    }
+
+    public ZonedDateTime getUtcEnd()
+    {
+        return utcEnd;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    public List<QueryExecutionResult> getExecutions()
+    {
+        return executions;
+    }
+
+    public List<Duration> getSuccessfulQueryDurations()
+    {
+        return executions.stream()
+                .filter(QueryExecutionResult::isSuccessful)
+                .map(QueryExecutionResult::getQueryDuration)
+                .collect(toList());
+    }
+
+    /**
+     * Successful query executions per second.
+     */
+    public double getThroughput()
+    {
+        return (double) getSuccessfulQueryDurations().size() / Math.max(duration.toMillis(), 1) * 1000;
+    }
+
+    /**
+     * Change of throughput fitted over windows so far, relative to the mean throughput.
+     */
+    public double getThroughputTrend()
+    {
+        return throughputTrend;
+    }
+
+    /**
+     * Change of the 90th percentile of query durations fitted over windows so far, relative to its mean.
+     */
+    public double getDurationTrend()
+    {
+        return durationTrend;
+    }
+
+    public boolean isDegraded()
+    {
+        return degraded;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("window", window)
+                .add("duration", duration)
+                .add("executions", executions.size())
+                .add("throughputTrend", throughputTrend)
+                .add("durationTrend", durationTrend)
+                .add("degraded", degraded)
+                .toString();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import java.time.Duration;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Result of a single SQL statement of a query execution with several statements.
+ */
+public class StatementResult
+{
+    private final ConsumptionMode consumptionMode;
+    private final Duration duration;
+    private final int rowsCount;
+
+    public StatementResult(ConsumptionMode consumptionMode, Duration duration, int rowsCount)
+    {
+        this.consumptionMode = requireNonNull(consumptionMode);
+        this.duration = requireNonNull(duration);
+        this.rowsCount = rowsCount;
+    }
+
+    public ConsumptionMode getConsumptionMode()
+    {
+        return consumptionMode;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    /**
+     * Number of fetched rows, or the update count for {@link ConsumptionMode#UPDATE}.
+     */
+    public int getRowsCount()
+    {
+        return rowsCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("consumptionMode", consumptionMode)
+                .add("duration", duration.toMillis() + " ms")
+                .add("rowsCount", rowsCount)
+                .toString();
+    }
+}
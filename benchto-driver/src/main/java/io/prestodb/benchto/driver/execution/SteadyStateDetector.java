@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Tells whether durations of consecutive prewarm runs have settled, that is whether durations of
+ * the latest runs differ by no more than the threshold relative to the shortest of them.
+ */
+public class SteadyStateDetector
+{
+    private final int stableRuns;
+    private final double threshold;
+
+    public SteadyStateDetector(int stableRuns, double threshold)
+    {
+        checkArgument(stableRuns >= 2, "At least 2 stable runs are needed to detect steady state, got %s", stableRuns);
+        checkArgument(threshold >= 0, "Stability threshold must not be negative, got %s", threshold);
+        this.stableRuns = stableRuns;
+        this.threshold = threshold;
+    }
+
+    public boolean isSteady(List<Duration> runDurations)
+    {
+        if (runDurations.size() < stableRuns) {
+            return false;
+        }
+        List<Duration> latestDurations = runDurations.subList(runDurations.size() - stableRuns, runDurations.size());
+        long shortest = latestDurations.stream().mapToLong(Duration::toNanos).min().getAsLong();
+        long longest = latestDurations.stream().mapToLong(Duration::toNanos).max().getAsLong();
+        return shortest > 0 && longest - shortest <= shortest * threshold;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.jdbc;
+
+import com.facebook.presto.jdbc.PrestoConnection;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.regex.Pattern.MULTILINE;
+
+/**
+ * Keeps connections open between query executions, separately for each data source and set of session properties,
+ * so session properties are set only once per connection. Closing a connection obtained from the cache returns it
+ * to the cache, unless its catalog or schema was changed, connections are closed when the driver shuts down, including
+ * the ones still in use.
+ */
+@Component
+public class ConnectionCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionCache.class);
+
+    private static final Pattern SESSION_CHANGING_STATEMENT = Pattern.compile(
+            "(?:^|;)\\s*(?:(?:SET|RESET)\\s+SESSION|SET\\s+(?:ROLE|PATH)|USE)\\b", CASE_INSENSITIVE | MULTILINE);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final ConcurrentMap<ConnectionKey, Queue<Connection>> idleConnections = new ConcurrentHashMap<>();
+    private final Set<Connection> openConnections = ConcurrentHashMap.newKeySet();
+
+    public Connection getConnection(String dataSource, Map<String, String> sessionProperties)
+            throws SQLException
+    {
+        return getConnection(dataSource, sessionProperties, true);
+    }
+
+    /**
+     * @param reusable whether the connection can be returned to the cache on close, connections whose session
+     * could be changed by the user, e.g. with SET SESSION, are not reusable and are closed instead
+     */
+    public Connection getConnection(String dataSource, Map<String, String> sessionProperties, boolean reusable)
+            throws SQLException
+    {
+        ConnectionKey key = new ConnectionKey(dataSource, sessionProperties);
+        if (!reusable) {
+            return uncachedConnection(openConnection(key));
+        }
+        Queue<Connection> connections = idleConnections.computeIfAbsent(key, ignored -> new ConcurrentLinkedQueue<>());
+        Connection connection;
+        while ((connection = connections.poll()) != null) {
+            if (!connection.isClosed()) {
+                return connection;
+            }
+        }
+        return cachedConnection(openConnection(key), connections);
+    }
+
+    /**
+     * Presto JDBC keeps session changes made by statements, e.g. SET SESSION or USE, in the connection, and does not
+     * expose session properties to compare them on release, so connections executing such statements must not be reusable.
+     */
+    public static boolean changesSession(String sql)
+    {
+        return SESSION_CHANGING_STATEMENT.matcher(sql).find();
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        idleConnections.values().forEach(Queue::clear);
+        for (Connection connection : openConnections) {
+            try {
+                connection.close();
+            }
+            catch (SQLException e) {
+                LOG.warn("Could not close connection", e);
+            }
+        }
+        openConnections.clear();
+    }
+
+    private Connection openConnection(ConnectionKey key)
+            throws SQLException
+    {
+        Connection connection = applicationContext.getBean(key.dataSource, DataSource.class).getConnection();
+        if (!key.sessionProperties.isEmpty()) {
+            if (!connection.isWrapperFor(PrestoConnection.class)) {
+                connection.close();
+                throw new BenchmarkExecutionException(format("Session properties are supported only for Presto connections, data source: %s", key.dataSource));
+            }
+            PrestoConnection prestoConnection = connection.unwrap(PrestoConnection.class);
+            key.sessionProperties.forEach(prestoConnection::setSessionProperty);
+        }
+        openConnections.add(connection);
+        return connection;
+    }
+
+    /**
+     * Wraps the connection, so closing it puts it back among idle connections, or closes it if its catalog or schema
+     * was changed.
+     */
+    private Connection cachedConnection(Connection connection, Queue<Connection> connections)
+            throws SQLException
+    {
+        String catalog = connection.getCatalog();
+        String schema = connection.getSchema();
+        return connectionProxy(connection, proxy -> {
+            if (connection.isClosed()) {
+                openConnections.remove(connection);
+            }
+            else if (!Objects.equals(catalog, connection.getCatalog()) || !Objects.equals(schema, connection.getSchema())) {
+                openConnections.remove(connection);
+                connection.close();
+            }
+            else {
+                connections.add(proxy);
+            }
+        });
+    }
+
+    private Connection uncachedConnection(Connection connection)
+    {
+        return connectionProxy(connection, proxy -> {
+            openConnections.remove(connection);
+            connection.close();
+        });
+    }
+
+    /**
+     * Unwrapping the returned proxy to {@link Connection} returns the connection itself.
+     */
+    private static Connection connectionProxy(Connection connection, CloseHandler closeHandler)
+    {
+        return (Connection) Proxy.newProxyInstance(ConnectionCache.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                closeHandler.close((Connection) proxy);
+                return null;
+            }
+            if (method.getName().equals("unwrap") && Connection.class.equals(args[0])) {
+                return connection;
+            }
+            try {
+                return method.invoke(connection, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private interface CloseHandler
+    {
+        void close(Connection proxy)
+                throws SQLException;
+    }
+
+    private static final class ConnectionKey
+    {
+        private final String dataSource;
+        private final Map<String, String> sessionProperties;
+
+        private ConnectionKey(String dataSource, Map<String, String> sessionProperties)
+        {
+            this.dataSource = requireNonNull(dataSource);
+            this.sessionProperties = ImmutableMap.copyOf(sessionProperties);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ConnectionKey that = (ConnectionKey) o;
+            return Objects.equals(dataSource, that.dataSource) &&
+                    Objects.equals(sessionProperties, that.sessionProperties);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(dataSource, sessionProperties);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("dataSource", dataSource)
+                    .add("sessionProperties", sessionProperties)
+                    .toString();
+        }
+    }
+}
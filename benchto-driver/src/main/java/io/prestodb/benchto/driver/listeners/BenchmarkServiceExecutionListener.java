@@ -20,6 +20,8 @@ import io.prestodb.benchto.driver.Measurable;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
 import io.prestodb.benchto.driver.execution.QueryExecution;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.SoakWindow;
+import io.prestodb.benchto.driver.execution.SoakWindowResult;
 import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkExecutionListener;
 import io.prestodb.benchto.driver.listeners.measurements.PostExecutionMeasurementProvider;
 import io.prestodb.benchto.driver.service.BenchmarkServiceClient;
@@ -44,14 +46,18 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import static io.prestodb.benchto.driver.execution.QueryExecution.CacheState.COLD;
 import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.RESERVED_KEYWORDS;
+import static io.prestodb.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.CANCELLED;
 import static io.prestodb.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.ENDED;
 import static io.prestodb.benchto.driver.service.BenchmarkServiceClient.FinishRequest.Status.FAILED;
 import static io.prestodb.benchto.driver.utils.ExceptionUtils.stackTraceToString;
+import static io.prestodb.benchto.driver.utils.PercentileUtils.percentile;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
@@ -61,6 +67,10 @@ public class BenchmarkServiceExecutionListener
         implements BenchmarkExecutionListener
 {
     private static final Duration MAX_CLOCK_DRIFT = Duration.of(1, ChronoUnit.SECONDS);
+    private static final String CACHE_ATTRIBUTE = "cache";
+    private static final String QUERY_CLASS_ATTRIBUTE = "query_class";
+    private static final String SOAK_WINDOW_ATTRIBUTE = "soak_window";
+    private static final String COLD_MEASUREMENT_PREFIX = "cold_";
 
     @Autowired
     private AsyncTaskExecutor taskExecutor;
@@ -144,8 +154,10 @@ public class BenchmarkServiceExecutionListener
     public Future<?> executionStarted(QueryExecution execution)
     {
         return taskExecutor.submit(() -> {
-            ExecutionStartRequest request = new ExecutionStartRequestBuilder()
-                    .build();
+            ExecutionStartRequestBuilder requestBuilder = new ExecutionStartRequestBuilder();
+            execution.getCacheState().ifPresent(cacheState -> requestBuilder.addAttribute(CACHE_ATTRIBUTE, cacheState.getAttributeValue()));
+            execution.getQueryClass().ifPresent(queryClass -> requestBuilder.addAttribute(QUERY_CLASS_ATTRIBUTE, queryClass));
+            ExecutionStartRequest request = requestBuilder.build();
 
             benchmarkServiceClient.startExecution(execution.getBenchmark().getUniqueName(), execution.getBenchmark().getSequenceId(), executionSequenceId(execution), request);
         });
@@ -156,7 +168,7 @@ public class BenchmarkServiceExecutionListener
     {
         return CompletableFuture.supplyAsync(() -> getMeasurements(executionResult), taskExecutor::execute)
                 .thenCompose(future -> future)
-                .thenApply(measurements -> buildExecutionFinishedRequest(executionResult, measurements))
+                .thenApply(measurements -> buildExecutionFinishedRequest(executionResult, cacheStateMeasurements(executionResult.getQueryExecution(), measurements)))
                 .thenAccept(request -> {
                     benchmarkServiceClient.finishExecution(
                             executionResult.getBenchmark().getUniqueName(),
@@ -187,7 +199,11 @@ public class BenchmarkServiceExecutionListener
                     .addMeasurement(Measurement.measurement(
                             "queries_failed",
                             "NONE",
-                            executions.stream().filter(query -> !query.isSuccessful()).count()))
+                            executions.stream().filter(query -> !query.isSuccessful() && !query.isCancelled()).count()))
+                    .addMeasurement(Measurement.measurement(
+                            "queries_cancelled",
+                            "NONE",
+                            executions.stream().filter(QueryExecutionResult::isCancelled).count()))
                     .addAttribute(
                             "queries_order",
                             executions.stream()
@@ -203,10 +219,54 @@ public class BenchmarkServiceExecutionListener
         });
     }
 
+    /**
+     * Each soak window is stored as an execution of the benchmark run, so its aggregates reach the service while the benchmark is running.
+     */
+    @Override
+    public Future<?> soakWindowStarted(SoakWindow window)
+    {
+        return taskExecutor.submit(() -> {
+            ExecutionStartRequest request = new ExecutionStartRequestBuilder()
+                    .addAttribute(SOAK_WINDOW_ATTRIBUTE, "" + window.getIndex())
+                    .build();
+
+            benchmarkServiceClient.startExecution(window.getBenchmark().getUniqueName(), window.getBenchmark().getSequenceId(), "" + window.getIndex(), request);
+        });
+    }
+
+    @Override
+    public Future<?> soakWindowFinished(SoakWindowResult windowResult)
+    {
+        return taskExecutor.submit(() -> {
+            List<QueryExecutionResult> executions = windowResult.getExecutions();
+            List<Duration> durations = windowResult.getSuccessfulQueryDurations();
+            FinishRequestBuilder requestBuilder = new FinishRequestBuilder()
+                    .withStatus(ENDED)
+                    .withEndTime(windowResult.getUtcEnd().toInstant())
+                    .addMeasurement(Measurement.measurement("queries_successful", "NONE", durations.size()))
+                    .addMeasurement(Measurement.measurement(
+                            "queries_failed",
+                            "NONE",
+                            executions.stream().filter(query -> !query.isSuccessful() && !query.isCancelled()).count()))
+                    .addMeasurement(Measurement.measurement("throughput", "QUERY_PER_SECOND", windowResult.getThroughput()))
+                    .addMeasurement(Measurement.measurement("throughput_trend", "NONE", windowResult.getThroughputTrend()))
+                    .addMeasurement(Measurement.measurement("duration_trend", "NONE", windowResult.getDurationTrend()));
+            requestBuilder.addAttribute("degraded", "" + windowResult.isDegraded());
+            if (!durations.isEmpty()) {
+                requestBuilder.addMeasurement(Measurement.measurement("duration_p50", "MILLISECONDS", percentile(durations, 50).toMillis()))
+                        .addMeasurement(Measurement.measurement("duration_p90", "MILLISECONDS", percentile(durations, 90).toMillis()))
+                        .addMeasurement(Measurement.measurement("duration_p99", "MILLISECONDS", percentile(durations, 99).toMillis()));
+            }
+
+            SoakWindow window = windowResult.getWindow();
+            benchmarkServiceClient.finishExecution(window.getBenchmark().getUniqueName(), window.getBenchmark().getSequenceId(), "" + window.getIndex(), requestBuilder.build());
+        });
+    }
+
     private FinishRequest buildExecutionFinishedRequest(QueryExecutionResult executionResult, List<Measurement> measurements)
     {
         FinishRequestBuilder requestBuilder = new FinishRequestBuilder()
-                .withStatus(executionResult.isSuccessful() ? ENDED : FAILED)
+                .withStatus(executionStatus(executionResult))
                 .withEndTime(executionResult.getUtcEnd().toInstant())
                 .addMeasurements(measurements);
 
@@ -214,7 +274,10 @@ public class BenchmarkServiceExecutionListener
             requestBuilder.addAttribute("prestoQueryId", executionResult.getPrestoQueryId().get());
         }
 
-        if (!executionResult.isSuccessful()) {
+        if (executionResult.isCancelled()) {
+            requestBuilder.addAttribute("cancellationMessage", executionResult.getFailureCause().getMessage());
+        }
+        else if (!executionResult.isSuccessful()) {
             requestBuilder.addAttribute("failureMessage", executionResult.getFailureCause().getMessage());
             requestBuilder.addAttribute("failureStackTrace", stackTraceToString(executionResult));
 
@@ -225,6 +288,27 @@ public class BenchmarkServiceExecutionListener
         return requestBuilder.build();
     }
 
+    /**
+     * Measurements of cold executions are stored under separate names, so the service aggregates them apart from warm ones.
+     */
+    private static List<Measurement> cacheStateMeasurements(QueryExecution execution, List<Measurement> measurements)
+    {
+        if (!execution.getCacheState().equals(Optional.of(COLD))) {
+            return measurements;
+        }
+        return measurements.stream()
+                .map(measurement -> Measurement.measurement(COLD_MEASUREMENT_PREFIX + measurement.getName(), measurement.getUnit(), measurement.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static FinishRequest.Status executionStatus(QueryExecutionResult executionResult)
+    {
+        if (executionResult.isCancelled()) {
+            return CANCELLED;
+        }
+        return executionResult.isSuccessful() ? ENDED : FAILED;
+    }
+
     private CompletableFuture<List<Measurement>> getMeasurements(Measurable measurable)
     {
         List<CompletableFuture<?>> providerFutures = new ArrayList<>();
@@ -18,6 +18,8 @@ import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
 import io.prestodb.benchto.driver.execution.ExecutionSynchronizer;
 import io.prestodb.benchto.driver.execution.QueryExecution;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.SoakWindow;
+import io.prestodb.benchto.driver.execution.SoakWindowResult;
 import io.prestodb.benchto.driver.graphite.GraphiteClient;
 import io.prestodb.benchto.driver.graphite.GraphiteClient.GraphiteEventRequest;
 import io.prestodb.benchto.driver.graphite.GraphiteClient.GraphiteEventRequest.GraphiteEventRequestBuilder;
@@ -123,4 +125,16 @@ public class GraphiteEventExecutionListener
     {
         return CompletableFuture.completedFuture("");
     }
+
+    @Override
+    public Future<?> soakWindowStarted(SoakWindow window)
+    {
+        return CompletableFuture.completedFuture("");
+    }
+
+    @Override
+    public Future<?> soakWindowFinished(SoakWindowResult windowResult)
+    {
+        return CompletableFuture.completedFuture("");
+    }
 }
@@ -17,6 +17,8 @@ import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
 import io.prestodb.benchto.driver.execution.QueryExecution;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.SoakWindow;
+import io.prestodb.benchto.driver.execution.SoakWindowResult;
 import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkExecutionListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +71,10 @@ public class LoggingBenchmarkExecutionListener
             LOG.info("Query finished: {} ({}/{}), rows count: {}, duration: {}", result.getQueryName(), result.getQueryExecution().getRun(),
                     result.getBenchmark().getRuns(), result.getRowsCount(), result.getQueryDuration());
         }
+        else if (result.isCancelled()) {
+            LOG.warn("Query cancelled: {} ({}/{}), duration: {}", result.getQueryName(), result.getQueryExecution().getRun(),
+                    result.getBenchmark().getRuns(), result.getQueryDuration());
+        }
         else {
             LOG.error("Query failed: {} ({}/{}), execution error: {}", result.getQueryName(), result.getQueryExecution().getRun(),
                     result.getBenchmark().getRuns(), result.getFailureCause().getMessage());
@@ -80,9 +86,33 @@ public class LoggingBenchmarkExecutionListener
     @Override
     public Future<?> concurrencyTestExecutionFinished(List<QueryExecutionResult> executions)
     {
-        LOG.info("Concurrency test queries finished, queries successful {}, queries failed {}",
+        LOG.info("Concurrency test queries finished, queries successful {}, queries failed {}, queries cancelled {}",
                 executions.stream().filter(QueryExecutionResult::isSuccessful).count(),
-                executions.stream().filter(execution -> !execution.isSuccessful()).count());
+                executions.stream().filter(execution -> !execution.isSuccessful() && !execution.isCancelled()).count(),
+                executions.stream().filter(QueryExecutionResult::isCancelled).count());
+        return CompletableFuture.completedFuture("");
+    }
+
+    @Override
+    public Future<?> soakWindowStarted(SoakWindow window)
+    {
+        LOG.info("Soak window started: {} ({})", window.getBenchmark().getName(), window.getIndex());
+
+        return CompletableFuture.completedFuture("");
+    }
+
+    @Override
+    public Future<?> soakWindowFinished(SoakWindowResult windowResult)
+    {
+        SoakWindow window = windowResult.getWindow();
+        LOG.info("Soak window finished: {} ({}), queries: {}, throughput: {}, throughput trend: {}, duration trend: {}",
+                window.getBenchmark().getName(), window.getIndex(), windowResult.getExecutions().size(), windowResult.getThroughput(),
+                windowResult.getThroughputTrend(), windowResult.getDurationTrend());
+        if (windowResult.isDegraded()) {
+            LOG.warn("Soak benchmark {} is degrading, throughput trend: {}, duration trend: {}",
+                    window.getBenchmark().getName(), windowResult.getThroughputTrend(), windowResult.getDurationTrend());
+        }
+
         return CompletableFuture.completedFuture("");
     }
 }
@@ -17,6 +17,8 @@ import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
 import io.prestodb.benchto.driver.execution.QueryExecution;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.SoakWindow;
+import io.prestodb.benchto.driver.execution.SoakWindowResult;
 import org.springframework.core.Ordered;
 
 import java.util.List;
@@ -34,4 +36,8 @@ public interface BenchmarkExecutionListener
     Future<?> executionFinished(QueryExecutionResult execution);
 
     Future<?> concurrencyTestExecutionFinished(List<QueryExecutionResult> executions);
+
+    Future<?> soakWindowStarted(SoakWindow window);
+
+    Future<?> soakWindowFinished(SoakWindowResult windowResult);
 }
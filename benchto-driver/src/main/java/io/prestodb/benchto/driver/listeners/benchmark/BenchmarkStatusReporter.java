@@ -20,6 +20,8 @@ import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
 import io.prestodb.benchto.driver.execution.QueryExecution;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.SoakWindow;
+import io.prestodb.benchto.driver.execution.SoakWindowResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -138,6 +140,16 @@ public class BenchmarkStatusReporter
         fireListeners(BenchmarkExecutionListener::concurrencyTestExecutionFinished, executionResults);
     }
 
+    public void reportSoakWindowStarted(SoakWindow window)
+    {
+        fireListeners(BenchmarkExecutionListener::soakWindowStarted, window);
+    }
+
+    public void reportSoakWindowFinished(SoakWindowResult windowResult)
+    {
+        fireListeners(BenchmarkExecutionListener::soakWindowFinished, windowResult);
+    }
+
     private <T> void fireListeners(BiFunction<BenchmarkExecutionListener, T, Future<?>> invoker, T argument)
     {
         List<Future<?>> futures = new ArrayList<>();
@@ -17,6 +17,8 @@ import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
 import io.prestodb.benchto.driver.execution.QueryExecution;
 import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.SoakWindow;
+import io.prestodb.benchto.driver.execution.SoakWindowResult;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -60,4 +62,16 @@ public class DefaultBenchmarkExecutionListener
     {
         return CompletableFuture.completedFuture("");
     }
+
+    @Override
+    public Future<?> soakWindowStarted(SoakWindow window)
+    {
+        return CompletableFuture.completedFuture("");
+    }
+
+    @Override
+    public Future<?> soakWindowFinished(SoakWindowResult windowResult)
+    {
+        return CompletableFuture.completedFuture("");
+    }
 }
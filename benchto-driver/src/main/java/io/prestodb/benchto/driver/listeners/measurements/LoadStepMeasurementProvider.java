@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.BenchmarkProperties;
+import io.prestodb.benchto.driver.Measurable;
+import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
+import io.prestodb.benchto.driver.execution.KneePointDetector;
+import io.prestodb.benchto.driver.execution.LoadStepResult;
+import io.prestodb.benchto.driver.service.Measurement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static io.prestodb.benchto.driver.service.Measurement.measurement;
+import static io.prestodb.benchto.driver.utils.PercentileUtils.percentile;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Throughput and latency percentiles of each step of step-load benchmarks, together with the knee point,
+ * the highest concurrency before latency diverges.
+ */
+@Component
+public class LoadStepMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    private static final Logger LOG = LoggerFactory.getLogger(LoadStepMeasurementProvider.class);
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+    private static final double KNEE_PERCENTILE = 90;
+
+    @Autowired
+    private BenchmarkProperties properties;
+
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        List<Measurement> measurements;
+        if (measurable instanceof BenchmarkExecutionResult && !((BenchmarkExecutionResult) measurable).getLoadSteps().isEmpty()) {
+            List<LoadStepResult> loadSteps = ((BenchmarkExecutionResult) measurable).getLoadSteps();
+            ImmutableList.Builder<Measurement> builder = ImmutableList.builder();
+            for (LoadStepResult loadStep : loadSteps) {
+                builder.addAll(loadStepMeasurements(loadStep));
+            }
+            builder.addAll(kneePointMeasurements(measurable, loadSteps));
+            measurements = builder.build();
+        }
+        else {
+            measurements = emptyList();
+        }
+
+        return completedFuture(measurements);
+    }
+
+    private List<Measurement> loadStepMeasurements(LoadStepResult loadStep)
+    {
+        String prefix = "concurrency_" + loadStep.getConcurrency() + "_";
+        List<Duration> durations = loadStep.getSuccessfulQueryDurations();
+        ImmutableList.Builder<Measurement> builder = ImmutableList.builder();
+        builder.add(measurement(prefix + "queries", "NONE", durations.size()));
+        builder.add(measurement(prefix + "throughput", "QUERY_PER_SECOND", loadStep.getThroughput()));
+        if (!durations.isEmpty()) {
+            for (double percentile : PERCENTILES) {
+                builder.add(measurement(prefix + "duration_p" + (int) percentile, "MILLISECONDS", percentile(durations, percentile).toMillis()));
+            }
+        }
+        return builder.build();
+    }
+
+    private List<Measurement> kneePointMeasurements(Measurable measurable, List<LoadStepResult> loadSteps)
+    {
+        List<Optional<Duration>> stepLatencies = loadSteps.stream()
+                .map(LoadStepResult::getSuccessfulQueryDurations)
+                .map(durations -> durations.isEmpty() ? Optional.<Duration>empty() : Optional.of(percentile(durations, KNEE_PERCENTILE)))
+                .collect(toList());
+        Optional<Integer> kneePoint = new KneePointDetector(properties.getStepLoadKneeLatencyFactor()).kneePoint(stepLatencies);
+        if (!kneePoint.isPresent()) {
+            LOG.info("No knee point found for benchmark {}, latency did not diverge within load steps {}",
+                    measurable.getBenchmark().getName(), measurable.getBenchmark().getLoadSteps());
+            return emptyList();
+        }
+        LoadStepResult kneeStep = loadSteps.get(kneePoint.get());
+        LOG.info("Knee point of benchmark {} is at concurrency {}", measurable.getBenchmark().getName(), kneeStep.getConcurrency());
+        return ImmutableList.of(
+                measurement("knee_concurrency", "NONE", kneeStep.getConcurrency()),
+                measurement("knee_throughput", "QUERY_PER_SECOND", kneeStep.getThroughput()));
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Measurable;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.prestodb.benchto.driver.service.Measurement.measurement;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Duration of the before and after execution macros of query executions, which is not included in their {@code duration}.
+ */
+@Component
+public class MacroMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        ImmutableList.Builder<Measurement> measurements = ImmutableList.builder();
+        if (measurable instanceof QueryExecutionResult) {
+            ((QueryExecutionResult) measurable).getMacrosDuration()
+                    .ifPresent(duration -> measurements.add(measurement("macros_duration", "MILLISECONDS", duration.toMillis())));
+        }
+
+        return completedFuture(measurements.build());
+    }
+}
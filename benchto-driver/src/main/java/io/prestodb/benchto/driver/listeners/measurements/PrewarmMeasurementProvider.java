@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Measurable;
+import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
+import io.prestodb.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.prestodb.benchto.driver.service.Measurement.measurement;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Durations of prewarm runs, stored apart from measurements of benchmark executions so cold and warm runs can be compared.
+ */
+@Component
+public class PrewarmMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        List<Measurement> measurements;
+        if (measurable instanceof BenchmarkExecutionResult && !((BenchmarkExecutionResult) measurable).getPrewarmDurations().isEmpty()) {
+            List<Duration> prewarmDurations = ((BenchmarkExecutionResult) measurable).getPrewarmDurations();
+            ImmutableList.Builder<Measurement> builder = ImmutableList.builder();
+            builder.add(measurement("prewarm_runs", "NONE", prewarmDurations.size()));
+            for (int run = 0; run < prewarmDurations.size(); run++) {
+                builder.add(measurement("prewarm_" + (run + 1) + "_duration", "MILLISECONDS", prewarmDurations.get(run).toMillis()));
+            }
+            measurements = builder.build();
+        }
+        else {
+            measurements = emptyList();
+        }
+
+        return completedFuture(measurements);
+    }
+}
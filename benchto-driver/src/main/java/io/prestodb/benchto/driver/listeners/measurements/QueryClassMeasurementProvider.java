@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Measurable;
+import io.prestodb.benchto.driver.QueryClass;
+import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static io.prestodb.benchto.driver.service.Measurement.measurement;
+import static io.prestodb.benchto.driver.utils.PercentileUtils.percentile;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Latency distribution and throughput of each query class of mixed workload benchmarks, computed from
+ * successful executions of the class. Overall throughput is provided by {@link ThroughputMeasurementProvider}.
+ */
+@Component
+public class QueryClassMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        List<Measurement> measurements;
+        if (measurable instanceof BenchmarkExecutionResult && measurable.getBenchmark().isMixedWorkload() && measurable.isSuccessful()) {
+            BenchmarkExecutionResult benchmarkExecutionResult = (BenchmarkExecutionResult) measurable;
+            ImmutableList.Builder<Measurement> builder = ImmutableList.builder();
+            for (QueryClass queryClass : benchmarkExecutionResult.getBenchmark().getQueryClasses()) {
+                builder.addAll(queryClassMeasurements(queryClass, benchmarkExecutionResult));
+            }
+            measurements = builder.build();
+        }
+        else {
+            measurements = emptyList();
+        }
+
+        return completedFuture(measurements);
+    }
+
+    private List<Measurement> queryClassMeasurements(QueryClass queryClass, BenchmarkExecutionResult benchmarkExecutionResult)
+    {
+        List<Duration> durations = benchmarkExecutionResult.getExecutions().stream()
+                .filter(execution -> execution.getQueryExecution().getQueryClass().equals(Optional.of(queryClass.getName())))
+                .filter(QueryExecutionResult::isSuccessful)
+                .map(QueryExecutionResult::getQueryDuration)
+                .collect(toList());
+        if (durations.isEmpty()) {
+            return emptyList();
+        }
+
+        String prefix = queryClass.getName() + "_";
+        ImmutableList.Builder<Measurement> builder = ImmutableList.builder();
+        builder.add(measurement(prefix + "queries", "NONE", durations.size()));
+        long queryDurationNanos = benchmarkExecutionResult.getQueryDuration().toNanos();
+        if (queryDurationNanos > 0) {
+            builder.add(measurement(prefix + "throughput", "QUERY_PER_SECOND", (double) durations.size() / queryDurationNanos * SECONDS.toNanos(1)));
+        }
+        builder.add(measurement(prefix + "duration_mean", "MILLISECONDS", durations.stream().mapToLong(Duration::toMillis).average().getAsDouble()));
+        for (double percentile : PERCENTILES) {
+            builder.add(measurement(prefix + "duration_p" + (int) percentile, "MILLISECONDS", percentile(durations, percentile).toMillis()));
+        }
+        builder.add(measurement(prefix + "duration_max", "MILLISECONDS", percentile(durations, 100).toMillis()));
+        return builder.build();
+    }
+}
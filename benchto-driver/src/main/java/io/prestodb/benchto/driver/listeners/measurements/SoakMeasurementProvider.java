@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Measurable;
+import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult;
+import io.prestodb.benchto.driver.execution.SoakWindowResult;
+import io.prestodb.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.collect.Iterables.getLast;
+import static io.prestodb.benchto.driver.service.Measurement.measurement;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Final trends of soak benchmarks, aggregates of each window are reported as the window ends.
+ */
+@Component
+public class SoakMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        List<Measurement> measurements;
+        if (measurable instanceof BenchmarkExecutionResult && !((BenchmarkExecutionResult) measurable).getSoakWindows().isEmpty()) {
+            List<SoakWindowResult> soakWindows = ((BenchmarkExecutionResult) measurable).getSoakWindows();
+            SoakWindowResult lastWindow = getLast(soakWindows);
+            measurements = ImmutableList.of(
+                    measurement("soak_windows", "NONE", soakWindows.size()),
+                    measurement("soak_throughput_trend", "NONE", lastWindow.getThroughputTrend()),
+                    measurement("soak_duration_trend", "NONE", lastWindow.getDurationTrend()),
+                    measurement("soak_degraded", "NONE", soakWindows.stream().anyMatch(SoakWindowResult::isDegraded) ? 1 : 0));
+        }
+        else {
+            measurements = emptyList();
+        }
+
+        return completedFuture(measurements);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.listeners.measurements;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Measurable;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.StatementResult;
+import io.prestodb.benchto.driver.service.Measurement;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.prestodb.benchto.driver.service.Measurement.measurement;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Durations and row counts of the statements of query executions with several statements, next to the total {@code duration}.
+ */
+@Component
+public class StatementMeasurementProvider
+        implements PostExecutionMeasurementProvider
+{
+    @Override
+    public CompletableFuture<List<Measurement>> loadMeasurements(Measurable measurable)
+    {
+        ImmutableList.Builder<Measurement> measurements = ImmutableList.builder();
+        if (measurable instanceof QueryExecutionResult) {
+            List<StatementResult> statementResults = ((QueryExecutionResult) measurable).getStatementResults();
+            for (int statement = 0; statement < statementResults.size(); statement++) {
+                String prefix = "statement_" + (statement + 1);
+                measurements.add(measurement(prefix + "_duration", "MILLISECONDS", statementResults.get(statement).getDuration().toMillis()));
+                measurements.add(measurement(prefix + "_rows", "NONE", statementResults.get(statement).getRowsCount()));
+            }
+        }
+
+        return completedFuture(measurements.build());
+    }
+}
@@ -13,14 +13,19 @@
  */
 package io.prestodb.benchto.driver.loader;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static io.prestodb.benchto.driver.utils.YamlUtils.asStringList;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Wrapper class around benchmark variables map with helper access methods.
@@ -40,6 +45,24 @@ public class BenchmarkDescriptor
     public static final String QUARANTINE_KEY = "quarantine";
     public static final String FREQUENCY_KEY = "frequency";
     public static final String THROUGHPUT_TEST_KEY = "throughput-test";
+    public static final String ISOLATION_GROUP_KEY = "isolation-group";
+    public static final String QUERY_TIMEOUT_KEY = "timeout";
+    public static final String CACHE_DROP_MACROS_KEY = "cache-drop";
+    public static final String WARM_RUNS_KEY = "warm-runs";
+    public static final String QUERY_CLASSES_KEY = "query-classes";
+    public static final String STEP_LOAD_KEY = "step-load";
+    public static final String STEP_DURATION_KEY = "step-duration";
+    public static final String SOAK_DURATION_KEY = "soak-duration";
+    public static final String SOAK_WINDOW_KEY = "soak-window";
+    public static final String PREPARED_STATEMENTS_KEY = "prepared-statements";
+    public static final String SESSION_PROPERTIES_KEY = "session-properties";
+
+    public static final String STEADY_STATE_PREWARM_RUNS = "auto";
+
+    private static final Splitter.MapSplitter SESSION_PROPERTIES_SPLITTER = Splitter.on(',')
+            .omitEmptyStrings()
+            .trimResults()
+            .withKeyValueSeparator(Splitter.on('=').limit(2).trimResults());
 
     public static final Set<String> RESERVED_KEYWORDS = ImmutableSet.of(
             DATA_SOURCE_KEY,
@@ -54,14 +77,32 @@ public class BenchmarkDescriptor
             VARIABLES_KEY,
             QUARANTINE_KEY,
             FREQUENCY_KEY,
-            THROUGHPUT_TEST_KEY);
+            THROUGHPUT_TEST_KEY,
+            ISOLATION_GROUP_KEY,
+            QUERY_TIMEOUT_KEY,
+            CACHE_DROP_MACROS_KEY,
+            WARM_RUNS_KEY,
+            QUERY_CLASSES_KEY,
+            STEP_LOAD_KEY,
+            STEP_DURATION_KEY,
+            SOAK_DURATION_KEY,
+            SOAK_WINDOW_KEY,
+            PREPARED_STATEMENTS_KEY,
+            SESSION_PROPERTIES_KEY);
 
     private final Map<String, String> variables;
+    private final List<QueryClassDescriptor> queryClasses;
 
     public BenchmarkDescriptor(Map<String, String> variables)
+    {
+        this(variables, ImmutableList.of());
+    }
+
+    public BenchmarkDescriptor(Map<String, String> variables, List<QueryClassDescriptor> queryClasses)
     {
         this.variables = variables;
         this.variables.putIfAbsent(QUARANTINE_KEY, "false");
+        this.queryClasses = ImmutableList.copyOf(queryClasses);
     }
 
     public Map<String, String> getVariables()
@@ -86,9 +127,20 @@ public class BenchmarkDescriptor
 
     public Optional<Integer> getPrewarmRepeats()
     {
+        if (isSteadyStatePrewarm()) {
+            return Optional.empty();
+        }
         return getIntegerOptional(PREWARM_RUNS_KEY);
     }
 
+    /**
+     * Prewarm runs are repeated until their durations are stable, rather than a fixed number of times.
+     */
+    public boolean isSteadyStatePrewarm()
+    {
+        return STEADY_STATE_PREWARM_RUNS.equalsIgnoreCase(variables.get(PREWARM_RUNS_KEY));
+    }
+
     public Optional<Integer> getConcurrency()
     {
         return getIntegerOptional(CONCURRENCY_KEY);
@@ -119,11 +171,77 @@ public class BenchmarkDescriptor
         return asStringList(variables.getOrDefault(AFTER_EXECUTION_MACROS_KEY, ""));
     }
 
+    public List<String> getCacheDropMacros()
+    {
+        return asStringList(variables.getOrDefault(CACHE_DROP_MACROS_KEY, ""));
+    }
+
+    public Optional<Integer> getWarmRuns()
+    {
+        return getIntegerOptional(WARM_RUNS_KEY);
+    }
+
     public boolean getThroughputTest()
     {
         return variables.getOrDefault(THROUGHPUT_TEST_KEY, "false").toLowerCase().equals("true");
     }
 
+    public boolean getPreparedStatements()
+    {
+        return variables.getOrDefault(PREPARED_STATEMENTS_KEY, "false").toLowerCase().equals("true");
+    }
+
+    public Map<String, String> getSessionProperties()
+    {
+        return parseSessionProperties(variables.getOrDefault(SESSION_PROPERTIES_KEY, ""));
+    }
+
+    /**
+     * Parses session properties given as comma separated {@code name=value} pairs, the same way in benchmark
+     * descriptors and in {@code --!} headers of query files.
+     */
+    public static Map<String, String> parseSessionProperties(String sessionProperties)
+    {
+        return ImmutableMap.copyOf(SESSION_PROPERTIES_SPLITTER.split(sessionProperties));
+    }
+
+    public Optional<String> getIsolationGroup()
+    {
+        return Optional.ofNullable(variables.get(ISOLATION_GROUP_KEY));
+    }
+
+    public List<Integer> getLoadSteps()
+    {
+        return asStringList(variables.getOrDefault(STEP_LOAD_KEY, "")).stream()
+                .map(Integer::valueOf)
+                .collect(toList());
+    }
+
+    public Optional<Duration> getStepDuration()
+    {
+        return Optional.ofNullable(variables.get(STEP_DURATION_KEY)).map(Duration::parse);
+    }
+
+    public Optional<Duration> getSoakDuration()
+    {
+        return Optional.ofNullable(variables.get(SOAK_DURATION_KEY)).map(Duration::parse);
+    }
+
+    public Optional<Duration> getSoakWindow()
+    {
+        return Optional.ofNullable(variables.get(SOAK_WINDOW_KEY)).map(Duration::parse);
+    }
+
+    public List<QueryClassDescriptor> getQueryClasses()
+    {
+        return queryClasses;
+    }
+
+    public Optional<Duration> getQueryTimeout()
+    {
+        return Optional.ofNullable(variables.get(QUERY_TIMEOUT_KEY)).map(Duration::parse);
+    }
+
     private Optional<Integer> getIntegerOptional(String key)
     {
         if (variables.containsKey(key)) {
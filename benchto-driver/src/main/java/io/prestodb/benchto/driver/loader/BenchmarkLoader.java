@@ -13,6 +13,7 @@
  */
 package io.prestodb.benchto.driver.loader;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import freemarker.template.Configuration;
@@ -23,6 +24,7 @@ import io.prestodb.benchto.driver.Benchmark.BenchmarkBuilder;
 import io.prestodb.benchto.driver.BenchmarkExecutionException;
 import io.prestodb.benchto.driver.BenchmarkProperties;
 import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.QueryClass;
 import io.prestodb.benchto.driver.service.BenchmarkServiceClient;
 import io.prestodb.benchto.driver.service.BenchmarkServiceClient.GenerateUniqueNamesRequestItem;
 import io.prestodb.benchto.driver.utils.NaturalOrderComparator;
@@ -57,7 +59,9 @@ import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.DATA_SOURCE_KEY;
+import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.QUERY_CLASSES_KEY;
 import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.QUERY_NAMES_KEY;
+import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.SESSION_PROPERTIES_KEY;
 import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.VARIABLES_KEY;
 import static io.prestodb.benchto.driver.service.BenchmarkServiceClient.GenerateUniqueNamesRequestItem.generateUniqueNamesRequestItem;
 import static io.prestodb.benchto.driver.utils.CartesianProductUtils.cartesianProduct;
@@ -82,6 +86,9 @@ public class BenchmarkLoader
     private static final int DEFAULT_RUNS = 3;
     private static final int DEFAULT_CONCURRENCY = 1;
     private static final int DEFAULT_PREWARM_RUNS = 0;
+    private static final int DEFAULT_WARM_RUNS = 1;
+    private static final int DEFAULT_WEIGHT = 1;
+    private static final Duration DEFAULT_SOAK_WINDOW = Duration.ofMinutes(1);
 
     @Autowired
     private Environment environment;
@@ -218,29 +225,71 @@ public class BenchmarkLoader
             yaml = overrideTopLevelVariables(yaml);
 
             checkArgument(yaml.containsKey(DATA_SOURCE_KEY), "Mandatory variable %s not present in file %s", DATA_SOURCE_KEY, benchmarkFile);
-            checkArgument(yaml.containsKey(QUERY_NAMES_KEY), "Mandatory variable %s not present in file %s", QUERY_NAMES_KEY, benchmarkFile);
+            checkArgument(yaml.containsKey(QUERY_NAMES_KEY) || yaml.containsKey(QUERY_CLASSES_KEY),
+                    "Mandatory variable %s or %s not present in file %s", QUERY_NAMES_KEY, QUERY_CLASSES_KEY, benchmarkFile);
 
             List<BenchmarkDescriptor> benchmarkDescriptors = createBenchmarkDescriptors(yaml);
 
             List<Benchmark> benchmarks = newArrayListWithCapacity(benchmarkDescriptors.size());
             for (BenchmarkDescriptor benchmarkDescriptor : benchmarkDescriptors) {
                 String benchmarkName = benchmarkName(benchmarkFile);
-                List<Query> queries = queryLoader.loadFromFiles(benchmarkDescriptor.getQueryNames());
+                List<QueryClass> queryClasses = loadQueryClasses(benchmarkDescriptor);
+                List<Query> queries;
+                int concurrency;
+                if (queryClasses.isEmpty()) {
+                    queries = queryLoader.loadFromFiles(benchmarkDescriptor.getQueryNames());
+                    concurrency = benchmarkDescriptor.getLoadSteps().stream()
+                            .max(Integer::compare)
+                            .orElse(benchmarkDescriptor.getConcurrency().orElse(DEFAULT_CONCURRENCY));
+                }
+                else {
+                    queries = queryClasses.stream()
+                            .flatMap(queryClass -> queryClass.getQueries().stream())
+                            .collect(toList());
+                    concurrency = queryClasses.stream()
+                            .mapToInt(QueryClass::getConcurrency)
+                            .sum();
+                }
 
                 Benchmark benchmark = new BenchmarkBuilder(benchmarkName, sequenceId, queries)
                         .withDataSource(benchmarkDescriptor.getDataSource())
                         .withEnvironment(properties.getEnvironmentName())
                         .withRuns(benchmarkDescriptor.getRuns().orElse(DEFAULT_RUNS))
-                        .withPrewarmRuns(benchmarkDescriptor.getPrewarmRepeats().orElse(DEFAULT_PREWARM_RUNS))
-                        .withConcurrency(benchmarkDescriptor.getConcurrency().orElse(DEFAULT_CONCURRENCY))
+                        .withPrewarmRuns(benchmarkDescriptor.isSteadyStatePrewarm()
+                                ? properties.getMaxPrewarmRuns()
+                                : benchmarkDescriptor.getPrewarmRepeats().orElse(DEFAULT_PREWARM_RUNS))
+                        .withSteadyStatePrewarm(benchmarkDescriptor.isSteadyStatePrewarm())
+                        .withCacheDropMacros(benchmarkDescriptor.getCacheDropMacros())
+                        .withWarmRuns(benchmarkDescriptor.getWarmRuns().orElse(DEFAULT_WARM_RUNS))
+                        .withConcurrency(concurrency)
+                        .withQueryClasses(queryClasses)
+                        .withLoadSteps(benchmarkDescriptor.getLoadSteps(), benchmarkDescriptor.getStepDuration())
+                        .withSoak(benchmarkDescriptor.getSoakDuration(), benchmarkDescriptor.getSoakWindow().orElse(DEFAULT_SOAK_WINDOW))
                         .withFrequency(benchmarkDescriptor.getFrequency().map(frequency -> Duration.ofDays(frequency)))
                         .withThroughputTest(benchmarkDescriptor.getThroughputTest())
+                        .withPreparedStatements(benchmarkDescriptor.getPreparedStatements())
+                        .withSessionProperties(benchmarkDescriptor.getSessionProperties())
+                        .withIsolationGroup(benchmarkDescriptor.getIsolationGroup())
+                        .withQueryTimeout(benchmarkDescriptor.getQueryTimeout())
                         .withBeforeBenchmarkMacros(benchmarkDescriptor.getBeforeBenchmarkMacros())
                         .withAfterBenchmarkMacros(benchmarkDescriptor.getAfterBenchmarkMacros())
                         .withBeforeExecutionMacros(benchmarkDescriptor.getBeforeExecutionMacros())
                         .withAfterExecutionMacros(benchmarkDescriptor.getAfterExecutionMacros())
                         .withVariables(benchmarkDescriptor.getVariables())
                         .build();
+                if (benchmark.isColdWarmPaired() && (benchmark.isThroughputTest() || benchmark.getConcurrency() > 1)) {
+                    // cache-drop macros of one run would drop caches under executions of concurrent runs
+                    throw new BenchmarkExecutionException("Cold and warm runs are not supported by throughput tests nor with concurrency greater than 1, benchmark: " + benchmarkName);
+                }
+                if (benchmark.isMixedWorkload() && (benchmark.isThroughputTest() || benchmark.isColdWarmPaired())) {
+                    throw new BenchmarkExecutionException("Query classes are not supported by throughput tests nor cold and warm runs, benchmark: " + benchmarkName);
+                }
+                if (benchmark.isStepLoad() && (benchmark.isThroughputTest() || benchmark.isColdWarmPaired() || benchmark.isMixedWorkload())) {
+                    throw new BenchmarkExecutionException("Step-load is not supported by throughput tests, cold and warm runs nor query classes, benchmark: " + benchmarkName);
+                }
+                if (benchmark.isSoak() && (benchmark.isThroughputTest() || benchmark.isColdWarmPaired() || benchmark.isMixedWorkload() || benchmark.isStepLoad())) {
+                    throw new BenchmarkExecutionException("Soak is not supported by throughput tests, cold and warm runs, query classes nor step-load, benchmark: " + benchmarkName);
+                }
                 benchmarks.add(benchmark);
             }
 
@@ -251,6 +300,19 @@ public class BenchmarkLoader
         }
     }
 
+    private List<QueryClass> loadQueryClasses(BenchmarkDescriptor benchmarkDescriptor)
+    {
+        return benchmarkDescriptor.getQueryClasses().stream()
+                .map(queryClassDescriptor -> new QueryClass(
+                        queryClassDescriptor.getName(),
+                        queryClassDescriptor.getDataSource().orElse(benchmarkDescriptor.getDataSource()),
+                        queryLoader.loadFromFiles(queryClassDescriptor.getQueryNames()),
+                        queryClassDescriptor.getConcurrency().orElse(DEFAULT_CONCURRENCY),
+                        queryClassDescriptor.getWeight().orElse(DEFAULT_WEIGHT),
+                        queryClassDescriptor.getArrivalRate()))
+                .collect(toList());
+    }
+
     private Map<Object, Object> overrideTopLevelVariables(Map<Object, Object> baseYaml)
     {
         ImmutableMap.Builder<Object, Object> result = ImmutableMap.builder();
@@ -271,22 +333,33 @@ public class BenchmarkLoader
     {
         List<Map<String, String>> variablesCombinations = extractVariableMapList(yaml);
         Map<String, String> globalVariables = extractGlobalVariables(yaml);
+        Map<String, Map<String, String>> queryClasses = extractQueryClasses(yaml);
 
+        ImmutableList.Builder<BenchmarkDescriptor> benchmarkDescriptors = ImmutableList.builder();
         for (Map<String, String> variablesMap : variablesCombinations) {
             for (Entry<String, String> globalVariableEntry : globalVariables.entrySet()) {
                 variablesMap.putIfAbsent(globalVariableEntry.getKey(), globalVariableEntry.getValue());
             }
 
-            evaluateValueExpressions(variablesMap);
+            evaluateValueExpressions(variablesMap, variablesMap);
+
+            List<QueryClassDescriptor> queryClassDescriptors = newArrayListWithCapacity(queryClasses.size());
+            for (Entry<String, Map<String, String>> queryClass : queryClasses.entrySet()) {
+                Map<String, String> queryClassVariables = newHashMap(queryClass.getValue());
+                evaluateValueExpressions(queryClassVariables, variablesMap);
+                queryClassDescriptors.add(new QueryClassDescriptor(queryClass.getKey(), queryClassVariables));
+            }
+            benchmarkDescriptors.add(new BenchmarkDescriptor(variablesMap, queryClassDescriptors));
         }
 
-        return variablesCombinations.stream()
-                .map(BenchmarkDescriptor::new)
-                .collect(toList());
+        return benchmarkDescriptors.build();
     }
 
+    /**
+     * Evaluates value expressions of given variables, referencing variables of the model.
+     */
     @SuppressWarnings("unchecked")
-    private void evaluateValueExpressions(Map<String, String> variablesMap)
+    private void evaluateValueExpressions(Map<String, String> variablesMap, Map<String, String> model)
     {
         for (Entry<String, String> variableEntry : variablesMap.entrySet()) {
             String variableValue = variableEntry.getValue();
@@ -294,7 +367,7 @@ public class BenchmarkLoader
             try {
                 if (VALUE_SUBSTITUTION_PATTERN.matcher(variableValue).matches()) {
                     Template valueTemplate = new Template(randomUUID().toString(), variableValue, freemarkerConfiguration);
-                    String evaluatedValue = processTemplateIntoString(valueTemplate, variablesMap);
+                    String evaluatedValue = processTemplateIntoString(valueTemplate, model);
 
                     if (VALUE_SUBSTITUTION_PATTERN.matcher(evaluatedValue).matches()) {
                         throw new BenchmarkExecutionException("Recursive value substitution is not supported, invalid " + variableEntry.getKey() + ": " + variableValue);
@@ -322,7 +395,41 @@ public class BenchmarkLoader
     {
         return yaml.entrySet().stream()
                 .filter(entry -> !entry.getKey().toString().equals(VARIABLES_KEY))
-                .collect(Collectors.toMap(entry -> entry.getKey().toString(), entry -> entry.getValue() == null ? null : entry.getValue().toString()));
+                .collect(Collectors.toMap(entry -> entry.getKey().toString(), entry -> globalVariableValue(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * Query classes are stored in variables by their names, their own variables are extracted by {@link #extractQueryClasses(Map)}.
+     * Session properties given as a map are stored as comma separated {@code name=value} pairs.
+     */
+    private String globalVariableValue(Object key, Object value)
+    {
+        if (value == null) {
+            return null;
+        }
+        if (key.toString().equals(QUERY_CLASSES_KEY) && value instanceof Map) {
+            return Joiner.on(", ").join(((Map<?, ?>) value).keySet());
+        }
+        if (key.toString().equals(SESSION_PROPERTIES_KEY) && value instanceof Map) {
+            return Joiner.on(", ").withKeyValueSeparator("=").join((Map<?, ?>) value);
+        }
+        return value.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, String>> extractQueryClasses(Map<Object, Object> yaml)
+    {
+        Object queryClasses = yaml.getOrDefault(QUERY_CLASSES_KEY, emptyMap());
+        checkArgument(queryClasses instanceof Map, "%s must be a map of query class names to their variables", QUERY_CLASSES_KEY);
+
+        ImmutableMap.Builder<String, Map<String, String>> result = ImmutableMap.builder();
+        for (Entry<Object, Object> queryClass : ((Map<Object, Object>) queryClasses).entrySet()) {
+            checkArgument(queryClass.getValue() instanceof Map, "Query class %s must be a map of variables", queryClass.getKey());
+            Map<String, String> queryClassVariables = ((Map<Object, Object>) queryClass.getValue()).entrySet().stream()
+                    .collect(Collectors.toMap(entry -> entry.getKey().toString(), entry -> String.valueOf(entry.getValue())));
+            result.put(queryClass.getKey().toString(), queryClassVariables);
+        }
+        return result.build();
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.loader;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * SQL statement with {@code ?} placeholders and the values bound to them, in order of the placeholders.
+ */
+public class ParameterizedSqlStatement
+{
+    private final String sql;
+    private final List<Object> parameters;
+
+    public ParameterizedSqlStatement(String sql, List<Object> parameters)
+    {
+        this.sql = requireNonNull(sql);
+        this.parameters = ImmutableList.copyOf(parameters);
+    }
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    public List<Object> getParameters()
+    {
+        return parameters;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ParameterizedSqlStatement that = (ParameterizedSqlStatement) o;
+        return Objects.equals(sql, that.sql) &&
+                Objects.equals(parameters, that.parameters);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(sql, parameters);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("sql", sql)
+                .add("parameters", parameters)
+                .toString();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.loader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.CONCURRENCY_KEY;
+import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.DATA_SOURCE_KEY;
+import static io.prestodb.benchto.driver.loader.BenchmarkDescriptor.QUERY_NAMES_KEY;
+import static io.prestodb.benchto.driver.utils.YamlUtils.asStringList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Wrapper class around variables of a single query class of a mixed workload benchmark.
+ */
+public class QueryClassDescriptor
+{
+    public static final String WEIGHT_KEY = "weight";
+    public static final String ARRIVAL_RATE_KEY = "arrival-rate";
+
+    // measurements of a query class, like <name>_duration_mean, have to fit into 64 characters of the benchmark service
+    public static final int MAX_NAME_LENGTH = 50;
+
+    private final String name;
+    private final Map<String, String> variables;
+
+    public QueryClassDescriptor(String name, Map<String, String> variables)
+    {
+        this.name = requireNonNull(name);
+        checkArgument(name.length() <= MAX_NAME_LENGTH, "Name of query class %s is longer than %s characters", name, MAX_NAME_LENGTH);
+        this.variables = requireNonNull(variables);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public Map<String, String> getVariables()
+    {
+        return variables;
+    }
+
+    public List<String> getQueryNames()
+    {
+        return asStringList(variables.getOrDefault(QUERY_NAMES_KEY, ""));
+    }
+
+    public Optional<String> getDataSource()
+    {
+        return Optional.ofNullable(variables.get(DATA_SOURCE_KEY));
+    }
+
+    public Optional<Integer> getConcurrency()
+    {
+        return Optional.ofNullable(variables.get(CONCURRENCY_KEY)).map(Integer::valueOf);
+    }
+
+    public Optional<Integer> getWeight()
+    {
+        return Optional.ofNullable(variables.get(WEIGHT_KEY)).map(Integer::valueOf);
+    }
+
+    public Optional<Double> getArrivalRate()
+    {
+        return Optional.ofNullable(variables.get(ARRIVAL_RATE_KEY)).map(Double::valueOf);
+    }
+}
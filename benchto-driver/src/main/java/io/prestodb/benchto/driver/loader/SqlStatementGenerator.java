@@ -18,6 +18,10 @@ import com.google.common.collect.ImmutableList;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.utility.DeepUnwrap;
 import io.prestodb.benchto.driver.BenchmarkExecutionException;
 import io.prestodb.benchto.driver.Query;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,44 +30,152 @@ import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
 
 @Component
 public class SqlStatementGenerator
 {
+    /**
+     * Name of the template method marking a value to be bound to a prepared statement, e.g. {@code ${bind(42)}}.
+     */
+    public static final String BIND_METHOD = "bind";
+
     private static final Splitter SQL_STATEMENT_SPLITTER = Splitter.on(";").trimResults().omitEmptyStrings();
+    private static final Pattern PARAMETER_MARKER = Pattern.compile("\u0001(\\d+)\u0001");
+    private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
 
     @Autowired
     private Configuration freemarkerConfiguration;
 
+    /**
+     * Values passed to {@code bind} are inlined into the generated statements as SQL literals.
+     */
     public List<String> generateQuerySqlStatement(Query query, Map<String, ?> attributes)
     {
         ImmutableList.Builder<String> sqlQueries = ImmutableList.<String>builder();
-        String sqlTemplate = generateQuerySqlStatement(query.getSqlTemplate(), attributes);
+        String sqlTemplate = generateQuerySqlStatement(query.getSqlTemplate(), attributes, SqlStatementGenerator::toSqlLiteral);
         for (String sqlQuery : toSqlQueries(sqlTemplate)) {
             sqlQueries.add(sqlQuery);
         }
         return sqlQueries.build();
     }
 
+    /**
+     * Values passed to {@code bind} are replaced by {@code ?} placeholders and returned as parameters of the generated statements.
+     */
+    public List<ParameterizedSqlStatement> generateParameterizedSqlStatements(Query query, Map<String, ?> attributes)
+    {
+        List<Object> parameters = newArrayList();
+        String sqlTemplate = generateQuerySqlStatement(query.getSqlTemplate(), attributes, value -> {
+            parameters.add(value);
+            return "\u0001" + (parameters.size() - 1) + "\u0001";
+        });
+
+        ImmutableList.Builder<ParameterizedSqlStatement> sqlStatements = ImmutableList.builder();
+        for (String sqlQuery : toSqlQueries(sqlTemplate)) {
+            List<Object> statementParameters = newArrayList();
+            Matcher matcher = PARAMETER_MARKER.matcher(sqlQuery);
+            StringBuffer sql = new StringBuffer();
+            while (matcher.find()) {
+                statementParameters.add(parameters.get(Integer.parseInt(matcher.group(1))));
+                matcher.appendReplacement(sql, "?");
+            }
+            matcher.appendTail(sql);
+            sqlStatements.add(new ParameterizedSqlStatement(sql.toString(), statementParameters));
+        }
+        return sqlStatements.build();
+    }
+
     private static ImmutableList<String> toSqlQueries(String sqlTemplate)
     {
         return ImmutableList.copyOf(SQL_STATEMENT_SPLITTER.split(sqlTemplate));
     }
 
-    private String generateQuerySqlStatement(String sqlTemplate, Map<String, ?> attributes)
+    private String generateQuerySqlStatement(String sqlTemplate, Map<String, ?> attributes, Function<Object, String> binder)
     {
         try {
             // template name must be unique to ensure correct templates caching
             String templateName = UUID.randomUUID().toString();
             Template queryTemplate = new Template(templateName, new StringReader(sqlTemplate), freemarkerConfiguration);
 
-            return FreeMarkerTemplateUtils.processTemplateIntoString(queryTemplate, attributes);
+            Map<String, Object> model = new HashMap<>(attributes);
+            model.put(BIND_METHOD, bindMethod(binder));
+            return FreeMarkerTemplateUtils.processTemplateIntoString(queryTemplate, model);
         }
         catch (IOException | TemplateException e) {
             throw new BenchmarkExecutionException(e);
         }
     }
+
+    private static TemplateMethodModelEx bindMethod(Function<Object, String> binder)
+    {
+        return arguments -> {
+            if (arguments.size() != 1) {
+                throw new TemplateModelException(BIND_METHOD + " takes exactly one argument, got " + arguments.size());
+            }
+            return binder.apply(toBindValue(DeepUnwrap.unwrap((TemplateModel) arguments.get(0))));
+        };
+    }
+
+    /**
+     * Numbers keep their type and scale: integral numbers are bound as longs, or as decimals when out of the long range,
+     * floating point numbers as doubles and other numbers as decimals.
+     */
+    private static Object toBindValue(Object value)
+            throws TemplateModelException
+    {
+        if (value instanceof Number) {
+            try {
+                return toBindNumber((Number) value);
+            }
+            catch (NumberFormatException e) {
+                throw new TemplateModelException("Cannot bind value: " + value, e);
+            }
+        }
+        if (value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        throw new TemplateModelException("Unsupported type of bound value: " + value);
+    }
+
+    private static Object toBindNumber(Number value)
+            throws TemplateModelException
+    {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value.longValue();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double doubleValue = value.doubleValue();
+            if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                throw new TemplateModelException("Cannot bind value: " + value);
+            }
+            return doubleValue;
+        }
+        BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+        if (decimal.scale() <= 0 && decimal.compareTo(MIN_LONG) >= 0 && decimal.compareTo(MAX_LONG) <= 0) {
+            return decimal.longValueExact();
+        }
+        return decimal;
+    }
+
+    private static String toSqlLiteral(Object value)
+    {
+        if (value instanceof String) {
+            return "'" + ((String) value).replace("'", "''") + "'";
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return value.toString().toUpperCase();
+    }
 }
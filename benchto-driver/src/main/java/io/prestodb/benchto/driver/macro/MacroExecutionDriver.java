@@ -22,5 +22,12 @@ public interface MacroExecutionDriver
 {
     boolean canExecuteBenchmarkMacro(String macroName);
 
+    /**
+     * Called once for each macro before it is executed, fails if the macro cannot be executed.
+     */
+    default void loadBenchmarkMacro(String macroName)
+    {
+    }
+
     void runBenchmarkMacro(String macroName, Optional<Benchmark> benchmark, Optional<Connection> connection);
 }
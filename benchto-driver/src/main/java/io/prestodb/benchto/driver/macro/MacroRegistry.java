@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.macro;
+
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Resolves macro names to their execution drivers once, instead of asking all the drivers on every execution of a macro.
+ */
+@Component
+public class MacroRegistry
+{
+    @Autowired
+    private List<MacroExecutionDriver> macroExecutionDrivers;
+
+    private final ConcurrentMap<String, MacroExecutionDriver> resolvedExecutionDrivers = new ConcurrentHashMap<>();
+
+    public MacroExecutionDriver getExecutionDriver(String macroName)
+    {
+        return resolvedExecutionDrivers.computeIfAbsent(macroName, this::resolveExecutionDriver);
+    }
+
+    /**
+     * Resolves and loads all the given macros, failing with all the macros which cannot be executed.
+     */
+    public void loadMacros(Collection<String> macroNames)
+    {
+        List<String> failures = newArrayList();
+        for (String macroName : macroNames) {
+            try {
+                getExecutionDriver(macroName).loadBenchmarkMacro(macroName);
+            }
+            catch (RuntimeException e) {
+                failures.add(e.getMessage());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BenchmarkExecutionException(format("Could not load macros: %s", failures));
+        }
+    }
+
+    private MacroExecutionDriver resolveExecutionDriver(String macroName)
+    {
+        List<MacroExecutionDriver> matchingExecutionDrivers = macroExecutionDrivers.stream()
+                .filter(executionDriver -> executionDriver.canExecuteBenchmarkMacro(macroName))
+                .collect(toList());
+        if (matchingExecutionDrivers.size() > 1) {
+            throw new IllegalStateException(format("More than one execution driver for macro %s - matching drivers %s", macroName, matchingExecutionDrivers));
+        }
+        else if (matchingExecutionDrivers.size() == 0) {
+            throw new IllegalStateException(format("No execution driver for macro %s", macroName));
+        }
+        return matchingExecutionDrivers.get(0);
+    }
+}
@@ -16,6 +16,7 @@ package io.prestodb.benchto.driver.macro;
 import io.prestodb.benchto.driver.Benchmark;
 
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,5 +46,10 @@ public interface MacroService
         }
     }
 
+    /**
+     * Prepares the macros for their executions, so macros which cannot be executed are reported before any benchmark starts.
+     */
+    void loadBenchmarkMacros(Collection<String> macroNames);
+
     void runBenchmarkMacro(String macroName, Optional<Benchmark> benchmark, Optional<Connection> connection);
 }
@@ -18,34 +18,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.sql.Connection;
-import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
-import java.util.stream.Collectors;
-
-import static java.lang.String.format;
-import static java.util.stream.Collectors.toList;
 
 @Component
 public class MacroServiceImpl
         implements MacroService
 {
     @Autowired
-    private List<MacroExecutionDriver> macroExecutionDrivers;
+    private MacroRegistry macroRegistry;
 
-    public void runBenchmarkMacro(String macroName, Optional<Benchmark> benchmark, Optional<Connection> connection)
+    public void loadBenchmarkMacros(Collection<String> macroNames)
     {
-        MacroExecutionDriver macroExecutionDriver = macroExecutionDrivers.stream()
-                .filter(executionDriver -> executionDriver.canExecuteBenchmarkMacro(macroName))
-                .collect(Collectors.collectingAndThen(toList(), matchingExecutionDrivers -> {
-                    if (matchingExecutionDrivers.size() > 1) {
-                        throw new IllegalStateException(format("More than one execution driver for macro %s - matching drivers %s", macroName, matchingExecutionDrivers));
-                    }
-                    else if (matchingExecutionDrivers.size() == 0) {
-                        throw new IllegalStateException(format("No execution driver for macro %s", macroName));
-                    }
-                    return matchingExecutionDrivers.get(0);
-                }));
+        macroRegistry.loadMacros(macroNames);
+    }
 
-        macroExecutionDriver.runBenchmarkMacro(macroName, benchmark, connection);
+    public void runBenchmarkMacro(String macroName, Optional<Benchmark> benchmark, Optional<Connection> connection)
+    {
+        macroRegistry.getExecutionDriver(macroName).runBenchmarkMacro(macroName, benchmark, connection);
     }
 }
@@ -34,6 +34,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,17 +61,28 @@ public class QueryMacroExecutionDriver
     @Autowired
     private SqlStatementGenerator sqlStatementGenerator;
 
+    /**
+     * Macro files are read and parsed once, only their templates are rendered on each execution.
+     */
+    private final ConcurrentMap<String, Query> macroQueries = new ConcurrentHashMap<>();
+
     public boolean canExecuteBenchmarkMacro(String macroName)
     {
         return macroName.endsWith(".sql");
     }
 
+    @Override
+    public void loadBenchmarkMacro(String macroName)
+    {
+        getMacroQuery(macroName);
+    }
+
     @Override
     public void runBenchmarkMacro(String macroName, Optional<Benchmark> benchmarkOptional, Optional<Connection> connectionOptional)
     {
         checkArgument(benchmarkOptional.isPresent(), "Benchmark is required to run query based macro");
         Benchmark benchmark = benchmarkOptional.get();
-        Query macroQuery = queryLoader.loadFromFile(macroName);
+        Query macroQuery = getMacroQuery(macroName);
 
         List<String> sqlStatements = sqlStatementGenerator.generateQuerySqlStatement(macroQuery, benchmark.getNonReservedKeywordVariables());
 
@@ -89,6 +102,11 @@ public class QueryMacroExecutionDriver
         }
     }
 
+    private Query getMacroQuery(String macroName)
+    {
+        return macroQueries.computeIfAbsent(macroName, queryLoader::loadFromFile);
+    }
+
     private void runSqlStatements(Connection connection, List<String> sqlStatements)
             throws SQLException
     {
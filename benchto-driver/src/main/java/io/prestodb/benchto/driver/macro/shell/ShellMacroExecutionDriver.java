@@ -54,6 +54,12 @@ public class ShellMacroExecutionDriver
         return macros.getMacros().containsKey(macroName);
     }
 
+    @Override
+    public void loadBenchmarkMacro(String macroName)
+    {
+        getMacroCommand(macroName);
+    }
+
     @Override
     public void runBenchmarkMacro(String macroName, Optional<Benchmark> benchmark, Optional<Connection> connection)
     {
@@ -74,6 +74,15 @@ public class BenchmarkServiceClient
         return ImmutableList.copyOf(ages);
     }
 
+    @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
+    public List<ExecutionDurationSummary> getExecutionDurationSummaries(String environmentName, List<String> benchmarkUniqueNames)
+    {
+        Map<String, String> requestParams = ImmutableMap.of("serviceUrl", properties.getServiceURL(), "environmentName", environmentName);
+        ExecutionDurationSummary[] summaries = postForObject("{serviceUrl}/v1/benchmark/get-execution-duration-summaries?environment={environmentName}",
+                benchmarkUniqueNames, ExecutionDurationSummary[].class, requestParams);
+        return ImmutableList.copyOf(summaries);
+    }
+
     @Retryable(value = RestClientException.class, backoff = @Backoff(1000))
     public String startBenchmark(String uniqueBenchmarkName, String benchmarkSequenceId, BenchmarkStartRequest request)
     {
@@ -169,6 +178,70 @@ public class BenchmarkServiceClient
         }
     }
 
+    /**
+     * Mean execution durations (in milliseconds) of recent successful runs of a benchmark.
+     */
+    @SuppressWarnings("unused")
+    @JsonAutoDetect(fieldVisibility = ANY)
+    public static class ExecutionDurationSummary
+    {
+        private String uniqueName;
+        private int runs;
+        private double meanDuration;
+        private double latestMeanDuration;
+        private double previousMeanDuration;
+
+        private ExecutionDurationSummary()
+        {
+        }
+
+        public ExecutionDurationSummary(String uniqueName, int runs, double meanDuration, double latestMeanDuration, double previousMeanDuration)
+        {
+            this.uniqueName = uniqueName;
+            this.runs = runs;
+            this.meanDuration = meanDuration;
+            this.latestMeanDuration = latestMeanDuration;
+            this.previousMeanDuration = previousMeanDuration;
+        }
+
+        public String getUniqueName()
+        {
+            return uniqueName;
+        }
+
+        public int getRuns()
+        {
+            return runs;
+        }
+
+        public double getMeanDuration()
+        {
+            return meanDuration;
+        }
+
+        public double getLatestMeanDuration()
+        {
+            return latestMeanDuration;
+        }
+
+        public double getPreviousMeanDuration()
+        {
+            return previousMeanDuration;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("uniqueName", uniqueName)
+                    .add("runs", runs)
+                    .add("meanDuration", meanDuration)
+                    .add("latestMeanDuration", latestMeanDuration)
+                    .add("previousMeanDuration", previousMeanDuration)
+                    .toString();
+        }
+    }
+
     @SuppressWarnings("unused")
     @JsonAutoDetect(fieldVisibility = ANY)
     public abstract static class AttributeRequest
@@ -273,7 +346,7 @@ public class BenchmarkServiceClient
     {
         public enum Status
         {
-            STARTED, ENDED, FAILED
+            STARTED, ENDED, FAILED, CANCELLED
         }
 
         private Status status;
@@ -35,6 +35,21 @@ public class Measurement
         return measurement;
     }
 
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getUnit()
+    {
+        return unit;
+    }
+
+    public double getValue()
+    {
+        return value;
+    }
+
     @Override
     public boolean equals(Object o)
     {
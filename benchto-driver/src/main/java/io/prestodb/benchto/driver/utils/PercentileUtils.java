@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.utils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toList;
+
+public final class PercentileUtils
+{
+    /**
+     * Nearest-rank percentile, the shortest of the durations which are not shorter than given percent of all durations.
+     */
+    public static Duration percentile(List<Duration> durations, double percentile)
+    {
+        checkArgument(!durations.isEmpty(), "Percentile of no durations");
+        checkArgument(percentile > 0 && percentile <= 100, "Percentile must be within (0, 100], got %s", percentile);
+        List<Duration> sortedDurations = durations.stream()
+                .sorted()
+                .collect(toList());
+        int rank = (int) Math.ceil(percentile / 100 * sortedDurations.size());
+        return sortedDurations.get(Math.max(rank, 1) - 1);
+    }
+
+    private PercentileUtils()
+    {
+    }
+}
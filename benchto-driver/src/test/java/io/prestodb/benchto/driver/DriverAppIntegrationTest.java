@@ -52,6 +52,7 @@ public class DriverAppIntegrationTest
             "]";
     private static final List<String> GRAPHITE_MEASUREMENT_NAMES = ImmutableList.of(
             "cluster-memory_max", "cluster-memory_mean", "cluster-cpu_max", "cluster-cpu_mean", "cluster-network_max", "cluster-network_mean", "cluster-network_total");
+    private static final List<String> PREWARM_MEASUREMENT_NAMES = ImmutableList.of("prewarm_runs", "prewarm_1_duration");
 
     private static final Matcher<String> ENDED_STATUS_MATCHER = is("ENDED");
 
@@ -71,7 +72,7 @@ public class DriverAppIntegrationTest
         verifyBenchmarkStart("simple_select_benchmark", "simple_select_benchmark_schema=INFORMATION_SCHEMA");
         verifySerialExecution("simple_select_benchmark_schema=INFORMATION_SCHEMA", "simple_select", 1);
         verifySerialExecution("simple_select_benchmark_schema=INFORMATION_SCHEMA", "simple_select", 2);
-        verifyBenchmarkFinish("simple_select_benchmark_schema=INFORMATION_SCHEMA", ImmutableList.of());
+        verifyBenchmarkFinish("simple_select_benchmark_schema=INFORMATION_SCHEMA", PREWARM_MEASUREMENT_NAMES);
         verifyComplete();
     }
 
@@ -82,18 +83,31 @@ public class DriverAppIntegrationTest
         verifyBenchmarkStart("test_benchmark", "test_benchmark");
         verifySerialExecution("test_benchmark", "test_query", 1);
         verifySerialExecution("test_benchmark", "test_query", 2);
-        verifyBenchmarkFinish("test_benchmark", ImmutableList.of());
+        verifyBenchmarkFinish("test_benchmark", PREWARM_MEASUREMENT_NAMES);
+        verifyComplete();
+    }
+
+    @Test
+    public void multiStatementBenchmark()
+    {
+        List<String> statementMeasurementNames = ImmutableList.of("statement_1_duration", "statement_1_rows", "statement_2_duration", "statement_2_rows");
+        setBenchmark("multi_statement_benchmark");
+        verifyBenchmarkStart("multi_statement_benchmark", "multi_statement_benchmark");
+        verifySerialExecution("multi_statement_benchmark", "multi_statement_query", 1, statementMeasurementNames);
+        verifySerialExecution("multi_statement_benchmark", "multi_statement_query", 2, statementMeasurementNames);
+        verifyBenchmarkFinish("multi_statement_benchmark", PREWARM_MEASUREMENT_NAMES);
         verifyComplete();
     }
 
     @Test
     public void testConcurrentBenchmark()
     {
-        ImmutableList<String> concurrentQueryMeasurementName = ImmutableList.of("duration");
+        ImmutableList<String> concurrentQueryMeasurementName = ImmutableList.of("duration", "macros_duration");
         ImmutableList<String> concurrentBenchmarkMeasurementNames = ImmutableList.<String>builder()
                 .addAll(GRAPHITE_MEASUREMENT_NAMES)
                 .add("throughput")
                 .add("duration")
+                .addAll(PREWARM_MEASUREMENT_NAMES)
                 .build();
 
         setBenchmark("test_concurrent_benchmark");
@@ -165,10 +179,17 @@ public class DriverAppIntegrationTest
     }
 
     private void verifySerialExecution(String uniqueBenchmarkName, String queryName, int executionNumber)
+    {
+        verifySerialExecution(uniqueBenchmarkName, queryName, executionNumber, ImmutableList.of());
+    }
+
+    private void verifySerialExecution(String uniqueBenchmarkName, String queryName, int executionNumber, List<String> queryMeasurementNames)
     {
         ImmutableList<String> serialQueryMeasurementNames = ImmutableList.<String>builder()
                 .addAll(GRAPHITE_MEASUREMENT_NAMES)
                 .add("duration")
+                .add("macros_duration")
+                .addAll(queryMeasurementNames)
                 .build();
         verifySerialExecutionStarted(uniqueBenchmarkName, queryName, executionNumber);
         verifyGetGraphiteMeasurements();
@@ -0,0 +1,245 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.distributed;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.execution.BenchmarkExecutionDriver;
+import io.prestodb.benchto.driver.execution.QueryExecution;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
+import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
+import io.prestodb.benchto.driver.loader.BenchmarkLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DistributedCoordinatorTest
+{
+    private static final int WORKERS = 2;
+    private static final long START_DELAY_MILLIS = 200;
+    private static final String HEARTBEAT_TIMEOUT = "PT1S";
+
+    private final Query query = new Query("query", "SELECT 1", emptyMap());
+    private final Benchmark benchmark = new Benchmark.BenchmarkBuilder("distributed", "sequence-id", ImmutableList.of(query))
+            .withDataSource("datasource")
+            .withEnvironment("environment")
+            .withRuns(1)
+            .withPrewarmRuns(0)
+            .withConcurrency(3)
+            .withThroughputTest(true)
+            .withBeforeBenchmarkMacros(emptyList())
+            .withAfterBenchmarkMacros(emptyList())
+            .withVariables(emptyMap())
+            .build();
+
+    private final Map<Integer, List<Integer>> executedStreams = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> streamsStartMillis = new ConcurrentHashMap<>();
+    private volatile long streamsDurationMillis;
+    private volatile String workerHeartbeatInterval = "PT0.1S";
+
+    private DistributedCoordinator coordinator;
+    private ExecutorService workersExecutor;
+
+    @Before
+    public void setUp()
+    {
+        benchmark.setUniqueName("distributed_unique");
+        coordinator = new DistributedCoordinator(properties(DistributedProperties.Role.COORDINATOR, null), mock(BenchmarkStatusReporter.class));
+        coordinator.start("sequence-id");
+        workersExecutor = Executors.newFixedThreadPool(WORKERS);
+    }
+
+    @After
+    public void tearDown()
+    {
+        coordinator.stop();
+        workersExecutor.shutdownNow();
+    }
+
+    @Test
+    public void streamsAreSplitAmongWorkers()
+            throws Exception
+    {
+        List<Future<?>> workers = startWorkers(ImmutableList.of(benchmark));
+
+        coordinator.startStreams(benchmark, 1, Optional.empty());
+        long startedMillis = currentTimeMillis();
+        List<QueryExecutionResult> executions = coordinator.awaitStreamResults(benchmark);
+
+        assertThat(executions).hasSize(3);
+        assertThat(executions.stream().map(execution -> execution.getQueryExecution().getRun()).sorted().collect(toImmutableList()))
+                .containsExactly(0, 1, 2);
+        assertThat(executions.stream().map(QueryExecutionResult::getQueryName).distinct().collect(toImmutableList()))
+                .containsExactly("query");
+        assertThat(executions.stream().map(QueryExecutionResult::getPrestoQueryId).map(Optional::get).sorted().collect(toImmutableList()))
+                .containsExactly("query_0", "query_1", "query_2");
+
+        assertThat(executedStreams).hasSize(WORKERS);
+        assertThat(executedStreams.get(0)).containsExactly(0, 2);
+        assertThat(executedStreams.get(1)).containsExactly(1);
+        // both workers were released by the same start barrier
+        for (long startMillis : streamsStartMillis.values()) {
+            assertThat(startMillis).isGreaterThan(startedMillis - START_DELAY_MILLIS);
+        }
+
+        coordinator.stop();
+        for (Future<?> worker : workers) {
+            worker.get(10, SECONDS);
+        }
+    }
+
+    @Test
+    public void failOnWorkerFailure()
+            throws Exception
+    {
+        List<Future<?>> workers = startWorkers(ImmutableList.of());
+
+        coordinator.startStreams(benchmark, 1, Optional.empty());
+
+        assertThatThrownBy(() -> coordinator.awaitStreamResults(benchmark))
+                .isInstanceOf(BenchmarkExecutionException.class)
+                .hasMessageContaining("is unknown to worker");
+
+        coordinator.stop();
+        for (Future<?> worker : workers) {
+            worker.get(10, SECONDS);
+        }
+    }
+
+    @Test
+    public void waitForWorkersSendingHeartbeats()
+            throws Exception
+    {
+        streamsDurationMillis = 2500;
+        List<Future<?>> workers = startWorkers(ImmutableList.of(benchmark));
+
+        coordinator.startStreams(benchmark, 1, Optional.empty());
+
+        assertThat(coordinator.awaitStreamResults(benchmark)).hasSize(3);
+
+        coordinator.stop();
+        for (Future<?> worker : workers) {
+            worker.get(10, SECONDS);
+        }
+    }
+
+    @Test
+    public void failOnWorkersWithoutHeartbeats()
+            throws Exception
+    {
+        streamsDurationMillis = 2500;
+        workerHeartbeatInterval = "PT1M";
+        List<Future<?>> workers = startWorkers(ImmutableList.of(benchmark));
+
+        coordinator.startStreams(benchmark, 1, Optional.empty());
+        long startedMillis = currentTimeMillis();
+
+        assertThatThrownBy(() -> coordinator.awaitStreamResults(benchmark))
+                .isInstanceOf(BenchmarkExecutionException.class)
+                .hasMessageContaining("sent no heartbeat");
+        assertThat(currentTimeMillis() - startedMillis).isLessThan(streamsDurationMillis);
+
+        coordinator.stop();
+        for (Future<?> worker : workers) {
+            worker.get(10, SECONDS);
+        }
+    }
+
+    private List<Future<?>> startWorkers(List<Benchmark> workerBenchmarks)
+    {
+        ImmutableList.Builder<Future<?>> workers = ImmutableList.builder();
+        for (int i = 0; i < WORKERS; i++) {
+            DistributedWorker worker = worker(workerBenchmarks);
+            workers.add(workersExecutor.submit(worker::run));
+        }
+        return workers.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private DistributedWorker worker(List<Benchmark> workerBenchmarks)
+    {
+        BenchmarkLoader benchmarkLoader = mock(BenchmarkLoader.class);
+        when(benchmarkLoader.loadBenchmarks(eq("sequence-id"))).thenReturn(workerBenchmarks);
+
+        BenchmarkExecutionDriver benchmarkExecutionDriver = mock(BenchmarkExecutionDriver.class);
+        when(benchmarkExecutionDriver.executeStreams(any(Benchmark.class), anyInt(), anyListOf(Integer.class), any())).thenAnswer(invocation -> {
+            List<Integer> streams = (List<Integer>) invocation.getArguments()[2];
+            streamsStartMillis.put(streams.get(0), currentTimeMillis());
+            executedStreams.put(streams.get(0), streams);
+            Thread.sleep(streamsDurationMillis);
+            return streams.stream()
+                    .map(stream -> new QueryExecutionResultBuilder(new QueryExecution(benchmark, query, stream))
+                            .startTimer()
+                            .setPrestoQueryId("query_" + stream)
+                            .endTimer()
+                            .build())
+                    .collect(toImmutableList());
+        });
+
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getMessageConverters().add(new MappingJackson2HttpMessageConverter());
+        CoordinatorClient coordinatorClient = new CoordinatorClient(restTemplate,
+                properties(DistributedProperties.Role.WORKER, "http://localhost:" + coordinator.getPort()));
+
+        DistributedWorker worker = new DistributedWorker();
+        ReflectionTestUtils.setField(worker, "coordinatorClient", coordinatorClient);
+        ReflectionTestUtils.setField(worker, "benchmarkLoader", benchmarkLoader);
+        ReflectionTestUtils.setField(worker, "benchmarkExecutionDriver", benchmarkExecutionDriver);
+        ReflectionTestUtils.setField(worker, "statusReporter", mock(BenchmarkStatusReporter.class));
+        ReflectionTestUtils.setField(worker, "properties", properties(DistributedProperties.Role.WORKER, null));
+        return worker;
+    }
+
+    private DistributedProperties properties(DistributedProperties.Role role, String coordinatorUrl)
+    {
+        DistributedProperties properties = new DistributedProperties();
+        ReflectionTestUtils.setField(properties, "role", role);
+        ReflectionTestUtils.setField(properties, "workers", WORKERS);
+        ReflectionTestUtils.setField(properties, "coordinatorPort", 0);
+        ReflectionTestUtils.setField(properties, "coordinatorUrl", coordinatorUrl);
+        ReflectionTestUtils.setField(properties, "startDelayMillis", START_DELAY_MILLIS);
+        ReflectionTestUtils.setField(properties, "timeout", "PT10S");
+        ReflectionTestUtils.setField(properties, "heartbeatInterval", workerHeartbeatInterval);
+        ReflectionTestUtils.setField(properties, "heartbeatTimeout", HEARTBEAT_TIMEOUT);
+        return properties;
+    }
+}
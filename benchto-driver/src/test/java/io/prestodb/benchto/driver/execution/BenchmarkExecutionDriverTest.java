@@ -13,9 +13,17 @@
  */
 package io.prestodb.benchto.driver.execution;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.Benchmark.BenchmarkBuilder;
+import io.prestodb.benchto.driver.BenchmarkProperties;
+import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.QueryClass;
 import io.prestodb.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.prestodb.benchto.driver.distributed.DistributedCoordinator;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
+import io.prestodb.benchto.driver.jdbc.ConnectionCache;
 import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
 import io.prestodb.benchto.driver.macro.MacroService;
 import org.junit.Before;
@@ -25,15 +33,31 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.prestodb.benchto.driver.execution.QueryExecution.CacheState.COLD;
+import static io.prestodb.benchto.driver.execution.QueryExecution.CacheState.WARM;
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -54,6 +78,18 @@ public class BenchmarkExecutionDriverTest
     @Mock
     ExecutionSynchronizer executionSynchronizer;
 
+    @Mock
+    DistributedCoordinator distributedCoordinator;
+
+    @Mock
+    QueryExecutionDriver queryExecutionDriver;
+
+    @Mock
+    ConnectionCache connectionCache;
+
+    @Mock
+    BenchmarkProperties properties;
+
     @InjectMocks
     BenchmarkExecutionDriver driver;
 
@@ -100,4 +136,184 @@ public class BenchmarkExecutionDriverTest
         assertThat(benchmarkExecutionResult.isSuccessful()).isFalse();
         assertThat(benchmarkExecutionResult.getFailureCauses()).containsExactly(executorServiceException);
     }
+
+    @Test
+    public void coldAndWarmRuns()
+            throws Exception
+    {
+        Connection connection = mock(Connection.class);
+        when(connectionCache.getConnection(eq("datasource"), any(Map.class), eq(false))).thenReturn(connection);
+        when(executorServiceFactory.create(anyInt())).thenReturn(listeningDecorator(newDirectExecutorService()));
+        when(queryExecutionDriver.execute(any(QueryExecution.class), eq(connection), any(Optional.class)))
+                .thenAnswer(invocation -> new QueryExecutionResultBuilder((QueryExecution) invocation.getArguments()[0])
+                        .startTimer()
+                        .endTimer()
+                        .build());
+        Benchmark benchmark = new BenchmarkBuilder("name", "sequenceId", ImmutableList.of(new Query("query", "SELECT 1", emptyMap())))
+                .withDataSource("datasource")
+                .withEnvironment("environment")
+                .withRuns(2)
+                .withPrewarmRuns(0)
+                .withConcurrency(1)
+                .withCacheDropMacros(ImmutableList.of("drop-caches"))
+                .withWarmRuns(2)
+                .withVariables(emptyMap())
+                .build();
+
+        BenchmarkExecutionResult benchmarkExecutionResult = driver.execute(benchmark, 1, 1, Optional.empty());
+
+        assertThat(benchmarkExecutionResult.isSuccessful()).isTrue();
+        List<QueryExecution> executions = benchmarkExecutionResult.getExecutions().stream()
+                .map(QueryExecutionResult::getQueryExecution)
+                .collect(toList());
+        assertThat(executions.stream().map(QueryExecution::getRun).collect(toList())).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(executions.stream().map(QueryExecution::getCacheState).collect(toList())).containsExactly(
+                Optional.of(COLD), Optional.of(WARM), Optional.of(WARM),
+                Optional.of(COLD), Optional.of(WARM), Optional.of(WARM));
+        verify(macroService, times(2)).runBenchmarkMacros(ImmutableList.of("drop-caches"), benchmark, connection);
+    }
+
+    @Test
+    public void afterExecutionMacroFailureStillReportsExecution()
+            throws Exception
+    {
+        Connection connection = mockConnection("datasource");
+        when(executorServiceFactory.create(anyInt())).thenReturn(listeningDecorator(newDirectExecutorService()));
+        when(queryExecutionDriver.execute(any(QueryExecution.class), eq(connection), any(Optional.class)))
+                .thenAnswer(invocation -> new QueryExecutionResultBuilder((QueryExecution) invocation.getArguments()[0])
+                        .startTimer()
+                        .endTimer()
+                        .build());
+        RuntimeException afterMacroException = new RuntimeException();
+        doThrow(afterMacroException)
+                .when(macroService).runBenchmarkMacros(eq(ImmutableList.of("after")), any(Benchmark.class), eq(connection));
+        Benchmark benchmark = new BenchmarkBuilder("name", "sequenceId", ImmutableList.of(new Query("query", "SELECT 1", emptyMap())))
+                .withDataSource("datasource")
+                .withEnvironment("environment")
+                .withRuns(1)
+                .withPrewarmRuns(0)
+                .withConcurrency(1)
+                .withAfterExecutionMacros(ImmutableList.of("after"))
+                .withVariables(emptyMap())
+                .build();
+
+        BenchmarkExecutionResult benchmarkExecutionResult = driver.execute(benchmark, 1, 1, Optional.empty());
+
+        assertThat(benchmarkExecutionResult.isSuccessful()).isFalse();
+        verify(statusReporter).reportExecutionFinished(any(QueryExecutionResult.class));
+    }
+
+    @Test
+    public void connectionsExecutingSessionChangingStatementsAreNotReused()
+            throws Exception
+    {
+        Connection connection = mockConnection("datasource");
+        when(executorServiceFactory.create(anyInt())).thenReturn(listeningDecorator(newDirectExecutorService()));
+        when(queryExecutionDriver.execute(any(QueryExecution.class), eq(connection), any(Optional.class)))
+                .thenAnswer(invocation -> new QueryExecutionResultBuilder((QueryExecution) invocation.getArguments()[0])
+                        .startTimer()
+                        .endTimer()
+                        .build());
+        Benchmark benchmark = new BenchmarkBuilder("name", "sequenceId", ImmutableList.of(new Query("query", "SET SESSION task_concurrency = 8; SELECT 1", emptyMap())))
+                .withDataSource("datasource")
+                .withEnvironment("environment")
+                .withRuns(1)
+                .withPrewarmRuns(0)
+                .withConcurrency(1)
+                .withVariables(emptyMap())
+                .build();
+
+        assertThat(driver.execute(benchmark, 1, 1, Optional.empty()).isSuccessful()).isTrue();
+        verify(connectionCache).getConnection(eq("datasource"), any(Map.class), eq(false));
+    }
+
+    @Test
+    public void mixedWorkloadQueryClasses()
+            throws Exception
+    {
+        Connection dashboardConnection = mockConnection("dashboard_datasource");
+        Connection etlConnection = mockConnection("etl_datasource");
+        when(executorServiceFactory.create(anyInt())).thenReturn(listeningDecorator(newDirectExecutorService()));
+        when(queryExecutionDriver.execute(any(QueryExecution.class), any(Connection.class), any(Optional.class)))
+                .thenAnswer(invocation -> new QueryExecutionResultBuilder((QueryExecution) invocation.getArguments()[0])
+                        .startTimer()
+                        .endTimer()
+                        .build());
+        QueryClass dashboard = new QueryClass(
+                "dashboard",
+                "dashboard_datasource",
+                ImmutableList.of(new Query("a", "SELECT 1", emptyMap()), new Query("b", "SELECT 2", emptyMap())),
+                2,
+                1,
+                Optional.empty());
+        QueryClass etl = new QueryClass("etl", "etl_datasource", ImmutableList.of(new Query("c", "SELECT 3", emptyMap())), 1, 2, Optional.empty());
+        Benchmark benchmark = new BenchmarkBuilder("name", "sequenceId", ImmutableList.of())
+                .withDataSource("dashboard_datasource")
+                .withEnvironment("environment")
+                .withRuns(1)
+                .withPrewarmRuns(0)
+                .withConcurrency(3)
+                .withQueryClasses(ImmutableList.of(dashboard, etl))
+                .withVariables(emptyMap())
+                .build();
+
+        BenchmarkExecutionResult benchmarkExecutionResult = driver.execute(benchmark, 1, 1, Optional.empty());
+
+        assertThat(benchmarkExecutionResult.isSuccessful()).isTrue();
+        List<QueryExecution> executions = benchmarkExecutionResult.getExecutions().stream()
+                .map(QueryExecutionResult::getQueryExecution)
+                .collect(toList());
+        assertThat(executions.stream().map(QueryExecution::getRun).collect(toList())).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(executions.stream().map(execution -> execution.getQueryClass().get()).collect(toList()))
+                .containsExactly("dashboard", "dashboard", "dashboard", "dashboard", "etl", "etl");
+        verify(queryExecutionDriver, times(4)).execute(any(QueryExecution.class), eq(dashboardConnection), any(Optional.class));
+        verify(queryExecutionDriver, times(2)).execute(any(QueryExecution.class), eq(etlConnection), any(Optional.class));
+        verify(statusReporter, times(3)).reportConcurrencyTestExecutionFinished(anyList());
+    }
+
+    @Test
+    public void soakWindowsAreReportedWhileRunning()
+            throws Exception
+    {
+        mockConnection("datasource");
+        when(executorServiceFactory.create(anyInt())).thenReturn(listeningDecorator(Executors.newCachedThreadPool()));
+        when(queryExecutionDriver.execute(any(QueryExecution.class), any(Connection.class), any(Optional.class)))
+                .thenAnswer(invocation -> {
+                    QueryExecutionResultBuilder builder = new QueryExecutionResultBuilder((QueryExecution) invocation.getArguments()[0])
+                            .startTimer();
+                    Thread.sleep(10);
+                    return builder.endTimer().build();
+                });
+        when(properties.getSoakDegradationThreshold()).thenReturn(0.1);
+        when(properties.getSoakTrendMinWindows()).thenReturn(5);
+        Benchmark benchmark = new BenchmarkBuilder("name", "sequenceId", ImmutableList.of(new Query("query", "SELECT 1", emptyMap())))
+                .withDataSource("datasource")
+                .withEnvironment("environment")
+                .withRuns(1)
+                .withPrewarmRuns(0)
+                .withConcurrency(2)
+                .withSoak(Optional.of(Duration.ofMillis(500)), Duration.ofMillis(100))
+                .withVariables(emptyMap())
+                .build();
+
+        BenchmarkExecutionResult benchmarkExecutionResult = driver.execute(benchmark, 1, 1, Optional.empty());
+
+        assertThat(benchmarkExecutionResult.isSuccessful()).isTrue();
+        List<SoakWindowResult> soakWindows = benchmarkExecutionResult.getSoakWindows();
+        assertThat(soakWindows.size()).isGreaterThanOrEqualTo(4);
+        assertThat(soakWindows.stream().map(window -> window.getWindow().getIndex()).collect(toList()))
+                .isEqualTo(IntStream.range(0, soakWindows.size()).boxed().collect(toList()));
+        assertThat(soakWindows.stream().mapToInt(window -> window.getExecutions().size()).sum())
+                .isEqualTo(benchmarkExecutionResult.getExecutions().size());
+        verify(statusReporter, times(soakWindows.size())).reportSoakWindowStarted(any(SoakWindow.class));
+        verify(statusReporter, times(soakWindows.size())).reportSoakWindowFinished(any(SoakWindowResult.class));
+    }
+
+    private Connection mockConnection(String dataSourceName)
+            throws Exception
+    {
+        Connection connection = mock(Connection.class);
+        when(connectionCache.getConnection(eq(dataSourceName), any(Map.class), anyBoolean())).thenReturn(connection);
+        return connection;
+    }
 }
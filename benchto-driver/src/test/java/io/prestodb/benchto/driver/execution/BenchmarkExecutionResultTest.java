@@ -15,9 +15,13 @@ package io.prestodb.benchto.driver.execution;
 
 import com.google.common.collect.ImmutableList;
 import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.Query;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult.BenchmarkExecutionResultBuilder;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
 import org.junit.Test;
 
+import java.sql.SQLException;
+
 import static io.prestodb.benchto.driver.utils.TimeUtils.sleep;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
@@ -52,4 +56,34 @@ public class BenchmarkExecutionResultTest
         assertThat(benchmarkExecutionResult.isSuccessful()).isTrue();
         assertThat(benchmarkExecutionResult.getQueryDuration().toMillis()).isBetween(500L, 600L);
     }
+
+    @Test
+    public void cancelledExecutionsAreNotFailures()
+    {
+        Benchmark benchmark = new Benchmark.BenchmarkBuilder("name", "sequenceId", emptyList())
+                .withDataSource("datasource")
+                .withEnvironment("environment")
+                .withVariables(emptyMap())
+                .build();
+        QueryExecution queryExecution = new QueryExecution(benchmark, new Query("query", "SELECT 1", emptyMap()), 1);
+        QueryExecutionResult cancelled = new QueryExecutionResultBuilder(queryExecution)
+                .cancelled(new QueryCancelledException(queryExecution, new SQLException("Query was canceled")))
+                .build();
+        QueryExecutionResult failed = new QueryExecutionResultBuilder(queryExecution)
+                .failed(new SQLException("Query failed"))
+                .build();
+
+        BenchmarkExecutionResult cancelledResult = new BenchmarkExecutionResultBuilder(benchmark)
+                .withExecutions(ImmutableList.of(cancelled))
+                .build();
+        assertThat(cancelled.isSuccessful()).isFalse();
+        assertThat(cancelledResult.isSuccessful()).isTrue();
+        assertThat(cancelledResult.getFailureCauses()).isEmpty();
+
+        BenchmarkExecutionResult failedResult = new BenchmarkExecutionResultBuilder(benchmark)
+                .withExecutions(ImmutableList.of(cancelled, failed))
+                .build();
+        assertThat(failedResult.isSuccessful()).isFalse();
+        assertThat(failedResult.getFailureCauses()).containsExactly(failed.getFailureCause());
+    }
 }
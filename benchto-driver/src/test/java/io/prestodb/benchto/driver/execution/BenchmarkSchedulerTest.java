@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.BenchmarkProperties;
+import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.service.BenchmarkServiceClient;
+import io.prestodb.benchto.driver.service.BenchmarkServiceClient.ExecutionDurationSummary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BenchmarkSchedulerTest
+{
+    @Mock
+    BenchmarkProperties properties;
+
+    @Mock
+    BenchmarkServiceClient benchmarkServiceClient;
+
+    @InjectMocks
+    BenchmarkScheduler scheduler;
+
+    @Test
+    public void scheduleStaleRegressedAndCheapBenchmarksFirst()
+    {
+        Benchmark stale = benchmark("stale");
+        Benchmark neverRun = benchmark("never_run");
+        Benchmark regressed = benchmark("regressed");
+        Benchmark expensive = benchmark("expensive");
+        List<Benchmark> benchmarks = ImmutableList.of(stale, neverRun, regressed, expensive);
+
+        when(properties.getEnvironmentName()).thenReturn("environment");
+        when(properties.getRegressionThreshold()).thenReturn(1.1);
+        when(benchmarkServiceClient.getBenchmarkSuccessfulExecutionAges(anyListOf(String.class))).thenReturn(ImmutableList.of(
+                Duration.ofDays(2),
+                Duration.ofDays(Integer.MAX_VALUE),
+                Duration.ofHours(36),
+                Duration.ofDays(3)));
+        // costs of 3 runs: 3 minutes, unknown, 3 seconds and 15 minutes
+        when(benchmarkServiceClient.getExecutionDurationSummaries(eq("environment"), anyListOf(String.class))).thenReturn(ImmutableList.of(
+                new ExecutionDurationSummary("stale", 5, 60_000, 60_000, 60_000),
+                new ExecutionDurationSummary("never_run", 0, 0, 0, 0),
+                new ExecutionDurationSummary("regressed", 5, 1_000, 2_000, 750),
+                new ExecutionDurationSummary("expensive", 1, 300_000, 300_000, 0)));
+
+        List<Benchmark> schedule = scheduler.schedule(benchmarks, Duration.ofMinutes(10));
+
+        // expensive benchmark is as important as the regressed one, but it does not fit into the time limit with the others
+        assertThat(schedule).containsExactly(neverRun, regressed, stale, expensive);
+    }
+
+    @Test
+    public void throughputTestStreamsExecuteAllRuns()
+    {
+        Benchmark throughputTest = benchmark("throughput", 10, true);
+        Benchmark concurrent = benchmark("concurrent", 10, false);
+        List<Benchmark> benchmarks = ImmutableList.of(throughputTest, concurrent);
+
+        when(properties.getEnvironmentName()).thenReturn("environment");
+        when(properties.getRegressionThreshold()).thenReturn(1.1);
+        when(benchmarkServiceClient.getBenchmarkSuccessfulExecutionAges(anyListOf(String.class))).thenReturn(ImmutableList.of(
+                Duration.ofDays(3),
+                Duration.ofDays(2)));
+        // costs of 3 minutes and of 18 seconds, as runs of the concurrent benchmark are split among 10 threads
+        when(benchmarkServiceClient.getExecutionDurationSummaries(eq("environment"), anyListOf(String.class))).thenReturn(ImmutableList.of(
+                new ExecutionDurationSummary("throughput", 5, 60_000, 60_000, 60_000),
+                new ExecutionDurationSummary("concurrent", 5, 60_000, 60_000, 60_000)));
+
+        List<Benchmark> schedule = scheduler.schedule(benchmarks, Duration.ofMinutes(1));
+
+        assertThat(schedule).containsExactly(concurrent, throughputTest);
+    }
+
+    @Test
+    public void keepOrderWhenHistoryIsNotAvailable()
+    {
+        List<Benchmark> benchmarks = ImmutableList.of(benchmark("first"), benchmark("second"));
+
+        when(properties.getEnvironmentName()).thenReturn("environment");
+        when(benchmarkServiceClient.getBenchmarkSuccessfulExecutionAges(anyListOf(String.class))).thenReturn(ImmutableList.of(
+                Duration.ofDays(1),
+                Duration.ofDays(2)));
+        when(benchmarkServiceClient.getExecutionDurationSummaries(eq("environment"), anyListOf(String.class)))
+                .thenThrow(new RestClientException("404 Not Found"));
+
+        assertThat(scheduler.schedule(benchmarks, Duration.ofMinutes(10))).isSameAs(benchmarks);
+    }
+
+    @Test
+    public void singleBenchmarkIsNotScheduled()
+    {
+        List<Benchmark> benchmarks = ImmutableList.of(benchmark("single"));
+
+        assertThat(scheduler.schedule(benchmarks, Duration.ofMinutes(10))).isSameAs(benchmarks);
+        verifyZeroInteractions(benchmarkServiceClient);
+    }
+
+    private static Benchmark benchmark(String name)
+    {
+        return benchmark(name, 1, false);
+    }
+
+    private static Benchmark benchmark(String name, int concurrency, boolean throughputTest)
+    {
+        Benchmark benchmark = new Benchmark.BenchmarkBuilder(name, "sequenceId", ImmutableList.of(new Query(name, "SELECT 1", emptyMap())))
+                .withDataSource("datasource")
+                .withEnvironment("environment")
+                .withRuns(3)
+                .withPrewarmRuns(0)
+                .withConcurrency(concurrency)
+                .withThroughputTest(throughputTest)
+                .withFrequency(Optional.of(Duration.ofDays(1)))
+                .withBeforeBenchmarkMacros(emptyList())
+                .withAfterBenchmarkMacros(emptyList())
+                .withVariables(emptyMap())
+                .build();
+        benchmark.setUniqueName(name);
+        return benchmark;
+    }
+}
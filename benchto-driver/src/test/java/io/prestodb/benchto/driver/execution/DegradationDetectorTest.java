@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static io.prestodb.benchto.driver.execution.DegradationDetector.relativeTrend;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class DegradationDetectorTest
+{
+    private final DegradationDetector detector = new DegradationDetector(0.1, 3);
+
+    @Test
+    public void relativeTrendOfWindowValues()
+    {
+        assertThat(relativeTrend(ImmutableList.of(10.0, 10.0, 10.0, 10.0))).isEqualTo(0.0);
+        assertThat(relativeTrend(ImmutableList.of(12.0, 11.0, 10.0, 9.0, 8.0))).isCloseTo(-0.4, within(1e-9));
+        assertThat(relativeTrend(ImmutableList.of(100.0, 120.0))).isCloseTo(0.2 / 1.1, within(1e-9));
+        assertThat(relativeTrend(ImmutableList.of(5.0))).isEqualTo(0.0);
+        assertThat(relativeTrend(ImmutableList.of(0.0, 0.0))).isEqualTo(0.0);
+    }
+
+    @Test
+    public void degradedWhenThroughputFallsOrLatencyRises()
+    {
+        assertThat(detector.isDegraded(3, -0.11, 0)).isTrue();
+        assertThat(detector.isDegraded(3, 0, 0.11)).isTrue();
+        assertThat(detector.isDegraded(3, -0.05, 0.05)).isFalse();
+        assertThat(detector.isDegraded(3, 0.5, -0.5)).isFalse();
+    }
+
+    @Test
+    public void notDegradedWithTooFewWindows()
+    {
+        assertThat(detector.isDegraded(2, -0.5, 0.5)).isFalse();
+    }
+}
@@ -17,6 +17,9 @@ import com.google.common.collect.ImmutableList;
 import io.prestodb.benchto.driver.Benchmark;
 import io.prestodb.benchto.driver.BenchmarkProperties;
 import io.prestodb.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.prestodb.benchto.driver.distributed.DistributedCoordinator;
+import io.prestodb.benchto.driver.distributed.DistributedProperties;
+import io.prestodb.benchto.driver.distributed.DistributedWorker;
 import io.prestodb.benchto.driver.execution.BenchmarkExecutionResult.BenchmarkExecutionResultBuilder;
 import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkExecutionListener;
 import io.prestodb.benchto.driver.listeners.benchmark.BenchmarkStatusReporter;
@@ -32,12 +35,18 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.prestodb.benchto.driver.utils.TimeUtils.sleep;
 import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
@@ -67,6 +76,18 @@ public class ExecutionDriverTest
     @Mock
     BenchmarkStatusReporter benchmarkStatusReporter;
 
+    @Mock
+    BenchmarkScheduler benchmarkScheduler;
+
+    @Mock
+    DistributedProperties distributedProperties;
+
+    @Mock
+    DistributedCoordinator distributedCoordinator;
+
+    @Mock
+    DistributedWorker distributedWorker;
+
     @InjectMocks
     ExecutionDriver driver;
 
@@ -143,6 +164,7 @@ public class ExecutionDriverTest
         ReflectionTestUtils.setField(benchmarkExecutionDriver, "executorServiceFactory", new ExecutorServiceFactory());
         ReflectionTestUtils.setField(benchmarkExecutionDriver, "executionSynchronizer", mock(ExecutionSynchronizer.class));
         ReflectionTestUtils.setField(benchmarkExecutionDriver, "statusReporter", statusReporter);
+        ReflectionTestUtils.setField(benchmarkExecutionDriver, "distributedCoordinator", mock(DistributedCoordinator.class));
         ReflectionTestUtils.setField(driver, "benchmarkExecutionDriver", benchmarkExecutionDriver);
         ReflectionTestUtils.setField(driver, "benchmarkStatusReporter", statusReporter);
 
@@ -151,6 +173,44 @@ public class ExecutionDriverTest
         }).hasMessageContaining("programmatic listener failure in testFailingListener");
     }
 
+    @Test
+    public void isolationGroupsAreExecutedInParallel()
+    {
+        List<Benchmark> benchmarks = ImmutableList.of(benchmark("presto"), benchmark("presto"), benchmark("hive"));
+        when(benchmarkLoader.loadBenchmarks(anyString())).thenReturn(benchmarks);
+        when(benchmarkProperties.getParallelGroups()).thenReturn(2);
+        ReflectionTestUtils.setField(driver, "executorServiceFactory", new ExecutorServiceFactory());
+
+        Set<String> runningGroups = newConcurrentHashSet();
+        AtomicInteger maxRunningGroups = new AtomicInteger();
+        AtomicBoolean groupExecutedInParallel = new AtomicBoolean();
+        when(benchmarkExecutionDriver.execute(any(Benchmark.class), anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+            String group = ((Benchmark) invocation.getArguments()[0]).getIsolationGroup();
+            if (!runningGroups.add(group)) {
+                groupExecutedInParallel.set(true);
+            }
+            maxRunningGroups.accumulateAndGet(runningGroups.size(), Math::max);
+            sleep(200, TimeUnit.MILLISECONDS);
+            runningGroups.remove(group);
+            return successfulBenchmarkExecution();
+        });
+
+        driver.execute();
+
+        verify(benchmarkExecutionDriver).execute(benchmarks.get(0), 1, 3, Optional.empty());
+        verify(benchmarkExecutionDriver).execute(benchmarks.get(1), 2, 3, Optional.empty());
+        verify(benchmarkExecutionDriver).execute(benchmarks.get(2), 3, 3, Optional.empty());
+        assertThat(maxRunningGroups.get()).isEqualTo(2);
+        assertThat(groupExecutedInParallel.get()).isFalse();
+    }
+
+    private static Benchmark benchmark(String isolationGroup)
+    {
+        Benchmark benchmark = mock(Benchmark.class);
+        when(benchmark.getIsolationGroup()).thenReturn(isolationGroup);
+        return benchmark;
+    }
+
     private void sleepOnSecondDuringMacroExecution()
     {
         doAnswer(invocationOnMock -> {
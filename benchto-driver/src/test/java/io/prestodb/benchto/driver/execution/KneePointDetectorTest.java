@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KneePointDetectorTest
+{
+    private final KneePointDetector detector = new KneePointDetector(2.0);
+
+    @Test
+    public void kneePointIsLastStepBeforeLatencyDiverges()
+    {
+        assertThat(detector.kneePoint(millis(100L, 110L, 150L, 190L, 450L, 900L))).contains(3);
+        assertThat(detector.kneePoint(millis(100L, 201L))).contains(0);
+    }
+
+    @Test
+    public void stepWithoutSuccessfulExecutionsDiverges()
+    {
+        assertThat(detector.kneePoint(millis(100L, 120L, null))).contains(1);
+    }
+
+    @Test
+    public void noKneePointWhenLatencyDoesNotDiverge()
+    {
+        assertThat(detector.kneePoint(millis())).isEmpty();
+        assertThat(detector.kneePoint(millis(100L))).isEmpty();
+        assertThat(detector.kneePoint(millis(100L, 150L, 200L))).isEmpty();
+        assertThat(detector.kneePoint(millis(null, 100L))).isEmpty();
+    }
+
+    private static List<Optional<Duration>> millis(Long... latencies)
+    {
+        return Arrays.stream(latencies)
+                .map(latency -> Optional.ofNullable(latency).map(Duration::ofMillis))
+                .collect(toList());
+    }
+}
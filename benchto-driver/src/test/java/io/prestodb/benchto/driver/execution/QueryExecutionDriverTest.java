@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.loader.SqlStatementGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class QueryExecutionDriverTest
+{
+    private final QueryExecutionWatchdog watchdog = new QueryExecutionWatchdog();
+    private final QueryExecutionDriver queryExecutionDriver = new QueryExecutionDriver();
+
+    private Connection connection;
+
+    @Before
+    public void setUp()
+            throws SQLException
+    {
+        ReflectionTestUtils.setField(queryExecutionDriver, "sqlStatementGenerator", new SqlStatementGenerator());
+        ReflectionTestUtils.setField(queryExecutionDriver, "watchdog", watchdog);
+
+        connection = spy(DriverManager.getConnection("jdbc:hsqldb:mem:query-execution-driver", "sa", ""));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE nation (nationkey INT)");
+            for (int nationKey = 0; nationKey < 5; nationKey++) {
+                statement.execute("INSERT INTO nation VALUES (" + nationKey + ")");
+            }
+        }
+    }
+
+    @After
+    public void tearDown()
+            throws SQLException
+    {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE nation");
+        }
+        connection.close();
+        watchdog.shutdown();
+    }
+
+    @Test
+    public void preparedStatementsWithSameSqlBindTheirOwnParameters()
+            throws SQLException
+    {
+        QueryExecution queryExecution = preparedQueryExecution("" +
+                "SELECT nationkey FROM nation WHERE nationkey < ${bind(1)};" +
+                "SELECT nationkey FROM nation WHERE nationkey < ${bind(3)}");
+
+        QueryExecutionResult result = queryExecutionDriver.execute(queryExecution, connection, Optional.empty());
+
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.getStatementResults()).extracting("rowsCount").containsExactly(1, 3);
+        assertThat(result.getRowsCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void statementsArePreparedOncePerConnection()
+            throws SQLException
+    {
+        QueryExecution queryExecution = preparedQueryExecution("SELECT nationkey FROM nation WHERE nationkey < ${bind(2)}");
+
+        for (int execution = 0; execution < 3; execution++) {
+            assertThat(queryExecutionDriver.execute(queryExecution, connection, Optional.empty()).getRowsCount()).isEqualTo(2);
+        }
+
+        verify(connection, times(1)).prepareStatement(anyString());
+    }
+
+    private static QueryExecution preparedQueryExecution(String sqlTemplate)
+    {
+        Query query = new Query("query", sqlTemplate, emptyMap());
+        Benchmark benchmark = new Benchmark.BenchmarkBuilder("prepared", "sequenceId", ImmutableList.of(query))
+                .withDataSource("datasource")
+                .withPreparedStatements(true)
+                .withBeforeBenchmarkMacros(emptyList())
+                .withAfterBenchmarkMacros(emptyList())
+                .withVariables(emptyMap())
+                .build();
+        return new QueryExecution(benchmark, query, 0);
+    }
+}
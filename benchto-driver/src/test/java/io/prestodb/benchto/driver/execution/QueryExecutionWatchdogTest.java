@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import io.prestodb.benchto.driver.execution.QueryExecutionWatchdog.Watch;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Statement;
+import java.util.Optional;
+
+import static io.prestodb.benchto.driver.utils.TimeUtils.nowUtc;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class QueryExecutionWatchdogTest
+{
+    private final QueryExecutionWatchdog watchdog = new QueryExecutionWatchdog();
+
+    @After
+    public void tearDown()
+    {
+        watchdog.shutdown();
+    }
+
+    @Test
+    public void statementIsCancelledAtDeadline()
+            throws Exception
+    {
+        Statement statement = mock(Statement.class);
+
+        try (Watch watch = watchdog.watch(statement, Optional.of(nowUtc().plusNanos(50_000_000)))) {
+            verify(statement, timeout(5000)).cancel();
+            assertThat(watch.isCancelled()).isTrue();
+        }
+    }
+
+    @Test
+    public void statementIsNotCancelledAfterWatchIsClosed()
+            throws Exception
+    {
+        Statement statement = mock(Statement.class);
+
+        try (Watch watch = watchdog.watch(statement, Optional.of(nowUtc().plusSeconds(1)))) {
+            assertThat(watch.isCancelled()).isFalse();
+        }
+        Thread.sleep(1500);
+
+        try (Watch watch = watchdog.watch(statement, Optional.empty())) {
+            assertThat(watch.isCancelled()).isFalse();
+        }
+        verifyZeroInteractions(statement);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.driver.Benchmark;
+import io.prestodb.benchto.driver.Benchmark.BenchmarkBuilder;
+import io.prestodb.benchto.driver.BenchmarkProperties;
+import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.concurrent.ExecutorServiceFactory;
+import io.prestodb.benchto.driver.execution.QueryExecutionResult.QueryExecutionResultBuilder;
+import io.prestodb.benchto.driver.jdbc.ConnectionCache;
+import io.prestodb.benchto.driver.loader.ParameterizedSqlStatement;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SharedPrewarmTest
+{
+    private static final Query QUERY_1 = new Query("q1", "SELECT 1", emptyMap());
+    private static final Query QUERY_2 = new Query("q2", "SELECT 2", emptyMap());
+
+    @Mock
+    QueryExecutionDriver queryExecutionDriver;
+
+    @Mock
+    ExecutorServiceFactory executorServiceFactory;
+
+    @Mock
+    BenchmarkProperties properties;
+
+    @Mock
+    ConnectionCache connectionCache;
+
+    @InjectMocks
+    SharedPrewarm sharedPrewarm;
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        when(properties.getSharedPrewarmConcurrency()).thenReturn(4);
+        when(executorServiceFactory.create(anyInt())).thenReturn(listeningDecorator(newDirectExecutorService()));
+        when(queryExecutionDriver.generateSqlStatements(any(QueryExecution.class))).thenAnswer(invocation -> {
+            QueryExecution queryExecution = (QueryExecution) invocation.getArguments()[0];
+            // parameters of prepared statements come from benchmark variables
+            return ImmutableList.of(new ParameterizedSqlStatement(queryExecution.getQuery().getSqlTemplate(),
+                    ImmutableList.copyOf(queryExecution.getBenchmark().getVariables().values())));
+        });
+        when(queryExecutionDriver.execute(any(QueryExecution.class), any(Connection.class), any(Optional.class)))
+                .thenAnswer(invocation -> new QueryExecutionResultBuilder((QueryExecution) invocation.getArguments()[0]).startTimer().endTimer().build());
+        when(connectionCache.getConnection(any(String.class), any(Map.class))).thenReturn(mock(Connection.class));
+    }
+
+    @Test
+    public void queriesSharedByBenchmarksArePrewarmedOnce()
+            throws Exception
+    {
+        Benchmark first = benchmark("first", "datasource", 2, QUERY_1, QUERY_2);
+        Benchmark second = benchmark("second", "datasource", 3, QUERY_1);
+        Benchmark otherDataSource = benchmark("other", "other_datasource", 1, QUERY_1);
+
+        sharedPrewarm.prewarm(ImmutableList.of(first, second, otherDataSource), Optional.empty());
+
+        verify(queryExecutionDriver, times(3)).execute(argThat(isExecutionOf(first, QUERY_1)), any(Connection.class), any(Optional.class));
+        verify(queryExecutionDriver, times(2)).execute(argThat(isExecutionOf(first, QUERY_2)), any(Connection.class), any(Optional.class));
+        verify(queryExecutionDriver, times(1)).execute(argThat(isExecutionOf(otherDataSource, QUERY_1)), any(Connection.class), any(Optional.class));
+        verify(queryExecutionDriver, times(6)).execute(any(QueryExecution.class), any(Connection.class), any(Optional.class));
+        assertThat(first.isSharedPrewarmed()).isTrue();
+        assertThat(second.isSharedPrewarmed()).isTrue();
+        assertThat(otherDataSource.isSharedPrewarmed()).isTrue();
+    }
+
+    @Test
+    public void benchmarksWithFailedOrUnsharablePrewarmAreNotMarked()
+            throws Exception
+    {
+        when(queryExecutionDriver.execute(argThat(isExecutionOf(QUERY_2)), any(Connection.class), any(Optional.class)))
+                .thenThrow(new SQLException("failed"));
+        Benchmark failed = benchmark("failed", "datasource", 1, QUERY_1, QUERY_2);
+        Benchmark succeeded = benchmark("succeeded", "datasource", 1, QUERY_1);
+        Benchmark steadyState = new BenchmarkBuilder("steady", "sequenceId", ImmutableList.of(QUERY_1))
+                .withDataSource("datasource")
+                .withPrewarmRuns(5)
+                .withSteadyStatePrewarm(true)
+                .withBeforeExecutionMacros(ImmutableList.of())
+                .withAfterExecutionMacros(ImmutableList.of())
+                .build();
+        Benchmark withMacros = new BenchmarkBuilder("macros", "sequenceId", ImmutableList.of(QUERY_1))
+                .withDataSource("datasource")
+                .withPrewarmRuns(5)
+                .withBeforeBenchmarkMacros(ImmutableList.of("drop-caches"))
+                .withAfterBenchmarkMacros(ImmutableList.of())
+                .withBeforeExecutionMacros(ImmutableList.of())
+                .withAfterExecutionMacros(ImmutableList.of())
+                .build();
+
+        sharedPrewarm.prewarm(ImmutableList.of(failed, succeeded, steadyState, withMacros), Optional.empty());
+
+        verify(queryExecutionDriver, times(1)).execute(argThat(isExecutionOf(QUERY_1)), any(Connection.class), any(Optional.class));
+        assertThat(failed.isSharedPrewarmed()).isFalse();
+        assertThat(succeeded.isSharedPrewarmed()).isTrue();
+        assertThat(steadyState.isSharedPrewarmed()).isFalse();
+        assertThat(withMacros.isSharedPrewarmed()).isFalse();
+    }
+
+    @Test
+    public void queriesBindingDifferentParametersArePrewarmedSeparately()
+            throws Exception
+    {
+        Benchmark first = benchmark("first", "datasource", 2, ImmutableMap.of("region", "eu"), QUERY_1);
+        Benchmark second = benchmark("second", "datasource", 2, ImmutableMap.of("region", "us"), QUERY_1);
+        Benchmark sameParameters = benchmark("same", "datasource", 2, ImmutableMap.of("region", "eu"), QUERY_1);
+
+        sharedPrewarm.prewarm(ImmutableList.of(first, second, sameParameters), Optional.empty());
+
+        verify(queryExecutionDriver, times(2)).execute(argThat(isExecutionOf(first, QUERY_1)), any(Connection.class), any(Optional.class));
+        verify(queryExecutionDriver, times(2)).execute(argThat(isExecutionOf(second, QUERY_1)), any(Connection.class), any(Optional.class));
+        verify(queryExecutionDriver, times(4)).execute(any(QueryExecution.class), any(Connection.class), any(Optional.class));
+        assertThat(sameParameters.isSharedPrewarmed()).isTrue();
+    }
+
+    private static Benchmark benchmark(String name, String dataSource, int prewarmRuns, Query... queries)
+    {
+        return benchmark(name, dataSource, prewarmRuns, emptyMap(), queries);
+    }
+
+    private static Benchmark benchmark(String name, String dataSource, int prewarmRuns, Map<String, String> variables, Query... queries)
+    {
+        return new BenchmarkBuilder(name, "sequenceId", ImmutableList.copyOf(queries))
+                .withDataSource(dataSource)
+                .withPrewarmRuns(prewarmRuns)
+                .withVariables(variables)
+                .withBeforeExecutionMacros(ImmutableList.of())
+                .withAfterExecutionMacros(ImmutableList.of())
+                .build();
+    }
+
+    private static Matcher<QueryExecution> isExecutionOf(Query query)
+    {
+        return new ArgumentMatcher<QueryExecution>()
+        {
+            @Override
+            public boolean matches(Object argument)
+            {
+                return ((QueryExecution) argument).getQuery() == query;
+            }
+        };
+    }
+
+    private static Matcher<QueryExecution> isExecutionOf(Benchmark benchmark, Query query)
+    {
+        return new ArgumentMatcher<QueryExecution>()
+        {
+            @Override
+            public boolean matches(Object argument)
+            {
+                QueryExecution queryExecution = (QueryExecution) argument;
+                return queryExecution.getBenchmark() == benchmark && queryExecution.getQuery() == query;
+            }
+        };
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.execution;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SteadyStateDetectorTest
+{
+    private final SteadyStateDetector detector = new SteadyStateDetector(3, 0.05);
+
+    @Test
+    public void steadyWhenLatestRunsAreWithinThreshold()
+    {
+        assertThat(detector.isSteady(millis(5000, 1200, 1020, 1000, 1040))).isTrue();
+        assertThat(detector.isSteady(millis(1000, 1000, 1000))).isTrue();
+    }
+
+    @Test
+    public void notSteadyWhenLatestRunsDiffer()
+    {
+        assertThat(detector.isSteady(millis(5000, 1200, 1020, 1000))).isFalse();
+        assertThat(detector.isSteady(millis(1000, 1100, 1000))).isFalse();
+    }
+
+    @Test
+    public void notSteadyWithTooFewRuns()
+    {
+        assertThat(detector.isSteady(millis())).isFalse();
+        assertThat(detector.isSteady(millis(1000, 1000))).isFalse();
+        assertThat(detector.isSteady(millis(0, 0, 0))).isFalse();
+    }
+
+    private static List<Duration> millis(long... durations)
+    {
+        return Arrays.stream(durations)
+                .mapToObj(Duration::ofMillis)
+                .collect(toList());
+    }
+}
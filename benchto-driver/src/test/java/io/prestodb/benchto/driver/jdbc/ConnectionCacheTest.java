@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.jdbc;
+
+import io.prestodb.benchto.driver.IntegrationTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static io.prestodb.benchto.driver.jdbc.ConnectionCache.changesSession;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionCacheTest
+        extends IntegrationTest
+{
+    private final ConnectionCache connectionCache = new ConnectionCache();
+
+    @Before
+    public void setUp()
+    {
+        ReflectionTestUtils.setField(connectionCache, "applicationContext", context);
+    }
+
+    @After
+    public void tearDown()
+    {
+        connectionCache.shutdown();
+    }
+
+    @Test
+    public void reusableConnectionIsReturnedToCache()
+            throws SQLException
+    {
+        Connection connection = connectionCache.getConnection("test_datasource", emptyMap());
+        Connection delegate = connection.unwrap(Connection.class);
+        connection.close();
+
+        assertThat(delegate.isClosed()).isFalse();
+        assertThat(connectionCache.getConnection("test_datasource", emptyMap()).unwrap(Connection.class)).isSameAs(delegate);
+    }
+
+    @Test
+    public void notReusableConnectionIsClosed()
+            throws SQLException
+    {
+        Connection connection = connectionCache.getConnection("test_datasource", emptyMap(), false);
+        Connection delegate = connection.unwrap(Connection.class);
+        connection.close();
+
+        assertThat(delegate.isClosed()).isTrue();
+        assertThat(connectionCache.getConnection("test_datasource", emptyMap()).unwrap(Connection.class)).isNotSameAs(delegate);
+    }
+
+    @Test
+    public void connectionWithChangedSchemaIsClosed()
+            throws SQLException
+    {
+        Connection connection = connectionCache.getConnection("test_datasource", emptyMap());
+        Connection delegate = connection.unwrap(Connection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SCHEMA INFORMATION_SCHEMA");
+        }
+        connection.close();
+
+        assertThat(delegate.isClosed()).isTrue();
+        assertThat(connectionCache.getConnection("test_datasource", emptyMap()).unwrap(Connection.class)).isNotSameAs(delegate);
+    }
+
+    @Test
+    public void sessionChangingStatements()
+    {
+        assertThat(changesSession("SET SESSION join_distribution_type = 'BROADCAST'")).isTrue();
+        assertThat(changesSession("SELECT 1;\n  reset session join_distribution_type; SELECT 2")).isTrue();
+        assertThat(changesSession("SELECT 1; USE hive.tpch")).isTrue();
+        assertThat(changesSession("SET ROLE admin")).isTrue();
+        assertThat(changesSession("SELECT count(*) FROM nation WHERE comment LIKE '%use%'")).isFalse();
+        assertThat(changesSession("SELECT 1; SELECT session_user")).isFalse();
+    }
+
+    @Test
+    public void connectionsInUseAreClosedOnShutdown()
+            throws SQLException
+    {
+        Connection reusable = connectionCache.getConnection("test_datasource", emptyMap()).unwrap(Connection.class);
+        Connection notReusable = connectionCache.getConnection("test_datasource", emptyMap(), false).unwrap(Connection.class);
+        Connection idle = connectionCache.getConnection("test_datasource_2", emptyMap());
+        idle.close();
+
+        connectionCache.shutdown();
+
+        assertThat(reusable.isClosed()).isTrue();
+        assertThat(notReusable.isClosed()).isTrue();
+        assertThat(idle.unwrap(Connection.class).isClosed()).isTrue();
+    }
+}
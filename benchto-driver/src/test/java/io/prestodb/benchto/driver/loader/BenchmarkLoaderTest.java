@@ -22,6 +22,7 @@ import io.prestodb.benchto.driver.BenchmarkExecutionException;
 import io.prestodb.benchto.driver.BenchmarkProperties;
 import io.prestodb.benchto.driver.DriverApp;
 import io.prestodb.benchto.driver.Query;
+import io.prestodb.benchto.driver.QueryClass;
 import io.prestodb.benchto.driver.service.BenchmarkServiceClient;
 import org.assertj.core.api.MapAssert;
 import org.assertj.core.data.MapEntry;
@@ -183,6 +184,67 @@ public class BenchmarkLoaderTest
         assertThat(benchmark.getConcurrency()).isEqualTo(20);
         assertThat(benchmark.getAfterBenchmarkMacros()).isEmpty();
         assertThat(benchmark.getBeforeBenchmarkMacros()).isEmpty();
+        assertThat(benchmark.getSessionProperties()).containsOnly(entry("hash_partition_count", "8"), entry("task_concurrency", "4"));
+    }
+
+    @Test
+    public void shouldLoadMixedWorkloadBenchmark()
+            throws IOException
+    {
+        withActiveBenchmarks("mixed-workload-benchmark");
+
+        Benchmark benchmark = assertLoadedBenchmarksCount(1).get(0);
+        assertThat(benchmark.isMixedWorkload()).isTrue();
+        assertThat(benchmark.getQueries()).extracting("name").containsExactly("q1", "q2", "tpch_etl");
+        assertThat(benchmark.getConcurrency()).isEqualTo(6);
+        assertThat(benchmark.getVariables()).contains(entry("query-classes", "dashboard, etl"));
+        assertThat(benchmark.getNonReservedKeywordVariables()).containsOnly(entry("schema", "tpch"));
+
+        List<QueryClass> queryClasses = benchmark.getQueryClasses();
+        assertThat(queryClasses).extracting("name").containsExactly("dashboard", "etl");
+
+        QueryClass dashboard = queryClasses.get(0);
+        assertThat(dashboard.getDataSource()).isEqualTo("foo");
+        assertThat(dashboard.getQueries()).extracting("name").containsExactly("q1", "q2");
+        assertThat(dashboard.getConcurrency()).isEqualTo(4);
+        assertThat(dashboard.getWeight()).isEqualTo(1);
+        assertThat(dashboard.getArrivalRate()).contains(2.5);
+        assertThat(dashboard.getStreamArrivalInterval()).contains(Duration.ofMillis(1600));
+
+        QueryClass etl = queryClasses.get(1);
+        assertThat(etl.getDataSource()).isEqualTo("bar");
+        assertThat(etl.getQueries()).extracting("name").containsExactly("tpch_etl");
+        assertThat(etl.getConcurrency()).isEqualTo(2);
+        assertThat(etl.getWeight()).isEqualTo(3);
+        assertThat(etl.getArrivalRate()).isEmpty();
+    }
+
+    @Test
+    public void shouldFailOnTooLongQueryClassName()
+            throws IOException
+    {
+        loader.setup();
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Name of query class dashboard_queries_of_the_sales_department_in_all_regions is longer than 50 characters");
+
+        withBenchmarksDirs("long_query_class_dir");
+
+        loader.loadBenchmarks("sequenceId");
+    }
+
+    @Test
+    public void shouldFailOnConcurrentColdAndWarmRuns()
+            throws IOException
+    {
+        loader.setup();
+
+        thrown.expect(BenchmarkExecutionException.class);
+        thrown.expectMessage("Cold and warm runs are not supported by throughput tests nor with concurrency greater than 1, benchmark: concurrent-cache-drop-benchmark");
+
+        withBenchmarksDirs("concurrent_cache_drop_dir");
+
+        loader.loadBenchmarks("sequenceId");
     }
 
     @Test
@@ -248,7 +310,7 @@ public class BenchmarkLoaderTest
     public void allBenchmarks_no_quarantine_filtering()
             throws IOException
     {
-        assertLoadedBenchmarksCount(8);
+        assertLoadedBenchmarksCount(9);
     }
 
     @Test
@@ -257,7 +319,7 @@ public class BenchmarkLoaderTest
     {
         withActiveVariables("quarantine=false");
 
-        assertLoadedBenchmarksCount(7);
+        assertLoadedBenchmarksCount(8);
     }
 
     @Test
@@ -278,7 +340,7 @@ public class BenchmarkLoaderTest
         withBenchmarkExecutionAge(executionAge);
         withFrequencyCheckEnabled(true);
 
-        assertLoadedBenchmarksCount(6).forEach(benchmark -> {
+        assertLoadedBenchmarksCount(7).forEach(benchmark -> {
             Optional<Duration> frequency = benchmark.getFrequency();
             if (frequency.isPresent()) {
                 assertThat(frequency.get()).isLessThanOrEqualTo(executionAge);
@@ -293,7 +355,7 @@ public class BenchmarkLoaderTest
         withBenchmarkExecutionAge(Duration.ofDays(2));
         withFrequencyCheckEnabled(false);
 
-        assertLoadedBenchmarksCount(8);
+        assertLoadedBenchmarksCount(9);
     }
 
     private MapAssert<String, String> assertThatBenchmarkWithEntries(List<Benchmark> benchmarks, MapEntry<String, String>... entries)
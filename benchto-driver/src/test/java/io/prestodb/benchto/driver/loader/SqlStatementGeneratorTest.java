@@ -13,17 +13,27 @@
  */
 package io.prestodb.benchto.driver.loader;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
 import io.prestodb.benchto.driver.Query;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class SqlStatementGeneratorTest
 {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
     private SqlStatementGenerator sqlStatementGenerator;
 
     @Before
@@ -51,4 +61,61 @@ public class SqlStatementGeneratorTest
         List<String> queries = sqlStatementGenerator.generateQuerySqlStatement(query, ImmutableMap.of("concurrency_level", 2));
         assertThat(queries).containsExactly("CREATE TABLE 0", "CREATE TABLE 1");
     }
+
+    @Test
+    public void testBoundValuesAreInlinedAsLiterals()
+    {
+        Query query = new Query("bindQuery", "select * from nation where nationkey = ${bind(nation_key?number)} and name = ${bind('COTE D\\'IVOIRE')} and ${bind(1.50)} > 1", ImmutableMap.of());
+        List<String> queries = sqlStatementGenerator.generateQuerySqlStatement(query, ImmutableMap.of("nation_key", "7"));
+        assertThat(queries).containsExactly("select * from nation where nationkey = 7 and name = 'COTE D''IVOIRE' and 1.50 > 1");
+    }
+
+    @Test
+    public void testParameterizedQuery()
+    {
+        Query query = new Query("bindQuery", "select ${bind(nation_key?number)}; select * from nation where name = ${bind('FRANCE')} and nationkey < ${bind(2.0)}", ImmutableMap.of());
+        List<ParameterizedSqlStatement> statements = sqlStatementGenerator.generateParameterizedSqlStatements(query, ImmutableMap.of("nation_key", "7"));
+        assertThat(statements).containsExactly(
+                new ParameterizedSqlStatement("select ?", ImmutableList.of(7L)),
+                new ParameterizedSqlStatement("select * from nation where name = ? and nationkey < ?", ImmutableList.of("FRANCE", new BigDecimal("2.0"))));
+    }
+
+    @Test
+    public void testBoundNumbersKeepTheirTypeAndScale()
+    {
+        Query query = new Query("bindQuery", "select ${bind(integer)}, ${bind(double)}, ${bind(decimal)}, ${bind(big_integer)}, ${bind(big_decimal)}", ImmutableMap.of());
+        Map<String, Object> attributes = ImmutableMap.of(
+                "integer", 7,
+                "double", 1.0,
+                "decimal", new BigDecimal("1.00"),
+                "big_integer", new BigInteger("92233720368547758070"),
+                "big_decimal", new BigDecimal("1E+20"));
+
+        List<ParameterizedSqlStatement> statements = sqlStatementGenerator.generateParameterizedSqlStatements(query, attributes);
+        assertThat(statements).containsExactly(new ParameterizedSqlStatement("select ?, ?, ?, ?, ?", ImmutableList.of(
+                7L, 1.0, new BigDecimal("1.00"), new BigDecimal("92233720368547758070"), new BigDecimal("1E+20"))));
+
+        List<String> queries = sqlStatementGenerator.generateQuerySqlStatement(query, attributes);
+        assertThat(queries).containsExactly("select 7, 1.0, 1.00, 92233720368547758070, 100000000000000000000");
+    }
+
+    @Test
+    public void testNotANumberCannotBeBound()
+    {
+        thrown.expect(BenchmarkExecutionException.class);
+        thrown.expectMessage("Cannot bind value: NaN");
+
+        Query query = new Query("bindQuery", "select ${bind(value)}", ImmutableMap.of());
+        sqlStatementGenerator.generateParameterizedSqlStatements(query, ImmutableMap.of("value", Double.NaN));
+    }
+
+    @Test
+    public void testInfinityCannotBeBound()
+    {
+        thrown.expect(BenchmarkExecutionException.class);
+        thrown.expectMessage("Cannot bind value: Infinity");
+
+        Query query = new Query("bindQuery", "select ${bind(value)}", ImmutableMap.of());
+        sqlStatementGenerator.generateQuerySqlStatement(query, ImmutableMap.of("value", Double.POSITIVE_INFINITY));
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.macro;
+
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.driver.BenchmarkExecutionException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MacroRegistryTest
+{
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private MacroExecutionDriver queryMacroDriver = mock(MacroExecutionDriver.class);
+    private MacroExecutionDriver shellMacroDriver = mock(MacroExecutionDriver.class);
+
+    private MacroRegistry macroRegistry = new MacroRegistry();
+
+    @Before
+    public void setUp()
+    {
+        when(queryMacroDriver.canExecuteBenchmarkMacro("macro.sql")).thenReturn(true);
+        when(shellMacroDriver.canExecuteBenchmarkMacro("drop-caches")).thenReturn(true);
+        ReflectionTestUtils.setField(macroRegistry, "macroExecutionDrivers", ImmutableList.of(queryMacroDriver, shellMacroDriver));
+    }
+
+    @Test
+    public void executionDriversAreResolvedOnce()
+    {
+        assertThat(macroRegistry.getExecutionDriver("macro.sql")).isSameAs(queryMacroDriver);
+        assertThat(macroRegistry.getExecutionDriver("macro.sql")).isSameAs(queryMacroDriver);
+        assertThat(macroRegistry.getExecutionDriver("drop-caches")).isSameAs(shellMacroDriver);
+
+        verify(queryMacroDriver, times(1)).canExecuteBenchmarkMacro("macro.sql");
+        verify(shellMacroDriver, times(1)).canExecuteBenchmarkMacro("macro.sql");
+    }
+
+    @Test
+    public void loadingFailsOnUnknownMacros()
+    {
+        thrown.expect(BenchmarkExecutionException.class);
+        thrown.expectMessage("No execution driver for macro unknown-macro");
+
+        try {
+            macroRegistry.loadMacros(ImmutableList.of("macro.sql", "unknown-macro", "drop-caches"));
+        }
+        finally {
+            verify(queryMacroDriver).loadBenchmarkMacro("macro.sql");
+            verify(shellMacroDriver).loadBenchmarkMacro("drop-caches");
+        }
+    }
+}
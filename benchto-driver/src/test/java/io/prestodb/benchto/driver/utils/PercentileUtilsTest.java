@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.driver.utils;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static io.prestodb.benchto.driver.utils.PercentileUtils.percentile;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PercentileUtilsTest
+{
+    @Test
+    public void nearestRankPercentile()
+    {
+        List<Duration> durations = IntStream.rangeClosed(1, 100)
+                .map(i -> 101 - i)
+                .mapToObj(Duration::ofMillis)
+                .collect(toList());
+
+        assertThat(percentile(durations, 50)).isEqualTo(Duration.ofMillis(50));
+        assertThat(percentile(durations, 90)).isEqualTo(Duration.ofMillis(90));
+        assertThat(percentile(durations, 99.9)).isEqualTo(Duration.ofMillis(100));
+        assertThat(percentile(durations, 100)).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    public void percentileOfSingleDuration()
+    {
+        List<Duration> durations = IntStream.of(7)
+                .mapToObj(Duration::ofMillis)
+                .collect(toList());
+
+        assertThat(percentile(durations, 1)).isEqualTo(Duration.ofMillis(7));
+        assertThat(percentile(durations, 99)).isEqualTo(Duration.ofMillis(7));
+    }
+}
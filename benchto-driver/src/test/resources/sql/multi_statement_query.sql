@@ -0,0 +1,3 @@
+--! consume: first-row, all
+SELECT 1 FROM "INFORMATION_SCHEMA".SYSTEM_USERS;
+SELECT 2 FROM "INFORMATION_SCHEMA".SYSTEM_USERS
@@ -13,28 +13,39 @@
  */
 package io.prestodb.benchto.service;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import io.prestodb.benchto.service.model.AggregatedMeasurement;
 import io.prestodb.benchto.service.model.BenchmarkRun;
 import io.prestodb.benchto.service.model.BenchmarkRunExecution;
 import io.prestodb.benchto.service.model.Environment;
+import io.prestodb.benchto.service.model.ExecutionDurationSummary;
 import io.prestodb.benchto.service.model.Measurement;
+import io.prestodb.benchto.service.model.ProgressEvent;
 import io.prestodb.benchto.service.model.Status;
+import io.prestodb.benchto.service.repo.BenchmarkRunExecutionRepo;
 import io.prestodb.benchto.service.repo.BenchmarkRunRepo;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -42,21 +53,56 @@ import java.util.Optional;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.prestodb.benchto.service.model.Environment.DEFAULT_ENVIRONMENT_NAME;
+import static io.prestodb.benchto.service.model.ProgressEvent.Type.EXECUTION_FINISHED;
+import static io.prestodb.benchto.service.model.ProgressEvent.Type.EXECUTION_STARTED;
+import static io.prestodb.benchto.service.model.ProgressEvent.Type.RUN_FINISHED;
+import static io.prestodb.benchto.service.model.ProgressEvent.Type.RUN_STARTED;
 import static io.prestodb.benchto.service.model.Status.STARTED;
 import static io.prestodb.benchto.service.utils.BenchmarkUniqueNameUtils.generateBenchmarkUniqueName;
 import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
 
 @Service
 public class BenchmarkService
 {
     private static final Logger LOG = LoggerFactory.getLogger(BenchmarkService.class);
 
+    private static final int MAX_UNIQUE_NAMES_PER_QUERY = 1000;
+
     @Autowired
     private BenchmarkRunRepo benchmarkRunRepo;
 
+    @Autowired
+    private BenchmarkRunExecutionRepo benchmarkRunExecutionRepo;
+
     @Autowired
     private EnvironmentService environmentService;
 
+    @Autowired
+    private MeasurementKeyService measurementKeyService;
+
+    @Autowired
+    private FinishedBenchmarkRunCache finishedBenchmarkRunCache;
+
+    @Autowired
+    private ProgressEventBus progressEventBus;
+
+    @Value("${benchto.duration-summary.max-runs:10}")
+    private int durationSummaryMaxRuns;
+
+    @Value("${benchto.duration-summary.max-age-days:90}")
+    private int durationSummaryMaxAgeDays;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager)
+    {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
     @Retryable(value = {TransientDataAccessException.class, DataIntegrityViolationException.class})
     @Transactional
     public String startBenchmarkRun(String uniqueName, String name, String sequenceId, Optional<String> environmentName, Map<String, String> variables,
@@ -75,6 +121,7 @@ public class BenchmarkService
             benchmarkRun.getAttributes().putAll(attributes);
             benchmarkRun.setStarted(currentDateTime());
             benchmarkRunRepo.save(benchmarkRun);
+            publishProgress(RUN_STARTED, benchmarkRun, benchmarkRun.getStarted(), ImmutableList.of(), attributes);
         }
         LOG.debug("Starting benchmark - {}", benchmarkRun);
 
@@ -85,12 +132,15 @@ public class BenchmarkService
     @Transactional
     public void finishBenchmarkRun(String uniqueName, String sequenceId, Status status, Optional<Instant> endTime, List<Measurement> measurements, Map<String, String> attributes)
     {
-        BenchmarkRun benchmarkRun = findBenchmarkRun(uniqueName, sequenceId);
+        BenchmarkRun benchmarkRun = findBenchmarkRunForUpdate(uniqueName, sequenceId);
+        finishedBenchmarkRunCache.invalidate(uniqueName, sequenceId);
+        measurementKeyService.resolveKeys(measurements);
         benchmarkRun.getMeasurements().addAll(measurements);
         benchmarkRun.getAttributes().putAll(attributes);
         benchmarkRun.setEnded(fromInstantOrCurrentDateTime(endTime));
         benchmarkRun.setStatus(status);
         aggregateBenchmarkExecutions(benchmarkRun);
+        publishProgress(RUN_FINISHED, benchmarkRun, benchmarkRun.getEnded(), measurements, attributes);
         LOG.debug("Finishing benchmark - {}", benchmarkRun);
     }
 
@@ -108,25 +158,28 @@ public class BenchmarkService
     @Transactional
     public void startExecution(String uniqueName, String benchmarkSequenceId, String executionSequenceId, Map<String, String> attributes)
     {
-        BenchmarkRun benchmarkRun = findBenchmarkRun(uniqueName, benchmarkSequenceId);
+        BenchmarkRun benchmarkRun = benchmarkRunRepo.findByUniqueNameAndSequenceId(uniqueName, benchmarkSequenceId);
+        checkBenchmarkRunFound(benchmarkRun, uniqueName, benchmarkSequenceId);
 
-        boolean executionPresent = benchmarkRun.getExecutions().stream()
-                .filter(e -> executionSequenceId.equals(e.getSequenceId()))
-                .findAny()
-                .isPresent();
-        if (executionPresent) {
-            LOG.debug("Execution ({}) already present for benchmark ({})", executionSequenceId, benchmarkRun);
+        // concurrent starts of the same execution are rejected by the unique index and retried
+        if (benchmarkRunExecutionRepo.findByBenchmarkRunAndSequenceId(benchmarkRun, executionSequenceId) != null) {
+            LOG.debug("Execution ({}) already present for benchmark ({} - {})", executionSequenceId, uniqueName, benchmarkSequenceId);
             return;
         }
 
-        LOG.debug("Starting new execution ({}) for benchmark ({})", executionSequenceId, benchmarkRun);
+        LOG.debug("Starting new execution ({}) for benchmark ({} - {})", executionSequenceId, uniqueName, benchmarkSequenceId);
         BenchmarkRunExecution execution = new BenchmarkRunExecution();
         execution.setSequenceId(executionSequenceId);
         execution.setStatus(STARTED);
         execution.setStarted(currentDateTime());
         execution.setBenchmarkRun(benchmarkRun);
         execution.getAttributes().putAll(attributes);
-        benchmarkRun.getExecutions().add(execution);
+        benchmarkRunExecutionRepo.save(execution);
+        publishProgress(EXECUTION_STARTED, execution, execution.getStarted(), ImmutableList.of(), attributes);
+
+        if (benchmarkRun.getStatus() != STARTED) {
+            finishedBenchmarkRunCache.invalidate(uniqueName, benchmarkSequenceId);
+        }
     }
 
     @Retryable(value = {TransientDataAccessException.class, DataIntegrityViolationException.class})
@@ -134,49 +187,142 @@ public class BenchmarkService
     public void finishExecution(String uniqueName, String benchmarkSequenceId, String executionSequenceId, Status status,
             Optional<Instant> endTime, List<Measurement> measurements, Map<String, String> attributes)
     {
-        BenchmarkRun benchmarkRun = findBenchmarkRun(uniqueName, benchmarkSequenceId);
-
-        BenchmarkRunExecution execution = benchmarkRun.getExecutions().stream()
-                .filter(e -> executionSequenceId.equals(e.getSequenceId()))
-                .findAny().orElseThrow(() -> new IllegalStateException("Execution cannot be found"));
+        // Executions of a running benchmark take a shared lock, so they finish concurrently but not while the run is
+        // being finished and aggregated. Late executions of a finished run re-aggregate it, so they lock it exclusively
+        // up front, as upgrading the shared lock would deadlock with another late execution of the same run.
+        Status runStatus = benchmarkRunRepo.findStatusByUniqueNameAndSequenceId(uniqueName, benchmarkSequenceId);
+        boolean runFinished = runStatus != null && runStatus != STARTED;
+        BenchmarkRun benchmarkRun;
+        if (runFinished) {
+            benchmarkRun = findBenchmarkRunForUpdate(uniqueName, benchmarkSequenceId);
+        }
+        else {
+            benchmarkRun = benchmarkRunRepo.findForShareByUniqueNameAndSequenceId(uniqueName, benchmarkSequenceId);
+            checkBenchmarkRunFound(benchmarkRun, uniqueName, benchmarkSequenceId);
+            if (benchmarkRun.getStatus() != STARTED) {
+                throw new ConcurrencyFailureException(format("Benchmark run (%s - %s) finished while its execution (%s) was being finished",
+                        uniqueName, benchmarkSequenceId, executionSequenceId));
+            }
+        }
 
+        BenchmarkRunExecution execution = benchmarkRunExecutionRepo.findByBenchmarkRunAndSequenceId(benchmarkRun, executionSequenceId);
+        checkState(execution != null, "Execution cannot be found");
         checkState(execution.getStatus() == STARTED, "Wrong execution status: %s", execution.getStatus());
 
+        measurementKeyService.resolveKeys(measurements);
         execution.getMeasurements().addAll(measurements);
         execution.getAttributes().putAll(attributes);
         execution.setEnded(fromInstantOrCurrentDateTime(endTime));
         execution.setStatus(status);
+        publishProgress(EXECUTION_FINISHED, execution, execution.getEnded(), measurements, attributes);
 
-        if (benchmarkRun.getStatus() != STARTED) {
+        if (runFinished) {
             // Already finished and aggregated so needs re-aggregating.
             aggregateBenchmarkExecutions(benchmarkRun);
+            finishedBenchmarkRunCache.invalidate(uniqueName, benchmarkSequenceId);
         }
 
         LOG.debug("Finishing execution - {}", execution);
     }
 
-    @Transactional
+    private void publishProgress(ProgressEvent.Type type, BenchmarkRun benchmarkRun, ZonedDateTime timestamp, List<Measurement> measurements,
+            Map<String, String> attributes)
+    {
+        // the environment of the run may need to be loaded for the event, which is only worth it when someone listens
+        if (progressEventBus.hasSubscribers()) {
+            progressEventBus.publishAfterCommit(ProgressEvent.runEvent(type, benchmarkRun, timestamp, measurements, attributes));
+        }
+    }
+
+    private void publishProgress(ProgressEvent.Type type, BenchmarkRunExecution execution, ZonedDateTime timestamp, List<Measurement> measurements,
+            Map<String, String> attributes)
+    {
+        if (progressEventBus.hasSubscribers()) {
+            progressEventBus.publishAfterCommit(ProgressEvent.executionEvent(type, execution, timestamp, measurements, attributes));
+        }
+    }
+
+    /**
+     * Finished runs are served from {@link FinishedBenchmarkRunCache}, so this method opens its own
+     * transaction only on a cache miss and must not be called within a transaction that modifies the run.
+     */
     public BenchmarkRun findBenchmarkRun(String uniqueName, String sequenceId)
+    {
+        return finishedBenchmarkRunCache.get(uniqueName, sequenceId,
+                () -> readOnlyTransaction.execute(status -> loadBenchmarkRun(uniqueName, sequenceId)));
+    }
+
+    private BenchmarkRun loadBenchmarkRun(String uniqueName, String sequenceId)
+    {
+        BenchmarkRun benchmarkRun = benchmarkRunRepo.findDetailByUniqueNameAndSequenceId(uniqueName, sequenceId);
+        checkBenchmarkRunFound(benchmarkRun, uniqueName, sequenceId);
+        initializeDetails(benchmarkRun);
+        return benchmarkRun;
+    }
+
+    private BenchmarkRun findBenchmarkRunForUpdate(String uniqueName, String sequenceId)
     {
         BenchmarkRun benchmarkRun = benchmarkRunRepo.findForUpdateByUniqueNameAndSequenceId(uniqueName, sequenceId);
+        checkBenchmarkRunFound(benchmarkRun, uniqueName, sequenceId);
+        // lock first, as the lock cannot be combined with the outer joins of the detail graph; the detail
+        // query then returns the same, now locked, instance with its executions fetched
+        benchmarkRun = benchmarkRunRepo.findDetailByUniqueNameAndSequenceId(uniqueName, sequenceId);
+        initializeExecutions(benchmarkRun);
+        Hibernate.initialize(benchmarkRun.getMeasurements());
+        return benchmarkRun;
+    }
+
+    private static void checkBenchmarkRunFound(BenchmarkRun benchmarkRun, String uniqueName, String sequenceId)
+    {
         if (benchmarkRun == null) {
             throw new IllegalArgumentException("Could not find benchmark " + uniqueName + " - " + sequenceId);
         }
-        Hibernate.initialize(benchmarkRun.getExecutions());
-        Hibernate.initialize(benchmarkRun.getMeasurements());
-        return benchmarkRun;
     }
 
     @Transactional(readOnly = true)
     public List<BenchmarkRun> findBenchmark(String uniqueName, String environmentName)
     {
-        List<BenchmarkRun> benchmarkRuns = benchmarkRunRepo.findByUniqueNameAndEnvironmentOrderBySequenceIdDesc(uniqueName, findEnvironment(environmentName));
+        List<BenchmarkRun> benchmarkRuns = benchmarkRunRepo.findDistinctByUniqueNameAndEnvironmentOrderBySequenceIdDesc(uniqueName, findEnvironment(environmentName));
         for (BenchmarkRun benchmarkRun : benchmarkRuns) {
-            Hibernate.initialize(benchmarkRun.getExecutions());
+            initializeDetails(benchmarkRun);
         }
         return benchmarkRuns;
     }
 
+    /**
+     * Returns given number of the latest runs of a benchmark, served through {@link #findBenchmarkRun(String, String)}
+     * so finished runs do not have to be read again, and therefore must not be called within a transaction.
+     */
+    public List<BenchmarkRun> findBenchmark(String uniqueName, String environmentName, int limit)
+    {
+        checkArgument(limit > 0, "limit must be positive");
+        return benchmarkRunRepo.findSequenceIds(uniqueName, findEnvironment(environmentName), new PageRequest(0, limit)).stream()
+                .map(sequenceId -> findBenchmarkRun(uniqueName, sequenceId))
+                .collect(toList());
+    }
+
+    private static void initializeDetails(BenchmarkRun benchmarkRun)
+    {
+        Hibernate.initialize(benchmarkRun.getEnvironment().getAttributes());
+        Hibernate.initialize(benchmarkRun.getVariables());
+        Hibernate.initialize(benchmarkRun.getAttributes());
+        Hibernate.initialize(benchmarkRun.getMeasurements());
+        if (benchmarkRun.isExecutionsDownsampled()) {
+            Hibernate.initialize(benchmarkRun.getDownsampledMeasurements());
+        }
+        initializeExecutions(benchmarkRun);
+    }
+
+    private static void initializeExecutions(BenchmarkRun benchmarkRun)
+    {
+        // collections are fetched with subselects, so this does not issue a statement per execution
+        Hibernate.initialize(benchmarkRun.getExecutions());
+        for (BenchmarkRunExecution execution : benchmarkRun.getExecutions()) {
+            Hibernate.initialize(execution.getMeasurements());
+            Hibernate.initialize(execution.getAttributes());
+        }
+    }
+
     private Environment findEnvironment(String environmentName)
     {
         return environmentService.findEnvironment(environmentName);
@@ -185,7 +331,16 @@ public class BenchmarkService
     @Transactional(readOnly = true)
     public List<BenchmarkRun> findLatest(String environmentName)
     {
-        return benchmarkRunRepo.findLatest(findEnvironment(environmentName).getId());
+        List<BenchmarkRun> benchmarkRuns = benchmarkRunRepo.findLatest(findEnvironment(environmentName));
+        for (BenchmarkRun benchmarkRun : benchmarkRuns) {
+            // one subselect per collection for all listed runs; executions are not part of the list response
+            Hibernate.initialize(benchmarkRun.getAttributes());
+            Hibernate.initialize(benchmarkRun.getMeasurements());
+            if (benchmarkRun.isExecutionsDownsampled()) {
+                Hibernate.initialize(benchmarkRun.getDownsampledMeasurements());
+            }
+        }
+        return benchmarkRuns;
     }
 
     public String generateUniqueBenchmarkName(String name, Map<String, String> variables)
@@ -194,14 +349,65 @@ public class BenchmarkService
         return generateBenchmarkUniqueName(name, variables);
     }
 
-    public Duration getSuccessfulExecutionAge(String uniqueName)
+    /**
+     * Returns the age of the latest successful run of each benchmark, in the order of given names,
+     * answering all of them with a single query per {@value #MAX_UNIQUE_NAMES_PER_QUERY} names.
+     */
+    public List<Duration> getSuccessfulExecutionAges(List<String> uniqueNames)
+    {
+        Map<String, ZonedDateTime> latestSuccessfulExecutions = new HashMap<>();
+        for (List<String> uniqueNamesBatch : Lists.partition(ImmutableSet.copyOf(uniqueNames).asList(), MAX_UNIQUE_NAMES_PER_QUERY)) {
+            for (Object[] row : benchmarkRunRepo.findTimesOfLatestSuccessfulExecutions(uniqueNamesBatch)) {
+                latestSuccessfulExecutions.put((String) row[0], (ZonedDateTime) row[1]);
+            }
+        }
+
+        ZonedDateTime currentDateTime = currentDateTime();
+        return uniqueNames.stream()
+                .map(uniqueName -> Optional.ofNullable(latestSuccessfulExecutions.get(uniqueName))
+                        .map(ended -> Duration.between(ended, currentDateTime))
+                        .orElse(Duration.ofDays(Integer.MAX_VALUE)))
+                .collect(toList());
+    }
+
+    /**
+     * Summarizes execution durations of recent successful runs of given benchmarks on the environment, in the order of given names.
+     */
+    @Transactional(readOnly = true)
+    public List<ExecutionDurationSummary> getExecutionDurationSummaries(String environmentName, List<String> uniqueNames)
+    {
+        Environment environment = environmentService.findEnvironment(environmentName);
+        ZonedDateTime endedAfter = currentDateTime().minusDays(durationSummaryMaxAgeDays);
+        Map<String, List<Double>> meanDurations = new HashMap<>();
+        for (List<String> uniqueNamesBatch : Lists.partition(ImmutableSet.copyOf(uniqueNames).asList(), MAX_UNIQUE_NAMES_PER_QUERY)) {
+            for (Object[] row : benchmarkRunRepo.findExecutionsMeanDurations(uniqueNamesBatch, environment, endedAfter)) {
+                meanDurations.computeIfAbsent((String) row[0], uniqueName -> new ArrayList<>()).add((Double) row[1]);
+            }
+        }
+
+        return uniqueNames.stream()
+                .map(uniqueName -> summarizeExecutionDurations(uniqueName, meanDurations.getOrDefault(uniqueName, ImmutableList.of())))
+                .collect(toList());
+    }
+
+    private ExecutionDurationSummary summarizeExecutionDurations(String uniqueName, List<Double> meanDurations)
     {
-        Timestamp ended = benchmarkRunRepo.findTimeOfLatestSuccessfulExecution(uniqueName);
-        if (ended == null) {
-            return Duration.ofDays(Integer.MAX_VALUE);
+        // durations are ordered from the oldest run
+        List<Double> recentMeanDurations = meanDurations.subList(Math.max(meanDurations.size() - durationSummaryMaxRuns, 0), meanDurations.size());
+        if (recentMeanDurations.isEmpty()) {
+            return new ExecutionDurationSummary(uniqueName, 0, 0, 0, 0);
         }
-        ZonedDateTime endedAsZDT = ZonedDateTime.of(ended.toLocalDateTime(), ZoneId.systemDefault());
-        return Duration.between(endedAsZDT, currentDateTime());
+        List<Double> previousMeanDurations = recentMeanDurations.subList(0, recentMeanDurations.size() - 1);
+        return new ExecutionDurationSummary(uniqueName,
+                recentMeanDurations.size(),
+                mean(recentMeanDurations),
+                recentMeanDurations.get(recentMeanDurations.size() - 1),
+                previousMeanDurations.isEmpty() ? 0 : mean(previousMeanDurations));
+    }
+
+    private static double mean(List<Double> values)
+    {
+        return values.stream().mapToDouble(Double::doubleValue).average().getAsDouble();
     }
 
     private ZonedDateTime fromInstantOrCurrentDateTime(Optional<Instant> instant)
@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import io.prestodb.benchto.service.model.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static java.util.Collections.nCopies;
+
+/**
+ * Streams benchmark history as CSV. Each row has a row kind: {@code EXECUTION} rows hold execution measurements,
+ * {@code BENCHMARK} rows hold benchmark run measurements and {@code AGGREGATED} rows hold the aggregates of execution
+ * measurements kept for downsampled runs. Runs without executions, e.g. downsampled ones, also have a {@code BENCHMARK}
+ * row without measurement, so every run in the range is exported.
+ * Rows are read with plain JDBC through a forward-only cursor and written out one by one, so memory use does not
+ * depend on the size of the exported range.
+ */
+@Service
+public class ExportService
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final List<String> CSV_HEADER = ImmutableList.of(
+            "benchmark_unique_name", "benchmark_sequence_id", "benchmark_name", "benchmark_status", "benchmark_started", "benchmark_ended",
+            "row_kind", "execution_sequence_id", "execution_status", "execution_started", "execution_ended",
+            "measurement_name", "measurement_unit", "measurement_value",
+            "aggregated_min", "aggregated_max", "aggregated_mean", "aggregated_stddev", "aggregated_stddev_percent");
+
+    private static final String RUN_COLUMNS = "br.unique_name, br.sequence_id, br.name, br.status, br.started AS run_started, br.ended, ";
+    private static final String RUN_FILTER = "WHERE br.environment_id = ? AND br.started >= ? AND br.started < ? ";
+    private static final String NO_EXECUTION = "CAST(NULL AS VARCHAR(64)), CAST(NULL AS VARCHAR(10)), CAST(NULL AS TIMESTAMP), CAST(NULL AS TIMESTAMP), ";
+    private static final String NO_VALUE = "CAST(NULL AS DOUBLE PRECISION)";
+    private static final String NO_AGGREGATES = Joiner.on(", ").join(nCopies(5, NO_VALUE)) + ", ";
+
+    private static final String EXPORT_QUERY = "" +
+            "SELECT " + RUN_COLUMNS +
+            "  CASE WHEN e.id IS NULL THEN 'BENCHMARK' ELSE 'EXECUTION' END, e.sequence_id, e.status, e.started, e.ended, " +
+            "  mk.name, mk.unit, em.value, " + NO_AGGREGATES +
+            "  br.id AS run_id, 0 AS kind_order, e.id AS execution_id, mk.id AS key_id " +
+            "FROM benchmark_runs br " +
+            "LEFT JOIN executions e ON e.benchmark_run_id = br.id " +
+            "LEFT JOIN execution_measurements em ON em.execution_id = e.id " +
+            "LEFT JOIN measurement_keys mk ON mk.id = em.measurement_key_id " +
+            RUN_FILTER +
+            "UNION ALL " +
+            "SELECT " + RUN_COLUMNS + "'BENCHMARK', " + NO_EXECUTION +
+            "  mk.name, mk.unit, bm.value, " + NO_AGGREGATES +
+            "  br.id, 1, CAST(NULL AS BIGINT), mk.id " +
+            "FROM benchmark_runs br " +
+            "JOIN benchmark_run_measurements bm ON bm.benchmark_run_id = br.id " +
+            "JOIN measurement_keys mk ON mk.id = bm.measurement_key_id " +
+            RUN_FILTER +
+            "UNION ALL " +
+            "SELECT " + RUN_COLUMNS + "'AGGREGATED', " + NO_EXECUTION +
+            "  mk.name, mk.unit, " + NO_VALUE + ", am.min, am.max, am.mean, am.stddev, am.stddev_percent, " +
+            "  br.id, 2, CAST(NULL AS BIGINT), mk.id " +
+            "FROM benchmark_runs br " +
+            "JOIN benchmark_run_aggregated_measurements am ON am.benchmark_run_id = br.id " +
+            "JOIN measurement_keys mk ON mk.id = am.measurement_key_id " +
+            RUN_FILTER +
+            "ORDER BY run_started, run_id, kind_order, execution_id, key_id";
+
+    private static final Joiner CSV_JOINER = Joiner.on(',');
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource)
+    {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // PostgreSQL only uses a cursor for a non zero fetch size within a transaction
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCsv(String environmentName, ZonedDateTime start, ZonedDateTime end, Writer writer)
+    {
+        Environment environment = environmentService.findEnvironment(environmentName);
+        LOG.debug("Exporting benchmarks of {} started between {} and {}", environmentName, start, end);
+
+        Timestamp startTimestamp = Timestamp.from(start.toInstant());
+        Timestamp endTimestamp = Timestamp.from(end.toInstant());
+        writeRow(writer, CSV_HEADER);
+        jdbcTemplate.query(EXPORT_QUERY, resultSet -> {
+            writeRow(writer, ImmutableList.of(
+                    resultSet.getString(1),
+                    resultSet.getString(2),
+                    resultSet.getString(3),
+                    resultSet.getString(4),
+                    formatTimestamp(resultSet.getTimestamp(5)),
+                    formatTimestamp(resultSet.getTimestamp(6)),
+                    resultSet.getString(7),
+                    nullToEmpty(resultSet.getString(8)),
+                    nullToEmpty(resultSet.getString(9)),
+                    formatTimestamp(resultSet.getTimestamp(10)),
+                    formatTimestamp(resultSet.getTimestamp(11)),
+                    nullToEmpty(resultSet.getString(12)),
+                    nullToEmpty(resultSet.getString(13)),
+                    formatValue(resultSet, 14),
+                    formatValue(resultSet, 15),
+                    formatValue(resultSet, 16),
+                    formatValue(resultSet, 17),
+                    formatValue(resultSet, 18),
+                    formatValue(resultSet, 19)));
+        }, environment.getId(), startTimestamp, endTimestamp,
+                environment.getId(), startTimestamp, endTimestamp,
+                environment.getId(), startTimestamp, endTimestamp);
+    }
+
+    private static String formatTimestamp(Timestamp timestamp)
+    {
+        return timestamp == null ? "" : timestamp.toInstant().toString();
+    }
+
+    private static String formatValue(ResultSet resultSet, int column)
+            throws SQLException
+    {
+        double value = resultSet.getDouble(column);
+        return resultSet.wasNull() ? "" : Double.toString(value);
+    }
+
+    private static String nullToEmpty(String value)
+    {
+        return value == null ? "" : value;
+    }
+
+    private static void writeRow(Writer writer, List<String> values)
+    {
+        try {
+            CSV_JOINER.appendTo(writer, values.stream().map(ExportService::escapeCsv).iterator());
+            writer.write("\r\n");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escapeCsv(String value)
+    {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
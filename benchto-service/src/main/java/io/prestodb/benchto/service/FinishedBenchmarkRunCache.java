@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.prestodb.benchto.service.model.BenchmarkRun;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static io.prestodb.benchto.service.model.Status.STARTED;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Keeps fully loaded benchmark runs that are no longer running, keyed by (uniqueName, sequenceId).
+ * Such runs only change when an execution is reported after the run has finished, in which case
+ * the entry is invalidated once the change commits. Cached runs are shared between request threads,
+ * so they are fully computed before being cached and are never modified afterwards.
+ * <p>
+ * The cache is local to a service instance; an execution reported to another instance does not
+ * invalidate it.
+ */
+@Component
+public class FinishedBenchmarkRunCache
+{
+    private final Cache<Key, BenchmarkRun> cache;
+
+    // bumped on every invalidation, so a run loaded concurrently with an update is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public FinishedBenchmarkRunCache(
+            @Value("${benchto.cache.finished-runs.maximum-size:1000}") long maximumSize,
+            @Value("${benchto.cache.finished-runs.expire-after-access-minutes:60}") long expireAfterAccessMinutes)
+    {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccessMinutes, MINUTES)
+                .recordStats()
+                .build();
+    }
+
+    public BenchmarkRun get(String uniqueName, String sequenceId, Supplier<BenchmarkRun> loader)
+    {
+        Key key = new Key(uniqueName, sequenceId);
+        BenchmarkRun benchmarkRun = cache.getIfPresent(key);
+        if (benchmarkRun != null) {
+            return benchmarkRun;
+        }
+
+        long invalidationsBeforeLoad = invalidations.get();
+        benchmarkRun = loader.get();
+        if (benchmarkRun.getStatus() != STARTED && invalidations.get() == invalidationsBeforeLoad) {
+            // aggregated measurements are computed lazily on first access, which must not race between readers
+            benchmarkRun.getAggregatedMeasurements();
+            cache.put(key, benchmarkRun);
+        }
+        return benchmarkRun;
+    }
+
+    /**
+     * Invalidates the run now and again when the current transaction completes, as a concurrent
+     * reader may still load and cache the state from before the commit.
+     */
+    public void invalidate(String uniqueName, String sequenceId)
+    {
+        Key key = new Key(uniqueName, sequenceId);
+        invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCompletion(int status)
+                {
+                    invalidate(key);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Key key)
+    {
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll()
+    {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size()
+    {
+        return cache.size();
+    }
+
+    public CacheStats stats()
+    {
+        return cache.stats();
+    }
+
+    private static final class Key
+    {
+        private final String uniqueName;
+        private final String sequenceId;
+
+        private Key(String uniqueName, String sequenceId)
+        {
+            this.uniqueName = uniqueName;
+            this.sequenceId = sequenceId;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return Objects.equals(uniqueName, that.uniqueName) &&
+                    Objects.equals(sequenceId, that.sequenceId);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(uniqueName, sequenceId);
+        }
+    }
+}
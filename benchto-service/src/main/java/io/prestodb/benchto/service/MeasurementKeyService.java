@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import io.prestodb.benchto.service.model.Measurement;
+import io.prestodb.benchto.service.model.MeasurementKey;
+import io.prestodb.benchto.service.repo.MeasurementKeyRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves measurement (name, unit) pairs to their dictionary entries. The set of distinct
+ * keys is small and never changes once written, so resolved keys are kept in memory.
+ */
+@Service
+public class MeasurementKeyService
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MeasurementKeyService.class);
+
+    @Autowired
+    private MeasurementKeyRepo measurementKeyRepo;
+
+    private final Map<MeasurementKey, MeasurementKey> committedKeys = new ConcurrentHashMap<>();
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void resolveKeys(Collection<Measurement> measurements)
+    {
+        for (Measurement measurement : measurements) {
+            measurement.setKey(resolveKey(measurement.getKey()));
+        }
+    }
+
+    private MeasurementKey resolveKey(MeasurementKey key)
+    {
+        MeasurementKey resolvedKey = committedKeys.get(key);
+        if (resolvedKey != null) {
+            return resolvedKey;
+        }
+
+        resolvedKey = measurementKeyRepo.findByNameAndUnit(key.getName(), key.getUnit());
+        if (resolvedKey != null) {
+            committedKeys.put(key, resolvedKey);
+            return resolvedKey;
+        }
+
+        // not cached until it is found by a later lookup, as the current transaction may still roll back
+        LOG.debug("Storing new measurement key - {}", key);
+        return measurementKeyRepo.save(new MeasurementKey(key.getName(), key.getUnit()));
+    }
+}
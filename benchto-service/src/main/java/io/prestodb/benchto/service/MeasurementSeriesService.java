@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.model.Environment;
+import io.prestodb.benchto.service.model.MeasurementSeries;
+import io.prestodb.benchto.service.model.MeasurementSeries.Source;
+import io.prestodb.benchto.service.model.MeasurementSeriesPoint;
+import io.prestodb.benchto.service.model.MeasurementUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestodb.benchto.service.utils.TimeUtils.UTC_ZONE;
+
+/**
+ * Reads the history of a single measurement of a benchmark for the benchmark page charts. Values are
+ * aggregated per run in the database and consecutive runs are merged into min/max buckets, so the size
+ * of the response depends on the requested resolution and not on the number of runs.
+ */
+@Service
+public class MeasurementSeriesService
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MeasurementSeriesService.class);
+
+    private static final String SELECT_MEASUREMENT_KEYS = "" +
+            "SELECT id, unit FROM measurement_keys WHERE name = :name ORDER BY id";
+
+    private static final String RUNS_IN_RANGE = "" +
+            "br.unique_name = :uniqueName AND br.environment_id = :environmentId AND br.status = 'ENDED' AND " +
+            "br.started >= :start AND br.started < :end ";
+
+    // runs downsampled by the retention have no executions left, only their stored aggregates
+    private static final String SELECT_EXECUTIONS_VALUES = "" +
+            "SELECT br.started, br.sequence_id, MIN(em.value), MAX(em.value), AVG(em.value), COALESCE(STDDEV_SAMP(em.value), 0) " +
+            "FROM benchmark_runs br " +
+            "JOIN executions e ON e.benchmark_run_id = br.id " +
+            "JOIN execution_measurements em ON em.execution_id = e.id " +
+            "WHERE " + RUNS_IN_RANGE + "AND br.executions_downsampled = FALSE AND e.status <> 'CANCELLED' AND em.measurement_key_id = :keyId " +
+            "GROUP BY br.id, br.started, br.sequence_id " +
+            "UNION ALL " +
+            "SELECT br.started, br.sequence_id, am.min, am.max, am.mean, am.stddev " +
+            "FROM benchmark_runs br " +
+            "JOIN benchmark_run_aggregated_measurements am ON am.benchmark_run_id = br.id " +
+            "WHERE " + RUNS_IN_RANGE + "AND br.executions_downsampled = TRUE AND am.measurement_key_id = :keyId " +
+            "ORDER BY 1, 2";
+
+    private static final String SELECT_BENCHMARK_VALUES = "" +
+            "SELECT br.started, br.sequence_id, bm.value, bm.value, bm.value, 0 " +
+            "FROM benchmark_runs br " +
+            "JOIN benchmark_run_measurements bm ON bm.benchmark_run_id = br.id " +
+            "WHERE " + RUNS_IN_RANGE + "AND bm.measurement_key_id = :keyId " +
+            "ORDER BY 1, 2";
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource)
+    {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Transactional(readOnly = true)
+    public MeasurementSeries findSeries(String uniqueName, String environmentName, String measurementName, Source source,
+            ZonedDateTime start, ZonedDateTime end, int points)
+    {
+        checkArgument(points > 0, "points must be positive");
+        Environment environment = environmentService.findEnvironment(environmentName);
+        LOG.debug("Reading {} series of {} measurement of {} between {} and {}", source, measurementName, uniqueName, start, end);
+
+        List<Map<String, Object>> keys = jdbcTemplate.queryForList(SELECT_MEASUREMENT_KEYS, ImmutableMap.of("name", measurementName));
+        if (keys.isEmpty()) {
+            return new MeasurementSeries(measurementName, source, null, start, end, 0, new ArrayList<>());
+        }
+        // a measurement name reported with several units is charted with the one seen first
+        Map<String, Object> key = keys.get(0);
+        Map<String, Object> parameters = ImmutableMap.<String, Object>builder()
+                .put("uniqueName", uniqueName)
+                .put("environmentId", environment.getId())
+                .put("start", Timestamp.from(start.toInstant()))
+                .put("end", Timestamp.from(end.toInstant()))
+                .put("keyId", key.get("id"))
+                .build();
+        List<MeasurementSeriesPoint> runs = jdbcTemplate.query(source == Source.EXECUTIONS ? SELECT_EXECUTIONS_VALUES : SELECT_BENCHMARK_VALUES,
+                parameters,
+                (resultSet, rowNum) -> new MeasurementSeriesPoint(
+                        resultSet.getTimestamp(1).toInstant().atZone(UTC_ZONE),
+                        resultSet.getString(2),
+                        resultSet.getDouble(3),
+                        resultSet.getDouble(4),
+                        resultSet.getDouble(5),
+                        resultSet.getDouble(6)));
+
+        return new MeasurementSeries(measurementName, source, MeasurementUnit.valueOf((String) key.get("unit")), start, end, runs.size(),
+                bucket(runs, points));
+    }
+
+    /**
+     * Merges runs into at most given number of buckets of equal time span. The span is taken from the runs themselves,
+     * so a range reaching far beyond the first or last run does not squeeze all of them into few buckets.
+     */
+    private static List<MeasurementSeriesPoint> bucket(List<MeasurementSeriesPoint> runs, int points)
+    {
+        if (runs.size() <= points) {
+            return runs;
+        }
+        long first = runs.get(0).getStarted().toInstant().toEpochMilli();
+        long span = runs.get(runs.size() - 1).getStarted().toInstant().toEpochMilli() - first + 1;
+
+        List<MeasurementSeriesPoint> buckets = new ArrayList<>(points);
+        long currentBucket = -1;
+        for (MeasurementSeriesPoint run : runs) {
+            long bucket = (run.getStarted().toInstant().toEpochMilli() - first) * points / span;
+            if (bucket == currentBucket) {
+                buckets.get(buckets.size() - 1).merge(run);
+            }
+            else {
+                buckets.add(run);
+                currentBucket = bucket;
+            }
+        }
+        return buckets;
+    }
+}
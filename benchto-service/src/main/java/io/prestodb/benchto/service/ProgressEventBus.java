@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.model.ProgressEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static io.prestodb.benchto.service.model.ProgressEvent.Type.RUN_STARTED;
+import static io.prestodb.benchto.service.model.Status.STARTED;
+import static io.prestodb.benchto.service.utils.TimeUtils.UTC_ZONE;
+
+/**
+ * In-memory fan-out of benchmark progress events to the live progress streams. Each subscriber
+ * has a bounded buffer and a subscriber which does not keep up is dropped once its buffer is full,
+ * so a slow client never holds back publishers or other subscribers.
+ */
+@Component
+public class ProgressEventBus
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ProgressEventBus.class);
+
+    // never returned to consumers, only wakes up a consumer blocked on a terminated subscription
+    private static final ProgressEvent WAKE_UP_EVENT = new ProgressEvent(RUN_STARTED, "", "", "", null, STARTED, Instant.EPOCH.atZone(UTC_ZONE),
+            ImmutableList.of(), ImmutableMap.of());
+
+    @Value("${benchto.progress.subscriber-buffer-size:256}")
+    private int subscriberBufferSize;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastEventId = new AtomicLong();
+
+    public boolean hasSubscribers()
+    {
+        return !subscriptions.isEmpty();
+    }
+
+    public int getSubscriberCount()
+    {
+        return subscriptions.size();
+    }
+
+    public Subscription subscribe(Predicate<ProgressEvent> filter)
+    {
+        Subscription subscription = new Subscription(filter, subscriberBufferSize);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Publishes the event once the current transaction commits, so subscribers never see changes which are rolled back.
+     */
+    public void publishAfterCommit(ProgressEvent event)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+        {
+            @Override
+            public void afterCommit()
+            {
+                publish(event);
+            }
+        });
+    }
+
+    public void publish(ProgressEvent event)
+    {
+        event.setId(lastEventId.incrementAndGet());
+        for (Subscription subscription : subscriptions) {
+            if (subscription.filter.test(event) && !subscription.events.offer(event)) {
+                LOG.info("Dropping slow progress subscriber, {} events not consumed", subscription.events.size());
+                subscriptions.remove(subscription);
+                subscription.terminate(true);
+            }
+        }
+    }
+
+    public class Subscription
+            implements AutoCloseable
+    {
+        private final Predicate<ProgressEvent> filter;
+        private final BlockingQueue<ProgressEvent> events;
+        private volatile boolean active = true;
+        private volatile boolean dropped;
+
+        private Subscription(Predicate<ProgressEvent> filter, int bufferSize)
+        {
+            this.filter = filter;
+            this.events = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Waits for the next event, returns null on timeout or once the subscription is no longer active.
+         */
+        public ProgressEvent poll(long timeout, TimeUnit unit)
+                throws InterruptedException
+        {
+            ProgressEvent event = events.poll(timeout, unit);
+            return active ? event : null;
+        }
+
+        public boolean isActive()
+        {
+            return active;
+        }
+
+        public boolean isDropped()
+        {
+            return dropped;
+        }
+
+        @Override
+        public void close()
+        {
+            subscriptions.remove(this);
+            terminate(false);
+        }
+
+        private synchronized void terminate(boolean dropped)
+        {
+            if (!active) {
+                return;
+            }
+            this.dropped = dropped;
+            active = false;
+            // wake up the consumer, there is room for the wake up event once the buffer is cleared
+            events.clear();
+            events.offer(WAKE_UP_EVENT);
+        }
+    }
+}
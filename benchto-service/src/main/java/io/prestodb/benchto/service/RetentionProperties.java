@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.Maps.newHashMap;
+
+/**
+ * Retention policies keyed by environment name. Environments without a policy keep all their runs.
+ */
+@Component
+@ConfigurationProperties(prefix = "benchto.retention")
+public class RetentionProperties
+{
+    private int batchSize = 100;
+
+    private Map<String, EnvironmentRetention> environments = newHashMap();
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    public Map<String, EnvironmentRetention> getEnvironments()
+    {
+        return environments;
+    }
+
+    public void setEnvironments(Map<String, EnvironmentRetention> environments)
+    {
+        this.environments = environments;
+    }
+
+    public static class EnvironmentRetention
+    {
+        /**
+         * Runs started earlier keep only aggregates of their execution measurements.
+         */
+        private Integer downsampleAfterDays;
+
+        /**
+         * Runs started earlier are deleted.
+         */
+        private Integer dropAfterDays;
+
+        public Optional<Integer> getDownsampleAfterDays()
+        {
+            return Optional.ofNullable(downsampleAfterDays);
+        }
+
+        public void setDownsampleAfterDays(Integer downsampleAfterDays)
+        {
+            this.downsampleAfterDays = downsampleAfterDays;
+        }
+
+        public Optional<Integer> getDropAfterDays()
+        {
+            return Optional.ofNullable(dropAfterDays);
+        }
+
+        public void setDropAfterDays(Integer dropAfterDays)
+        {
+            this.dropAfterDays = dropAfterDays;
+        }
+    }
+}
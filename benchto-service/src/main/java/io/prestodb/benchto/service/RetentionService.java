@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.RetentionProperties.EnvironmentRetention;
+import io.prestodb.benchto.service.model.Environment;
+import io.prestodb.benchto.service.model.RetentionProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Applies the per environment retention policies from {@link RetentionProperties}. Old runs are either
+ * downsampled, which replaces their executions with aggregates of the execution measurements, or dropped
+ * altogether. Runs are processed in batches of set based statements, each batch in its own transaction,
+ * so the job does not hold locks for long and can be interrupted at any point.
+ */
+@Service
+public class RetentionService
+{
+    private static final Logger LOG = LoggerFactory.getLogger(RetentionService.class);
+
+    private static final String SELECT_RUNS_TO_DROP = "" +
+            "SELECT id, unique_name, sequence_id FROM benchmark_runs " +
+            "WHERE environment_id = :environmentId AND started < :before AND status <> 'STARTED' " +
+            "ORDER BY started " +
+            "LIMIT :limit";
+
+    private static final String SELECT_RUNS_TO_DOWNSAMPLE = "" +
+            "SELECT id, unique_name, sequence_id FROM benchmark_runs " +
+            "WHERE environment_id = :environmentId AND started < :before AND status <> 'STARTED' AND executions_downsampled = FALSE " +
+            "ORDER BY started " +
+            "LIMIT :limit";
+
+    private static final String RUN_EXECUTIONS = "SELECT id FROM executions WHERE benchmark_run_id IN (:runIds)";
+
+    private static final String AGGREGATE_EXECUTION_MEASUREMENTS = "" +
+            "INSERT INTO benchmark_run_aggregated_measurements (benchmark_run_id, measurement_key_id, min, max, mean, stddev, stddev_percent) " +
+            "SELECT e.benchmark_run_id, em.measurement_key_id, MIN(em.value), MAX(em.value), AVG(em.value), " +
+            "  COALESCE(STDDEV_SAMP(em.value), 0), " +
+            "  CASE WHEN COALESCE(STDDEV_SAMP(em.value), 0) > 0 THEN STDDEV_SAMP(em.value) / AVG(em.value) * 100 ELSE 0 END " +
+            "FROM executions e " +
+            "JOIN execution_measurements em ON em.execution_id = e.id " +
+            "WHERE e.benchmark_run_id IN (:runIds) AND e.status <> 'CANCELLED' " +
+            "GROUP BY e.benchmark_run_id, em.measurement_key_id";
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Autowired
+    private RetentionProperties retentionProperties;
+
+    @Autowired
+    private FinishedBenchmarkRunCache finishedBenchmarkRunCache;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private volatile boolean running;
+    private volatile String currentEnvironment;
+    private volatile ZonedDateTime started;
+    private volatile ZonedDateTime finished;
+    private final AtomicLong downsampledRuns = new AtomicLong();
+    private final AtomicLong droppedRuns = new AtomicLong();
+    private final AtomicLong deletedExecutions = new AtomicLong();
+
+    @Autowired
+    public void setDataSource(DataSource dataSource)
+    {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager)
+    {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${benchto.retention.cron:0 0 3 * * *}")
+    public synchronized void applyRetentionPolicies()
+    {
+        Map<String, EnvironmentRetention> environments = retentionProperties.getEnvironments();
+        if (environments.isEmpty()) {
+            return;
+        }
+
+        LOG.info("Applying retention policies for environments {}", environments.keySet());
+        running = true;
+        started = currentDateTime();
+        finished = null;
+        downsampledRuns.set(0);
+        droppedRuns.set(0);
+        deletedExecutions.set(0);
+        try {
+            for (Map.Entry<String, EnvironmentRetention> entry : environments.entrySet()) {
+                currentEnvironment = entry.getKey();
+                applyRetentionPolicy(entry.getKey(), entry.getValue());
+            }
+        }
+        finally {
+            running = false;
+            currentEnvironment = null;
+            finished = currentDateTime();
+            LOG.info("Finished applying retention policies - {}", getProgress());
+        }
+    }
+
+    private void applyRetentionPolicy(String environmentName, EnvironmentRetention retention)
+    {
+        Optional<Environment> environment = environmentService.tryFindEnvironment(environmentName);
+        if (!environment.isPresent()) {
+            LOG.warn("Retention policy configured for unknown environment {}", environmentName);
+            return;
+        }
+        long environmentId = environment.get().getId();
+
+        // dropped first, so runs about to be dropped are not downsampled
+        if (retention.getDropAfterDays().isPresent()) {
+            ZonedDateTime before = currentDateTime().minusDays(retention.getDropAfterDays().get());
+            while (processBatch(SELECT_RUNS_TO_DROP, environmentId, before, this::dropRuns) > 0) {
+                LOG.info("Dropping runs of {} started before {} - {}", environmentName, before, getProgress());
+            }
+        }
+        if (retention.getDownsampleAfterDays().isPresent()) {
+            ZonedDateTime before = currentDateTime().minusDays(retention.getDownsampleAfterDays().get());
+            while (processBatch(SELECT_RUNS_TO_DOWNSAMPLE, environmentId, before, this::downsampleRuns) > 0) {
+                LOG.info("Downsampling runs of {} started before {} - {}", environmentName, before, getProgress());
+            }
+        }
+    }
+
+    private int processBatch(String selectRuns, long environmentId, ZonedDateTime before, BatchAction action)
+    {
+        return transactionTemplate.execute(status -> {
+            List<Map<String, Object>> runs = jdbcTemplate.queryForList(selectRuns, ImmutableMap.of(
+                    "environmentId", environmentId,
+                    "before", Timestamp.from(before.toInstant()),
+                    "limit", retentionProperties.getBatchSize()));
+            if (runs.isEmpty()) {
+                return 0;
+            }
+            for (Map<String, Object> run : runs) {
+                finishedBenchmarkRunCache.invalidate((String) run.get("unique_name"), (String) run.get("sequence_id"));
+            }
+            action.apply(runs.stream()
+                    .map(run -> ((Number) run.get("id")).longValue())
+                    .collect(toList()));
+            return runs.size();
+        });
+    }
+
+    private void downsampleRuns(List<Long> runIds)
+    {
+        Map<String, List<Long>> parameters = ImmutableMap.of("runIds", runIds);
+        jdbcTemplate.update(AGGREGATE_EXECUTION_MEASUREMENTS, parameters);
+        deleteExecutions(parameters);
+        jdbcTemplate.update("UPDATE benchmark_runs SET executions_downsampled = TRUE, version = version + 1 WHERE id IN (:runIds)", parameters);
+        downsampledRuns.addAndGet(runIds.size());
+    }
+
+    private void dropRuns(List<Long> runIds)
+    {
+        Map<String, List<Long>> parameters = ImmutableMap.of("runIds", runIds);
+        deleteExecutions(parameters);
+        jdbcTemplate.update("DELETE FROM benchmark_run_aggregated_measurements WHERE benchmark_run_id IN (:runIds)", parameters);
+        jdbcTemplate.update("DELETE FROM benchmark_run_measurements WHERE benchmark_run_id IN (:runIds)", parameters);
+        jdbcTemplate.update("DELETE FROM benchmark_runs_attributes WHERE benchmark_run_id IN (:runIds)", parameters);
+        jdbcTemplate.update("DELETE FROM benchmark_runs_variables WHERE benchmark_run_id IN (:runIds)", parameters);
+        jdbcTemplate.update("DELETE FROM benchmark_runs WHERE id IN (:runIds)", parameters);
+        droppedRuns.addAndGet(runIds.size());
+    }
+
+    private void deleteExecutions(Map<String, List<Long>> parameters)
+    {
+        jdbcTemplate.update("DELETE FROM execution_measurements WHERE execution_id IN (" + RUN_EXECUTIONS + ")", parameters);
+        jdbcTemplate.update("DELETE FROM execution_attributes WHERE execution_id IN (" + RUN_EXECUTIONS + ")", parameters);
+        deletedExecutions.addAndGet(jdbcTemplate.update("DELETE FROM executions WHERE benchmark_run_id IN (:runIds)", parameters));
+    }
+
+    public RetentionProgress getProgress()
+    {
+        return new RetentionProgress(running, currentEnvironment, started, finished, downsampledRuns.get(), droppedRuns.get(), deletedExecutions.get());
+    }
+
+    @FunctionalInterface
+    private interface BatchAction
+    {
+        void apply(List<Long> runIds);
+    }
+}
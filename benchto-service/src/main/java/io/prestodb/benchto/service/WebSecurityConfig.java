@@ -41,6 +41,13 @@ public class WebSecurityConfig
     protected void configure(HttpSecurity http)
             throws Exception
     {
+        // default headers without Cache-Control, which is set per response (see BenchmarkController)
+        http.headers()
+                .contentTypeOptions()
+                .xssProtection()
+                .httpStrictTransportSecurity()
+                .frameOptions();
+
         if (isApiProtected) {
             http.csrf().disable()
                     .authorizeRequests().antMatchers("/**")
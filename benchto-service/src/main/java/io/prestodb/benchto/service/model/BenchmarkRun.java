@@ -17,8 +17,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import org.hibernate.Hibernate;
-import org.hibernate.annotations.BatchSize;
-import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.CascadeType;
@@ -31,10 +30,13 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
@@ -54,19 +56,38 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 import static io.prestodb.benchto.service.model.AggregatedMeasurement.aggregate;
+import static io.prestodb.benchto.service.model.Status.CANCELLED;
 import static java.util.stream.Collectors.toMap;
-import static javax.persistence.FetchType.EAGER;
-import static org.hibernate.annotations.CacheConcurrencyStrategy.TRANSACTIONAL;
+import static javax.persistence.FetchType.LAZY;
+import static org.hibernate.annotations.FetchMode.SUBSELECT;
 
+/**
+ * All associations are lazy. Each use case loads what it needs with one of the entity graphs below
+ * (the dashboard list query spells out its fetch joins instead), collections outside of the graph
+ * are loaded with a single subselect per collection when accessed.
+ */
 @Entity
-@Table(name = "benchmark_runs", uniqueConstraints = @UniqueConstraint(columnNames = {"unique_name", "sequence_id"}))
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = BenchmarkRun.DETAIL_GRAPH, attributeNodes = {
+                @NamedAttributeNode("environment"),
+                @NamedAttributeNode("executions")}),
+        @NamedEntityGraph(name = BenchmarkRun.CLEANUP_GRAPH),
+        @NamedEntityGraph(name = BenchmarkRun.INGESTION_GRAPH)
+})
+@Table(name = "benchmark_runs",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"unique_name", "sequence_id"}),
+        indexes = @Index(name = "idx_benchmark_runs_unique_name_status_ended", columnList = "unique_name, status, ended"))
 public class BenchmarkRun
         implements Serializable
 {
+    public static final String DETAIL_GRAPH = "BenchmarkRun.detail";
+    public static final String CLEANUP_GRAPH = "BenchmarkRun.cleanup";
+    public static final String INGESTION_GRAPH = "BenchmarkRun.ingestion";
+
     @Id
     @SequenceGenerator(name = "benchmark_runs_id_seq",
             sequenceName = "benchmark_runs_id_seq",
-            allocationSize = 1)
+            allocationSize = 50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE,
             generator = "benchmark_runs_id_seq")
     @Column(name = "id")
@@ -85,9 +106,8 @@ public class BenchmarkRun
     @Column(name = "unique_name")
     private String uniqueName;
 
-    @Cache(usage = TRANSACTIONAL)
-    @BatchSize(size = 10)
-    @ElementCollection(fetch = EAGER)
+    @Fetch(SUBSELECT)
+    @ElementCollection
     @MapKeyColumn(name = "name")
     @Column(name = "value")
     @CollectionTable(name = "benchmark_runs_variables", joinColumns = @JoinColumn(name = "benchmark_run_id"))
@@ -103,15 +123,13 @@ public class BenchmarkRun
     @Column(name = "status")
     private Status status;
 
-    @BatchSize(size = 10)
+    @Fetch(SUBSELECT)
     @OneToMany(mappedBy = "benchmarkRun", cascade = CascadeType.ALL)
     private Set<BenchmarkRunExecution> executions = newHashSet();
 
-    @BatchSize(size = 10)
-    @OneToMany(cascade = CascadeType.ALL, fetch = EAGER)
-    @JoinTable(name = "benchmark_run_measurements",
-            joinColumns = @JoinColumn(name = "benchmark_run_id", referencedColumnName = "id"),
-            inverseJoinColumns = @JoinColumn(name = "measurement_id", referencedColumnName = "id"))
+    @Fetch(SUBSELECT)
+    @ElementCollection
+    @CollectionTable(name = "benchmark_run_measurements", joinColumns = @JoinColumn(name = "benchmark_run_id"))
     private Set<Measurement> measurements = newHashSet();
 
     @Column(name = "started")
@@ -123,13 +141,12 @@ public class BenchmarkRun
     private ZonedDateTime ended;
 
     @NotNull
-    @ManyToOne(fetch = EAGER)
+    @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "environment_id")
     private Environment environment;
 
-    @Cache(usage = TRANSACTIONAL)
-    @BatchSize(size = 10)
-    @ElementCollection(fetch = EAGER)
+    @Fetch(SUBSELECT)
+    @ElementCollection
     @MapKeyColumn(name = "name")
     @Column(name = "value")
     @CollectionTable(name = "benchmark_runs_attributes", joinColumns = @JoinColumn(name = "benchmark_run_id"))
@@ -141,6 +158,15 @@ public class BenchmarkRun
     @Column(name = "executions_stddev_duration")
     private double executionStdDevDuration = -1.0;
 
+    @Column(name = "executions_downsampled")
+    private boolean executionsDownsampled;
+
+    @JsonIgnore
+    @Fetch(SUBSELECT)
+    @ElementCollection
+    @CollectionTable(name = "benchmark_run_aggregated_measurements", joinColumns = @JoinColumn(name = "benchmark_run_id"))
+    private Set<DownsampledMeasurement> downsampledMeasurements = newHashSet();
+
     @Transient
     private Map<String, AggregatedMeasurement> aggregatedMeasurements;
 
@@ -271,11 +297,32 @@ public class BenchmarkRun
         this.executionStdDevDuration = executionStdDevDuration;
     }
 
+    /**
+     * Whether raw executions were dropped by the retention policy, in which case their aggregates are kept in {@link #getDownsampledMeasurements()}.
+     */
+    public boolean isExecutionsDownsampled()
+    {
+        return executionsDownsampled;
+    }
+
+    public Set<DownsampledMeasurement> getDownsampledMeasurements()
+    {
+        return downsampledMeasurements;
+    }
+
     public Map<String, AggregatedMeasurement> getAggregatedMeasurements()
     {
+        if (aggregatedMeasurements == null && executionsDownsampled && Hibernate.isInitialized(downsampledMeasurements)) {
+            aggregatedMeasurements = downsampledMeasurements.stream()
+                    .collect(toMap(measurement -> measurement.getKey().getName(), DownsampledMeasurement::toAggregatedMeasurement));
+        }
         if (aggregatedMeasurements == null && Hibernate.isInitialized(executions)) {
             ListMultimap<Measurement, Double> measurementValues = ArrayListMultimap.create();
             for (BenchmarkRunExecution execution : executions) {
+                // executions cancelled at the query timeout or the time limit would only skew the aggregates
+                if (execution.getStatus() == CANCELLED) {
+                    continue;
+                }
                 for (Measurement measurement : execution.getMeasurements()) {
                     measurementValues.put(measurement, measurement.getValue());
                 }
@@ -318,13 +365,9 @@ public class BenchmarkRun
                 .add("id", id)
                 .add("name", name)
                 .add("uniqueName", uniqueName)
-                .add("variables", variables)
                 .add("version", version)
                 .add("sequenceId", sequenceId)
                 .add("status", status)
-                .add("executions", executions)
-                .add("attributes", attributes)
-                .add("measurements", measurements)
                 .add("started", started)
                 .add("ended", ended)
                 .add("executionsMeanDuration", executionsMeanDuration)
@@ -14,12 +14,9 @@
 package io.prestodb.benchto.service.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import org.hibernate.annotations.BatchSize;
-import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.Type;
 
-import javax.persistence.Cacheable;
-import javax.persistence.CascadeType;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -30,12 +27,11 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
-import javax.persistence.OneToMany;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -48,19 +44,19 @@ import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.Maps.newHashMap;
-import static javax.persistence.FetchType.EAGER;
-import static org.hibernate.annotations.CacheConcurrencyStrategy.TRANSACTIONAL;
+import static com.google.common.collect.Sets.newHashSet;
+import static javax.persistence.FetchType.LAZY;
+import static org.hibernate.annotations.FetchMode.SUBSELECT;
 
-@Cacheable
 @Entity
-@Table(name = "executions")
+@Table(name = "executions", uniqueConstraints = @UniqueConstraint(columnNames = {"benchmark_run_id", "sequence_id"}))
 public class BenchmarkRunExecution
         implements Serializable
 {
     @Id
     @SequenceGenerator(name = "executions_id_seq",
             sequenceName = "executions_id_seq",
-            allocationSize = 1)
+            allocationSize = 50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE,
             generator = "executions_id_seq")
     @Column(name = "id")
@@ -82,15 +78,13 @@ public class BenchmarkRunExecution
 
     @NotNull
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = LAZY)
     private BenchmarkRun benchmarkRun;
 
-    @BatchSize(size = 10)
-    @OneToMany(cascade = CascadeType.ALL, fetch = EAGER)
-    @JoinTable(name = "execution_measurements",
-            joinColumns = @JoinColumn(name = "execution_id", referencedColumnName = "id"),
-            inverseJoinColumns = @JoinColumn(name = "measurement_id", referencedColumnName = "id"))
-    private Set<Measurement> measurements;
+    @Fetch(SUBSELECT)
+    @ElementCollection
+    @CollectionTable(name = "execution_measurements", joinColumns = @JoinColumn(name = "execution_id"))
+    private Set<Measurement> measurements = newHashSet();
 
     @Column(name = "started")
     @Type(type = "org.jadira.usertype.dateandtime.threeten.PersistentZonedDateTime")
@@ -100,9 +94,8 @@ public class BenchmarkRunExecution
     @Type(type = "org.jadira.usertype.dateandtime.threeten.PersistentZonedDateTime")
     private ZonedDateTime ended;
 
-    @Cache(usage = TRANSACTIONAL)
-    @BatchSize(size = 10)
-    @ElementCollection(fetch = EAGER)
+    @Fetch(SUBSELECT)
+    @ElementCollection
     @MapKeyColumn(name = "name")
     @Column(name = "value")
     @CollectionTable(name = "execution_attributes", joinColumns = @JoinColumn(name = "execution_id"))
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.model;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.validation.constraints.NotNull;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static javax.persistence.FetchType.EAGER;
+
+/**
+ * Aggregate of an execution measurement, stored for runs whose executions were dropped by the retention policy.
+ */
+@Embeddable
+public class DownsampledMeasurement
+        implements Serializable
+{
+    @NotNull
+    @ManyToOne(fetch = EAGER, optional = false)
+    @JoinColumn(name = "measurement_key_id")
+    private MeasurementKey key;
+
+    @Column(name = "min")
+    private double min;
+
+    @Column(name = "max")
+    private double max;
+
+    @Column(name = "mean")
+    private double mean;
+
+    @Column(name = "stddev")
+    private double stdDev;
+
+    @Column(name = "stddev_percent")
+    private double stdDevPercent;
+
+    protected DownsampledMeasurement()
+    {
+    }
+
+    public MeasurementKey getKey()
+    {
+        return key;
+    }
+
+    public AggregatedMeasurement toAggregatedMeasurement()
+    {
+        return new AggregatedMeasurement(key.getUnit(), min, max, mean, stdDev, stdDevPercent);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DownsampledMeasurement that = (DownsampledMeasurement) o;
+        return Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(key);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("key", key)
+                .add("mean", mean)
+                .add("stdDev", stdDev)
+                .toString();
+    }
+}
@@ -14,8 +14,8 @@
 package io.prestodb.benchto.service.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.Cacheable;
@@ -28,6 +28,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
@@ -41,21 +43,23 @@ import java.util.Objects;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.Maps.newHashMap;
-import static javax.persistence.FetchType.EAGER;
 import static org.hibernate.annotations.CacheConcurrencyStrategy.TRANSACTIONAL;
+import static org.hibernate.annotations.FetchMode.SUBSELECT;
 
 @Entity
 @Cacheable
+@NamedEntityGraph(name = Environment.DETAIL_GRAPH, attributeNodes = @NamedAttributeNode("attributes"))
 @Table(name = "environments", uniqueConstraints = @UniqueConstraint(columnNames = {"name"}))
 public class Environment
         implements Serializable
 {
     public static final String DEFAULT_ENVIRONMENT_NAME = "name";
+    public static final String DETAIL_GRAPH = "Environment.detail";
 
     @Id
     @SequenceGenerator(name = "environments_id_seq",
             sequenceName = "environments_id_seq",
-            allocationSize = 1)
+            allocationSize = 50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE,
             generator = "environments_id_seq")
     @Column(name = "id")
@@ -72,8 +76,8 @@ public class Environment
     private Long version;
 
     @Cache(usage = TRANSACTIONAL)
-    @BatchSize(size = 10)
-    @ElementCollection(fetch = EAGER)
+    @Fetch(SUBSELECT)
+    @ElementCollection
     @MapKeyColumn(name = "name")
     @Column(name = "value")
     @CollectionTable(name = "environment_attributes", joinColumns = @JoinColumn(name = "environment_id"))
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.model;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Mean durations of executions of recent successful runs of a benchmark, in milliseconds. The mean of the latest run
+ * is compared with the mean of runs before it, so that a client can tell whether the benchmark has recently regressed.
+ */
+public class ExecutionDurationSummary
+{
+    private final String uniqueName;
+    private final int runs;
+    private final double meanDuration;
+    private final double latestMeanDuration;
+    private final double previousMeanDuration;
+
+    public ExecutionDurationSummary(String uniqueName, int runs, double meanDuration, double latestMeanDuration, double previousMeanDuration)
+    {
+        this.uniqueName = uniqueName;
+        this.runs = runs;
+        this.meanDuration = meanDuration;
+        this.latestMeanDuration = latestMeanDuration;
+        this.previousMeanDuration = previousMeanDuration;
+    }
+
+    public String getUniqueName()
+    {
+        return uniqueName;
+    }
+
+    /**
+     * Number of runs the summary is based on, durations are 0 when there are none.
+     */
+    public int getRuns()
+    {
+        return runs;
+    }
+
+    public double getMeanDuration()
+    {
+        return meanDuration;
+    }
+
+    public double getLatestMeanDuration()
+    {
+        return latestMeanDuration;
+    }
+
+    /**
+     * Mean of runs before the latest one, 0 when there is only a single run.
+     */
+    public double getPreviousMeanDuration()
+    {
+        return previousMeanDuration;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("uniqueName", uniqueName)
+                .add("runs", runs)
+                .add("meanDuration", meanDuration)
+                .add("latestMeanDuration", latestMeanDuration)
+                .add("previousMeanDuration", previousMeanDuration)
+                .toString();
+    }
+}
@@ -13,80 +13,66 @@
  */
 package io.prestodb.benchto.service.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.EnumType;
-import javax.persistence.Enumerated;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
-import javax.persistence.SequenceGenerator;
-import javax.persistence.Table;
+import javax.persistence.Embeddable;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
 import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Size;
 
 import java.io.Serializable;
 import java.util.Objects;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static javax.persistence.FetchType.EAGER;
 
-@Entity
-@Table(name = "measurements")
+@Embeddable
 public class Measurement
         implements Serializable
 {
-    @Id
-    @SequenceGenerator(name = "measurements_id_seq",
-            sequenceName = "measurements_id_seq",
-            allocationSize = 1)
-    @GeneratedValue(strategy = GenerationType.SEQUENCE,
-            generator = "measurements_id_seq")
-    @Column(name = "id")
-    @JsonIgnore
-    private long id;
-
-    @Size(min = 1, max = 64)
-    @Column(name = "name")
-    private String name;
+    @NotNull
+    @ManyToOne(fetch = EAGER, optional = false)
+    @JoinColumn(name = "measurement_key_id")
+    private MeasurementKey key;
 
     @Column(name = "value")
     private double value;
 
-    @NotNull
-    @Enumerated(EnumType.STRING)
-    @Column(name = "unit")
-    private MeasurementUnit unit;
-
-    public long getId()
+    protected Measurement()
     {
-        return id;
     }
 
-    public void setId(long id)
+    @JsonCreator
+    public Measurement(@JsonProperty("name") String name,
+            @JsonProperty("unit") MeasurementUnit unit,
+            @JsonProperty("value") double value)
     {
-        this.id = id;
+        this.key = new MeasurementKey(name, unit);
+        this.value = value;
     }
 
-    public String getName()
+    @JsonIgnore
+    public MeasurementKey getKey()
     {
-        return name;
+        return key;
     }
 
-    public void setName(String name)
+    public void setKey(MeasurementKey key)
     {
-        this.name = name;
+        this.key = key;
     }
 
-    public MeasurementUnit getUnit()
+    public String getName()
     {
-        return unit;
+        return key.getName();
     }
 
-    public void setUnit(MeasurementUnit unit)
+    public MeasurementUnit getUnit()
     {
-        this.unit = unit;
+        return key.getUnit();
     }
 
     public double getValue()
@@ -109,22 +95,21 @@ public class Measurement
             return false;
         }
         Measurement that = (Measurement) o;
-        return Objects.equals(name, that.name);
+        return Objects.equals(getName(), that.getName());
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(name);
+        return Objects.hash(getName());
     }
 
     @Override
     public String toString()
     {
         return toStringHelper(this)
-                .add("id", id)
-                .add("name", name)
-                .add("unit", unit)
+                .add("name", getName())
+                .add("unit", getUnit())
                 .add("value", value)
                 .toString();
     }
@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_ONLY;
+
+/**
+ * Dictionary entry for a (name, unit) pair, so that measurement values can be stored
+ * as (owner, key, value) rows instead of repeating names and units for every value.
+ */
+@Entity
+@Cacheable
+@Immutable
+@Cache(usage = READ_ONLY)
+@Table(name = "measurement_keys", uniqueConstraints = @UniqueConstraint(columnNames = {"name", "unit"}))
+public class MeasurementKey
+        implements Serializable
+{
+    @Id
+    @SequenceGenerator(name = "measurement_keys_id_seq",
+            sequenceName = "measurement_keys_id_seq",
+            allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,
+            generator = "measurement_keys_id_seq")
+    @Column(name = "id")
+    @JsonIgnore
+    private int id;
+
+    @Size(min = 1, max = 64)
+    @Column(name = "name")
+    private String name;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "unit")
+    private MeasurementUnit unit;
+
+    protected MeasurementKey()
+    {
+    }
+
+    public MeasurementKey(String name, MeasurementUnit unit)
+    {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public MeasurementUnit getUnit()
+    {
+        return unit;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MeasurementKey that = (MeasurementKey) o;
+        return Objects.equals(name, that.name) &&
+                unit == that.unit;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(name, unit);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("id", id)
+                .add("name", name)
+                .add("unit", unit)
+                .toString();
+    }
+}
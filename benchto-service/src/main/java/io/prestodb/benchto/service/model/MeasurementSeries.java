@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.model;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * History of a single measurement of a benchmark over finished runs started within [start, end), at most one point per bucket of
+ * equal time span. Runs are not bucketed at all when there are no more of them than requested points.
+ */
+public class MeasurementSeries
+{
+    public enum Source
+    {
+        /**
+         * Measurement of benchmark executions, aggregated per run.
+         */
+        EXECUTIONS,
+        /**
+         * Measurement of benchmark runs themselves.
+         */
+        BENCHMARK
+    }
+
+    private final String name;
+    private final Source source;
+    private final MeasurementUnit unit;
+    private final ZonedDateTime start;
+    private final ZonedDateTime end;
+    private final int runs;
+    private final List<MeasurementSeriesPoint> points;
+
+    public MeasurementSeries(String name, Source source, MeasurementUnit unit, ZonedDateTime start, ZonedDateTime end, int runs, List<MeasurementSeriesPoint> points)
+    {
+        this.name = name;
+        this.source = source;
+        this.unit = unit;
+        this.start = start;
+        this.end = end;
+        this.runs = runs;
+        this.points = points;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public Source getSource()
+    {
+        return source;
+    }
+
+    public MeasurementUnit getUnit()
+    {
+        return unit;
+    }
+
+    public ZonedDateTime getStart()
+    {
+        return start;
+    }
+
+    public ZonedDateTime getEnd()
+    {
+        return end;
+    }
+
+    public int getRuns()
+    {
+        return runs;
+    }
+
+    public List<MeasurementSeriesPoint> getPoints()
+    {
+        return points;
+    }
+}
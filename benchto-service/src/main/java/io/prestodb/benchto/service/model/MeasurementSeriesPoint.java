@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.model;
+
+import java.time.ZonedDateTime;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * A single benchmark run, or a bucket of consecutive runs, of a {@link MeasurementSeries}. Minimum and maximum
+ * are the extremes over all runs in the bucket, mean and standard deviation are averaged over the runs.
+ */
+public class MeasurementSeriesPoint
+{
+    private final ZonedDateTime started;
+    private final String firstSequenceId;
+    private String lastSequenceId;
+    private int runs;
+    private double min;
+    private double max;
+    private double meanSum;
+    private double stdDevSum;
+
+    public MeasurementSeriesPoint(ZonedDateTime started, String sequenceId, double min, double max, double mean, double stdDev)
+    {
+        this.started = started;
+        this.firstSequenceId = sequenceId;
+        this.lastSequenceId = sequenceId;
+        this.runs = 1;
+        this.min = min;
+        this.max = max;
+        this.meanSum = mean;
+        this.stdDevSum = stdDev;
+    }
+
+    public void merge(MeasurementSeriesPoint point)
+    {
+        lastSequenceId = point.lastSequenceId;
+        runs += point.runs;
+        min = Math.min(min, point.min);
+        max = Math.max(max, point.max);
+        meanSum += point.meanSum;
+        stdDevSum += point.stdDevSum;
+    }
+
+    public ZonedDateTime getStarted()
+    {
+        return started;
+    }
+
+    public String getFirstSequenceId()
+    {
+        return firstSequenceId;
+    }
+
+    public String getLastSequenceId()
+    {
+        return lastSequenceId;
+    }
+
+    public int getRuns()
+    {
+        return runs;
+    }
+
+    public double getMin()
+    {
+        return min;
+    }
+
+    public double getMax()
+    {
+        return max;
+    }
+
+    public double getMean()
+    {
+        return meanSum / runs;
+    }
+
+    public double getStdDev()
+    {
+        return stdDevSum / runs;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("started", started)
+                .add("firstSequenceId", firstSequenceId)
+                .add("lastSequenceId", lastSequenceId)
+                .add("runs", runs)
+                .add("min", min)
+                .add("max", max)
+                .add("mean", getMean())
+                .toString();
+    }
+}
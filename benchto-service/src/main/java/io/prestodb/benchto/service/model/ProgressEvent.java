@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Start or finish of a benchmark run or of one of its executions, as published to the live progress streams.
+ */
+public class ProgressEvent
+{
+    public enum Type
+    {
+        RUN_STARTED,
+        RUN_FINISHED,
+        EXECUTION_STARTED,
+        EXECUTION_FINISHED;
+
+        public String getEventName()
+        {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private long id;
+    private final Type type;
+    private final String environmentName;
+    private final String uniqueName;
+    private final String sequenceId;
+    private final String executionSequenceId;
+    private final Status status;
+    private final ZonedDateTime timestamp;
+    private final List<Measurement> measurements;
+    private final Map<String, String> attributes;
+
+    public static ProgressEvent runEvent(Type type, BenchmarkRun benchmarkRun, ZonedDateTime timestamp, Collection<Measurement> measurements,
+            Map<String, String> attributes)
+    {
+        return new ProgressEvent(type, benchmarkRun.getEnvironment().getName(), benchmarkRun.getUniqueName(), benchmarkRun.getSequenceId(), null,
+                benchmarkRun.getStatus(), timestamp, measurements, attributes);
+    }
+
+    public static ProgressEvent executionEvent(Type type, BenchmarkRunExecution execution, ZonedDateTime timestamp, Collection<Measurement> measurements,
+            Map<String, String> attributes)
+    {
+        BenchmarkRun benchmarkRun = execution.getBenchmarkRun();
+        return new ProgressEvent(type, benchmarkRun.getEnvironment().getName(), benchmarkRun.getUniqueName(), benchmarkRun.getSequenceId(),
+                execution.getSequenceId(), execution.getStatus(), timestamp, measurements, attributes);
+    }
+
+    public ProgressEvent(Type type, String environmentName, String uniqueName, String sequenceId, String executionSequenceId, Status status,
+            ZonedDateTime timestamp, Collection<Measurement> measurements, Map<String, String> attributes)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.environmentName = requireNonNull(environmentName, "environmentName is null");
+        this.uniqueName = requireNonNull(uniqueName, "uniqueName is null");
+        this.sequenceId = requireNonNull(sequenceId, "sequenceId is null");
+        this.executionSequenceId = executionSequenceId;
+        this.status = requireNonNull(status, "status is null");
+        this.timestamp = requireNonNull(timestamp, "timestamp is null");
+        this.measurements = ImmutableList.copyOf(measurements);
+        this.attributes = ImmutableMap.copyOf(attributes);
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public void setId(long id)
+    {
+        this.id = id;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public String getEnvironmentName()
+    {
+        return environmentName;
+    }
+
+    public String getUniqueName()
+    {
+        return uniqueName;
+    }
+
+    public String getSequenceId()
+    {
+        return sequenceId;
+    }
+
+    public String getExecutionSequenceId()
+    {
+        return executionSequenceId;
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    public ZonedDateTime getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public List<Measurement> getMeasurements()
+    {
+        return measurements;
+    }
+
+    public Map<String, String> getAttributes()
+    {
+        return attributes;
+    }
+
+    public boolean isForBenchmarkRun(String uniqueName, String sequenceId)
+    {
+        return this.uniqueName.equals(uniqueName) && this.sequenceId.equals(sequenceId);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("id", id)
+                .add("type", type)
+                .add("environmentName", environmentName)
+                .add("uniqueName", uniqueName)
+                .add("sequenceId", sequenceId)
+                .add("executionSequenceId", executionSequenceId)
+                .add("status", status)
+                .toString();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.model;
+
+import java.time.ZonedDateTime;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Progress of the current or last retention job, the environment is set while a job is running.
+ */
+public class RetentionProgress
+{
+    private final boolean running;
+    private final String environment;
+    private final ZonedDateTime started;
+    private final ZonedDateTime finished;
+    private final long downsampledRuns;
+    private final long droppedRuns;
+    private final long deletedExecutions;
+
+    public RetentionProgress(boolean running, String environment, ZonedDateTime started, ZonedDateTime finished,
+            long downsampledRuns, long droppedRuns, long deletedExecutions)
+    {
+        this.running = running;
+        this.environment = environment;
+        this.started = started;
+        this.finished = finished;
+        this.downsampledRuns = downsampledRuns;
+        this.droppedRuns = droppedRuns;
+        this.deletedExecutions = deletedExecutions;
+    }
+
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    public String getEnvironment()
+    {
+        return environment;
+    }
+
+    public ZonedDateTime getStarted()
+    {
+        return started;
+    }
+
+    public ZonedDateTime getFinished()
+    {
+        return finished;
+    }
+
+    public long getDownsampledRuns()
+    {
+        return downsampledRuns;
+    }
+
+    public long getDroppedRuns()
+    {
+        return droppedRuns;
+    }
+
+    public long getDeletedExecutions()
+    {
+        return deletedExecutions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("running", running)
+                .add("environment", environment)
+                .add("started", started)
+                .add("finished", finished)
+                .add("downsampledRuns", downsampledRuns)
+                .add("droppedRuns", droppedRuns)
+                .add("deletedExecutions", deletedExecutions)
+                .toString();
+    }
+}
@@ -43,7 +43,7 @@ public class Tag
     @Id
     @SequenceGenerator(name = "tags_id_seq",
             sequenceName = "tags_id_seq",
-            allocationSize = 1)
+            allocationSize = 50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE,
             generator = "tags_id_seq")
     @Column(name = "id")
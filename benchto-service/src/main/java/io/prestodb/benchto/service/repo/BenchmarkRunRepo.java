@@ -15,6 +15,9 @@ package io.prestodb.benchto.service.repo;
 
 import io.prestodb.benchto.service.model.BenchmarkRun;
 import io.prestodb.benchto.service.model.Environment;
+import io.prestodb.benchto.service.model.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -23,57 +26,75 @@ import org.springframework.stereotype.Repository;
 
 import javax.persistence.LockModeType;
 
-import java.sql.Timestamp;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BenchmarkRunRepo
         extends JpaRepository<BenchmarkRun, String>
 {
+    @EntityGraph(BenchmarkRun.INGESTION_GRAPH)
     BenchmarkRun findByUniqueNameAndSequenceId(String uniqueName, String sequenceId);
 
+    // scalar, so the run is not loaded into the persistence context before it is locked
+    @Query("SELECT br.status FROM BenchmarkRun br WHERE br.uniqueName = :uniqueName AND br.sequenceId = :sequenceId")
+    Status findStatusByUniqueNameAndSequenceId(@Param("uniqueName") String uniqueName, @Param("sequenceId") String sequenceId);
+
+    @EntityGraph(BenchmarkRun.INGESTION_GRAPH)
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     BenchmarkRun findForUpdateByUniqueNameAndSequenceId(String uniqueName, String sequenceId);
 
-    List<BenchmarkRun> findByUniqueNameAndEnvironmentOrderBySequenceIdDesc(String uniqueName, Environment environment);
+    @EntityGraph(BenchmarkRun.INGESTION_GRAPH)
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    BenchmarkRun findForShareByUniqueNameAndSequenceId(String uniqueName, String sequenceId);
+
+    @EntityGraph(BenchmarkRun.DETAIL_GRAPH)
+    BenchmarkRun findDetailByUniqueNameAndSequenceId(String uniqueName, String sequenceId);
+
+    @EntityGraph(BenchmarkRun.DETAIL_GRAPH)
+    List<BenchmarkRun> findDistinctByUniqueNameAndEnvironmentOrderBySequenceIdDesc(String uniqueName, Environment environment);
 
-    @Query(value = "" +
-            "WITH summary AS ( " +
-            "  SELECT " +
-            "    b.id, " +
-            "    b.name, " +
-            "    b.unique_name, " +
-            "    b.sequence_id, " +
-            "    b.status, " +
-            "    b.version, " +
-            "    b.started, " +
-            "    b.ended, " +
-            "    b.environment_id, " +
-            "    b.executions_mean_duration, " +
-            "    b.executions_stddev_duration, " +
-            "    rank() " +
-            "    OVER (PARTITION BY b.unique_name, b.environment_id " +
-            "      ORDER BY b.sequence_id DESC) AS rk " +
-            "  FROM benchmark_runs b " +
-            "  WHERE b.environment_id = :environment_id " +
+    // paging a query with fetched collections would be done in memory, so runs are paged by their sequence ids
+    @Query("SELECT br.sequenceId FROM BenchmarkRun br WHERE " +
+            "br.uniqueName = :uniqueName AND " +
+            "br.environment = :environment " +
+            "ORDER BY br.sequenceId DESC")
+    List<String> findSequenceIds(@Param("uniqueName") String uniqueName, @Param("environment") Environment environment, Pageable pageable);
+
+    // Hibernate cannot apply entity graphs to queries with subqueries, so the dashboard list fetch plan is spelled out here
+    @Query("SELECT DISTINCT br FROM BenchmarkRun br " +
+            "JOIN FETCH br.environment " +
+            "LEFT JOIN FETCH br.variables " +
+            "WHERE br.environment = :environment AND " +
+            "br.sequenceId = (" +
+            "  SELECT MAX(latest.sequenceId) FROM BenchmarkRun latest WHERE " +
+            "  latest.uniqueName = br.uniqueName AND " +
+            "  latest.environment = br.environment" +
             ") " +
-            "SELECT s.* " +
-            "FROM summary s " +
-            "WHERE s.rk = 1 " +
-            "ORDER BY s.started DESC ",
-            nativeQuery = true)
-    List<BenchmarkRun> findLatest(@Param("environment_id") long environmentId);
+            "ORDER BY br.started DESC")
+    List<BenchmarkRun> findLatest(@Param("environment") Environment environment);
 
+    @EntityGraph(BenchmarkRun.CLEANUP_GRAPH)
     @Query("SELECT br FROM BenchmarkRun br WHERE " +
             "br.status = 'STARTED' AND " +
             "br.started <= :startDate")
     List<BenchmarkRun> findStartedBefore(@Param("startDate") ZonedDateTime startDate);
 
-    @Query(value = "" +
-            "SELECT MAX(ended) " +
-            "FROM benchmark_runs " +
-            "WHERE unique_name = :uniqueName and status = 'ENDED'",
-            nativeQuery = true)
-    Timestamp findTimeOfLatestSuccessfulExecution(@Param("uniqueName") String uniqueName);
+    @Query("SELECT br.uniqueName, MAX(br.ended) FROM BenchmarkRun br WHERE " +
+            "br.uniqueName IN :uniqueNames AND " +
+            "br.status = 'ENDED' " +
+            "GROUP BY br.uniqueName")
+    List<Object[]> findTimesOfLatestSuccessfulExecutions(@Param("uniqueNames") Collection<String> uniqueNames);
+
+    // runs without executions have a negative mean duration
+    @Query("SELECT br.uniqueName, br.executionsMeanDuration FROM BenchmarkRun br WHERE " +
+            "br.uniqueName IN :uniqueNames AND " +
+            "br.environment = :environment AND " +
+            "br.status = 'ENDED' AND " +
+            "br.ended >= :endedAfter AND " +
+            "br.executionsMeanDuration >= 0 " +
+            "ORDER BY br.uniqueName, br.ended")
+    List<Object[]> findExecutionsMeanDurations(@Param("uniqueNames") Collection<String> uniqueNames, @Param("environment") Environment environment,
+            @Param("endedAfter") ZonedDateTime endedAfter);
 }
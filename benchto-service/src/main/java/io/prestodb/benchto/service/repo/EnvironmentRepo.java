@@ -14,12 +14,20 @@
 package io.prestodb.benchto.service.repo;
 
 import io.prestodb.benchto.service.model.Environment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface EnvironmentRepo
         extends JpaRepository<Environment, String>
 {
+    @EntityGraph(Environment.DETAIL_GRAPH)
     Environment findByName(String name);
+
+    @Override
+    @EntityGraph(Environment.DETAIL_GRAPH)
+    List<Environment> findAll();
 }
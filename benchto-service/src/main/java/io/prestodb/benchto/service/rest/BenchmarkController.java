@@ -14,27 +14,45 @@
 package io.prestodb.benchto.service.rest;
 
 import io.prestodb.benchto.service.BenchmarkService;
+import io.prestodb.benchto.service.MeasurementSeriesService;
 import io.prestodb.benchto.service.model.BenchmarkRun;
+import io.prestodb.benchto.service.model.BenchmarkRunExecution;
+import io.prestodb.benchto.service.model.ExecutionDurationSummary;
+import io.prestodb.benchto.service.model.MeasurementSeries;
+import io.prestodb.benchto.service.model.MeasurementSeries.Source;
 import io.prestodb.benchto.service.rest.requests.BenchmarkStartRequest;
 import io.prestodb.benchto.service.rest.requests.ExecutionStartRequest;
+import io.prestodb.benchto.service.rest.requests.FindBenchmarkRunsRequestItem;
 import io.prestodb.benchto.service.rest.requests.FinishRequest;
 import io.prestodb.benchto.service.rest.requests.GenerateBenchmarkNamesRequestItem;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static io.prestodb.benchto.service.utils.CollectionUtils.failSafeEmpty;
+import static io.prestodb.benchto.service.utils.TimeUtils.UTC_ZONE;
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
 
@@ -44,6 +62,12 @@ public class BenchmarkController
     @Autowired
     private BenchmarkService benchmarkService;
 
+    @Autowired
+    private MeasurementSeriesService measurementSeriesService;
+
+    @Value("${benchto.series.max-points:5000}")
+    private int maxSeriesPoints;
+
     @RequestMapping(value = "/v1/benchmark/generate-unique-names", method = POST)
     public List<String> generateUniqueBenchmarkNames(@RequestBody List<GenerateBenchmarkNamesRequestItem> generateItems)
     {
@@ -55,9 +79,15 @@ public class BenchmarkController
     @RequestMapping(value = "/v1/benchmark/get-successful-execution-ages", method = POST)
     public List<Duration> getExecutionAges(@RequestBody List<String> uniqueBenchmarkNames)
     {
-        return uniqueBenchmarkNames.stream()
-                .map(uniqueName -> benchmarkService.getSuccessfulExecutionAge(uniqueName))
-                .collect(toList());
+        return benchmarkService.getSuccessfulExecutionAges(uniqueBenchmarkNames);
+    }
+
+    @RequestMapping(value = "/v1/benchmark/get-execution-duration-summaries", method = POST)
+    public List<ExecutionDurationSummary> getExecutionDurationSummaries(
+            @RequestParam("environment") String environmentName,
+            @RequestBody List<String> uniqueBenchmarkNames)
+    {
+        return benchmarkService.getExecutionDurationSummaries(environmentName, uniqueBenchmarkNames);
     }
 
     @RequestMapping(value = "/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/start", method = POST)
@@ -117,22 +147,86 @@ public class BenchmarkController
                 failSafeEmpty(finishRequest.getAttributes()));
     }
 
+    @RequestMapping(value = "/v1/benchmark/get-runs", method = POST)
+    public List<BenchmarkRun> findBenchmarkRuns(@RequestBody List<FindBenchmarkRunsRequestItem> findItems)
+    {
+        return findItems.stream()
+                .map(requestItem -> benchmarkService.findBenchmarkRun(requestItem.getUniqueName(), requestItem.getSequenceId()))
+                .collect(toList());
+    }
+
     @RequestMapping(value = "/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", method = GET)
-    public BenchmarkRun findBenchmark(
+    public ResponseEntity<BenchmarkRun> findBenchmark(
             @PathVariable("uniqueName") String uniqueName,
-            @PathVariable("benchmarkSequenceId") String benchmarkSequenceId)
+            @PathVariable("benchmarkSequenceId") String benchmarkSequenceId,
+            HttpServletRequest request)
     {
-        return benchmarkService.findBenchmarkRun(uniqueName, benchmarkSequenceId);
+        BenchmarkRun benchmarkRun = benchmarkService.findBenchmarkRun(uniqueName, benchmarkSequenceId);
+
+        String entityTag = entityTag(benchmarkRun);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/" + entityTag);
+        // finished runs still change when an execution is reported late, so clients always revalidate with the entity tag
+        headers.setCacheControl("no-cache");
+
+        if (isNotModified(request, entityTag)) {
+            return new ResponseEntity<>(headers, NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(benchmarkRun, headers, OK);
+    }
+
+    /**
+     * The run version does not change when executions are added or finished, so their number and versions are included.
+     */
+    private static String entityTag(BenchmarkRun benchmarkRun)
+    {
+        long executionsVersion = benchmarkRun.getExecutions().stream()
+                .mapToLong(BenchmarkRunExecution::getVersion)
+                .sum();
+        return format("\"%d-%d-%d-%d\"", benchmarkRun.getId(), benchmarkRun.getVersion(), benchmarkRun.getExecutions().size(), executionsVersion);
+    }
+
+    /**
+     * No Last-Modified is sent, execution end times are reported by clients and executions can be deleted by downsampling,
+     * so no timestamp of the run reliably changes with its content. If-None-Match uses weak comparison.
+     */
+    private static boolean isNotModified(HttpServletRequest request, String entityTag)
+    {
+        String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        return ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(entityTag));
     }
 
     @RequestMapping(value = "/v1/benchmark/{uniqueName}", method = GET)
     public List<BenchmarkRun> findBenchmarks(
             @PathVariable("uniqueName") String uniqueName,
-            @RequestParam("environment") String environmentName)
+            @RequestParam("environment") String environmentName,
+            @RequestParam(value = "limit", required = false) Integer limit)
     {
+        if (limit != null) {
+            return benchmarkService.findBenchmark(uniqueName, environmentName, limit);
+        }
         return benchmarkService.findBenchmark(uniqueName, environmentName);
     }
 
+    @RequestMapping(value = "/v1/benchmark/{uniqueName}/series", method = GET)
+    public MeasurementSeries findMeasurementSeries(
+            @PathVariable("uniqueName") String uniqueName,
+            @RequestParam("environment") String environmentName,
+            @RequestParam("measurement") String measurementName,
+            @RequestParam(value = "source", defaultValue = "EXECUTIONS") Source source,
+            @RequestParam(required = false) ZonedDateTime start,
+            @RequestParam(required = false) ZonedDateTime end,
+            @RequestParam(value = "points", defaultValue = "500") int points)
+    {
+        if (start == null) {
+            start = Instant.EPOCH.atZone(UTC_ZONE);
+        }
+        if (end == null) {
+            end = currentDateTime();
+        }
+        return measurementSeriesService.findSeries(uniqueName, environmentName, measurementName, source, start, end, Math.min(points, maxSeriesPoints));
+    }
+
     @RequestMapping(value = "/v1/benchmark/latest/{environmentName}", method = GET)
     public List<BenchmarkRun> findLatestBenchmarkRuns(
             @PathVariable("environmentName") String environmentName)
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.rest;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.FinishedBenchmarkRunCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+@RestController
+public class CacheController
+{
+    @Autowired
+    private FinishedBenchmarkRunCache finishedBenchmarkRunCache;
+
+    @RequestMapping(value = "/v1/cache/finished-runs", method = GET)
+    public Map<String, Object> finishedRunsStats()
+    {
+        CacheStats stats = finishedBenchmarkRunCache.stats();
+        return ImmutableMap.<String, Object>builder()
+                .put("size", finishedBenchmarkRunCache.size())
+                .put("hitCount", stats.hitCount())
+                .put("missCount", stats.missCount())
+                .put("hitRate", stats.hitRate())
+                .put("evictionCount", stats.evictionCount())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.rest;
+
+import io.prestodb.benchto.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+import static io.prestodb.benchto.service.utils.TimeUtils.UTC_ZONE;
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+@RestController
+public class ExportController
+{
+    @Autowired
+    private ExportService exportService;
+
+    @RequestMapping(value = "/v1/export/{environmentName}/csv", method = GET)
+    public void exportCsv(
+            @PathVariable("environmentName") String environmentName,
+            @RequestParam(required = false) ZonedDateTime start,
+            @RequestParam(required = false) ZonedDateTime end,
+            HttpServletResponse response)
+            throws IOException
+    {
+        if (start == null) {
+            start = Instant.EPOCH.atZone(UTC_ZONE);
+        }
+        if (end == null) {
+            end = currentDateTime();
+        }
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + environmentName.replaceAll("[^A-Za-z0-9_-]", "_") + ".csv\"");
+        exportService.exportCsv(environmentName, start, end, response.getWriter());
+    }
+}
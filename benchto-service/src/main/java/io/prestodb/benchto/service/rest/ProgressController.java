@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.prestodb.benchto.service.EnvironmentService;
+import io.prestodb.benchto.service.ProgressEventBus;
+import io.prestodb.benchto.service.ProgressEventBus.Subscription;
+import io.prestodb.benchto.service.model.ProgressEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+/**
+ * Streams progress events of running benchmarks as server-sent events. Spring MVC of this version has no
+ * support for streaming responses, so the streams are served with plain servlet asynchronous requests,
+ * each written by its own thread until the client disconnects, the stream times out or the client is
+ * dropped for not keeping up. Clients are expected to reconnect and reload the state they display.
+ */
+@RestController
+public class ProgressController
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ProgressController.class);
+
+    private static final long RECONNECT_MILLIS = 5000;
+
+    @Autowired
+    private ProgressEventBus progressEventBus;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${benchto.progress.max-subscribers:100}")
+    private int maxSubscribers;
+
+    @Value("${benchto.progress.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${benchto.progress.stream-timeout-minutes:30}")
+    private long streamTimeoutMinutes;
+
+    private final ExecutorService streamExecutor = newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("progress-stream-%d")
+            .setDaemon(true)
+            .build());
+
+    @PreDestroy
+    public void shutdown()
+    {
+        streamExecutor.shutdownNow();
+    }
+
+    @RequestMapping(value = "/v1/environment/{environmentName}/progress", method = GET)
+    public void streamEnvironmentProgress(
+            @PathVariable("environmentName") String environmentName,
+            HttpServletRequest request,
+            HttpServletResponse response)
+            throws IOException
+    {
+        environmentService.findEnvironment(environmentName);
+        stream(request, response, event -> event.getEnvironmentName().equals(environmentName));
+    }
+
+    @RequestMapping(value = "/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/progress", method = GET)
+    public void streamBenchmarkRunProgress(
+            @PathVariable("uniqueName") String uniqueName,
+            @PathVariable("benchmarkSequenceId") String benchmarkSequenceId,
+            HttpServletRequest request,
+            HttpServletResponse response)
+            throws IOException
+    {
+        stream(request, response, event -> event.isForBenchmarkRun(uniqueName, benchmarkSequenceId));
+    }
+
+    private void stream(HttpServletRequest request, HttpServletResponse response, Predicate<ProgressEvent> filter)
+            throws IOException
+    {
+        if (progressEventBus.getSubscriberCount() >= maxSubscribers) {
+            response.sendError(SC_SERVICE_UNAVAILABLE, "Too many progress streams");
+            return;
+        }
+
+        response.setContentType("text/event-stream;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // proxies buffering the response would hold the events back
+        response.setHeader("X-Accel-Buffering", "no");
+
+        Subscription subscription = progressEventBus.subscribe(filter);
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(MINUTES.toMillis(streamTimeoutMinutes));
+        asyncContext.addListener(new AsyncListener()
+        {
+            @Override
+            public void onComplete(AsyncEvent event)
+            {
+                subscription.close();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event)
+            {
+                subscription.close();
+                event.getAsyncContext().complete();
+            }
+
+            @Override
+            public void onError(AsyncEvent event)
+            {
+                subscription.close();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event)
+            {
+            }
+        });
+        streamExecutor.execute(() -> writeEvents(subscription, asyncContext));
+    }
+
+    private void writeEvents(Subscription subscription, AsyncContext asyncContext)
+    {
+        try {
+            PrintWriter writer = asyncContext.getResponse().getWriter();
+            writer.write("retry: " + RECONNECT_MILLIS + "\n\n");
+            writer.flush();
+            // the servlet writer does not throw, a failed write means the client is gone
+            while (!writer.checkError()) {
+                ProgressEvent event = subscription.poll(heartbeatSeconds, SECONDS);
+                if (!subscription.isActive()) {
+                    if (subscription.isDropped()) {
+                        writer.write("event: dropped\ndata:\n\n");
+                        writer.flush();
+                    }
+                    break;
+                }
+                if (event != null) {
+                    writer.write("id: " + event.getId() + "\n");
+                    writer.write("event: " + event.getType().getEventName() + "\n");
+                    writer.write("data: " + objectMapper.writeValueAsString(event) + "\n\n");
+                }
+                else {
+                    writer.write(": heartbeat\n\n");
+                }
+                writer.flush();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.debug("Progress stream failed", e);
+        }
+        finally {
+            subscription.close();
+            try {
+                asyncContext.complete();
+            }
+            catch (IllegalStateException e) {
+                // already completed on timeout or error
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service.rest.requests;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.NotNull;
+
+public class FindBenchmarkRunsRequestItem
+{
+    @NotNull
+    private final String uniqueName;
+    @NotNull
+    private final String sequenceId;
+
+    @JsonCreator
+    public FindBenchmarkRunsRequestItem(@JsonProperty("uniqueName") String uniqueName, @JsonProperty("sequenceId") String sequenceId)
+    {
+        this.uniqueName = uniqueName;
+        this.sequenceId = sequenceId;
+    }
+
+    public String getUniqueName()
+    {
+        return uniqueName;
+    }
+
+    public String getSequenceId()
+    {
+        return sequenceId;
+    }
+}
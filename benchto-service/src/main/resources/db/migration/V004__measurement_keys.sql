@@ -0,0 +1,64 @@
+CREATE TABLE measurement_keys
+(
+  id   SERIAL PRIMARY KEY NOT NULL,
+  name VARCHAR(64)        NOT NULL,
+  unit VARCHAR(16)        NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_uk_measurement_keys_name_unit ON measurement_keys (name, unit);
+
+INSERT INTO measurement_keys (name, unit)
+  SELECT DISTINCT
+    name,
+    unit
+  FROM measurements
+  ORDER BY name, unit;
+
+CREATE TABLE execution_measurement_values
+(
+  execution_id       BIGINT           NOT NULL,
+  measurement_key_id INT              NOT NULL,
+  value              DOUBLE PRECISION NOT NULL
+);
+
+INSERT INTO execution_measurement_values (execution_id, measurement_key_id, value)
+  SELECT DISTINCT ON (em.execution_id, k.id)
+    em.execution_id,
+    k.id,
+    m.value
+  FROM execution_measurements em
+    INNER JOIN measurements m ON m.id = em.measurement_id
+    INNER JOIN measurement_keys k ON k.name = m.name AND k.unit = m.unit
+  ORDER BY em.execution_id, k.id, m.id DESC;
+
+CREATE TABLE benchmark_run_measurement_values
+(
+  benchmark_run_id   BIGINT           NOT NULL,
+  measurement_key_id INT              NOT NULL,
+  value              DOUBLE PRECISION NOT NULL
+);
+
+INSERT INTO benchmark_run_measurement_values (benchmark_run_id, measurement_key_id, value)
+  SELECT DISTINCT ON (bm.benchmark_run_id, k.id)
+    bm.benchmark_run_id,
+    k.id,
+    m.value
+  FROM benchmark_run_measurements bm
+    INNER JOIN measurements m ON m.id = bm.measurement_id
+    INNER JOIN measurement_keys k ON k.name = m.name AND k.unit = m.unit
+  ORDER BY bm.benchmark_run_id, k.id, m.id DESC;
+
+DROP TABLE execution_measurements;
+DROP TABLE benchmark_run_measurements;
+DROP TABLE measurements;
+
+ALTER TABLE execution_measurement_values RENAME TO execution_measurements;
+ALTER TABLE benchmark_run_measurement_values RENAME TO benchmark_run_measurements;
+
+ALTER TABLE execution_measurements ADD PRIMARY KEY (execution_id, measurement_key_id);
+ALTER TABLE execution_measurements ADD FOREIGN KEY (execution_id) REFERENCES executions (id);
+ALTER TABLE execution_measurements ADD FOREIGN KEY (measurement_key_id) REFERENCES measurement_keys (id);
+
+ALTER TABLE benchmark_run_measurements ADD PRIMARY KEY (benchmark_run_id, measurement_key_id);
+ALTER TABLE benchmark_run_measurements ADD FOREIGN KEY (benchmark_run_id) REFERENCES benchmark_runs (id);
+ALTER TABLE benchmark_run_measurements ADD FOREIGN KEY (measurement_key_id) REFERENCES measurement_keys (id);
@@ -0,0 +1,5 @@
+ALTER SEQUENCE benchmark_runs_id_seq INCREMENT BY 50;
+ALTER SEQUENCE executions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE environments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tags_id_seq INCREMENT BY 50;
+ALTER SEQUENCE measurement_keys_id_seq INCREMENT BY 50;
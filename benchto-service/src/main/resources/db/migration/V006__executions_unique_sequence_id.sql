@@ -0,0 +1,3 @@
+DROP INDEX idx_executions_benchmark_run_id;
+
+CREATE UNIQUE INDEX idx_uk_executions_benchmark_run_id_seq_id ON executions (benchmark_run_id, sequence_id);
@@ -0,0 +1,18 @@
+ALTER TABLE benchmark_runs ADD COLUMN executions_downsampled BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE benchmark_run_aggregated_measurements
+(
+  benchmark_run_id   BIGINT           NOT NULL,
+  measurement_key_id INT              NOT NULL,
+  min                DOUBLE PRECISION NOT NULL,
+  max                DOUBLE PRECISION NOT NULL,
+  mean               DOUBLE PRECISION NOT NULL,
+  stddev             DOUBLE PRECISION NOT NULL,
+  stddev_percent     DOUBLE PRECISION NOT NULL,
+  PRIMARY KEY (benchmark_run_id, measurement_key_id)
+);
+
+ALTER TABLE benchmark_run_aggregated_measurements ADD FOREIGN KEY (benchmark_run_id) REFERENCES benchmark_runs (id);
+ALTER TABLE benchmark_run_aggregated_measurements ADD FOREIGN KEY (measurement_key_id) REFERENCES measurement_keys (id);
+
+CREATE INDEX idx_benchmark_runs_environment_id_started ON benchmark_runs (environment_id, started);
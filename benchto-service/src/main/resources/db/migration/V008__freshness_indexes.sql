@@ -0,0 +1,4 @@
+-- runs still in progress are a small fraction of the table, only they are of interest to the cleaner
+CREATE INDEX idx_benchmark_runs_started_running ON benchmark_runs (started) WHERE status = 'STARTED';
+
+CREATE INDEX idx_benchmark_runs_unique_name_status_ended ON benchmark_runs (unique_name, status, ended);
@@ -15,8 +15,8 @@
     'use strict';
 
     angular.module('benchmarkServiceUI.controllers', ['benchmarkServiceUI.services', 'nvd3', 'datatables', 'datatables.colvis', 'datatables.bootstrap', 'ngSanitize', 'ngCsv'])
-        .controller('BenchmarkListCtrl', ['$scope', '$routeParams', '$location', 'BenchmarkService', 'CartCompareService', 'DTOptionsBuilder', 'DTColumnDefBuilder',
-            function ($scope, $routeParams, $location, BenchmarkService, CartCompareService, DTOptionsBuilder, DTColumnDefBuilder) {
+        .controller('BenchmarkListCtrl', ['$scope', '$routeParams', '$location', 'BenchmarkService', 'CartCompareService', 'ProgressService', 'DTOptionsBuilder', 'DTColumnDefBuilder',
+            function ($scope, $routeParams, $location, BenchmarkService, CartCompareService, ProgressService, DTOptionsBuilder, DTColumnDefBuilder) {
 
                 $scope.environmentName = $routeParams.environmentName
 
@@ -67,6 +67,38 @@
                         $scope.latestBenchmarkRuns = latestBenchmarkRuns;
                     });
 
+                // listed benchmarks follow their runs, benchmarks run for the first time show up on reload
+                var findListedBenchmarkRun = function (event) {
+                    return _.findWhere($scope.latestBenchmarkRuns, {uniqueName: event.uniqueName});
+                };
+                var progressStream = ProgressService.subscribeEnvironment($scope.environmentName, {
+                    'run-started': function (event) {
+                        var benchmarkRun = findListedBenchmarkRun(event);
+                        if (benchmarkRun) {
+                            benchmarkRun.sequenceId = event.sequenceId;
+                            benchmarkRun.status = event.status;
+                            benchmarkRun.started = event.timestamp * 1000;
+                            benchmarkRun.executionsMeanDuration = -1;
+                        }
+                    },
+                    'run-finished': function (event) {
+                        if (!findListedBenchmarkRun(event)) {
+                            return;
+                        }
+                        BenchmarkService.loadBenchmarkRun(event.uniqueName, event.sequenceId)
+                            .then(function (finishedBenchmarkRun) {
+                                var benchmarkRun = findListedBenchmarkRun(event);
+                                benchmarkRun.sequenceId = finishedBenchmarkRun.sequenceId;
+                                benchmarkRun.status = finishedBenchmarkRun.status;
+                                benchmarkRun.executionsMeanDuration = finishedBenchmarkRun.executionsMeanDuration;
+                                benchmarkRun.executionStdDevDuration = finishedBenchmarkRun.executionStdDevDuration;
+                            });
+                    }
+                });
+                $scope.$on('$destroy', function () {
+                    progressStream.close();
+                });
+
                 $scope.$on('cart:added', function (event, benchmarkRun) {
                     CartHelper.toggleCartAddedFlag(CartCompareService, $scope.latestBenchmarkRuns, benchmarkRun, true);
                 });
@@ -108,8 +140,11 @@
                     }
                 };
             }])
-        .controller('BenchmarkCtrl', ['$scope', '$routeParams', '$location', '$filter', 'BenchmarkService', 'CartCompareService', 'TagService',
-            function ($scope, $routeParams, $location, $filter, BenchmarkService, CartCompareService, TagService) {
+        .controller('BenchmarkCtrl', ['$scope', '$routeParams', '$location', '$filter', '$timeout', 'BenchmarkService', 'CartCompareService', 'TagService',
+            function ($scope, $routeParams, $location, $filter, $timeout, BenchmarkService, CartCompareService, TagService) {
+                var LATEST_RUNS_LIMIT = 50;
+                var SERIES_POINTS = 300;
+
                 $scope.uniqueName = $routeParams.uniqueName;
                 $scope.environmentName = $routeParams.environment;
 
@@ -132,50 +167,104 @@
                     CartHelper.updateBenchmarkCartSelection(CartCompareService, benchmarkRun);
                 };
 
-                BenchmarkService.loadBenchmark($routeParams.uniqueName, $routeParams.environment)
+                var loadMeasurementChart = function (measurementKey, order, source, tags, charts) {
+                    var loadSeries = function (start, end) {
+                        return BenchmarkService.loadMeasurementSeries($routeParams.uniqueName, $routeParams.environment, measurementKey, source,
+                            start, end, SERIES_POINTS);
+                    };
+                    loadSeries().then(function (series) {
+                        if (series.points.length > 0) {
+                            var chart = new MeasurementSeriesChart(series, tags, loadSeries, $filter, $location, $timeout);
+                            chart.order = order;
+                            charts.push(chart);
+                            // series arrive in any order
+                            charts.sort(function (a, b) { return a.order - b.order; });
+                        }
+                    });
+                };
+
+                // only the latest runs are listed, the charts are drawn from downsampled series of the whole history
+                BenchmarkService.loadBenchmark($routeParams.uniqueName, $routeParams.environment, LATEST_RUNS_LIMIT)
                     .then(function (runs) {
                         $scope.benchmarkRuns = runs;
 
                         CartHelper.setCartAddedFlag(CartCompareService, runs);
 
-                        // filter out benchmark runs which have not finished
-                        var benchmarkRuns = _.filter(runs.slice().reverse(), function (benchmarkRun) {
-                            return benchmarkRun.status === 'ENDED';
-                        });
-
-                        if (benchmarkRuns.length > 0) {
-                            var start = benchmarkRuns[0].started;
-                            var end = benchmarkRuns[benchmarkRuns.length - 1].stated;
-                            TagService.loadTags($routeParams.environment, start, end)
-                                .then(function(tags) {
-                                    var benchmarkRunsHelper = new BenchmarkRunsHelper(benchmarkRuns, tags);
-                                    $scope.aggregatedExecutionsMeasurementGraphsData = benchmarkRunsHelper.aggregatedExecutionsMeasurementGraphsData('lineChart', $filter, $location);
-                                    $scope.benchmarkMeasurementGraphsData = benchmarkRunsHelper.benchmarkMeasurementGraphsData('lineChart', $filter, $location);
-
-                                    for (var benchmarkRun in $scope.benchmarkRuns) {
-                                        for (var tag in tags) {
-                                            if ($scope.benchmarkRuns[benchmarkRun].started >= tags[tag].created) {
-                                                $scope.benchmarkRuns[benchmarkRun].tag = tags[tag];
-                                            } else if ($scope.benchmarkRuns[benchmarkRun].started < tags[tag].created) {
-                                                break;
-                                            }
+                        var benchmarkRunsHelper = new BenchmarkRunsHelper(runs, []);
+                        TagService.loadTags($routeParams.environment)
+                            .then(function (tags) {
+                                $scope.aggregatedExecutionsMeasurementGraphsData = [];
+                                $scope.benchmarkMeasurementGraphsData = [];
+                                _.each(benchmarkRunsHelper.aggregatedExecutionsMeasurementKeys(), function (measurementKey, order) {
+                                    loadMeasurementChart(measurementKey, order, 'EXECUTIONS', tags, $scope.aggregatedExecutionsMeasurementGraphsData);
+                                });
+                                _.each(benchmarkRunsHelper.benchmarkMeasurementKeys(), function (measurementKey, order) {
+                                    loadMeasurementChart(measurementKey, order, 'BENCHMARK', tags, $scope.benchmarkMeasurementGraphsData);
+                                });
+
+                                for (var benchmarkRun in $scope.benchmarkRuns) {
+                                    for (var tag in tags) {
+                                        if ($scope.benchmarkRuns[benchmarkRun].started >= tags[tag].created) {
+                                            $scope.benchmarkRuns[benchmarkRun].tag = tags[tag];
+                                        } else if ($scope.benchmarkRuns[benchmarkRun].started < tags[tag].created) {
+                                            break;
                                         }
                                     }
-                                })
-                        }
+                                }
+                            });
                     });
             }])
-        .controller('BenchmarkRunCtrl', ['$scope', '$routeParams', '$modal', 'BenchmarkService', 'CartCompareService', 'TagService',
-            function ($scope, $routeParams, $modal, BenchmarkService, CartCompareService, TagService) {
-                BenchmarkService.loadBenchmarkRun($routeParams.uniqueName, $routeParams.benchmarkSequenceId)
-                    .then(function (benchmarkRun) {
-                        $scope.benchmarkRun = benchmarkRun;
-
-                        TagService.loadLatest(benchmarkRun.environment.name, benchmarkRun.started)
-                            .then(function(tag) {
-                                $scope.tag = tag;
-                            })
+        .controller('BenchmarkRunCtrl', ['$scope', '$routeParams', '$modal', 'BenchmarkService', 'CartCompareService', 'TagService', 'ProgressService',
+            function ($scope, $routeParams, $modal, BenchmarkService, CartCompareService, TagService, ProgressService) {
+                var progressStream;
+
+                var closeProgressStream = function () {
+                    if (progressStream) {
+                        progressStream.close();
+                        progressStream = undefined;
+                    }
+                };
+
+                var loadBenchmarkRun = function () {
+                    BenchmarkService.loadBenchmarkRun($routeParams.uniqueName, $routeParams.benchmarkSequenceId)
+                        .then(function (benchmarkRun) {
+                            $scope.benchmarkRun = benchmarkRun;
+                            if (benchmarkRun.status === 'STARTED') {
+                                openProgressStream();
+                            }
+                            else {
+                                closeProgressStream();
+                            }
+
+                            if (!$scope.tag) {
+                                TagService.loadLatest(benchmarkRun.environment.name, benchmarkRun.started)
+                                    .then(function(tag) {
+                                        $scope.tag = tag;
+                                    });
+                            }
+                        });
+                };
+
+                // executions of a running benchmark are updated as they are reported, a finished run is
+                // reloaded for its aggregated measurements, as is the whole run when events have been missed
+                var openProgressStream = function () {
+                    if (progressStream) {
+                        return;
+                    }
+                    var applyExecutionProgress = function (event) {
+                        BenchmarkService.applyExecutionProgress($scope.benchmarkRun, event);
+                    };
+                    progressStream = ProgressService.subscribeBenchmarkRun($routeParams.uniqueName, $routeParams.benchmarkSequenceId, {
+                        'execution-started': applyExecutionProgress,
+                        'execution-finished': applyExecutionProgress,
+                        'run-finished': loadBenchmarkRun,
+                        'reconnected': loadBenchmarkRun
                     });
+                };
+
+                $scope.$on('$destroy', closeProgressStream);
+
+                loadBenchmarkRun();
 
                 $scope.benchmarkFromParam = function (benchmarkRun) {
                     return benchmarkRun.started - 10 * 1000; // 10 seconds before start
@@ -273,22 +362,14 @@
                     return benchmarkRun.sequenceId;
                 });
 
-                $scope.benchmarkRuns = [];
-                for (var i in sequenceIds) {
-                    BenchmarkService.loadBenchmarkRun(names[i], sequenceIds[i])
-                        .then(function (benchmarkRun) {
-                            $scope.benchmarkRuns.push(benchmarkRun);
-                            prepareCsv();
-                        });
-                }
-                console.log("x " + $scope.benchmarkRuns );
-
                 var csvDataDefer = $q.defer();
-                var prepareCsv = function () {
-                    if (sequenceIds.length != $scope.benchmarkRuns.length) {
-                        return; // not all benchmarkRuns are loaded yet
-                    }
+                BenchmarkService.loadBenchmarkRuns(names, sequenceIds)
+                    .then(function (benchmarkRuns) {
+                        $scope.benchmarkRuns = benchmarkRuns;
+                        prepareCsv();
+                    });
 
+                var prepareCsv = function () {
                     $scope.benchmarkRuns = _.sortBy($scope.benchmarkRuns, function(run) {
                        return run.uniqueName + run.sequence_id;
                     })
@@ -361,26 +442,14 @@
             if (benchmarkUniqueNames.length != sequenceIds.length) {
                 throw new Error('Expected the same number of benchmark run names and sequence ids.');
             }
-            for (var i in sequenceIds) {
-                BenchmarkService.loadBenchmarkRun(benchmarkUniqueNames[i], sequenceIds[i])
-                    .then(function (benchmarkRun) {
-                        $scope.benchmarkRuns.push(benchmarkRun);
-                        prepareChartData();
-                    });
-            }
+            // runs are returned in the requested order
+            BenchmarkService.loadBenchmarkRuns(benchmarkUniqueNames, sequenceIds)
+                .then(function (benchmarkRuns) {
+                    $scope.benchmarkRuns = benchmarkRuns;
+                    prepareChartData();
+                });
 
             var prepareChartData = function () {
-                if (sequenceIds.length != $scope.benchmarkRuns.length) {
-                    return; // not all benchmarkRuns are loaded yet
-                }
-
-                // sort benchmarkRuns to match requested order
-                var tmpBenchmarkRuns = $scope.benchmarkRuns;
-                $scope.benchmarkRuns = [];
-                for (var i in sequenceIds) {
-                    $scope.benchmarkRuns.push(_.findWhere(tmpBenchmarkRuns, {uniqueName: benchmarkUniqueNames[i], sequenceId: sequenceIds[i]}))
-                }
-
                 var benchmarkRunsHelper = new BenchmarkRunsHelper($scope.benchmarkRuns, []);
                 $scope.aggregatedExecutionsMeasurementGraphsData = benchmarkRunsHelper.aggregatedExecutionsMeasurementGraphsData('multiBarChart', $filter, $location);
                 $scope.benchmarkMeasurementGraphsData = benchmarkRunsHelper.benchmarkMeasurementGraphsData('multiBarChart', $filter, $location);
@@ -27,8 +27,8 @@
                 });
             };
 
-            var postProcessBenchmarkRun = function (benchmarkRun) {
-                benchmarkRun.executions = _.sortBy(benchmarkRun.executions, function (execution) {
+            var sortExecutions = function (executions) {
+                return _.sortBy(executions, function (execution) {
                     var sequenceId = execution.sequenceId;
                     var length = sequenceId.length;
                     if (length == 1) {
@@ -44,6 +44,10 @@
                         throw 'Too long sequence to be well sorted: ' + sequenceId;
                     }
                 });
+            };
+
+            var postProcessBenchmarkRun = function (benchmarkRun) {
+                benchmarkRun.executions = sortExecutions(benchmarkRun.executions);
                 benchmarkRun.measurements = sortMeasurements(benchmarkRun.measurements);
                 _.each(benchmarkRun.executions, function (execution) {
                     execution.measurements = sortMeasurements(execution.measurements);
@@ -69,13 +73,36 @@
                     });
                     return deferredBenchmark.promise;
                 },
-                loadBenchmark: function (uniqueName, environmentName) {
+                loadBenchmarkRuns: function (uniqueNames, benchmarkSequenceIds) {
+                    var deferredBenchmarks = $q.defer();
+                    $http({
+                        method: 'POST',
+                        url: '/v1/benchmark/get-runs',
+                        data: _.map(uniqueNames, function (uniqueName, i) {
+                            return {
+                                uniqueName: uniqueName,
+                                sequenceId: benchmarkSequenceIds[i]
+                            };
+                        })
+                    }).then(function (response) {
+                        var benchmarkRuns = response.data;
+                        benchmarkRuns.forEach(function (benchmarkRun) {
+                            postProcessBenchmarkRun(benchmarkRun);
+                        });
+                        deferredBenchmarks.resolve(benchmarkRuns);
+                    }, function (reason) {
+                        deferredBenchmarks.reject(reason);
+                    });
+                    return deferredBenchmarks.promise;
+                },
+                loadBenchmark: function (uniqueName, environmentName, limit) {
                     var deferredBenchmark = $q.defer();
                     $http({
                         method: 'GET',
                         url: '/v1/benchmark/' + uniqueName,
                         params: {
-                            environment: environmentName
+                            environment: environmentName,
+                            limit: limit
                         }
                     }).then(function (response) {
                         var runs = response.data;
@@ -88,6 +115,32 @@
                     });
                     return deferredBenchmark.promise;
                 },
+                loadMeasurementSeries: function (uniqueName, environmentName, measurementName, source, start, end, points) {
+                    var deferredSeries = $q.defer();
+                    $http({
+                        method: 'GET',
+                        url: '/v1/benchmark/' + uniqueName + '/series',
+                        params: {
+                            environment: environmentName,
+                            measurement: measurementName,
+                            source: source,
+                            start: start,
+                            end: end,
+                            points: points
+                        }
+                    }).then(function (response) {
+                        var series = response.data;
+                        series.uniqueName = uniqueName;
+                        _.each(series.points, function (point) {
+                            // convert to angular date filter consumable format
+                            point.started = point.started * 1000;
+                        });
+                        deferredSeries.resolve(series);
+                    }, function (reason) {
+                        deferredSeries.reject(reason);
+                    });
+                    return deferredSeries.promise;
+                },
                 loadLatestBenchmarkRuns: function (environmentName) {
                     var deferredBenchmarks = $q.defer();
                     $http({
@@ -103,6 +156,50 @@
                         deferredBenchmarks.reject(reason);
                     });
                     return deferredBenchmarks.promise;
+                },
+                applyExecutionProgress: function (benchmarkRun, event) {
+                    var execution = _.findWhere(benchmarkRun.executions, {sequenceId: event.executionSequenceId});
+                    if (!execution) {
+                        execution = {sequenceId: event.executionSequenceId, attributes: {}, measurements: []};
+                        benchmarkRun.executions = sortExecutions(benchmarkRun.executions.concat([execution]));
+                    }
+                    execution.status = event.status;
+                    _.extend(execution.attributes, event.attributes);
+                    if (event.measurements.length > 0) {
+                        execution.measurements = sortMeasurements(event.measurements);
+                    }
+                }
+            };
+        }])
+        .factory('ProgressService', ['$rootScope', function ($rootScope) {
+            // progress streams are server-sent events, the browser reconnects a stream closed by the service on its own,
+            // the 'reconnected' listener is then called so that events missed in the meantime can be caught up on
+            var subscribe = function (url, listeners) {
+                var eventSource = new EventSource(url);
+                var connected = false;
+                eventSource.addEventListener('open', function () {
+                    if (connected && listeners.reconnected) {
+                        $rootScope.$apply(listeners.reconnected);
+                    }
+                    connected = true;
+                });
+                _.each(_.omit(listeners, 'reconnected'), function (listener, eventName) {
+                    eventSource.addEventListener(eventName, function (message) {
+                        var event = message.data ? JSON.parse(message.data) : {};
+                        $rootScope.$apply(function () {
+                            listener(event);
+                        });
+                    });
+                });
+                return eventSource;
+            };
+
+            return {
+                subscribeBenchmarkRun: function (uniqueName, benchmarkSequenceId, listeners) {
+                    return subscribe('/v1/benchmark/' + uniqueName + '/' + benchmarkSequenceId + '/progress', listeners);
+                },
+                subscribeEnvironment: function (environmentName, listeners) {
+                    return subscribe('/v1/environment/' + environmentName + '/progress', listeners);
                 }
             };
         }])
@@ -284,6 +284,188 @@ var BenchmarkRunsHelper = function (benchmarkRuns, tags) {
     return this;
 };
 
+/*
+ * Chart of a single measurement of a benchmark over time, drawn from downsampled series served by the benchmark
+ * service. The whole history is loaded at a coarse resolution and the range selected in the focus chart is then
+ * reloaded at full resolution, so the number of points drawn does not depend on the number of benchmark runs.
+ */
+var MeasurementSeriesChart = function (series, tags, loadSeries, $filter, $location, $timeout) {
+    'use strict';
+
+    var RELOAD_DELAY_MILLIS = 300;
+
+    var self = this;
+    var coarsePoints = series.points;
+    var fineRange = null;
+    var pendingReload = null;
+    var lastRequest = 0;
+
+    this.name = series.name;
+    this.source = series.source;
+
+    var seriesKeys = series.source === 'EXECUTIONS' ? ['mean', 'min', 'max', 'stdDev'] : ['mean'];
+
+    var dataFor = function (points) {
+        var data = _.map(seriesKeys, function (key) {
+            return {
+                key: series.source === 'EXECUTIONS' ? key : 'value',
+                values: _.map(points, function (point) {
+                    return [point.started, point[key], point];
+                })
+            };
+        });
+        var tagValues = _.chain(tags)
+            .filter(function (tag) {
+                return points.length > 0 && tag.created >= points[0].started && tag.created <= points[points.length - 1].started;
+            })
+            .map(function (tag) {
+                return [tag.created, 0, tag];
+            })
+            .value();
+        if (tagValues.length > 0) {
+            data.push({key: 'tag', values: tagValues, strokeWidth: 0.1});
+        }
+        return data;
+    };
+
+    // points of a finer series replace the coarse ones within its range
+    var mergePoints = function (finePoints, start, end) {
+        return _.sortBy(_.filter(coarsePoints, function (point) {
+            return point.started < start || point.started >= end;
+        }).concat(finePoints), 'started');
+    };
+
+    var reload = function (start, end) {
+        var request = ++lastRequest;
+        loadSeries(start, end).then(function (fineSeries) {
+            if (request === lastRequest) {
+                fineRange = [start, end];
+                self.data = dataFor(mergePoints(fineSeries.points, start, end));
+            }
+        });
+    };
+
+    var onBrush = function (e) {
+        if (pendingReload) {
+            $timeout.cancel(pendingReload);
+            pendingReload = null;
+        }
+        if (e.brush.empty()) {
+            if (fineRange) {
+                fineRange = null;
+                ++lastRequest;
+                pendingReload = $timeout(function () {
+                    self.data = dataFor(coarsePoints);
+                }, 0);
+            }
+            return;
+        }
+        var start = Math.floor(+e.extent[0]);
+        var end = Math.ceil(+e.extent[1]) + 1;
+        // the brush is also dispatched whenever the chart is redrawn with new data
+        if (fineRange && fineRange[0] === start && fineRange[1] === end) {
+            return;
+        }
+        pendingReload = $timeout(function () {
+            reload(start, end);
+        }, RELOAD_DELAY_MILLIS);
+    };
+
+    var maxY = _.max(_.map(coarsePoints, function (point) {
+        return series.source === 'EXECUTIONS' ? point.max : point.mean;
+    }));
+    var filteredMaxYWithUnit = series.name == 'duration' ? $filter('duration')(maxY) : $filter('unit')(maxY, series.unit);
+    var valueScaleFactor = maxY > 0 ? parseFloat(filteredMaxYWithUnit) / maxY : 1;
+    var unit = filteredMaxYWithUnit.split(' ')[1];
+
+    var yAxisTickFormat = function (d) {
+        return d3.format('.01f')(d);
+    };
+    var scaleYValue = function (d) {
+        return d[1] * valueScaleFactor;
+    };
+    var dateFormat = function (d) {
+        return $filter('date')(d, 'yyyy-MM-dd HH:mm');
+    };
+    var onElementClick = function (e) {
+        var point = e.point && e.point[2];
+        // buckets of several runs are explored by zooming in
+        if (!point || point.runs !== 1) {
+            return;
+        }
+        var angular_root_element = document.getElementById('angular_root_element');
+        angular.element(angular_root_element).scope().$apply(function () {
+            $location.path('benchmark/' + series.uniqueName + '/' + point.firstSequenceId);
+        });
+    };
+
+    this.data = dataFor(coarsePoints);
+    this.options = {
+        chart: {
+            type: 'lineWithFocusChart',
+            height: 300,
+            width: null,
+            x: function (d) {
+                return d[0];
+            },
+            y: scaleYValue,
+            yAxis: {
+                axisLabel: unit,
+                tickFormat: yAxisTickFormat
+            },
+            xAxis: {
+                tickFormat: dateFormat
+            },
+            x2Axis: {
+                tickFormat: dateFormat
+            },
+            tooltip: {
+                enabled: true,
+                contentGenerator: function (obj) {
+                    return Jaml.render('series_tooltip', {
+                        point: obj.point[2],
+                        series: obj.series,
+                        value: yAxisTickFormat(scaleYValue(obj.point)) + ' ' + unit,
+                        dateFormat: dateFormat
+                    });
+                }
+            },
+            lines: {
+                dispatch: {
+                    elementClick: onElementClick
+                }
+            },
+            dispatch: {
+                brush: onBrush
+            }
+        },
+        title: {
+            enable: true,
+            text: series.name
+        }
+    };
+
+    return this;
+};
+
+Jaml.register('series_tooltip', function(params) {
+    var point = params.point;
+    var header;
+    if (params.series.key == 'tag') {
+        header = "Tag: " + point.name;
+    }
+    else if (point.runs === 1) {
+        header = params.dateFormat(point.started) + " (" + point.firstSequenceId + ")";
+    }
+    else {
+        header = params.dateFormat(point.started) + " (" + point.runs + " runs: " + point.firstSequenceId + " - " + point.lastSequenceId + ")";
+    }
+    table(
+        thead(tr(td({colspan: 2}, strong({class: 'x-value'}, header)))),
+        tbody(params.series.key == 'tag' ? '' : Jaml.render('tooltip_entry', {key: params.series.key, value: params.value}))
+    )
+});
+
 Jaml.register('tooltip_entry', function(entry) {
     tr(td(entry.key), td(entry.value));
 });
@@ -13,6 +13,7 @@
  */
 package io.prestodb.benchto.service;
 
+import com.google.common.collect.ImmutableList;
 import io.prestodb.benchto.service.category.IntegrationTest;
 import io.prestodb.benchto.service.model.BenchmarkRun;
 import io.prestodb.benchto.service.model.BenchmarkRunExecution;
@@ -33,14 +34,22 @@ import static io.prestodb.benchto.service.model.Status.ENDED;
 import static io.prestodb.benchto.service.model.Status.FAILED;
 import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
 import static java.lang.String.format;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MODIFIED_SINCE;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.LAST_MODIFIED;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -54,6 +63,9 @@ public class BenchmarkControllerTest
     @Autowired
     private EnvironmentRepo environmentRepo;
 
+    @Autowired
+    private FinishedBenchmarkRunCache finishedBenchmarkRunCache;
+
     @Test
     public void testBenchmarkStartEndHappyPath()
             throws Exception
@@ -235,6 +247,154 @@ public class BenchmarkControllerTest
         });
     }
 
+    @Test
+    public void testFinishedBenchmarkRunCache()
+            throws Exception
+    {
+        String uniqueName = "cachedBenchmark";
+        String benchmarkSequenceId = "cachedBenchmarkSequenceId";
+        String environmentName = "cachedEnvironment";
+
+        mvc.perform(post("/v1/environment/{environmentName}", environmentName)
+                .contentType(APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/start", uniqueName, benchmarkSequenceId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"name\": \"" + uniqueName + "\", \"environmentName\": \"" + environmentName + "\", \"variables\":{}}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", uniqueName, benchmarkSequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"attributes\": {}}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/finish", uniqueName, benchmarkSequenceId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"ENDED\"}"))
+                .andExpect(status().isOk());
+
+        long hitCount = finishedBenchmarkRunCache.stats().hitCount();
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, benchmarkSequenceId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status", is("ENDED")))
+                    .andExpect(jsonPath("$.executions[0].status", is("STARTED")));
+        }
+        mvc.perform(get("/v1/cache/finished-runs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount", is((int) hitCount + 1)));
+
+        // execution reported after the benchmark has finished invalidates the cached run
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", uniqueName, benchmarkSequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"ENDED\", \"measurements\": [{\"name\": \"duration\", \"value\": 100, \"unit\": \"MILLISECONDS\"}]}"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, benchmarkSequenceId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executions[0].status", is("ENDED")))
+                .andExpect(jsonPath("$.aggregatedMeasurements.duration.mean", is(100.0)));
+    }
+
+    @Test
+    public void testBenchmarkRunHttpCaching()
+            throws Exception
+    {
+        String uniqueName = "httpCachedBenchmark";
+        String environmentName = "httpCachedEnvironment";
+
+        mvc.perform(post("/v1/environment/{environmentName}", environmentName)
+                .contentType(APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isOk());
+        for (String benchmarkSequenceId : ImmutableList.of("0", "1")) {
+            mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/start", uniqueName, benchmarkSequenceId)
+                    .contentType(APPLICATION_JSON)
+                    .content("{\"name\": \"" + uniqueName + "\", \"environmentName\": \"" + environmentName + "\", \"variables\":{}}"))
+                    .andExpect(status().isOk());
+        }
+
+        String entityTag = mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, "0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CACHE_CONTROL, "no-cache"))
+                .andExpect(header().doesNotExist(LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(ETAG);
+        mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, "0")
+                .header(IF_NONE_MATCH, entityTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/finish", uniqueName, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"ENDED\"}"))
+                .andExpect(status().isOk());
+        String finishedEntityTag = mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, "0")
+                .header(IF_NONE_MATCH, entityTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, not(entityTag)))
+                .andExpect(header().string(CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.status", is("ENDED")))
+                .andReturn().getResponse().getHeader(ETAG);
+        mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, "0")
+                .header(IF_NONE_MATCH, finishedEntityTag))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(post("/v1/benchmark/get-runs")
+                .contentType(APPLICATION_JSON)
+                .content("[{\"uniqueName\": \"" + uniqueName + "\", \"sequenceId\": \"1\"}, {\"uniqueName\": \"" + uniqueName + "\", \"sequenceId\": \"0\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].sequenceId", is("1")))
+                .andExpect(jsonPath("$[0].status", is("STARTED")))
+                .andExpect(jsonPath("$[1].sequenceId", is("0")))
+                .andExpect(jsonPath("$[1].status", is("ENDED")));
+    }
+
+    @Test
+    public void testLateBackdatedExecutionChangesRun()
+            throws Exception
+    {
+        String uniqueName = "lateExecutionBenchmark";
+        String environmentName = "lateExecutionEnvironment";
+        String benchmarkSequenceId = "0";
+
+        mvc.perform(post("/v1/environment/{environmentName}", environmentName)
+                .contentType(APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/start", uniqueName, benchmarkSequenceId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"name\": \"" + uniqueName + "\", \"environmentName\": \"" + environmentName + "\", \"variables\":{}}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/finish", uniqueName, benchmarkSequenceId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"ENDED\"}"))
+                .andExpect(status().isOk());
+        String entityTag = mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, benchmarkSequenceId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(ETAG);
+        String fetched = RFC_1123_DATE_TIME.format(currentDateTime().plusMinutes(1));
+
+        // execution reported after the run was fetched, with an end time before the run ended
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", uniqueName, benchmarkSequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"attributes\": {}}"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", uniqueName, benchmarkSequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"ENDED\", \"endTime\": " + toJsonRepresentation(currentDateTime().minusHours(1).toInstant()) + "}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, benchmarkSequenceId)
+                .header(IF_MODIFIED_SINCE, fetched))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executions", hasSize(1)));
+        mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName, benchmarkSequenceId)
+                .header(IF_NONE_MATCH, entityTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, not(entityTag)))
+                .andExpect(jsonPath("$.executions", hasSize(1)));
+    }
+
     private static String toJsonRepresentation(Instant instant)
     {
         return format("%d.%03d", instant.getEpochSecond(), instant.toEpochMilli() % 1000);
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import io.prestodb.benchto.service.model.BenchmarkRun;
+import io.prestodb.benchto.service.model.Measurement;
+import io.prestodb.benchto.service.model.MeasurementUnit;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static io.prestodb.benchto.service.model.MeasurementUnit.BYTES;
+import static io.prestodb.benchto.service.model.MeasurementUnit.MILLISECONDS;
+import static io.prestodb.benchto.service.model.MeasurementUnit.NONE;
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static io.prestodb.benchto.service.utils.BenchmarkUniqueNameUtils.generateBenchmarkUniqueName;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ingests a benchmark run shaped like a Presto benchmark (9 measurements per execution) and
+ * reports write and read throughput. The number of executions and the number of concurrently
+ * reporting clients can be raised with the {@code benchto.ingestion.executions} and
+ * {@code benchto.ingestion.concurrency} system properties for manual benchmarking, and the
+ * test can be run against PostgreSQL, see the README of the module.
+ */
+@Category(IntegrationTest.class)
+public class BenchmarkIngestionTest
+        extends IntegrationTestBase
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BenchmarkIngestionTest.class);
+
+    private static final int EXECUTIONS = Integer.getInteger("benchto.ingestion.executions", 200);
+    private static final int CONCURRENCY = Integer.getInteger("benchto.ingestion.concurrency", 8);
+    private static final int READS = 10;
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Test
+    public void ingestAndReadBenchmarkRun()
+    {
+        String environmentName = "ingestion";
+        String name = "ingestion";
+        String uniqueName = generateBenchmarkUniqueName(name, ImmutableMap.of());
+        String sequenceId = "ingestion-" + System.nanoTime();
+
+        environmentService.storeEnvironment(environmentName, ImmutableMap.of());
+        benchmarkService.startBenchmarkRun(uniqueName, name, sequenceId, Optional.of(environmentName), ImmutableMap.of(), ImmutableMap.of());
+
+        Stopwatch writeStopwatch = Stopwatch.createStarted();
+        for (int execution = 0; execution < EXECUTIONS; execution++) {
+            String executionSequenceId = Integer.toString(execution);
+            benchmarkService.startExecution(uniqueName, sequenceId, executionSequenceId, ImmutableMap.of("prestoQueryId", "query_" + execution));
+            benchmarkService.finishExecution(uniqueName, sequenceId, executionSequenceId, ENDED, Optional.empty(), executionMeasurements(execution), ImmutableMap.of());
+        }
+        benchmarkService.finishBenchmarkRun(uniqueName, sequenceId, ENDED, Optional.empty(), ImmutableList.of(), ImmutableMap.of());
+        long writeMillis = writeStopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+        Stopwatch readStopwatch = Stopwatch.createStarted();
+        for (int read = 0; read < READS; read++) {
+            List<BenchmarkRun> benchmarkRuns = benchmarkService.findBenchmark(uniqueName, environmentName);
+            BenchmarkRun benchmarkRun = benchmarkRuns.stream()
+                    .filter(run -> run.getSequenceId().equals(sequenceId))
+                    .findAny()
+                    .get();
+            assertThat(benchmarkRun.getExecutions()).hasSize(EXECUTIONS);
+            assertThat(benchmarkRun.getAggregatedMeasurements()).hasSize(9);
+        }
+        long readMillis = readStopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+        LOG.info("Ingested {} executions in {} ms ({} executions/s), read run {} times in {} ms ({} ms/read)",
+                EXECUTIONS, writeMillis, EXECUTIONS * 1000L / Math.max(writeMillis, 1), READS, readMillis, readMillis / READS);
+    }
+
+    @Test
+    public void ingestBenchmarkRunConcurrently()
+            throws Exception
+    {
+        String environmentName = "ingestion";
+        String name = "concurrent-ingestion";
+        String uniqueName = generateBenchmarkUniqueName(name, ImmutableMap.of());
+        String sequenceId = "concurrent-ingestion-" + System.nanoTime();
+
+        environmentService.storeEnvironment(environmentName, ImmutableMap.of());
+        benchmarkService.startBenchmarkRun(uniqueName, name, sequenceId, Optional.of(environmentName), ImmutableMap.of(), ImmutableMap.of());
+
+        ExecutorService executor = newFixedThreadPool(CONCURRENCY);
+        try {
+            Stopwatch writeStopwatch = Stopwatch.createStarted();
+            List<Future<?>> futures = IntStream.range(0, EXECUTIONS)
+                    .mapToObj(execution -> executor.submit(() -> {
+                        String executionSequenceId = Integer.toString(execution);
+                        // started twice, as a retried client request would do
+                        benchmarkService.startExecution(uniqueName, sequenceId, executionSequenceId, ImmutableMap.of());
+                        benchmarkService.startExecution(uniqueName, sequenceId, executionSequenceId, ImmutableMap.of());
+                        benchmarkService.finishExecution(uniqueName, sequenceId, executionSequenceId, ENDED, Optional.empty(), executionMeasurements(execution), ImmutableMap.of());
+                    }))
+                    .collect(toList());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            benchmarkService.finishBenchmarkRun(uniqueName, sequenceId, ENDED, Optional.empty(), ImmutableList.of(), ImmutableMap.of());
+            long writeMillis = writeStopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+            LOG.info("Ingested {} executions from {} clients in {} ms ({} executions/s)",
+                    EXECUTIONS, CONCURRENCY, writeMillis, EXECUTIONS * 1000L / Math.max(writeMillis, 1));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        BenchmarkRun benchmarkRun = benchmarkService.findBenchmarkRun(uniqueName, sequenceId);
+        assertThat(benchmarkRun.getExecutions()).hasSize(EXECUTIONS);
+        assertThat(benchmarkRun.getExecutions()).extracting("status").containsOnly(ENDED);
+        assertThat(benchmarkRun.getExecutionsMeanDuration()).isEqualTo(1000 + (EXECUTIONS - 1) / 2.0);
+    }
+
+    @Test
+    public void finishLateExecutionsConcurrently()
+            throws Exception
+    {
+        String environmentName = "ingestion";
+        String name = "late-ingestion";
+        String uniqueName = generateBenchmarkUniqueName(name, ImmutableMap.of());
+        String sequenceId = "late-ingestion-" + System.nanoTime();
+        int executions = CONCURRENCY * 4;
+
+        environmentService.storeEnvironment(environmentName, ImmutableMap.of());
+        benchmarkService.startBenchmarkRun(uniqueName, name, sequenceId, Optional.of(environmentName), ImmutableMap.of(), ImmutableMap.of());
+        for (int execution = 0; execution < executions; execution++) {
+            benchmarkService.startExecution(uniqueName, sequenceId, Integer.toString(execution), ImmutableMap.of());
+        }
+        benchmarkService.finishBenchmarkRun(uniqueName, sequenceId, ENDED, Optional.empty(), ImmutableList.of(), ImmutableMap.of());
+
+        // every late execution re-aggregates the finished run
+        ExecutorService executor = newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = IntStream.range(0, executions)
+                    .mapToObj(execution -> executor.submit(() -> benchmarkService.finishExecution(uniqueName, sequenceId, Integer.toString(execution), ENDED,
+                            Optional.empty(), executionMeasurements(execution), ImmutableMap.of())))
+                    .collect(toList());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        BenchmarkRun benchmarkRun = benchmarkService.findBenchmarkRun(uniqueName, sequenceId);
+        assertThat(benchmarkRun.getExecutions()).extracting("status").containsOnly(ENDED);
+        assertThat(benchmarkRun.getExecutionsMeanDuration()).isEqualTo(1000 + (executions - 1) / 2.0);
+    }
+
+    private static List<Measurement> executionMeasurements(int execution)
+    {
+        return ImmutableList.of(
+                measurement("duration", MILLISECONDS, 1000 + execution),
+                measurement("prestoQuery-wallTime", MILLISECONDS, 900 + execution),
+                measurement("prestoQuery-analysisTime", MILLISECONDS, 10),
+                measurement("prestoQuery-planningTime", MILLISECONDS, 20),
+                measurement("prestoQuery-totalScheduledTime", MILLISECONDS, 5000),
+                measurement("prestoQuery-totalCpuTime", MILLISECONDS, 4000),
+                measurement("prestoQuery-totalBlockedTime", MILLISECONDS, 300),
+                measurement("prestoQuery-rawInputDataSize", BYTES, 1024 * 1024),
+                measurement("prestoQuery-processedInputPositions", NONE, 100_000));
+    }
+
+    private static Measurement measurement(String name, MeasurementUnit unit, double value)
+    {
+        return new Measurement(name, unit, value);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import io.prestodb.benchto.service.model.ExecutionDurationSummary;
+import io.prestodb.benchto.service.model.Measurement;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.prestodb.benchto.service.model.MeasurementUnit.MILLISECONDS;
+import static io.prestodb.benchto.service.model.Status.CANCELLED;
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static io.prestodb.benchto.service.model.Status.FAILED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Category(IntegrationTest.class)
+public class ExecutionDurationSummaryTest
+        extends IntegrationTestBase
+{
+    private static final String ENVIRONMENT_NAME = "duration-summary";
+    private static final String OTHER_ENVIRONMENT_NAME = "duration-summary-other";
+    private static final String BENCHMARK_NAME = "duration_summary";
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Test
+    public void summarizeExecutionDurations()
+            throws Exception
+    {
+        environmentService.storeEnvironment(ENVIRONMENT_NAME, ImmutableMap.of());
+        environmentService.storeEnvironment(OTHER_ENVIRONMENT_NAME, ImmutableMap.of());
+
+        // runs of the benchmark: 100 ms, failed, 200 ms, 600 ms and one on another environment
+        createBenchmarkRun(ENVIRONMENT_NAME, BENCHMARK_NAME, "1", ENDED, 0, 90, 110);
+        createBenchmarkRun(ENVIRONMENT_NAME, BENCHMARK_NAME, "2", FAILED, 0, 1000);
+        createBenchmarkRun(ENVIRONMENT_NAME, BENCHMARK_NAME, "3", ENDED, 0, 200);
+        // cancelled at the query timeout, not taken into account
+        benchmarkService.startExecution(BENCHMARK_NAME, "3", "1", ImmutableMap.of());
+        benchmarkService.finishExecution(BENCHMARK_NAME, "3", "1", CANCELLED, Optional.empty(),
+                ImmutableList.of(new Measurement("duration", MILLISECONDS, 5000)), ImmutableMap.of());
+        createBenchmarkRun(ENVIRONMENT_NAME, BENCHMARK_NAME, "4", ENDED, 0, 500, 700);
+        createBenchmarkRun(OTHER_ENVIRONMENT_NAME, BENCHMARK_NAME, "5", ENDED, 0, 10000);
+
+        List<ExecutionDurationSummary> summaries = benchmarkService.getExecutionDurationSummaries(ENVIRONMENT_NAME, ImmutableList.of("never_run", BENCHMARK_NAME));
+        assertThat(summaries).hasSize(2);
+
+        ExecutionDurationSummary neverRun = summaries.get(0);
+        assertThat(neverRun.getUniqueName()).isEqualTo("never_run");
+        assertThat(neverRun.getRuns()).isEqualTo(0);
+
+        ExecutionDurationSummary summary = summaries.get(1);
+        assertThat(summary.getUniqueName()).isEqualTo(BENCHMARK_NAME);
+        assertThat(summary.getRuns()).isEqualTo(3);
+        assertThat(summary.getMeanDuration()).isEqualTo(300.0);
+        assertThat(summary.getLatestMeanDuration()).isEqualTo(600.0);
+        assertThat(summary.getPreviousMeanDuration()).isEqualTo(150.0);
+
+        mvc.perform(post("/v1/benchmark/get-execution-duration-summaries")
+                .param("environment", OTHER_ENVIRONMENT_NAME)
+                .contentType(APPLICATION_JSON)
+                .content("[\"" + BENCHMARK_NAME + "\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uniqueName", is(BENCHMARK_NAME)))
+                .andExpect(jsonPath("$[0].runs", is(1)))
+                .andExpect(jsonPath("$[0].meanDuration", is(10000.0)))
+                .andExpect(jsonPath("$[0].previousMeanDuration", is(0.0)));
+    }
+}
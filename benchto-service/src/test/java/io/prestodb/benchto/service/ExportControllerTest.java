@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import io.prestodb.benchto.service.model.Measurement;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.prestodb.benchto.service.model.MeasurementUnit.BYTES;
+import static io.prestodb.benchto.service.model.MeasurementUnit.MILLISECONDS;
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static io.prestodb.benchto.service.model.Status.FAILED;
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Category(IntegrationTest.class)
+public class ExportControllerTest
+        extends IntegrationTestBase
+{
+    private static final String ENVIRONMENT_NAME = "export";
+    private static final String DOWNSAMPLED_ENVIRONMENT_NAME = "export_downsampled";
+    private static final String QUOTED_BENCHMARK_NAME = "\"export, \"\"quoted\"\"\"";
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Test
+    public void exportCsv()
+            throws Exception
+    {
+        environmentService.storeEnvironment(ENVIRONMENT_NAME, ImmutableMap.of());
+        String uniqueName = benchmarkService.generateUniqueBenchmarkName("export, \"quoted\"", ImmutableMap.of());
+        benchmarkService.startBenchmarkRun(uniqueName, "export, \"quoted\"", "0", Optional.of(ENVIRONMENT_NAME), ImmutableMap.of(), ImmutableMap.of());
+        benchmarkService.startExecution(uniqueName, "0", "0", ImmutableMap.of());
+        benchmarkService.finishExecution(uniqueName, "0", "0", ENDED, Optional.empty(),
+                ImmutableList.of(new Measurement("duration", MILLISECONDS, 100), new Measurement("bytes", BYTES, 1024)), ImmutableMap.of());
+        benchmarkService.startExecution(uniqueName, "0", "1", ImmutableMap.of());
+        benchmarkService.finishExecution(uniqueName, "0", "1", FAILED, Optional.empty(), ImmutableList.of(), ImmutableMap.of());
+        benchmarkService.finishBenchmarkRun(uniqueName, "0", ENDED, Optional.empty(), ImmutableList.of(new Measurement("meanDuration", MILLISECONDS, 100)), ImmutableMap.of());
+
+        String csv = mvc.perform(get("/v1/export/{environmentName}/csv", ENVIRONMENT_NAME)
+                .param("end", Long.toString(currentDateTime().toInstant().toEpochMilli() + 1)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = ImmutableList.copyOf(csv.split("\r\n"));
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0)).startsWith("benchmark_unique_name,benchmark_sequence_id,benchmark_name,");
+        for (String line : lines.subList(1, 5)) {
+            assertThat(line).startsWith(uniqueName + ",0," + QUOTED_BENCHMARK_NAME + ",ENDED,");
+        }
+        assertThat(lines.subList(1, 3).stream().map(ExportControllerTest::executionAndMeasurement).collect(toList()))
+                .containsOnly("EXECUTION,0,ENDED,duration,MILLISECONDS,100.0", "EXECUTION,0,ENDED,bytes,BYTES,1024.0");
+        assertThat(executionAndMeasurement(lines.get(3))).isEqualTo("EXECUTION,1,FAILED,,,");
+        assertThat(executionAndMeasurement(lines.get(4))).isEqualTo("BENCHMARK,,,meanDuration,MILLISECONDS,100.0");
+
+        String emptyRange = mvc.perform(get("/v1/export/{environmentName}/csv", ENVIRONMENT_NAME)
+                .param("end", "0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(emptyRange.split("\r\n")).hasSize(1);
+    }
+
+    @Test
+    public void exportDownsampledRuns()
+            throws Exception
+    {
+        environmentService.storeEnvironment(DOWNSAMPLED_ENVIRONMENT_NAME, ImmutableMap.of());
+        createBenchmarkRun(DOWNSAMPLED_ENVIRONMENT_NAME, "downsampled", "0", ENDED, 40, 100, 101, 102);
+        retentionService.applyRetentionPolicies();
+
+        String csv = mvc.perform(get("/v1/export/{environmentName}/csv", DOWNSAMPLED_ENVIRONMENT_NAME))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = ImmutableList.copyOf(csv.split("\r\n"));
+        assertThat(lines).hasSize(4);
+        assertThat(executionAndMeasurement(lines.get(1))).isEqualTo("BENCHMARK,,,,,");
+        assertThat(executionAndMeasurement(lines.get(2))).isEqualTo("BENCHMARK,,,meanDuration,MILLISECONDS,101.0");
+        assertThat(lines.get(3)).contains(",AGGREGATED,,,,,duration,MILLISECONDS,,100.0,102.0,101.0,1.0,");
+    }
+
+    private static String executionAndMeasurement(String line)
+    {
+        List<String> columns = ImmutableList.copyOf(line.replace(QUOTED_BENCHMARK_NAME, "name").split(",", -1));
+        return Joiner.on(',').join(columns.get(6), columns.get(7), columns.get(8), columns.get(11), columns.get(12), columns.get(13));
+    }
+}
@@ -13,7 +13,13 @@
  */
 package io.prestodb.benchto.service;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.prestodb.benchto.service.category.IntegrationTest;
+import io.prestodb.benchto.service.model.BenchmarkRun;
+import io.prestodb.benchto.service.model.Measurement;
+import io.prestodb.benchto.service.model.Status;
+import io.prestodb.benchto.service.repo.BenchmarkRunRepo;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -28,6 +34,12 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.Arrays;
+import java.util.Optional;
+
+import static io.prestodb.benchto.service.model.MeasurementUnit.MILLISECONDS;
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @Category(IntegrationTest.class)
@@ -42,6 +54,12 @@ public class IntegrationTestBase
     @Autowired
     private PlatformTransactionManager transactionManager;
 
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private BenchmarkRunRepo benchmarkRunRepo;
+
     protected MockMvc mvc;
 
     @Before
@@ -65,4 +83,26 @@ public class IntegrationTestBase
             return new Object();
         });
     }
+
+    /**
+     * Creates a run finished with the given status, with an ended execution for each of the durations and their mean as
+     * the meanDuration run measurement. The run is back-dated to have started the given number of days ago.
+     */
+    protected void createBenchmarkRun(String environmentName, String uniqueName, String sequenceId, Status status, int startedDaysAgo, double... durations)
+    {
+        benchmarkService.startBenchmarkRun(uniqueName, uniqueName, sequenceId, Optional.of(environmentName), ImmutableMap.of(), ImmutableMap.of());
+        for (int execution = 0; execution < durations.length; execution++) {
+            String executionSequenceId = Integer.toString(execution);
+            benchmarkService.startExecution(uniqueName, sequenceId, executionSequenceId, ImmutableMap.of());
+            benchmarkService.finishExecution(uniqueName, sequenceId, executionSequenceId, ENDED, Optional.empty(),
+                    ImmutableList.of(new Measurement("duration", MILLISECONDS, durations[execution])), ImmutableMap.of());
+        }
+        double meanDuration = Arrays.stream(durations).average().orElse(0);
+        benchmarkService.finishBenchmarkRun(uniqueName, sequenceId, status, Optional.empty(),
+                ImmutableList.of(new Measurement("meanDuration", MILLISECONDS, meanDuration)), ImmutableMap.of());
+        withinTransaction(() -> {
+            BenchmarkRun benchmarkRun = benchmarkRunRepo.findByUniqueNameAndSequenceId(uniqueName, sequenceId);
+            benchmarkRun.setStarted(currentDateTime().minusDays(startedDaysAgo));
+        });
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Category(IntegrationTest.class)
+public class MeasurementSeriesTest
+        extends IntegrationTestBase
+{
+    private static final String ENVIRONMENT_NAME = "series";
+    private static final String BENCHMARK_NAME = "series";
+    private static final int RUNS = 10;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Test
+    public void findMeasurementSeries()
+            throws Exception
+    {
+        environmentService.storeEnvironment(ENVIRONMENT_NAME, ImmutableMap.of());
+        // started every 5 days from 52 to 7 days ago, the first 5 runs are downsampled by the 30 days policy
+        for (int run = 0; run < RUNS; run++) {
+            createBenchmarkRun(ENVIRONMENT_NAME, BENCHMARK_NAME, Integer.toString(run), ENDED, 52 - run * 5, 100 + run, 101 + run, 102 + run);
+        }
+        retentionService.applyRetentionPolicies();
+        assertThat(retentionService.getProgress().getDownsampledRuns()).isEqualTo(5);
+
+        mvc.perform(get("/v1/benchmark/{uniqueName}/series", BENCHMARK_NAME)
+                .param("environment", ENVIRONMENT_NAME)
+                .param("measurement", "duration")
+                .param("points", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unit", is("MILLISECONDS")))
+                .andExpect(jsonPath("$.runs", is(RUNS)))
+                .andExpect(jsonPath("$.points", hasSize(RUNS)))
+                .andExpect(jsonPath("$.points[0].firstSequenceId", is("0")))
+                .andExpect(jsonPath("$.points[0].min", is(100.0)))
+                .andExpect(jsonPath("$.points[0].max", is(102.0)))
+                .andExpect(jsonPath("$.points[0].mean", is(101.0)))
+                .andExpect(jsonPath("$.points[0].stdDev", is(1.0)))
+                .andExpect(jsonPath("$.points[9].firstSequenceId", is("9")))
+                .andExpect(jsonPath("$.points[9].mean", is(110.0)))
+                .andExpect(jsonPath("$.points[9].stdDev", is(1.0)));
+
+        mvc.perform(get("/v1/benchmark/{uniqueName}/series", BENCHMARK_NAME)
+                .param("environment", ENVIRONMENT_NAME)
+                .param("measurement", "duration")
+                .param("points", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runs", is(RUNS)))
+                .andExpect(jsonPath("$.points", hasSize(2)))
+                .andExpect(jsonPath("$.points[0].runs", is(5)))
+                .andExpect(jsonPath("$.points[0].firstSequenceId", is("0")))
+                .andExpect(jsonPath("$.points[0].lastSequenceId", is("4")))
+                .andExpect(jsonPath("$.points[0].min", is(100.0)))
+                .andExpect(jsonPath("$.points[0].max", is(106.0)))
+                .andExpect(jsonPath("$.points[0].mean", is(103.0)))
+                .andExpect(jsonPath("$.points[1].runs", is(5)))
+                .andExpect(jsonPath("$.points[1].min", is(105.0)))
+                .andExpect(jsonPath("$.points[1].max", is(111.0)))
+                .andExpect(jsonPath("$.points[1].mean", is(108.0)));
+
+        mvc.perform(get("/v1/benchmark/{uniqueName}/series", BENCHMARK_NAME)
+                .param("environment", ENVIRONMENT_NAME)
+                .param("measurement", "meanDuration")
+                .param("source", "BENCHMARK")
+                .param("start", Long.toString(currentDateTime().minusDays(20).toInstant().toEpochMilli())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runs", is(3)))
+                .andExpect(jsonPath("$.points[0].firstSequenceId", is("7")))
+                .andExpect(jsonPath("$.points[0].mean", is(108.0)))
+                .andExpect(jsonPath("$.points[0].stdDev", is(0.0)));
+
+        mvc.perform(get("/v1/benchmark/{uniqueName}/series", BENCHMARK_NAME)
+                .param("environment", ENVIRONMENT_NAME)
+                .param("measurement", "unknown"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runs", is(0)))
+                .andExpect(jsonPath("$.points", hasSize(0)));
+
+        mvc.perform(get("/v1/benchmark/{uniqueName}", BENCHMARK_NAME)
+                .param("environment", ENVIRONMENT_NAME)
+                .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].sequenceId", is("9")))
+                .andExpect(jsonPath("$[2].sequenceId", is("7")));
+    }
+}
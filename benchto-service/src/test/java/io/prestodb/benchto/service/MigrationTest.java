@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import io.prestodb.benchto.service.category.IntegrationTest;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.MapEntry.entry;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Applies the migrations to a schema with existing benchmark results and checks the migrated rows. Migrations are
+ * written for PostgreSQL, so the test runs only when a PostgreSQL database is given with the
+ * {@code benchto.test.postgresql.url} system property, its schema is dropped and recreated by the test.
+ */
+@Category(IntegrationTest.class)
+public class MigrationTest
+{
+    private static final String URL = System.getProperty("benchto.test.postgresql.url");
+    private static final String USER = System.getProperty("benchto.test.postgresql.user", "postgres");
+    private static final String PASSWORD = System.getProperty("benchto.test.postgresql.password", "postgres");
+
+    private Flyway flyway;
+
+    @Before
+    public void setUp()
+    {
+        assumeTrue("benchto.test.postgresql.url is not set", URL != null);
+        flyway = new Flyway();
+        flyway.setDataSource(URL, USER, PASSWORD);
+        flyway.clean();
+    }
+
+    @Test
+    public void measurementsAreMovedToMeasurementKeys()
+            throws SQLException
+    {
+        migrateTo("3");
+        execute(
+                "INSERT INTO environments (id, name, version, started) VALUES (1, 'env', 0, now())",
+                "INSERT INTO benchmark_runs (id, name, unique_name, sequence_id, started, ended, version, environment_id, status) " +
+                        "VALUES (1, 'benchmark', 'benchmark', '1', now(), now(), 0, 1, 'ENDED')",
+                "INSERT INTO executions (id, sequence_id, benchmark_run_id, started, ended, version, status) VALUES (1, '0', 1, now(), now(), 0, 'ENDED')",
+                "INSERT INTO executions (id, sequence_id, benchmark_run_id, started, ended, version, status) VALUES (2, '1', 1, now(), now(), 0, 'ENDED')",
+                "INSERT INTO measurements (id, name, unit, value) VALUES (1, 'duration', 'MILLISECONDS', 100)",
+                "INSERT INTO measurements (id, name, unit, value) VALUES (2, 'bytes', 'BYTES', 1024)",
+                "INSERT INTO measurements (id, name, unit, value) VALUES (3, 'duration', 'MILLISECONDS', 200)",
+                // reported twice for the same execution, the later measurement is kept
+                "INSERT INTO measurements (id, name, unit, value) VALUES (4, 'duration', 'MILLISECONDS', 250)",
+                "INSERT INTO measurements (id, name, unit, value) VALUES (5, 'throughput', 'QUERY_PER_SECOND', 7.5)",
+                "INSERT INTO execution_measurements (execution_id, measurement_id) VALUES (1, 1)",
+                "INSERT INTO execution_measurements (execution_id, measurement_id) VALUES (1, 2)",
+                "INSERT INTO execution_measurements (execution_id, measurement_id) VALUES (2, 3)",
+                "INSERT INTO execution_measurements (execution_id, measurement_id) VALUES (2, 4)",
+                "INSERT INTO benchmark_run_measurements (benchmark_run_id, measurement_id) VALUES (1, 5)");
+
+        migrateTo("5");
+
+        assertThat(queryMap("SELECT name || ':' || unit, 0 FROM measurement_keys").keySet())
+                .containsOnly("bytes:BYTES", "duration:MILLISECONDS", "throughput:QUERY_PER_SECOND");
+        assertThat(queryMap("SELECT em.execution_id || ':' || k.name, em.value FROM execution_measurements em " +
+                "JOIN measurement_keys k ON k.id = em.measurement_key_id"))
+                .containsOnly(entry("1:duration", 100.0), entry("1:bytes", 1024.0), entry("2:duration", 250.0));
+        assertThat(queryMap("SELECT bm.benchmark_run_id || ':' || k.name, bm.value FROM benchmark_run_measurements bm " +
+                "JOIN measurement_keys k ON k.id = bm.measurement_key_id"))
+                .containsOnly(entry("1:throughput", 7.5));
+        assertThat(queryMap("SELECT sequence_name, CAST(increment AS DOUBLE PRECISION) FROM information_schema.sequences"))
+                .containsOnly(
+                        entry("benchmark_runs_id_seq", 50.0),
+                        entry("executions_id_seq", 50.0),
+                        entry("environments_id_seq", 50.0),
+                        entry("tags_id_seq", 50.0),
+                        entry("measurement_keys_id_seq", 50.0));
+
+        // remaining migrations apply on top of the migrated data
+        flyway.setTarget(MigrationVersion.LATEST);
+        flyway.migrate();
+        assertThat(queryMap("SELECT execution_id || ':' || measurement_key_id, value FROM execution_measurements")).hasSize(3);
+    }
+
+    private void migrateTo(String version)
+    {
+        flyway.setTarget(MigrationVersion.fromVersion(version));
+        flyway.migrate();
+    }
+
+    private void execute(String... statements)
+            throws SQLException
+    {
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+                Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private Map<String, Double> queryMap(String sql)
+            throws SQLException
+    {
+        Map<String, Double> rows = new LinkedHashMap<>();
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                rows.put(resultSet.getString(1), resultSet.getDouble(2));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.ProgressEventBus.Subscription;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import io.prestodb.benchto.service.model.Measurement;
+import io.prestodb.benchto.service.model.ProgressEvent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Optional;
+
+import static io.prestodb.benchto.service.model.MeasurementUnit.MILLISECONDS;
+import static io.prestodb.benchto.service.model.ProgressEvent.Type.EXECUTION_STARTED;
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static io.prestodb.benchto.service.model.Status.STARTED;
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@Category(IntegrationTest.class)
+public class ProgressControllerTest
+        extends IntegrationTestBase
+{
+    private static final String ENVIRONMENT_NAME = "progress";
+    private static final String BENCHMARK_NAME = "progress";
+    private static final long TIMEOUT_MILLIS = SECONDS.toMillis(10);
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Autowired
+    private ProgressEventBus progressEventBus;
+
+    @Value("${benchto.progress.subscriber-buffer-size}")
+    private int subscriberBufferSize;
+
+    @Test
+    public void streamProgress()
+            throws Exception
+    {
+        environmentService.storeEnvironment(ENVIRONMENT_NAME, ImmutableMap.of());
+        MvcResult environmentStream = mvc.perform(get("/v1/environment/{environmentName}/progress", ENVIRONMENT_NAME))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult benchmarkRunStream = mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/progress", BENCHMARK_NAME, "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        try {
+            assertThat(benchmarkRunStream.getResponse().getContentType()).startsWith("text/event-stream");
+            assertThat(progressEventBus.getSubscriberCount()).isEqualTo(2);
+
+            benchmarkService.startBenchmarkRun(BENCHMARK_NAME, BENCHMARK_NAME, "1", Optional.of(ENVIRONMENT_NAME), ImmutableMap.of(), ImmutableMap.of());
+            benchmarkService.startBenchmarkRun(BENCHMARK_NAME, BENCHMARK_NAME, "2", Optional.of(ENVIRONMENT_NAME), ImmutableMap.of(), ImmutableMap.of());
+            benchmarkService.startExecution(BENCHMARK_NAME, "1", "0", ImmutableMap.of("queryId", "query_0"));
+            benchmarkService.finishExecution(BENCHMARK_NAME, "1", "0", ENDED, Optional.empty(),
+                    ImmutableList.of(new Measurement("duration", MILLISECONDS, 100)), ImmutableMap.of());
+            benchmarkService.finishBenchmarkRun(BENCHMARK_NAME, "1", ENDED, Optional.empty(), ImmutableList.of(), ImmutableMap.of());
+
+            awaitUntil(() -> content(benchmarkRunStream).contains("event: run-finished"));
+            String benchmarkRunEvents = content(benchmarkRunStream);
+            assertThat(benchmarkRunEvents)
+                    .contains("event: run-started")
+                    .contains("event: execution-started")
+                    .contains("\"queryId\":\"query_0\"")
+                    .contains("event: execution-finished")
+                    .contains("\"name\":\"duration\"")
+                    .doesNotContain("\"sequenceId\":\"2\"");
+            assertThat(benchmarkRunEvents.indexOf("event: execution-started")).isLessThan(benchmarkRunEvents.indexOf("event: execution-finished"));
+
+            awaitUntil(() -> content(environmentStream).contains("event: run-finished"));
+            assertThat(content(environmentStream)).contains("\"sequenceId\":\"2\"");
+        }
+        finally {
+            environmentStream.getRequest().getAsyncContext().complete();
+            benchmarkRunStream.getRequest().getAsyncContext().complete();
+        }
+        assertThat(progressEventBus.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    public void dropSlowSubscriber()
+            throws Exception
+    {
+        try (Subscription slowSubscription = progressEventBus.subscribe(event -> true);
+                Subscription filteredSubscription = progressEventBus.subscribe(event -> false)) {
+            for (int i = 0; i < subscriberBufferSize; i++) {
+                progressEventBus.publish(progressEvent());
+            }
+            assertThat(slowSubscription.isActive()).isTrue();
+
+            progressEventBus.publish(progressEvent());
+            assertThat(slowSubscription.isActive()).isFalse();
+            assertThat(slowSubscription.isDropped()).isTrue();
+            assertThat(slowSubscription.poll(0, SECONDS)).isNull();
+            assertThat(filteredSubscription.isActive()).isTrue();
+            assertThat(progressEventBus.getSubscriberCount()).isEqualTo(1);
+        }
+        assertThat(progressEventBus.hasSubscribers()).isFalse();
+    }
+
+    private static ProgressEvent progressEvent()
+    {
+        return new ProgressEvent(EXECUTION_STARTED, ENVIRONMENT_NAME, BENCHMARK_NAME, "1", "0", STARTED, currentDateTime(), ImmutableList.of(), ImmutableMap.of());
+    }
+
+    private static String content(MvcResult result)
+            throws Exception
+    {
+        return result.getResponse().getContentAsString();
+    }
+
+    private static void awaitUntil(Check check)
+            throws Exception
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!check.test()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private interface Check
+    {
+        boolean test()
+                throws Exception;
+    }
+}
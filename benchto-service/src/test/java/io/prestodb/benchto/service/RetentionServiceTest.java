@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import io.prestodb.benchto.service.repo.BenchmarkRunRepo;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Category(IntegrationTest.class)
+public class RetentionServiceTest
+        extends IntegrationTestBase
+{
+    private static final String ENVIRONMENT_NAME = "retention";
+    private static final String BENCHMARK_NAME = "retention";
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private BenchmarkRunRepo benchmarkRunRepo;
+
+    @Test
+    public void applyRetentionPolicies()
+            throws Exception
+    {
+        environmentService.storeEnvironment(ENVIRONMENT_NAME, ImmutableMap.of());
+        // started 10, 40 and 70 days ago, with 30 days downsample and 60 days drop policy
+        for (int run = 0; run < 3; run++) {
+            createBenchmarkRun(ENVIRONMENT_NAME, BENCHMARK_NAME, Integer.toString(run), ENDED, 10 + run * 30, 100, 101, 102);
+        }
+        // fourth run forces several downsample batches
+        createBenchmarkRun(ENVIRONMENT_NAME, BENCHMARK_NAME, "3", ENDED, 50, 100, 101, 102);
+
+        retentionService.applyRetentionPolicies();
+
+        assertThat(retentionService.getProgress().getDroppedRuns()).isEqualTo(1);
+        assertThat(retentionService.getProgress().getDownsampledRuns()).isEqualTo(2);
+        assertThat(retentionService.getProgress().getDeletedExecutions()).isEqualTo(9);
+        mvc.perform(get("/v1/retention/progress"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running", is(false)))
+                .andExpect(jsonPath("$.droppedRuns", is(1)));
+
+        mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", BENCHMARK_NAME, "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executionsDownsampled", is(false)))
+                .andExpect(jsonPath("$.executions", hasSize(3)))
+                .andExpect(jsonPath("$.aggregatedMeasurements.duration.mean", is(101.0)));
+        mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", BENCHMARK_NAME, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executionsDownsampled", is(true)))
+                .andExpect(jsonPath("$.executions", hasSize(0)))
+                .andExpect(jsonPath("$.measurements", hasSize(1)))
+                .andExpect(jsonPath("$.aggregatedMeasurements.duration.mean", is(101.0)))
+                .andExpect(jsonPath("$.aggregatedMeasurements.duration.min", is(100.0)))
+                .andExpect(jsonPath("$.aggregatedMeasurements.duration.max", is(102.0)))
+                .andExpect(jsonPath("$.aggregatedMeasurements.duration.stdDev", is(1.0)));
+        withinTransaction(() -> assertThat(benchmarkRunRepo.findByUniqueNameAndSequenceId(BENCHMARK_NAME, "2")).isNull());
+
+        // applying policies again is a no-op
+        retentionService.applyRetentionPolicies();
+        assertThat(retentionService.getProgress().getDroppedRuns()).isEqualTo(0);
+        assertThat(retentionService.getProgress().getDownsampledRuns()).isEqualTo(0);
+    }
+}
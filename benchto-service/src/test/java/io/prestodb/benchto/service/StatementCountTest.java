@@ -0,0 +1,239 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import io.prestodb.benchto.service.model.Measurement;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.util.Optional;
+
+import static io.prestodb.benchto.service.model.MeasurementUnit.BYTES;
+import static io.prestodb.benchto.service.model.MeasurementUnit.MILLISECONDS;
+import static io.prestodb.benchto.service.model.Status.ENDED;
+import static io.prestodb.benchto.service.utils.BenchmarkUniqueNameUtils.generateBenchmarkUniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Asserts the number of SQL statements issued per endpoint, on cold caches, so that
+ * N+1 selects show up as test failures. The fixture is large enough for them to exceed the limits.
+ */
+@Category(IntegrationTest.class)
+public class StatementCountTest
+        extends IntegrationTestBase
+{
+    private static final String ENVIRONMENT_NAME = "statement-count";
+    private static final String BENCHMARK_NAME = "statement-count";
+    private static final int BENCHMARKS = 3;
+    private static final int RUNS = 3;
+    private static final int EXECUTIONS = 5;
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    @Autowired
+    private CleanerService cleanerService;
+
+    @Autowired
+    private FinishedBenchmarkRunCache finishedBenchmarkRunCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    @Before
+    public void setUpFixture()
+    {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        if (environmentService.tryFindEnvironment(ENVIRONMENT_NAME).isPresent()) {
+            return;
+        }
+
+        environmentService.storeEnvironment(ENVIRONMENT_NAME, ImmutableMap.of("dashboardType", "grafana", "dashboardURL", "http://localhost"));
+        for (int benchmark = 0; benchmark < BENCHMARKS; benchmark++) {
+            for (int run = 0; run < RUNS; run++) {
+                String uniqueName = uniqueName(benchmark);
+                String sequenceId = Integer.toString(run);
+                benchmarkService.startBenchmarkRun(uniqueName, BENCHMARK_NAME, sequenceId, Optional.of(ENVIRONMENT_NAME), variables(benchmark), ImmutableMap.of("run", sequenceId));
+                for (int execution = 0; execution < EXECUTIONS; execution++) {
+                    String executionSequenceId = Integer.toString(execution);
+                    benchmarkService.startExecution(uniqueName, sequenceId, executionSequenceId, ImmutableMap.of("queryId", executionSequenceId));
+                    benchmarkService.finishExecution(uniqueName, sequenceId, executionSequenceId, ENDED, Optional.empty(),
+                            ImmutableList.of(new Measurement("duration", MILLISECONDS, 100 + execution), new Measurement("bytes", BYTES, 1024)), ImmutableMap.of());
+                }
+                benchmarkService.finishBenchmarkRun(uniqueName, sequenceId, ENDED, Optional.empty(),
+                        ImmutableList.of(new Measurement("meanDuration", MILLISECONDS, 102)), ImmutableMap.of());
+            }
+        }
+    }
+
+    @Test
+    public void latestBenchmarkRuns()
+            throws Exception
+    {
+        assertStatementCount(4, () -> mvc.perform(get("/v1/benchmark/latest/{environmentName}", ENVIRONMENT_NAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(BENCHMARKS)))
+                .andExpect(jsonPath("$[0].sequenceId", is(Integer.toString(RUNS - 1))))
+                .andExpect(jsonPath("$[0].variables.benchmark").exists())
+                .andExpect(jsonPath("$[0].attributes").exists())
+                .andExpect(jsonPath("$[0].measurements[0].name", is("meanDuration")))
+                .andExpect(jsonPath("$[0].environment.name", is(ENVIRONMENT_NAME))));
+    }
+
+    @Test
+    public void benchmarkRuns()
+            throws Exception
+    {
+        assertStatementCount(7, () -> mvc.perform(get("/v1/benchmark/{uniqueName}", uniqueName(0))
+                .param("environment", ENVIRONMENT_NAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(RUNS)))
+                .andExpect(jsonPath("$[0].executions", hasSize(EXECUTIONS)))
+                .andExpect(jsonPath("$[0].aggregatedMeasurements.duration.mean", is(102.0))));
+    }
+
+    @Test
+    public void benchmarkRun()
+            throws Exception
+    {
+        assertStatementCount(7, () -> mvc.perform(get("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}", uniqueName(0), "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executions", hasSize(EXECUTIONS)))
+                .andExpect(jsonPath("$.executions[0].measurements", hasSize(2)))
+                .andExpect(jsonPath("$.executions[0].attributes.queryId").exists())
+                .andExpect(jsonPath("$.measurements", hasSize(1)))
+                .andExpect(jsonPath("$.attributes.run", is("0")))
+                .andExpect(jsonPath("$.variables.benchmark", is("0")))
+                .andExpect(jsonPath("$.environment.attributes.dashboardType", is("grafana"))));
+    }
+
+    @Test
+    public void environment()
+            throws Exception
+    {
+        assertStatementCount(1, () -> mvc.perform(get("/v1/environment/{environmentName}", ENVIRONMENT_NAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attributes.dashboardType", is("grafana"))));
+    }
+
+    @Test
+    public void executionIngestion()
+            throws Exception
+    {
+        String uniqueName = uniqueName(BENCHMARKS);
+        String sequenceId = "ingestion";
+        benchmarkService.startBenchmarkRun(uniqueName, BENCHMARK_NAME, sequenceId, Optional.of(ENVIRONMENT_NAME), variables(BENCHMARKS), ImmutableMap.of());
+        allocateExecutionIds();
+
+        assertStatementCount(4, () -> mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/start", uniqueName, sequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"attributes\": {\"queryId\": \"0\"}}"))
+                .andExpect(status().isOk()));
+
+        assertStatementCount(7, () -> mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/execution/{executionSequenceId}/finish", uniqueName, sequenceId, "0")
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"ENDED\", \"measurements\": [{\"name\": \"duration\", \"value\": 100, \"unit\": \"MILLISECONDS\"}]}"))
+                .andExpect(status().isOk()));
+
+        assertStatementCount(6, () -> mvc.perform(post("/v1/benchmark/{uniqueName}/{benchmarkSequenceId}/finish", uniqueName, sequenceId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"ENDED\"}"))
+                .andExpect(status().isOk()));
+    }
+
+    /**
+     * Starts executions of another benchmark run until one of them fetches the next block of ids from the pooled
+     * sequence, so that the next started execution gets its id without a statement, whatever ids earlier tests used.
+     */
+    private void allocateExecutionIds()
+    {
+        String uniqueName = uniqueName(BENCHMARKS + 1);
+        String sequenceId = "id-allocation";
+        benchmarkService.startBenchmarkRun(uniqueName, BENCHMARK_NAME, sequenceId, Optional.of(ENVIRONMENT_NAME), variables(BENCHMARKS + 1), ImmutableMap.of());
+
+        Statistics statistics = sessionFactory.getStatistics();
+        long previousStatements = Long.MAX_VALUE;
+        for (int execution = 0; execution <= 2 * ID_ALLOCATION_SIZE; execution++) {
+            statistics.clear();
+            benchmarkService.startExecution(uniqueName, sequenceId, Integer.toString(execution), ImmutableMap.of());
+            long statements = statistics.getPrepareStatementCount();
+            if (statements > previousStatements) {
+                return;
+            }
+            previousStatements = statements;
+        }
+        throw new IllegalStateException("No execution fetched the next block of ids");
+    }
+
+    @Test
+    public void cleanup()
+            throws Exception
+    {
+        assertStatementCount(1, () -> cleanerService.cleanUpStaleBenchmarks());
+    }
+
+    private void assertStatementCount(long expectedStatements, ThrowingRunnable runnable)
+            throws Exception
+    {
+        sessionFactory.getCache().evictAllRegions();
+        finishedBenchmarkRunCache.invalidateAll();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        runnable.run();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements issued")
+                .isEqualTo(expectedStatements);
+    }
+
+    private static String uniqueName(int benchmark)
+    {
+        return generateBenchmarkUniqueName(BENCHMARK_NAME, variables(benchmark));
+    }
+
+    private static ImmutableMap<String, String> variables(int benchmark)
+    {
+        return ImmutableMap.of("benchmark", Integer.toString(benchmark));
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable
+    {
+        void run()
+                throws Exception;
+    }
+}
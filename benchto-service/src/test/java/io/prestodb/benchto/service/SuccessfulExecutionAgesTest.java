@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestodb.benchto.service;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+import io.prestodb.benchto.service.category.IntegrationTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.prestodb.benchto.service.utils.TimeUtils.currentDateTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks successful execution ages on a small fixture by default. The fixture can be scaled up with the
+ * {@code benchto.freshness.benchmarks} and {@code benchto.freshness.runs-per-benchmark} system properties,
+ * in which case the query time is checked as well, see the README of the module.
+ */
+@Category(IntegrationTest.class)
+public class SuccessfulExecutionAgesTest
+        extends IntegrationTestBase
+{
+    private static final String ENVIRONMENT_NAME = "freshness";
+
+    private static final boolean SCALED = System.getProperty("benchto.freshness.benchmarks") != null;
+    private static final int BENCHMARKS = Integer.getInteger("benchto.freshness.benchmarks", 100);
+    // the run before last must not be one of the failed ones
+    private static final int RUNS_PER_BENCHMARK = Integer.getInteger("benchto.freshness.runs-per-benchmark", 20);
+    // ids far above the ones allocated by the sequence
+    private static final long FIRST_RUN_ID = 1_000_000_000L;
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final int QUERIED_BENCHMARKS = Math.min(BENCHMARKS, 100);
+    private static final int MEASURED_QUERIES = 10;
+    private static final long MAX_QUERY_MILLIS = 100;
+
+    @Autowired
+    private BenchmarkService benchmarkService;
+
+    @Autowired
+    private EnvironmentService environmentService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource)
+    {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    private void insertFixture()
+    {
+        environmentService.storeEnvironment(ENVIRONMENT_NAME, ImmutableMap.of());
+        long environmentId = environmentService.findEnvironment(ENVIRONMENT_NAME).getId();
+
+        // every 10th run has failed and the last run of each benchmark is still in progress, so the latest
+        // successful run of each benchmark is the one before last, which ended 2 hours ago
+        ZonedDateTime currentDateTime = currentDateTime();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int benchmark = 0; benchmark < BENCHMARKS; benchmark++) {
+            for (int run = 0; run < RUNS_PER_BENCHMARK; run++) {
+                boolean running = run == RUNS_PER_BENCHMARK - 1;
+                String status = running ? "STARTED" : run % 10 == 0 ? "FAILED" : "ENDED";
+                ZonedDateTime ended = currentDateTime.minusHours(RUNS_PER_BENCHMARK - run);
+                batch.add(new Object[] {
+                        FIRST_RUN_ID + benchmark * RUNS_PER_BENCHMARK + run,
+                        benchmarkName(benchmark),
+                        Integer.toString(run),
+                        benchmarkName(benchmark),
+                        status,
+                        Timestamp.from(ended.minusMinutes(1).toInstant()),
+                        running ? null : Timestamp.from(ended.toInstant()),
+                        environmentId});
+                if (batch.size() == BATCH_SIZE) {
+                    insertRuns(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertRuns(batch);
+        }
+    }
+
+    private void insertRuns(List<Object[]> batch)
+    {
+        jdbcTemplate.batchUpdate("" +
+                        "INSERT INTO benchmark_runs (id, name, sequence_id, unique_name, version, status, started, ended, environment_id, " +
+                        "executions_mean_duration, executions_stddev_duration, executions_downsampled) " +
+                        "VALUES (?, ?, ?, ?, 0, ?, ?, ?, ?, -1, -1, FALSE)",
+                batch);
+    }
+
+    private void deleteFixture()
+    {
+        // deleting all runs in one statement is several times slower
+        for (long firstId = FIRST_RUN_ID; firstId < FIRST_RUN_ID + BENCHMARKS * RUNS_PER_BENCHMARK; firstId += BATCH_SIZE) {
+            jdbcTemplate.update("DELETE FROM benchmark_runs WHERE id >= ? AND id < ?", firstId, firstId + BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void getSuccessfulExecutionAges()
+            throws Exception
+    {
+        insertFixture();
+        try {
+            assertSuccessfulExecutionAges();
+        }
+        finally {
+            deleteFixture();
+        }
+    }
+
+    private void assertSuccessfulExecutionAges()
+            throws Exception
+    {
+        List<String> uniqueNames = new ArrayList<>();
+        for (int benchmark = 0; benchmark < QUERIED_BENCHMARKS; benchmark++) {
+            uniqueNames.add(benchmarkName(benchmark * (BENCHMARKS / QUERIED_BENCHMARKS)));
+        }
+        uniqueNames.add("never_run");
+
+        List<Duration> ages = benchmarkService.getSuccessfulExecutionAges(uniqueNames);
+        assertThat(ages).hasSize(QUERIED_BENCHMARKS + 1);
+        for (Duration age : ages.subList(0, QUERIED_BENCHMARKS)) {
+            assertThat(age).isGreaterThanOrEqualTo(Duration.ofHours(2));
+            assertThat(age).isLessThan(Duration.ofHours(2).plusMinutes(10));
+        }
+        assertThat(ages.get(QUERIED_BENCHMARKS)).isEqualTo(Duration.ofDays(Integer.MAX_VALUE));
+
+        if (SCALED) {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            for (int query = 0; query < MEASURED_QUERIES; query++) {
+                benchmarkService.getSuccessfulExecutionAges(uniqueNames);
+            }
+            assertThat(stopwatch.elapsed(MILLISECONDS) / MEASURED_QUERIES).isLessThan(MAX_QUERY_MILLIS);
+        }
+
+        mvc.perform(post("/v1/benchmark/get-successful-execution-ages")
+                .contentType(APPLICATION_JSON)
+                .content("[\"never_run\", \"" + benchmarkName(1) + "\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    private static String benchmarkName(int benchmark)
+    {
+        return "freshness_" + benchmark;
+    }
+}